@@ -77,6 +77,77 @@ public class CefApp extends CefAppHandlerAdapter {
         }
     }
 
+    /**
+     * Counters collected by the native JNI layer. Use them to verify that hot
+     * native-to-Java transitions are served from cached lookups.
+     */
+    public static final class JniStatistics {
+        private final long methodIdCacheHits_;
+        private final long methodIdCacheMisses_;
+        private final long threadAttachCount_;
+        private final long threadDetachCount_;
+        private final boolean persistentThreadAttach_;
+
+        private JniStatistics(long methodIdCacheHits, long methodIdCacheMisses,
+                long threadAttachCount, long threadDetachCount, boolean persistentThreadAttach) {
+            methodIdCacheHits_ = methodIdCacheHits;
+            methodIdCacheMisses_ = methodIdCacheMisses;
+            threadAttachCount_ = threadAttachCount;
+            threadDetachCount_ = threadDetachCount;
+            persistentThreadAttach_ = persistentThreadAttach;
+        }
+
+        /**
+         * Returns the number of Java method calls from native code that reused a
+         * cached method ID.
+         */
+        public long getMethodIdCacheHits() {
+            return methodIdCacheHits_;
+        }
+
+        /**
+         * Returns the number of Java method calls from native code that required
+         * a method lookup by name and signature.
+         */
+        public long getMethodIdCacheMisses() {
+            return methodIdCacheMisses_;
+        }
+
+        /**
+         * Returns the number of times a native thread was attached to the JVM in
+         * order to call into Java.
+         */
+        public long getThreadAttachCount() {
+            return threadAttachCount_;
+        }
+
+        /**
+         * Returns the number of times a native thread was detached from the JVM.
+         */
+        public long getThreadDetachCount() {
+            return threadDetachCount_;
+        }
+
+        /**
+         * Returns true if native threads stay attached to the JVM until they exit.
+         * Enabled by starting the JVM with -Djcef.persistentThreadAttach=true.
+         * Attached threads are named after their CEF thread, e.g. "CEF-UI" or
+         * "CEF-IO".
+         */
+        public boolean isPersistentThreadAttach() {
+            return persistentThreadAttach_;
+        }
+
+        @Override
+        public String toString() {
+            return "JniStatistics{methodIdCacheHits=" + methodIdCacheHits_
+                    + ", methodIdCacheMisses=" + methodIdCacheMisses_
+                    + ", threadAttachCount=" + threadAttachCount_
+                    + ", threadDetachCount=" + threadDetachCount_
+                    + ", persistentThreadAttach=" + persistentThreadAttach_ + "}";
+        }
+    }
+
     /**
      * The CefAppState gives you a hint if the CefApp is already usable or not
      * usable any more. See values for details.
@@ -249,6 +320,19 @@ public class CefApp extends CefAppHandlerAdapter {
         return null;
     }
 
+    /**
+     * Returns a snapshot of the native JNI counters.
+     * @return the counters or null if the native library isn't available.
+     */
+    public final JniStatistics getJniStatistics() {
+        try {
+            return N_GetJniStatistics();
+        } catch (UnsatisfiedLinkError ule) {
+            ule.printStackTrace();
+        }
+        return null;
+    }
+
     /**
      * Returns the current state of CefApp.
      * @return current state.
@@ -611,6 +695,7 @@ public class CefApp extends CefAppHandlerAdapter {
     private final native void N_Shutdown();
     private final native void N_DoMessageLoopWork();
     private final native CefVersion N_GetVersion();
+    private final native JniStatistics N_GetJniStatistics();
     private final native boolean N_RegisterSchemeHandlerFactory(
             String schemeName, String domainName, CefSchemeHandlerFactory factory);
     private final native boolean N_ClearSchemeHandlerFactories();
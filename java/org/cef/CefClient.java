@@ -832,6 +832,42 @@ public class CefClient extends CefClientHandler
             realHandler.onPaint(browser, popup, dirtyRects, buffer, width, height);
     }
 
+    @Override
+    public void onPaint(CefBrowser browser, boolean popup, int[] dirtyRects, int dirtyRectCount,
+            ByteBuffer buffer, int width, int height) {
+        if (browser == null) return;
+
+        CefRenderHandler realHandler = browser.getRenderHandler();
+        if (realHandler != null) {
+            // The buffer object is reused by the native code across frames.
+            buffer.clear();
+            realHandler.onPaint(
+                    browser, popup, dirtyRects, dirtyRectCount, buffer, width, height);
+        }
+    }
+
+    @Override
+    public void onPaint(CefBrowser browser, boolean popup, int[] dirtyRects, int dirtyRectCount,
+            ByteBuffer buffer, int width, int height, long startNanos) {
+        if (browser == null) return;
+
+        CefRenderHandler realHandler = browser.getRenderHandler();
+        if (realHandler != null) {
+            // The buffer object is reused by the native code across frames.
+            buffer.clear();
+            realHandler.onPaint(browser, popup, dirtyRects, dirtyRectCount, buffer, width, height,
+                    startNanos);
+        }
+    }
+
+    @Override
+    public void onPaintTiming(CefBrowser browser, long prepareNanos, long callNanos) {
+        if (browser == null) return;
+
+        CefRenderHandler realHandler = browser.getRenderHandler();
+        if (realHandler != null) realHandler.onPaintTiming(browser, prepareNanos, callNanos);
+    }
+
     @Override
     public boolean startDragging(CefBrowser browser, CefDragData dragData, int mask, int x, int y) {
         if (browser == null) return false;
@@ -869,6 +905,17 @@ public class CefClient extends CefClientHandler
         requestHandler_ = null;
     }
 
+    /**
+     * Installs |rules| that are applied to resource requests, in native code except for REGEX
+     * rules. Requests matching a rule don't reach the request handler. Pass null to remove the
+     * rules.
+     * @see CefRequestRules
+     */
+    @Override
+    public void setRequestRules(CefRequestRules rules) {
+        super.setRequestRules(rules);
+    }
+
     @Override
     public boolean onBeforeBrowse(CefBrowser browser, CefFrame frame, CefRequest request,
             boolean user_gesture, boolean is_redirect) {
@@ -891,6 +938,10 @@ public class CefClient extends CefClientHandler
     public CefResourceRequestHandler getResourceRequestHandler(CefBrowser browser, CefFrame frame,
             CefRequest request, boolean isNavigation, boolean isDownload, String requestInitiator,
             BoolRef disableDefaultHandling) {
+        if (browser != null) {
+            CefResourceRequestHandler ruleHandler = getRequestRuleHandler(request);
+            if (ruleHandler != null) return ruleHandler;
+        }
         if (requestHandler_ != null && browser != null) {
             return requestHandler_.getResourceRequestHandler(browser, frame, request, isNavigation,
                     isDownload, requestInitiator, disableDefaultHandling);
@@ -368,6 +368,61 @@ public interface CefBrowser {
      */
     void wasResized(int width, int height);
 
+    /**
+     * Invalidate the view, which causes CEF to repaint it. Only used with off-screen
+     * rendering.
+     */
+    default void invalidate() {}
+
+    /**
+     * Notify the browser that it has been hidden or shown. A hidden off-screen browser stops
+     * producing frames until it's shown again. Only used with off-screen rendering and has
+     * no effect before the browser is created.
+     *
+     * @param hidden True if the browser was hidden.
+     */
+    default void wasHidden(boolean hidden) {}
+
+    /**
+     * Set the maximum rate in frames per second at which an off-screen browser is painted.
+     * May be called before the browser is created, in which case the rate is used at
+     * creation. The actual rate may be lower if the browser is not able to keep up and CEF
+     * limits it to 60 unless vsync is disabled.
+     *
+     * @param frameRate The frame rate, at least 1. The CEF default is 30.
+     */
+    default void setWindowlessFrameRate(int frameRate) {}
+
+    /**
+     * @return The frame rate set by {@link #setWindowlessFrameRate(int)}, or 0 if the
+     *         default rate is used.
+     */
+    default int getWindowlessFrameRate() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of off-screen frames that were painted by CEF but replaced by a
+     * newer frame before they could be displayed, e.g. because the event dispatch thread
+     * was busy.
+     *
+     * @return The dropped frame count, or 0 for windowed browsers.
+     */
+    default long getDroppedFrameCount() {
+        return 0;
+    }
+
+    /**
+     * Returns the rendering metrics of an off-screen browser: paint rate, dirty area,
+     * texture upload time, JNI crossing time and paint-to-display latency. The JNI crossing
+     * time is only measured after the first call.
+     *
+     * @return The metrics, or null if the browser doesn't collect them.
+     */
+    default CefRenderStats getRenderStats() {
+        return null;
+    }
+
     /**
      * @since api-1.2
      */
@@ -378,11 +433,53 @@ public interface CefBrowser {
      */
     void sendMouseEvent(MouseEvent e);
 
+    /**
+     * Send a mouse event described by its fields. Avoids allocating a MouseEvent for
+     * synthesized input.
+     * @param id The MouseEvent id, e.g. MouseEvent.MOUSE_MOVED.
+     * @param x The x coordinate relative to the browser view.
+     * @param y The y coordinate relative to the browser view.
+     * @param modifiers The extended modifiers as returned by MouseEvent.getModifiersEx().
+     * @param button The MouseEvent button constant for press and release events.
+     * @param clickCount The click count for press and release events.
+     * @throws UnsupportedOperationException If the browser has no UI component that can be
+     *         the source of the event and doesn't override this method.
+     */
+    default void sendMouseEvent(int id, int x, int y, int modifiers, int button, int clickCount) {
+        Component source = getUIComponent();
+        if (source == null) {
+            throw new UnsupportedOperationException(
+                    "sendMouseEvent requires a browser with a UI component");
+        }
+        sendMouseEvent(new MouseEvent(source, id, System.currentTimeMillis(), modifiers, x, y,
+                clickCount, false, button));
+    }
+
     /**
      * @since api-1.2
      */
     void sendMouseWheelEvent(MouseWheelEvent e);
 
+    /**
+     * Merge consecutive mouse move events into the latest position and accumulate
+     * mouse wheel rotation for |intervalMs| before forwarding them. The first event
+     * after an idle interval is sent immediately. Clicks, enter/exit and key events
+     * flush the merged event first, so their order is preserved. Disabled by default.
+     * Implementations that don't coalesce input ignore this call.
+     *
+     * @param intervalMs The coalescing interval in milliseconds, typically the frame
+     *         interval, or 0 to disable coalescing.
+     */
+    default void setInputCoalescingInterval(int intervalMs) {}
+
+    /**
+     * @return The interval set by {@link #setInputCoalescingInterval(int)}, or 0 if
+     *         input events are forwarded immediately.
+     */
+    default int getInputCoalescingInterval() {
+        return 0;
+    }
+
     /**
      * Captures a screenshot-like image of the currently displayed content and returns it.
      * <p>
@@ -405,4 +502,20 @@ public interface CefBrowser {
      * @throws UnsupportedOperationException if not supported
      */
     public CompletableFuture<BufferedImage> createScreenshot(boolean nativeResolution);
+
+    /**
+     * Captures a screenshot-like image of the currently displayed content, writing it into
+     * |target| when possible. Intended for callers that take many screenshots and want to
+     * avoid allocating an image per call.
+     *
+     * @param nativeResolution see {@link #createScreenshot(boolean)}
+     * @param target an image of type TYPE_INT_ARGB_PRE that is reused if its size matches the
+     *      screenshot, or null. If it can't be reused a new image is created.
+     * @return the screenshot image, which is |target| if it was reused
+     * @throws UnsupportedOperationException if not supported
+     */
+    default CompletableFuture<BufferedImage> createScreenshot(
+            boolean nativeResolution, BufferedImage target) {
+        return createScreenshot(nativeResolution);
+    }
 }
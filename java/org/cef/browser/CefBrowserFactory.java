@@ -36,6 +36,9 @@ public class CefBrowserFactory {
         } else if (rendering instanceof CefRendering.CefRenderingWithHandler) {
             CefRendering.CefRenderingWithHandler renderingWithHandler = (CefRendering.CefRenderingWithHandler) rendering;
             return new CefBrowserOsrWithHandler(client, url, context, renderingWithHandler.getRenderHandler());
+        } else if (rendering instanceof CefRendering.CefRenderingSoftware) {
+            CefRendering.CefRenderingSoftware renderingSoftware = (CefRendering.CefRenderingSoftware) rendering;
+            return new CefBrowserSoftware(client, url, isTransparent, context, renderingSoftware.getPaintListener());
         }
         throw new IllegalArgumentException(rendering.toString());
     }
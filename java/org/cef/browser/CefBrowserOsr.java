@@ -10,7 +10,6 @@ import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
 import com.jogamp.opengl.GLAutoDrawable;
 import com.jogamp.opengl.GLCapabilities;
-import com.jogamp.opengl.GLContext;
 import com.jogamp.opengl.GLEventListener;
 import com.jogamp.opengl.GLProfile;
 import com.jogamp.opengl.awt.GLCanvas;
@@ -37,8 +36,13 @@ import java.awt.dnd.DragSource;
 import java.awt.dnd.DragSourceAdapter;
 import java.awt.dnd.DragSourceDropEvent;
 import java.awt.dnd.DropTarget;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
+import java.awt.event.HierarchyBoundsAdapter;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
@@ -49,6 +53,7 @@ import java.awt.event.MouseWheelListener;
 import java.awt.geom.AffineTransform;
 import java.awt.image.AffineTransformOp;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.lang.ClassNotFoundException;
 import java.lang.IllegalAccessException;
 import java.lang.IllegalArgumentException;
@@ -57,6 +62,7 @@ import java.lang.SecurityException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.concurrent.Callable;
@@ -64,6 +70,8 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
 
 import javax.swing.MenuSelectionManager;
 import javax.swing.SwingUtilities;
@@ -74,13 +82,38 @@ import javax.swing.SwingUtilities;
  * CefBrowser instance, please use CefBrowserFactory.
  */
 class CefBrowserOsr extends CefBrowser_N implements CefRenderHandler {
+    // Screenshots of at least this many pixels are copied on multiple threads.
+    private static final int PARALLEL_COPY_MIN_PIXELS = 1 << 20;
+
     private CefRenderer renderer_;
     private GLCanvas canvas_;
     private long window_handle_ = 0;
     private boolean justCreated_ = false;
     private Rectangle browser_rect_ = new Rectangle(0, 0, 1, 1); // Work around CEF issue #1437.
-    private Point screenPoint_ = new Point(0, 0);
+    private volatile Point screenPoint_ = new Point(0, 0);
     private double scaleFactor_ = 1.0;
+    // Coalesces the reshapes of the canvas while it's being resized.
+    private CefResizeScheduler resizeScheduler_;
+    private IntBuffer screenshotBuffer_ = null;
+    // Hands each painted frame to the EDT, which uploads and displays the newest one.
+    private final CefPixelExchange frames_ = new CefPixelExchange();
+    private final CefRenderStats stats_ = new CefRenderStats(frames_::getDroppedFrameCount);
+    private boolean statsRegistered_ = false;
+    private boolean paintTimingEnabled_ = false;
+    // The popup state and its last paint, applied to the texture on the EDT.
+    private final PopupState popup_ = new PopupState();
+    // Set while a display for a popup change is queued.
+    private final AtomicBoolean popupSignaled_ = new AtomicBoolean(false);
+
+    // Guarded by itself.
+    private static final class PopupState {
+        boolean visible = false;
+        boolean changed = false;
+        final Rectangle rect = new Rectangle();
+        ByteBuffer pixels = null;
+        int width = 0;
+        int height = 0;
+    }
     private int depth = 32;
     private int depth_per_component = 8;
     private boolean isTransparent_;
@@ -146,6 +179,7 @@ class CefBrowserOsr extends CefBrowser_N implements CefRenderHandler {
             public void paint(Graphics g) {
                 createBrowserIfRequired(true);
                 if (g instanceof Graphics2D) {
+                    double oldScaleFactor = scaleFactor_;
                     GraphicsConfiguration config = ((Graphics2D) g).getDeviceConfiguration();
                     depth = config.getColorModel().getPixelSize();
                     depth_per_component = config.getColorModel().getComponentSize()[0];
@@ -186,6 +220,7 @@ class CefBrowserOsr extends CefBrowser_N implements CefRenderHandler {
                     } else {
                         scaleFactor_ = ((Graphics2D) g).getTransform().getScaleX();
                     }
+                    if (scaleFactor_ != oldScaleFactor) pushScreenInfo();
                 }
                 super.paint(g);
             }
@@ -217,9 +252,7 @@ class CefBrowserOsr extends CefBrowser_N implements CefRenderHandler {
             @Override
             public void reshape(
                     GLAutoDrawable glautodrawable, int x, int y, int width, int height) {
-                browser_rect_.setBounds(canvas_.getBounds()/*x, y, width, height*/); // [tav] todo: revise it
-                screenPoint_ = canvas_.getLocationOnScreen();
-                wasResized(width, height);
+                resizeScheduler_.setSize(width, height);
             }
 
             @Override
@@ -234,10 +267,23 @@ class CefBrowserOsr extends CefBrowser_N implements CefRenderHandler {
 
             @Override
             public void display(GLAutoDrawable glautodrawable) {
-                renderer_.render(glautodrawable.getGL().getGL2());
+                GL2 gl = glautodrawable.getGL().getGL2();
+                CefPixelExchange.Frame frame = uploadFrames(gl);
+                renderer_.render(gl);
+                if (frame != null) stats_.frameDisplayed(frame.getPaintNanos());
             }
         });
 
+        resizeScheduler_ = new CefResizeScheduler(canvas_, (width, height, last) -> {
+            if (isClosed()) return;
+            // Intermediate sizes grow the texture geometrically, the final one trims it.
+            renderer_.setResizing(!last);
+            browser_rect_.setBounds(canvas_.getBounds()); // [tav] todo: revise it
+            if (canvas_.isShowing()) screenPoint_ = canvas_.getLocationOnScreen();
+            pushScreenInfo();
+            wasResized(width, height);
+        });
+
         canvas_.addMouseListener(new MouseListener() {
             @Override
             public void mousePressed(MouseEvent e) {
@@ -316,12 +362,41 @@ class CefBrowserOsr extends CefBrowser_N implements CefRenderHandler {
             }
         });
 
+        // Stop painting while the canvas is not showing, e.g. when it's removed from the
+        // hierarchy or its tab is not selected.
+        canvas_.addHierarchyListener(new HierarchyListener() {
+            @Override
+            public void hierarchyChanged(HierarchyEvent e) {
+                if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                    wasHidden(!canvas_.isShowing());
+                    updateScreenPoint();
+                }
+            }
+        });
+
+        // Moving the window, an ancestor or the canvas itself, e.g. to another display,
+        // changes the screen point without resizing the canvas.
+        canvas_.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentMoved(ComponentEvent e) {
+                updateScreenPoint();
+            }
+        });
+        canvas_.addHierarchyBoundsListener(new HierarchyBoundsAdapter() {
+            @Override
+            public void ancestorMoved(HierarchyEvent e) {
+                updateScreenPoint();
+            }
+        });
+
         // Connect the Canvas with a drag and drop listener.
         new DropTarget(canvas_, new CefDropTargetListener(this));
     }
 
     @Override
     public Rectangle getViewRect(CefBrowser browser) {
+        // Only called until the native code has a snapshot.
+        pushScreenInfo();
         return browser_rect_;
     }
 
@@ -339,41 +414,157 @@ class CefBrowserOsr extends CefBrowser_N implements CefRenderHandler {
 
     @Override
     public void onPopupShow(CefBrowser browser, boolean show) {
+        synchronized (popup_) {
+            popup_.visible = show;
+            popup_.changed = true;
+            if (!show) {
+                popup_.rect.setBounds(0, 0, 0, 0);
+                popup_.pixels = null;
+            }
+        }
         if (!show) {
-            renderer_.clearPopupRects();
+            requestPopupDisplay();
             invalidate();
         }
     }
 
     @Override
     public void onPopupSize(CefBrowser browser, Rectangle size) {
-        renderer_.onPopupSize(size);
+        if (size.width <= 0 || size.height <= 0) return;
+        synchronized (popup_) {
+            popup_.rect.setBounds(size);
+            popup_.changed = true;
+        }
     }
 
     @Override
     public void onPaint(CefBrowser browser, boolean popup, Rectangle[] dirtyRects,
             ByteBuffer buffer, int width, int height) {
-        // if window is closing, canvas_ or opengl context could be null
-        final GLContext context = canvas_ != null ? canvas_.getContext() : null;
-
-        if (context == null) {
-            return;
+        int[] rects = new int[dirtyRects.length * 4];
+        for (int i = 0; i < dirtyRects.length; ++i) {
+            rects[i * 4] = dirtyRects[i].x;
+            rects[i * 4 + 1] = dirtyRects[i].y;
+            rects[i * 4 + 2] = dirtyRects[i].width;
+            rects[i * 4 + 3] = dirtyRects[i].height;
         }
+        onPaint(browser, popup, rects, dirtyRects.length, buffer, width, height);
+    }
+
+    @Override
+    public void onPaint(CefBrowser browser, boolean popup, int[] dirtyRects, int dirtyRectCount,
+            ByteBuffer buffer, int width, int height) {
+        onPaint(browser, popup, dirtyRects, dirtyRectCount, buffer, width, height, false, 0);
+    }
+
+    @Override
+    public void onPaint(CefBrowser browser, boolean popup, int[] dirtyRects, int dirtyRectCount,
+            ByteBuffer buffer, int width, int height, long startNanos) {
+        onPaint(browser, popup, dirtyRects, dirtyRectCount, buffer, width, height, true,
+                startNanos);
+    }
 
-        // This result can occur due to GLContext re-initialization when changing displays.
-        if (context.makeCurrent() == GLContext.CONTEXT_NOT_CURRENT) {
+    // |nativeStartNanos| is the start of the native OnPaint if |hasNativeStart| is true.
+    private void onPaint(CefBrowser browser, boolean popup, int[] dirtyRects, int dirtyRectCount,
+            ByteBuffer buffer, int width, int height, boolean hasNativeStart,
+            long nativeStartNanos) {
+        if (!statsRegistered_) {
+            statsRegistered_ = true;
+            stats_.register(getIdentifier());
+        }
+        // if window is closing, canvas_ could be null
+        if (canvas_ == null) return;
+
+        if (popup) {
+            synchronized (popup_) {
+                int size = width * height * 4;
+                if (popup_.pixels == null || popup_.pixels.capacity() < size)
+                    popup_.pixels = ByteBuffer.allocateDirect(size);
+                ByteBuffer src = buffer.duplicate();
+                src.clear().limit(size);
+                popup_.pixels.clear();
+                popup_.pixels.put(src).flip();
+                popup_.width = width;
+                popup_.height = height;
+                popup_.changed = true;
+            }
+            requestPopupDisplay();
             return;
         }
 
-        renderer_.onPaint(canvas_.getGL().getGL2(), popup, dirtyRects, buffer, width, height);
-        context.release();
+        if (!paintTimingEnabled_ && stats_.isNativeTimingRequested())
+            paintTimingEnabled_ = setPaintTimingEnabled(true);
+        long startNanos = stats_.paintStarted(dirtyRects, dirtyRectCount, width, height);
+
+        // Only the dirty regions are copied into a slot that the EDT uploads from, so the GL
+        // context is never used on this thread. A display is only requested if the previous
+        // request was handled; frames painted in between are counted as dropped. The latency
+        // of the frame starts at the native OnPaint once native timing is enabled.
+        boolean signal = frames_.publish(buffer, width, height, dirtyRects, dirtyRectCount,
+                hasNativeStart ? nativeStartNanos : startNanos);
+        stats_.paintFinished(startNanos);
+        if (signal) requestDisplay();
+    }
+
+    private void requestPopupDisplay() {
+        if (popupSignaled_.compareAndSet(false, true)) requestDisplay();
+    }
+
+    private void requestDisplay() {
         SwingUtilities.invokeLater(new Runnable() {
             public void run() {
-                canvas_.display();
+                if (canvas_ != null) canvas_.display();
             }
         });
     }
 
+    // Uploads the newest frame and the popup into the texture. Called on the EDT with the GL
+    // context current. Returns the uploaded frame or null if there was none.
+    private CefPixelExchange.Frame uploadFrames(GL2 gl) {
+        popupSignaled_.set(false);
+        CefPixelExchange.Frame frame = frames_.acquire();
+        long startNanos = System.nanoTime();
+        if (frame != null) {
+            renderer_.onPaint(gl, false, frame.getDirtyRects(), frame.getDirtyRectCount(),
+                    frame.getBuffer(), frame.getWidth(), frame.getHeight());
+        }
+        synchronized (popup_) {
+            if (popup_.changed && !popup_.visible) {
+                renderer_.clearPopupRects();
+            } else if ((popup_.changed || frame != null) && popup_.visible
+                    && popup_.pixels != null) {
+                // The view upload may have overwritten the popup.
+                renderer_.onPopupSize(new Rectangle(popup_.rect));
+                renderer_.onPaint(gl, true, null, 0, popup_.pixels.duplicate(), popup_.width,
+                        popup_.height);
+            }
+            popup_.changed = false;
+        }
+        if (frame != null) stats_.uploadFinished(System.nanoTime() - startNanos);
+        return frame;
+    }
+
+    @Override
+    public void onPaintTiming(CefBrowser browser, long prepareNanos, long callNanos) {
+        stats_.nativePaintFinished(prepareNanos, callNanos);
+    }
+
+    @Override
+    public CefRenderStats getRenderStats() {
+        stats_.requestNativeTiming();
+        return stats_;
+    }
+
+    @Override
+    public void onBeforeClose() {
+        super.onBeforeClose();
+        stats_.unregister();
+    }
+
+    @Override
+    public long getDroppedFrameCount() {
+        return frames_.getDroppedFrameCount();
+    }
+
     @Override
     public boolean onCursorChange(CefBrowser browser, final int cursorType) {
         SwingUtilities.invokeLater(new Runnable() {
@@ -460,8 +651,28 @@ class CefBrowserOsr extends CefBrowser_N implements CefRenderHandler {
         return true;
     }
 
+    private void updateScreenPoint() {
+        if (isClosed() || !canvas_.isShowing()) return;
+        screenPoint_ = canvas_.getLocationOnScreen();
+        pushScreenInfo();
+    }
+
+    // Lets the native code answer getViewRect, getScreenPoint and getScreenInfo without
+    // calling into Java until the values change again.
+    private void pushScreenInfo() {
+        CefScreenInfo screenInfo = new CefScreenInfo();
+        getScreenInfo(this, screenInfo);
+        updateScreenInfo(browser_rect_, screenPoint_, screenInfo);
+    }
+
     @Override
     public CompletableFuture<BufferedImage> createScreenshot(boolean nativeResolution) {
+        return createScreenshot(nativeResolution, null);
+    }
+
+    @Override
+    public CompletableFuture<BufferedImage> createScreenshot(
+            boolean nativeResolution, BufferedImage target) {
         int width = (int) Math.ceil(canvas_.getWidth() * scaleFactor_);
         int height = (int) Math.ceil(canvas_.getHeight() * scaleFactor_);
 
@@ -484,54 +695,46 @@ class CefBrowserOsr extends CefBrowser_N implements CefRenderHandler {
         final Callable<BufferedImage> pixelGrabberCallable = new Callable<BufferedImage>() {
             @Override
             public BufferedImage call() {
-                BufferedImage screenshot =
-                        new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-                ByteBuffer buffer = GLBuffers.newDirectByteBuffer(width * height * 4);
-
+                boolean scale = !nativeResolution && scaleFactor_ != 1.0;
+                BufferedImage screenshot = getScreenshotImage(scale ? null : target, width, height);
+                // The texture may be larger than the view while the canvas is being resized.
+                int stride = useReadPixels ? width : Math.max(width, renderer_.getTextureWidth());
+                IntBuffer buffer = getScreenshotBuffer(
+                        Math.max(stride * height, stride * renderer_.getTextureHeight()));
+
+                // Reading BGRA as GL_UNSIGNED_INT_8_8_8_8_REV yields one 0xAARRGGBB int per pixel,
+                // which is the layout of TYPE_INT_ARGB_PRE. CEF pixels are premultiplied.
                 gl.getContext().makeCurrent();
                 try {
                     if (useReadPixels) {
                         // If pixels are copied directly to the framebuffer, we also directly read
                         // them back.
-                        gl.glReadPixels(
-                                0, 0, width, height, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, buffer);
+                        gl.glReadPixels(0, 0, width, height, GL2.GL_BGRA,
+                                GL2.GL_UNSIGNED_INT_8_8_8_8_REV, buffer);
                     } else {
                         // In this case, read the texture pixel data from the previously-retrieved
                         // texture ID
                         gl.glEnable(GL.GL_TEXTURE_2D);
                         gl.glBindTexture(GL.GL_TEXTURE_2D, textureId);
-                        gl.glGetTexImage(
-                                GL.GL_TEXTURE_2D, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, buffer);
+                        gl.glGetTexImage(GL.GL_TEXTURE_2D, 0, GL2.GL_BGRA,
+                                GL2.GL_UNSIGNED_INT_8_8_8_8_REV, buffer);
                         gl.glDisable(GL.GL_TEXTURE_2D);
                     }
                 } finally {
                     gl.getContext().release();
                 }
 
-                for (int y = 0; y < height; y++) {
-                    for (int x = 0; x < width; x++) {
-                        // The OpenGL functions only support RGBA, while Java BufferedImage uses
-                        // ARGB. We must convert.
-                        int r = (buffer.get() & 0xff);
-                        int g = (buffer.get() & 0xff);
-                        int b = (buffer.get() & 0xff);
-                        int a = (buffer.get() & 0xff);
-                        int argb = (a << 24) | (r << 16) | (g << 8) | (b << 0);
-                        // If pixels were read from the framebuffer, we have to flip the resulting
-                        // image on the Y axis, as the OpenGL framebuffer's y axis starts at the
-                        // bottom of the image pointing "upwards", while BufferedImage has the
-                        // origin in the upper left corner. This flipping is done when drawing into
-                        // the BufferedImage.
-                        screenshot.setRGB(x, useReadPixels ? (height - y - 1) : y, argb);
-                    }
-                }
+                // If pixels were read from the framebuffer, we have to flip the resulting image on
+                // the Y axis, as the OpenGL framebuffer's y axis starts at the bottom of the image
+                // pointing "upwards", while BufferedImage has the origin in the upper left corner.
+                int[] pixels = ((DataBufferInt) screenshot.getRaster().getDataBuffer()).getData();
+                copyRows(buffer, stride, pixels, width, height, useReadPixels);
 
-                if (!nativeResolution && scaleFactor_ != 1.0) {
+                if (scale) {
                     // HiDPI images should be resized down to "normal" levels
                     BufferedImage resized =
-                            new BufferedImage((int) (screenshot.getWidth() / scaleFactor_),
-                                    (int) (screenshot.getHeight() / scaleFactor_),
-                                    BufferedImage.TYPE_INT_ARGB);
+                            getScreenshotImage(target, (int) (screenshot.getWidth() / scaleFactor_),
+                                    (int) (screenshot.getHeight() / scaleFactor_));
                     AffineTransform tempTransform = new AffineTransform();
                     tempTransform.scale(1.0 / scaleFactor_, 1.0 / scaleFactor_);
                     AffineTransformOp tempScaleOperation =
@@ -617,4 +820,45 @@ class CefBrowserOsr extends CefBrowser_N implements CefRenderHandler {
             return future;
         }
     }
+
+    // Returns |image| if it can hold a |width| x |height| screenshot, otherwise a new image.
+    // Sub-images are rejected because their pixels don't start at the beginning of the data.
+    private static BufferedImage getScreenshotImage(BufferedImage image, int width, int height) {
+        if (image != null && image.getType() == BufferedImage.TYPE_INT_ARGB_PRE
+                && image.getWidth() == width && image.getHeight() == height
+                && image.getRaster().getParent() == null) {
+            return image;
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    // Returns a buffer of |size| pixels that is reused across screenshots. Only accessed by the
+    // pixel grabber of createScreenshot(), which runs on the EDT either directly or from the
+    // display() of the canvas, so screenshots don't share it concurrently. The buffer is filled
+    // while the GL context is current and copied after the context was released.
+    private IntBuffer getScreenshotBuffer(int size) {
+        if (screenshotBuffer_ == null || screenshotBuffer_.capacity() < size)
+            screenshotBuffer_ = GLBuffers.newDirectIntBuffer(size);
+        screenshotBuffer_.clear();
+        return screenshotBuffer_;
+    }
+
+    // Copies |height| rows of |width| pixels from |src|, whose rows are |stride| pixels apart,
+    // to |dst|, optionally in reverse row order. Large frames are copied in parallel bands.
+    private static void copyRows(
+            IntBuffer src, int stride, int[] dst, int width, int height, boolean flip) {
+        int bands = width * height < PARALLEL_COPY_MIN_PIXELS
+                ? 1
+                : Math.min(height, Runtime.getRuntime().availableProcessors());
+        IntStream stream = IntStream.range(0, bands);
+        if (bands > 1) stream = stream.parallel();
+        stream.forEach(band -> {
+            IntBuffer rows = src.duplicate();
+            int end = (int) ((long) height * (band + 1) / bands);
+            for (int y = (int) ((long) height * band / bands); y < end; y++) {
+                rows.position(y * stride);
+                rows.get(dst, (flip ? height - y - 1 : y) * width, width);
+            }
+        });
+    }
 }
@@ -0,0 +1,419 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.browser;
+
+import com.jetbrains.cef.JCefAppConfig;
+import org.cef.CefClient;
+import org.cef.callback.CefDragData;
+import org.cef.handler.CefRenderHandler;
+import org.cef.handler.CefScreenInfo;
+
+import java.awt.Component;
+import java.awt.Cursor;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.dnd.DropTarget;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.FocusEvent;
+import java.awt.event.FocusListener;
+import java.awt.event.HierarchyBoundsAdapter;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.AffineTransformOp;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+import javax.swing.JComponent;
+import javax.swing.MenuSelectionManager;
+import javax.swing.SwingUtilities;
+
+/**
+ * This class represents an off-screen rendered browser that doesn't use OpenGL.
+ * Paints are composited by CefSoftwareCompositor and drawn by a lightweight component.
+ * The visibility of this class is "package". To create a new
+ * CefBrowser instance, please use CefBrowserFactory.
+ */
+class CefBrowserSoftware extends CefBrowser_N implements CefRenderHandler {
+    private final CefSoftwareCompositor compositor_ = new CefSoftwareCompositor();
+    private final CefPaintListener paintListener_;
+    private final boolean isTransparent_;
+    private JComponent component_;
+    private boolean justCreated_ = false;
+    private volatile Rectangle browser_rect_ = new Rectangle(0, 0, 1, 1);
+    private volatile Point screenPoint_ = new Point(0, 0);
+    private volatile double scaleFactor_ = 1.0;
+
+    CefBrowserSoftware(CefClient client, String url, boolean transparent,
+            CefRequestContext context, CefPaintListener paintListener) {
+        this(client, url, transparent, context, paintListener, null, null);
+    }
+
+    private CefBrowserSoftware(CefClient client, String url, boolean transparent,
+            CefRequestContext context, CefPaintListener paintListener, CefBrowserSoftware parent,
+            Point inspectAt) {
+        super(client, url, context, parent, inspectAt);
+        isTransparent_ = transparent;
+        paintListener_ = paintListener;
+        createComponent();
+    }
+
+    @Override
+    public void createImmediately() {
+        justCreated_ = true;
+        // Create the browser immediately.
+        createBrowserIfRequired(false);
+    }
+
+    @Override
+    public Component getUIComponent() {
+        return component_;
+    }
+
+    @Override
+    public CefRenderHandler getRenderHandler() {
+        return this;
+    }
+
+    @Override
+    protected CefBrowser createDevToolsBrowser(CefClient client, String url,
+            CefRequestContext context, CefBrowser parent, Point inspectAt) {
+        return new CefBrowserSoftware(
+                client, url, isTransparent_, context, null, this, inspectAt);
+    }
+
+    @SuppressWarnings("serial")
+    private void createComponent() {
+        component_ = new JComponent() {
+            private boolean removed_ = true;
+
+            @Override
+            protected void paintComponent(Graphics g) {
+                createBrowserIfRequired(true);
+                compositor_.paint(g, getWidth(), getHeight());
+            }
+
+            @Override
+            public void addNotify() {
+                super.addNotify();
+                if (removed_) {
+                    getClient().onAfterParentChanged(CefBrowserSoftware.this);
+                    removed_ = false;
+                }
+            }
+
+            @Override
+            public void removeNotify() {
+                if (!removed_) {
+                    if (!isClosed()) {
+                        getClient().onAfterParentChanged(CefBrowserSoftware.this);
+                    }
+                    removed_ = true;
+                }
+                super.removeNotify();
+            }
+        };
+        component_.setOpaque(!isTransparent_);
+
+        component_.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                updateBounds();
+                wasResized(component_.getWidth(), component_.getHeight());
+            }
+
+            @Override
+            public void componentMoved(ComponentEvent e) {
+                updateBounds();
+            }
+
+            @Override
+            public void componentShown(ComponentEvent e) {
+                updateBounds();
+            }
+        });
+        component_.addHierarchyBoundsListener(new HierarchyBoundsAdapter() {
+            @Override
+            public void ancestorMoved(HierarchyEvent e) {
+                updateBounds();
+            }
+        });
+
+        MouseAdapter mouseAdapter = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                sendMouseEvent(e);
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                sendMouseEvent(e);
+            }
+
+            @Override
+            public void mouseEntered(MouseEvent e) {
+                sendMouseEvent(e);
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                sendMouseEvent(e);
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                sendMouseEvent(e);
+            }
+
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                sendMouseEvent(e);
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                sendMouseEvent(e);
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                sendMouseWheelEvent(e);
+            }
+        };
+        component_.addMouseListener(mouseAdapter);
+        component_.addMouseMotionListener(mouseAdapter);
+        component_.addMouseWheelListener(mouseAdapter);
+
+        component_.addKeyListener(new KeyListener() {
+            @Override
+            public void keyTyped(KeyEvent e) {
+                sendKeyEvent(e);
+            }
+
+            @Override
+            public void keyPressed(KeyEvent e) {
+                sendKeyEvent(e);
+            }
+
+            @Override
+            public void keyReleased(KeyEvent e) {
+                sendKeyEvent(e);
+            }
+        });
+
+        component_.setFocusable(true);
+        component_.addFocusListener(new FocusListener() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                setFocus(false);
+            }
+
+            @Override
+            public void focusGained(FocusEvent e) {
+                // Dismiss any Java menus that are currently displayed.
+                MenuSelectionManager.defaultManager().clearSelectedPath();
+                setFocus(true);
+            }
+        });
+
+        // Stop painting while the component is not showing, e.g. when it's removed from the
+        // hierarchy or its tab is not selected.
+        component_.addHierarchyListener(new HierarchyListener() {
+            @Override
+            public void hierarchyChanged(HierarchyEvent e) {
+                if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0)
+                    wasHidden(!component_.isShowing());
+            }
+        });
+
+        // Connect the component with a drag and drop listener.
+        new DropTarget(component_, new CefDropTargetListener(this));
+    }
+
+    private void updateBounds() {
+        browser_rect_ = new Rectangle(0, 0, component_.getWidth(), component_.getHeight());
+        scaleFactor_ = JCefAppConfig.getDeviceScaleFactor(component_);
+        if (component_.isShowing()) screenPoint_ = component_.getLocationOnScreen();
+        pushScreenInfo();
+    }
+
+    // Lets the native code answer getViewRect, getScreenPoint and getScreenInfo without
+    // calling into Java until the values change again.
+    private void pushScreenInfo() {
+        CefScreenInfo screenInfo = new CefScreenInfo();
+        getScreenInfo(this, screenInfo);
+        updateScreenInfo(browser_rect_, screenPoint_, screenInfo);
+    }
+
+    private void createBrowserIfRequired(boolean hasParent) {
+        if (getNativeRef("CefBrowser") == 0) {
+            long windowHandle = hasParent ? CefBrowserWr.getWindowHandle(component_) : 0;
+            if (getParentBrowser() != null) {
+                createDevTools(getParentBrowser(), getClient(), windowHandle, true, isTransparent_,
+                        null, getInspectAt());
+            } else {
+                createBrowser(getClient(), windowHandle, getUrl(), true, isTransparent_, null,
+                        getRequestContext());
+            }
+        } else if (hasParent && justCreated_) {
+            getClient().onAfterParentChanged(this);
+            setFocus(true);
+            justCreated_ = false;
+        }
+    }
+
+    @Override
+    public Rectangle getViewRect(CefBrowser browser) {
+        // Only called until the native code has a snapshot.
+        pushScreenInfo();
+        return browser_rect_;
+    }
+
+    @Override
+    public boolean getScreenInfo(CefBrowser browser, CefScreenInfo screenInfo) {
+        Rectangle rect = browser_rect_;
+        screenInfo.Set(scaleFactor_, 32, 8, false, rect.getBounds(), rect.getBounds());
+        return true;
+    }
+
+    @Override
+    public Point getScreenPoint(CefBrowser browser, Point viewPoint) {
+        Point screenPoint = new Point(screenPoint_);
+        screenPoint.translate(viewPoint.x, viewPoint.y);
+        return screenPoint;
+    }
+
+    @Override
+    public double getDeviceScaleFactor(CefBrowser browser) {
+        return scaleFactor_;
+    }
+
+    @Override
+    public void onPopupShow(CefBrowser browser, boolean show) {
+        synchronized (compositor_) {
+            frameChanged(compositor_.onPopupShow(show));
+        }
+    }
+
+    @Override
+    public void onPopupSize(CefBrowser browser, Rectangle size) {
+        // The popup size is in view coordinates while the frame is in device pixels.
+        double scale = scaleFactor_;
+        Rectangle rect = new Rectangle((int) (size.x * scale), (int) (size.y * scale),
+                (int) Math.ceil(size.width * scale), (int) Math.ceil(size.height * scale));
+        synchronized (compositor_) {
+            frameChanged(compositor_.onPopupSize(rect));
+        }
+    }
+
+    @Override
+    public void onPaint(CefBrowser browser, boolean popup, Rectangle[] dirtyRects,
+            ByteBuffer buffer, int width, int height) {
+        int[] rects = new int[dirtyRects.length * 4];
+        for (int i = 0; i < dirtyRects.length; ++i) {
+            rects[i * 4] = dirtyRects[i].x;
+            rects[i * 4 + 1] = dirtyRects[i].y;
+            rects[i * 4 + 2] = dirtyRects[i].width;
+            rects[i * 4 + 3] = dirtyRects[i].height;
+        }
+        onPaint(browser, popup, rects, dirtyRects.length, buffer, width, height);
+    }
+
+    @Override
+    public void onPaint(CefBrowser browser, boolean popup, int[] dirtyRects, int dirtyRectCount,
+            ByteBuffer buffer, int width, int height) {
+        synchronized (compositor_) {
+            frameChanged(compositor_.onPaint(
+                    popup, dirtyRects, dirtyRectCount, buffer, width, height));
+        }
+    }
+
+    // Notifies the paint listener and repaints the component after region |dirty| of the frame
+    // changed. Must be called with the compositor locked.
+    private void frameChanged(Rectangle dirty) {
+        if (dirty == null) return;
+        if (paintListener_ != null) {
+            // The frame is passed without copying; the listener must not keep it.
+            paintListener_.onPaint(this, compositor_.getFrame(), dirty);
+        }
+
+        // Convert the dirty region to component coordinates, rounding outwards.
+        double scale = scaleFactor_;
+        int x = (int) Math.floor(dirty.x / scale);
+        int y = (int) Math.floor(dirty.y / scale);
+        component_.repaint(x, y, (int) Math.ceil((dirty.x + dirty.width) / scale) - x,
+                (int) Math.ceil((dirty.y + dirty.height) / scale) - y);
+    }
+
+    @Override
+    public boolean onCursorChange(CefBrowser browser, final int cursorType) {
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                component_.setCursor(new Cursor(cursorType));
+            }
+        });
+
+        // OSR always handles the cursor change.
+        return true;
+    }
+
+    @Override
+    public boolean startDragging(CefBrowser browser, CefDragData dragData, int mask, int x, int y) {
+        // Dragging out of the browser is not supported; CEF cancels the drag.
+        return false;
+    }
+
+    @Override
+    public void updateDragCursor(CefBrowser browser, int operation) {}
+
+    @Override
+    public CompletableFuture<BufferedImage> createScreenshot(boolean nativeResolution) {
+        return createScreenshot(nativeResolution, null);
+    }
+
+    @Override
+    public CompletableFuture<BufferedImage> createScreenshot(
+            boolean nativeResolution, BufferedImage target) {
+        double scale = scaleFactor_;
+        BufferedImage screenshot;
+        if (nativeResolution || scale == 1.0) {
+            // Without a target the current frame is returned as is.
+            screenshot = target == null ? compositor_.snapshot() : compositor_.copyTo(target);
+        } else {
+            BufferedImage frame = compositor_.snapshot();
+            if (frame != null) {
+                // HiDPI images should be resized down to "normal" levels
+                int width = (int) (frame.getWidth() / scale);
+                int height = (int) (frame.getHeight() / scale);
+                if (target == null || target.getType() != BufferedImage.TYPE_INT_ARGB_PRE
+                        || target.getWidth() != width || target.getHeight() != height) {
+                    target = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+                }
+                AffineTransform transform = new AffineTransform();
+                transform.scale(1.0 / scale, 1.0 / scale);
+                AffineTransformOp scaleOperation =
+                        new AffineTransformOp(transform, AffineTransformOp.TYPE_BILINEAR);
+                screenshot = scaleOperation.filter(frame, target);
+            } else {
+                screenshot = null;
+            }
+        }
+
+        CompletableFuture<BufferedImage> future = new CompletableFuture<BufferedImage>();
+        if (screenshot != null)
+            future.complete(screenshot);
+        else
+            future.completeExceptionally(new IllegalStateException("Nothing was painted yet"));
+        return future;
+    }
+}
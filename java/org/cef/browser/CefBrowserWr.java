@@ -71,6 +71,9 @@ class CefBrowserWr extends CefBrowser_N {
         }
     });
 
+    // Sizes are in component coordinates and scaled when they are applied.
+    private final CefResizeScheduler resizeScheduler_;
+
     private CefWindowHandlerAdapter win_handler_ = new CefWindowHandlerAdapter() {
         private Point lastPos = new Point(-1, -1);
         private long[] nextClick = new long[MouseInfo.getNumberOfButtons()];
@@ -199,7 +202,7 @@ class CefBrowserWr extends CefBrowser_N {
             @Override
             public void setBounds(int x, int y, int width, int height) {
                 super.setBounds(x, y, width, height);
-                wasResized((int) (width * scaleFactor_), (int) (height * scaleFactor_));
+                resizeScheduler_.setSize(width, height);
             }
 
             @Override
@@ -210,7 +213,7 @@ class CefBrowserWr extends CefBrowser_N {
             @Override
             public void setSize(int width, int height) {
                 super.setSize(width, height);
-                wasResized((int) (width * scaleFactor_), (int) (height * scaleFactor_));
+                resizeScheduler_.setSize(width, height);
             }
 
             @Override
@@ -262,6 +265,11 @@ class CefBrowserWr extends CefBrowser_N {
             }
         };
 
+        resizeScheduler_ = new CefResizeScheduler(component_, (width, height, last) -> {
+            if (isClosed()) return;
+            wasResized((int) (width * scaleFactor_), (int) (height * scaleFactor_));
+        });
+
         // Initial minimal size of the component. Otherwise the UI won't work
         // accordingly in panes like JSplitPane.
         component_.setMinimumSize(new Dimension(0, 0));
@@ -312,7 +320,9 @@ class CefBrowserWr extends CefBrowser_N {
     }
 
     private void updateScale() {
+        double oldScaleFactor = scaleFactor_;
         if (!OS.isMacintosh()) scaleFactor_ = shouldUpscale() ? JCefAppConfig.getDeviceScaleFactor(component_) : 1;
+        if (scaleFactor_ != oldScaleFactor) resizeScheduler_.invalidate();
     }
 
     @Override
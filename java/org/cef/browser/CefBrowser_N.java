@@ -47,6 +47,13 @@ abstract class CefBrowser_N extends CefNativeAdapter implements CefBrowser {
     private volatile boolean isClosed_ = false;
     private volatile boolean isClosing_ = false;
     private volatile boolean isCreating_ = false;
+    private volatile CefInputCoalescer inputCoalescer_ = null;
+    private volatile int windowlessFrameRate_ = 0;
+    // The screen info snapshot that was last pushed to the native code.
+    private final Object screenInfoLock_ = new Object();
+    private Rectangle pushedViewRect_ = null;
+    private Point pushedScreenPoint_ = null;
+    private CefScreenInfo pushedScreenInfo_ = null;
 
     protected CefBrowser_N(CefClient client, String url, CefRequestContext context,
             CefBrowser_N parent, Point inspectAt) {
@@ -124,6 +131,7 @@ abstract class CefBrowser_N extends CefNativeAdapter implements CefBrowser {
     public synchronized void onBeforeClose() {
         if (TRACE_LIFESPAN) CefLog.Debug("CefBrowser_N: %s: onBeforeClose", this);
         isClosed_ = true;
+        setInputCoalescingInterval(0);
         if (request_context_ != null) request_context_.dispose();
         if (parent_ != null) {
             parent_.closeDevTools();
@@ -608,7 +616,8 @@ abstract class CefBrowser_N extends CefNativeAdapter implements CefBrowser {
     /**
      * Invalidate the UI.
      */
-    protected final void invalidate() {
+    @Override
+    public final void invalidate() {
         try {
             N_Invalidate();
         } catch (UnsatisfiedLinkError ule) {
@@ -616,12 +625,104 @@ abstract class CefBrowser_N extends CefNativeAdapter implements CefBrowser {
         }
     }
 
+    /**
+     * Notify the browser that it has been hidden or shown.
+     * @param hidden True if the browser was hidden.
+     */
+    @Override
+    public final void wasHidden(boolean hidden) {
+        try {
+            N_WasHidden(hidden);
+        } catch (UnsatisfiedLinkError ule) {
+            ule.printStackTrace();
+        }
+    }
+
+    /**
+     * Set the maximum rate in frames per second at which onPaint will be called.
+     * @param frameRate The frame rate, at least 1.
+     */
+    @Override
+    public final void setWindowlessFrameRate(int frameRate) {
+        if (frameRate < 1) throw new IllegalArgumentException("frameRate: " + frameRate);
+        windowlessFrameRate_ = frameRate;
+        try {
+            N_SetWindowlessFrameRate(frameRate);
+        } catch (UnsatisfiedLinkError ule) {
+            ule.printStackTrace();
+        }
+    }
+
+    /**
+     * Returns the frame rate set by setWindowlessFrameRate or 0. Also called from the native
+     * code when the browser is created.
+     */
+    @Override
+    public final int getWindowlessFrameRate() {
+        return windowlessFrameRate_;
+    }
+
+    /**
+     * Push the view geometry and screen info of an off-screen browser to the native render
+     * handler. Until the browser is closed the native code then answers GetViewRect,
+     * GetScreenPoint and GetScreenInfo from this snapshot instead of calling the Java
+     * render handler, so implementations must push again whenever one of the values
+     * changes. Nothing is sent if the values didn't change since the last push.
+     * @param viewRect The rect returned by CefRenderHandler.getViewRect.
+     * @param screenPoint The screen position of the view origin. View points are mapped
+     *         to the screen by adding it.
+     * @param screenInfo The screen info filled in by CefRenderHandler.getScreenInfo.
+     * @return True if the snapshot is in effect. False if the browser wasn't created yet;
+     *         push again later, e.g. from the next getViewRect call.
+     */
+    protected final boolean updateScreenInfo(
+            Rectangle viewRect, Point screenPoint, CefScreenInfo screenInfo) {
+        synchronized (screenInfoLock_) {
+            if (viewRect.equals(pushedViewRect_) && screenPoint.equals(pushedScreenPoint_)
+                    && screenInfo.equals(pushedScreenInfo_)) {
+                return true;
+            }
+            // CEF requires a non-empty view, see CefClient.getViewRect.
+            Rectangle rect = new Rectangle(viewRect.x, viewRect.y, Math.max(viewRect.width, 1),
+                    Math.max(viewRect.height, 1));
+            boolean pushed = false;
+            try {
+                pushed = N_SetScreenInfoSnapshot(
+                        rect, screenPoint.x, screenPoint.y, screenInfo);
+            } catch (UnsatisfiedLinkError ule) {
+                ule.printStackTrace();
+            }
+            if (!pushed) return false;
+            pushedViewRect_ = new Rectangle(viewRect);
+            pushedScreenPoint_ = new Point(screenPoint);
+            pushedScreenInfo_ = screenInfo;
+            return true;
+        }
+    }
+
+    /**
+     * Enable the CefRenderHandler.onPaintTiming call after each view paint of an off-screen
+     * browser. View paints then also call the onPaint variant that takes the native start time.
+     * It's disabled by default because it's an additional upcall per paint.
+     * @return True if the setting is in effect. False if the browser wasn't created yet.
+     */
+    protected final boolean setPaintTimingEnabled(boolean enabled) {
+        try {
+            return N_SetPaintTimingEnabled(enabled);
+        } catch (UnsatisfiedLinkError ule) {
+            ule.printStackTrace();
+            return false;
+        }
+    }
+
     /**
      * Send a key event.
      * @param e The event to send.
      */
     @Override
     public final void sendKeyEvent(KeyEvent e) {
+        CefInputCoalescer coalescer = inputCoalescer_;
+        if (coalescer != null) coalescer.flush();
         try {
             N_SendKeyEvent(e);
         } catch (UnsatisfiedLinkError ule) {
@@ -635,6 +736,14 @@ abstract class CefBrowser_N extends CefNativeAdapter implements CefBrowser {
      */
     @Override
     public final void sendMouseEvent(MouseEvent e) {
+        CefInputCoalescer coalescer = inputCoalescer_;
+        if (coalescer != null)
+            coalescer.sendMouseEvent(e);
+        else
+            sendMouseEventImmediately(e);
+    }
+
+    private void sendMouseEventImmediately(MouseEvent e) {
         try {
             N_SendMouseEvent(e);
         } catch (UnsatisfiedLinkError ule) {
@@ -642,12 +751,41 @@ abstract class CefBrowser_N extends CefNativeAdapter implements CefBrowser {
         }
     }
 
+    /**
+     * Send a mouse event described by its fields, without creating a MouseEvent.
+     * @param id The MouseEvent id, e.g. MouseEvent.MOUSE_MOVED.
+     * @param x The x coordinate relative to the browser view.
+     * @param y The y coordinate relative to the browser view.
+     * @param modifiers The extended modifiers as returned by MouseEvent.getModifiersEx().
+     * @param button The MouseEvent button constant for press and release events.
+     * @param clickCount The click count for press and release events.
+     */
+    @Override
+    public final void sendMouseEvent(
+            int id, int x, int y, int modifiers, int button, int clickCount) {
+        CefInputCoalescer coalescer = inputCoalescer_;
+        if (coalescer != null) coalescer.flush();
+        try {
+            N_SendMouseEventPrimitive(id, x, y, modifiers, button, clickCount);
+        } catch (UnsatisfiedLinkError ule) {
+            ule.printStackTrace();
+        }
+    }
+
     /**
      * Send a mouse wheel event.
      * @param e The event to send.
      */
     @Override
     public final void sendMouseWheelEvent(MouseWheelEvent e) {
+        CefInputCoalescer coalescer = inputCoalescer_;
+        if (coalescer != null)
+            coalescer.sendMouseWheelEvent(e);
+        else
+            sendMouseWheelEventImmediately(e);
+    }
+
+    private void sendMouseWheelEventImmediately(MouseWheelEvent e) {
         try {
             N_SendMouseWheelEvent(e);
         } catch (UnsatisfiedLinkError ule) {
@@ -655,6 +793,40 @@ abstract class CefBrowser_N extends CefNativeAdapter implements CefBrowser {
         }
     }
 
+    /**
+     * Merge mouse move and wheel events that arrive within |intervalMs| of each other.
+     * @param intervalMs The coalescing interval in milliseconds, or 0 to disable.
+     */
+    @Override
+    public synchronized void setInputCoalescingInterval(int intervalMs) {
+        if (intervalMs < 0) throw new IllegalArgumentException("intervalMs: " + intervalMs);
+        CefInputCoalescer coalescer = inputCoalescer_;
+        if (coalescer != null) {
+            if (coalescer.getInterval() == intervalMs) return;
+            inputCoalescer_ = null;
+            coalescer.dispose();
+        }
+        if (intervalMs > 0 && !isClosed_) {
+            inputCoalescer_ = new CefInputCoalescer(new CefInputCoalescer.Listener() {
+                @Override
+                public void sendMouseEvent(MouseEvent e) {
+                    sendMouseEventImmediately(e);
+                }
+
+                @Override
+                public void sendMouseWheelEvent(MouseWheelEvent e) {
+                    sendMouseWheelEventImmediately(e);
+                }
+            }, intervalMs);
+        }
+    }
+
+    @Override
+    public int getInputCoalescingInterval() {
+        CefInputCoalescer coalescer = inputCoalescer_;
+        return coalescer != null ? coalescer.getInterval() : 0;
+    }
+
     /**
      * Call this method when the user drags the mouse into the web view (before
      * calling DragTargetDragOver/DragTargetLeave/DragTargetDrop).
@@ -829,8 +1001,15 @@ abstract class CefBrowser_N extends CefNativeAdapter implements CefBrowser {
     private final native void N_ReplaceMisspelling(String word);
     private final native void N_WasResized(int width, int height);
     private final native void N_Invalidate();
+    private final native void N_WasHidden(boolean hidden);
+    private final native void N_SetWindowlessFrameRate(int frameRate);
+    private final native boolean N_SetScreenInfoSnapshot(
+            Rectangle viewRect, int screenX, int screenY, CefScreenInfo screenInfo);
+    private final native boolean N_SetPaintTimingEnabled(boolean enabled);
     private final native void N_SendKeyEvent(KeyEvent e);
     private final native void N_SendMouseEvent(MouseEvent e);
+    private final native void N_SendMouseEventPrimitive(
+            int id, int x, int y, int modifiers, int button, int clickCount);
     private final native void N_SendMouseWheelEvent(MouseWheelEvent e);
     private final native void N_DragTargetDragEnter(
             CefDragData dragData, Point pos, int modifiers, int allowed_ops);
@@ -0,0 +1,109 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.browser;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free triple buffer that hands frames from a single producer, usually the CEF UI
+ * thread in CefRenderHandler.onPaint, to a single consumer such as the EDT, a GL thread
+ * or an encoder. The producer never blocks and the consumer always gets the newest
+ * completed frame. Frames that are replaced before the consumer takes them are dropped
+ * and counted.
+ *
+ * The producer fills {@link #getBackBuffer()} and calls {@link #publish()}. publish()
+ * returns true only if the consumer has to be woken up, so at most one wakeup request,
+ * e.g. a Runnable passed to SwingUtilities.invokeLater, is outstanding at a time. The
+ * consumer calls {@link #acquire()} and may use the returned frame until its next call
+ * to acquire().
+ */
+public class CefFrameExchange<T> {
+    private static final int INDEX_MASK = 3;
+    // Set in |ready_| if the ready slot holds a frame that the consumer hasn't taken yet.
+    private static final int FRESH = 4;
+
+    private final Object[] slots_ = new Object[3];
+    // Index of the slot shared between producer and consumer, plus the FRESH flag.
+    private final AtomicInteger ready_ = new AtomicInteger(1);
+    private final AtomicBoolean signaled_ = new AtomicBoolean(false);
+    private final AtomicLong published_ = new AtomicLong();
+    private final AtomicLong dropped_ = new AtomicLong();
+    // Only accessed by the producer.
+    private int back_ = 0;
+    // Only accessed by the consumer.
+    private int front_ = 2;
+    private boolean hasFrame_ = false;
+
+    /**
+     * @param factory Creates the three frame slots.
+     */
+    public CefFrameExchange(Supplier<T> factory) {
+        for (int i = 0; i < slots_.length; ++i) slots_[i] = factory.get();
+    }
+
+    /**
+     * Returns the slot the producer may write the next frame into. Only call this from
+     * the producer thread.
+     */
+    @SuppressWarnings("unchecked")
+    public T getBackBuffer() {
+        return (T) slots_[back_];
+    }
+
+    /**
+     * Publishes the back buffer as the newest frame. Only call this from the producer
+     * thread.
+     * @return True if the consumer must be signaled. False if a signal is still
+     *         outstanding, in which case the consumer will see this frame anyway.
+     */
+    public boolean publish() {
+        int old = ready_.getAndSet(back_ | FRESH);
+        back_ = old & INDEX_MASK;
+        published_.incrementAndGet();
+        if ((old & FRESH) != 0) dropped_.incrementAndGet();
+        return signaled_.compareAndSet(false, true);
+    }
+
+    /**
+     * Takes the newest published frame. Only call this from the consumer thread.
+     * @return The newest frame, the previously acquired frame if nothing was published
+     *         since, or null if no frame was published yet.
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        // Clear the signal first so that a frame published after the swap signals again.
+        signaled_.set(false);
+        if ((ready_.get() & FRESH) != 0) {
+            front_ = ready_.getAndSet(front_) & INDEX_MASK;
+            hasFrame_ = true;
+        }
+        return hasFrame_ ? (T) slots_[front_] : null;
+    }
+
+    /**
+     * @return True if a frame was published that the consumer hasn't acquired yet.
+     */
+    public boolean hasNewFrame() {
+        return (ready_.get() & FRESH) != 0;
+    }
+
+    /**
+     * @return The number of frames published so far.
+     */
+    public long getPublishedFrameCount() {
+        return published_.get();
+    }
+
+    /**
+     * @return The number of published frames that were replaced by a newer frame before
+     *         the consumer acquired them.
+     */
+    public long getDroppedFrameCount() {
+        return dropped_.get();
+    }
+}
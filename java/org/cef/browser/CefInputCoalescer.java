@@ -0,0 +1,130 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.browser;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+
+import javax.swing.Timer;
+
+/**
+ * Merges high-frequency mouse input before it is forwarded to CEF.
+ *
+ * The first move or wheel event after an idle interval is sent immediately. Further
+ * moves within the interval are merged into the latest position and further wheel
+ * events accumulate their rotation; the merged event is sent when the interval
+ * elapses. Any other event flushes the pending event first, so the order of clicks,
+ * enter/exit and key events relative to the moves is preserved.
+ *
+ * Merged events are sent on the EDT when the interval elapses, all other events on the
+ * calling thread.
+ */
+public class CefInputCoalescer {
+    /**
+     * Receives the events that are forwarded to CEF.
+     */
+    public interface Listener {
+        void sendMouseEvent(MouseEvent e);
+
+        void sendMouseWheelEvent(MouseWheelEvent e);
+    }
+
+    private final Listener listener_;
+    private final Timer timer_;
+    private MouseEvent pending_ = null;
+
+    public CefInputCoalescer(Listener listener, int intervalMs) {
+        listener_ = listener;
+        timer_ = new Timer(intervalMs, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                onTimer();
+            }
+        });
+    }
+
+    public int getInterval() {
+        return timer_.getDelay();
+    }
+
+    public synchronized void sendMouseEvent(MouseEvent e) {
+        int id = e.getID();
+        if (id != MouseEvent.MOUSE_MOVED && id != MouseEvent.MOUSE_DRAGGED) {
+            flush();
+            listener_.sendMouseEvent(e);
+            return;
+        }
+
+        if (pending_ != null && pending_.getID() == id
+                && pending_.getModifiersEx() == e.getModifiersEx()) {
+            pending_ = e;
+            return;
+        }
+        send(e);
+    }
+
+    public synchronized void sendMouseWheelEvent(MouseWheelEvent e) {
+        if (pending_ instanceof MouseWheelEvent) {
+            MouseWheelEvent pending = (MouseWheelEvent) pending_;
+            if (pending.getScrollType() == e.getScrollType()
+                    && pending.getScrollAmount() == e.getScrollAmount()
+                    && pending.getModifiersEx() == e.getModifiersEx()) {
+                pending_ = new MouseWheelEvent(e.getComponent(), e.getID(), e.getWhen(),
+                        e.getModifiersEx(), e.getX(), e.getY(), e.getClickCount(),
+                        e.isPopupTrigger(), e.getScrollType(), e.getScrollAmount(),
+                        pending.getWheelRotation() + e.getWheelRotation());
+                return;
+            }
+        }
+        send(e);
+    }
+
+    /**
+     * Sends the pending event, if any. Must be called before forwarding an event that
+     * does not pass through this object.
+     */
+    public synchronized void flush() {
+        if (pending_ == null) return;
+        MouseEvent e = pending_;
+        pending_ = null;
+        sendImmediately(e);
+    }
+
+    /**
+     * Sends the pending event and stops the timer.
+     */
+    public synchronized void dispose() {
+        flush();
+        timer_.stop();
+    }
+
+    // Sends |e| now if the interval has elapsed, otherwise queues it behind the
+    // pending event.
+    private void send(MouseEvent e) {
+        flush();
+        if (timer_.isRunning()) {
+            pending_ = e;
+        } else {
+            sendImmediately(e);
+            timer_.restart();
+        }
+    }
+
+    private synchronized void onTimer() {
+        if (pending_ != null)
+            flush();
+        else
+            timer_.stop();
+    }
+
+    private void sendImmediately(MouseEvent e) {
+        if (e instanceof MouseWheelEvent)
+            listener_.sendMouseWheelEvent((MouseWheelEvent) e);
+        else
+            listener_.sendMouseEvent(e);
+    }
+}
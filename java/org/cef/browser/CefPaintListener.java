@@ -0,0 +1,24 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.browser;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+/**
+ * Receives the frames composited by a browser created with
+ * {@link CefRendering.CefRenderingSoftware}.
+ */
+public interface CefPaintListener {
+    /**
+     * Called on the CEF UI thread after a paint was applied to the frame.
+     *
+     * @param browser The browser generating the event.
+     * @param frame The composited frame. Only valid during this call; use
+     *         {@link CefBrowser#createScreenshot(boolean)} to keep a frame.
+     * @param dirtyRect The region of |frame| that changed, in pixels.
+     */
+    void onPaint(CefBrowser browser, BufferedImage frame, Rectangle dirtyRect);
+}
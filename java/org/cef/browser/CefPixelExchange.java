@@ -0,0 +1,244 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.browser;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hands the BGRA view buffers passed to CefRenderHandler.onPaint to a consumer, e.g. the EDT
+ * uploading them to a GL texture, through a {@link CefFrameExchange}. Each slot owns a copy of
+ * the whole view, so the producer only copies the regions that changed since the slot was last
+ * written and never waits for the consumer. A frame that the consumer acquires carries the
+ * regions that changed since the previously acquired frame, including those of dropped frames.
+ *
+ * Publishing works on rects packed as {x, y, width, height} quadruples and doesn't allocate
+ * per dirty rect.
+ */
+public class CefPixelExchange {
+    // More dirty rects than this are merged into their bounds.
+    private static final int MAX_DIRTY_RECTS = 32;
+
+    /**
+     * A copy of the view and the regions that changed since the previously acquired frame.
+     */
+    public static final class Frame {
+        private ByteBuffer pixels_ = null;
+        private int width_ = 0;
+        private int height_ = 0;
+        private int[] dirtyRects_ = new int[0];
+        private int dirtyRectCount_ = 0;
+        private long paintNanos_ = 0;
+        private long sequence_ = 0;
+        // The region that changed since this slot was last written, packed as {x, y, width,
+        // height}, and the view of |pixels_| that it's copied through. Only accessed by the
+        // producer.
+        private final int[] stale_ = new int[4];
+        private ByteBuffer target_ = null;
+
+        /**
+         * @return The BGRA pixels of the view, |width| * 4 bytes per row.
+         */
+        public ByteBuffer getBuffer() {
+            return pixels_.duplicate();
+        }
+
+        public int getWidth() {
+            return width_;
+        }
+
+        public int getHeight() {
+            return height_;
+        }
+
+        /**
+         * @return The regions to upload, packed as {x, y, width, height} quadruples. Only the
+         *         first getDirtyRectCount() quadruples are used. The consumer may modify them.
+         */
+        public int[] getDirtyRects() {
+            return dirtyRects_;
+        }
+
+        public int getDirtyRectCount() {
+            return dirtyRectCount_;
+        }
+
+        /**
+         * @return The System.nanoTime() passed to publish().
+         */
+        public long getPaintNanos() {
+            return paintNanos_;
+        }
+    }
+
+    private final List<Frame> slots_ = new ArrayList<>();
+    private final CefFrameExchange<Frame> exchange_ = new CefFrameExchange<>(() -> {
+        Frame frame = new Frame();
+        slots_.add(frame);
+        return frame;
+    });
+    // Only accessed by the producer.
+    private long sequence_ = 0;
+    private int width_ = 0;
+    private int height_ = 0;
+    private int[] pendingRects_ = new int[MAX_DIRTY_RECTS * 4];
+    private int pendingRectCount_ = 0;
+    // Only accessed by the consumer.
+    private long acquiredSequence_ = 0;
+
+    /**
+     * Copies the dirty regions of |buffer| into the back slot and publishes it. Only call this
+     * from the producer thread. The dirty regions are packed as {x, y, width, height}
+     * quadruples in |dirtyRects|; only the first |dirtyRectCount| quadruples are used.
+     * @return True if the consumer must be signaled, see CefFrameExchange.publish().
+     */
+    public boolean publish(ByteBuffer buffer, int width, int height, int[] dirtyRects,
+            int dirtyRectCount, long paintNanos) {
+        Frame frame = exchange_.getBackBuffer();
+        int size = width * height * 4;
+        if (frame.pixels_ == null || frame.pixels_.capacity() < size) {
+            frame.pixels_ = ByteBuffer.allocateDirect(size);
+            frame.target_ = frame.pixels_.duplicate();
+            setRect(frame.stale_, 0, 0, 0, width, height);
+        } else if (frame.width_ != width || frame.height_ != height) {
+            setRect(frame.stale_, 0, 0, 0, width, height);
+        }
+
+        // The consumer needs everything that changed since the frame it acquired last. The
+        // previous frame was acquired if it's no longer new; that can't change back.
+        if (!exchange_.hasNewFrame()) pendingRectCount_ = 0;
+        boolean resized = width != width_ || height != height_;
+        if (resized) {
+            width_ = width;
+            height_ = height;
+            pendingRectCount_ = 0;
+            addPendingRect(0, 0, width, height);
+            setRect(frame.stale_, 0, 0, 0, width, height);
+        }
+
+        ByteBuffer src = buffer.duplicate();
+        int[] stale = frame.stale_;
+        int x1 = Math.max(stale[0], 0);
+        int y1 = Math.max(stale[1], 0);
+        int x2 = Math.min(stale[0] + stale[2], width);
+        int y2 = Math.min(stale[1] + stale[3], height);
+        if (x2 > x1 && y2 > y1) copyRect(src, frame.target_, width, x1, y1, x2 - x1, y2 - y1);
+        boolean copiedAll = x1 == 0 && y1 == 0 && x2 == width && y2 == height;
+        for (int i = 0; i < dirtyRectCount; ++i) {
+            x1 = Math.max(dirtyRects[i * 4], 0);
+            y1 = Math.max(dirtyRects[i * 4 + 1], 0);
+            x2 = Math.min(dirtyRects[i * 4] + dirtyRects[i * 4 + 2], width);
+            y2 = Math.min(dirtyRects[i * 4 + 1] + dirtyRects[i * 4 + 3], height);
+            if (x2 <= x1 || y2 <= y1) continue;
+            if (!copiedAll) copyRect(src, frame.target_, width, x1, y1, x2 - x1, y2 - y1);
+            if (!resized) addPendingRect(x1, y1, x2 - x1, y2 - y1);
+            for (int j = 0; j < slots_.size(); ++j) {
+                Frame slot = slots_.get(j);
+                if (slot != frame) addTo(slot.stale_, x1, y1, x2 - x1, y2 - y1);
+            }
+        }
+        setRect(frame.stale_, 0, 0, 0, 0, 0);
+
+        frame.width_ = width;
+        frame.height_ = height;
+        if (frame.dirtyRects_.length < pendingRectCount_ * 4)
+            frame.dirtyRects_ = new int[pendingRects_.length];
+        System.arraycopy(pendingRects_, 0, frame.dirtyRects_, 0, pendingRectCount_ * 4);
+        frame.dirtyRectCount_ = pendingRectCount_;
+        frame.paintNanos_ = paintNanos;
+        frame.sequence_ = ++sequence_;
+        return exchange_.publish();
+    }
+
+    /**
+     * Takes the newest published frame. Only call this from the consumer thread. Must be
+     * called after each signal, see CefFrameExchange.acquire().
+     * @return The newest frame, or null if no frame was published since the last call.
+     */
+    public Frame acquire() {
+        Frame frame = exchange_.acquire();
+        if (frame == null || frame.sequence_ == acquiredSequence_) return null;
+        acquiredSequence_ = frame.sequence_;
+        return frame;
+    }
+
+    /**
+     * @return The number of frames published so far.
+     */
+    public long getPublishedFrameCount() {
+        return exchange_.getPublishedFrameCount();
+    }
+
+    /**
+     * @return The number of published frames that were replaced by a newer frame before the
+     *         consumer acquired them.
+     */
+    public long getDroppedFrameCount() {
+        return exchange_.getDroppedFrameCount();
+    }
+
+    private void addPendingRect(int x, int y, int width, int height) {
+        if (pendingRectCount_ == MAX_DIRTY_RECTS) {
+            // Merge everything into the bounds.
+            int x1 = x;
+            int y1 = y;
+            int x2 = x + width;
+            int y2 = y + height;
+            for (int i = 0; i < pendingRectCount_; ++i) {
+                x1 = Math.min(x1, pendingRects_[i * 4]);
+                y1 = Math.min(y1, pendingRects_[i * 4 + 1]);
+                x2 = Math.max(x2, pendingRects_[i * 4] + pendingRects_[i * 4 + 2]);
+                y2 = Math.max(y2, pendingRects_[i * 4 + 1] + pendingRects_[i * 4 + 3]);
+            }
+            pendingRectCount_ = 0;
+            x = x1;
+            y = y1;
+            width = x2 - x1;
+            height = y2 - y1;
+        }
+        setRect(pendingRects_, pendingRectCount_++, x, y, width, height);
+    }
+
+    // Adds a non-empty rect to |region|, which is empty if its width or height isn't positive.
+    private static void addTo(int[] region, int x, int y, int width, int height) {
+        if (region[2] <= 0 || region[3] <= 0) {
+            setRect(region, 0, x, y, width, height);
+            return;
+        }
+        int x1 = Math.min(region[0], x);
+        int y1 = Math.min(region[1], y);
+        int x2 = Math.max(region[0] + region[2], x + width);
+        int y2 = Math.max(region[1] + region[3], y + height);
+        setRect(region, 0, x1, y1, x2 - x1, y2 - y1);
+    }
+
+    private static void setRect(int[] rects, int index, int x, int y, int width, int height) {
+        rects[index * 4] = x;
+        rects[index * 4 + 1] = y;
+        rects[index * 4 + 2] = width;
+        rects[index * 4 + 3] = height;
+    }
+
+    // Copies a rect between buffers of the same stride through the views |from| and |to|.
+    private static void copyRect(
+            ByteBuffer from, ByteBuffer to, int width, int x, int y, int w, int h) {
+        int stride = width * 4;
+        if (w == width) {
+            // Full-width rects are contiguous.
+            int offset = y * stride;
+            from.limit(offset + h * stride).position(offset);
+            to.position(offset);
+            to.put(from);
+            return;
+        }
+        for (int row = 0; row < h; ++row) {
+            int offset = (y + row) * stride + x * 4;
+            from.limit(offset + w * 4).position(offset);
+            to.position(offset);
+            to.put(from);
+        }
+    }
+}
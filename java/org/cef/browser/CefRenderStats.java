@@ -0,0 +1,236 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.browser;
+
+import org.cef.misc.CefHistogram;
+import org.cef.misc.CefLog;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.LongSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Rendering metrics of an off-screen browser, see {@link CefBrowser#getRenderStats()}.
+ * Timings are recorded in nanoseconds into histograms:
+ * <ul>
+ * <li>paint interval: time between two consecutive paints.
+ * <li>dirty ratio: dirty pixels of a paint in units of 1/10000 of the view.
+ * <li>native preparation: time spent in the native OnPaint before calling into Java.
+ * <li>JNI crossing: duration of the Java onPaint upcall as seen from native code minus
+ * the time spent in the Java handler.
+ * <li>upload: time spent on the EDT uploading a frame into the texture.
+ * <li>latency: time from the start of the native OnPaint until the frame was displayed.
+ * </ul>
+ *
+ * Popup paints are not counted. The native preparation and JNI crossing times cost an
+ * additional upcall per paint, so they are only recorded once the metrics were requested
+ * with CefBrowser.getRenderStats() or registered as MBean. Until then the latency starts at
+ * the Java onPaint and leaves out the native preparation and the JNI crossing.
+ *
+ * If the system property "jcef.osr.jmx" is true the metrics of each browser are
+ * registered with the platform MBean server as "org.cef:type=RenderStats,browser=ID".
+ */
+public class CefRenderStats implements CefRenderStatsMXBean {
+    private static final boolean REGISTER_MBEANS = Boolean.getBoolean("jcef.osr.jmx");
+
+    private final CefHistogram paintInterval_ = new CefHistogram();
+    private final CefHistogram dirtyRatio_ = new CefHistogram();
+    private final CefHistogram nativePrepare_ = new CefHistogram();
+    private final CefHistogram jni_ = new CefHistogram();
+    private final CefHistogram upload_ = new CefHistogram();
+    private final CefHistogram latency_ = new CefHistogram();
+    private final LongSupplier droppedFrames_;
+    private volatile long droppedFramesBase_ = 0;
+    private volatile boolean nativeTimingRequested_ = REGISTER_MBEANS;
+    private ObjectName objectName_ = null;
+
+    // Only accessed on the paint thread.
+    private long lastPaintNanos_ = 0;
+    private long handlerNanos_ = 0;
+
+    CefRenderStats(LongSupplier droppedFrames) {
+        droppedFrames_ = droppedFrames;
+    }
+
+    public CefHistogram getPaintIntervalHistogram() {
+        return paintInterval_;
+    }
+
+    public CefHistogram getDirtyRatioHistogram() {
+        return dirtyRatio_;
+    }
+
+    public CefHistogram getNativePrepareHistogram() {
+        return nativePrepare_;
+    }
+
+    public CefHistogram getJniHistogram() {
+        return jni_;
+    }
+
+    public CefHistogram getUploadHistogram() {
+        return upload_;
+    }
+
+    public CefHistogram getLatencyHistogram() {
+        return latency_;
+    }
+
+    @Override
+    public long getFrameCount() {
+        return dirtyRatio_.getCount();
+    }
+
+    @Override
+    public long getDroppedFrameCount() {
+        return droppedFrames_.getAsLong() - droppedFramesBase_;
+    }
+
+    @Override
+    public double getFramesPerSecond() {
+        double interval = paintInterval_.getMean();
+        return interval > 0 ? 1e9 / interval : 0;
+    }
+
+    @Override
+    public double getMeanDirtyRatio() {
+        return dirtyRatio_.getMean() / 10000.0;
+    }
+
+    @Override
+    public double getUploadMicrosP50() {
+        return upload_.getValueAtPercentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getUploadMicrosP99() {
+        return upload_.getValueAtPercentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getUploadMicrosMax() {
+        return upload_.getMax() / 1000.0;
+    }
+
+    @Override
+    public double getJniMicrosP50() {
+        return jni_.getValueAtPercentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getJniMicrosP99() {
+        return jni_.getValueAtPercentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getJniMicrosMax() {
+        return jni_.getMax() / 1000.0;
+    }
+
+    @Override
+    public double getLatencyMicrosP50() {
+        return latency_.getValueAtPercentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getLatencyMicrosP99() {
+        return latency_.getValueAtPercentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getLatencyMicrosMax() {
+        return latency_.getMax() / 1000.0;
+    }
+
+    @Override
+    public void reset() {
+        paintInterval_.reset();
+        dirtyRatio_.reset();
+        nativePrepare_.reset();
+        jni_.reset();
+        upload_.reset();
+        latency_.reset();
+        droppedFramesBase_ = droppedFrames_.getAsLong();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("fps=%.1f frames=%d dropped=%d dirty=%.3f upload[%s] jni[%s] "
+                        + "latency[%s]",
+                getFramesPerSecond(), getFrameCount(), getDroppedFrameCount(),
+                getMeanDirtyRatio(), upload_, jni_, latency_);
+    }
+
+    // Requests the native paint timings, see nativePaintFinished().
+    void requestNativeTiming() {
+        nativeTimingRequested_ = true;
+    }
+
+    boolean isNativeTimingRequested() {
+        return nativeTimingRequested_;
+    }
+
+    // Called at the start of the Java onPaint of a view paint. Returns the start time.
+    long paintStarted(int[] dirtyRects, int dirtyRectCount, int width, int height) {
+        long now = System.nanoTime();
+        if (lastPaintNanos_ != 0) paintInterval_.record(now - lastPaintNanos_);
+        lastPaintNanos_ = now;
+
+        long dirty = 0;
+        for (int i = 0; i < dirtyRectCount; ++i)
+            dirty += (long) dirtyRects[i * 4 + 2] * dirtyRects[i * 4 + 3];
+        long total = (long) width * height;
+        if (total > 0) dirtyRatio_.record(Math.min(dirty, total) * 10000 / total);
+        return now;
+    }
+
+    // Called at the end of the Java onPaint of a view paint.
+    void paintFinished(long startNanos) {
+        handlerNanos_ = System.nanoTime() - startNanos;
+    }
+
+    // Called on the EDT after a frame was uploaded into the texture.
+    void uploadFinished(long uploadNanos) {
+        if (uploadNanos > 0) upload_.record(uploadNanos);
+    }
+
+    // Called with the timings measured by the native OnPaint after the Java onPaint
+    // returned.
+    void nativePaintFinished(long prepareNanos, long callNanos) {
+        nativePrepare_.record(prepareNanos);
+        jni_.record(callNanos - handlerNanos_);
+    }
+
+    // Called after the frame painted at |startNanos| was displayed.
+    void frameDisplayed(long startNanos) {
+        latency_.record(System.nanoTime() - startNanos);
+    }
+
+    // Registers the MBean if enabled by the "jcef.osr.jmx" system property.
+    synchronized void register(int browserId) {
+        if (!REGISTER_MBEANS || objectName_ != null) return;
+        try {
+            ObjectName name = new ObjectName("org.cef:type=RenderStats,browser=" + browserId);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(name)) server.registerMBean(this, name);
+            objectName_ = name;
+        } catch (JMException e) {
+            CefLog.Error("Failed to register render stats: %s", e.getMessage());
+        }
+    }
+
+    synchronized void unregister() {
+        if (objectName_ == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName_);
+        } catch (JMException e) {
+            CefLog.Error("Failed to unregister render stats: %s", e.getMessage());
+        }
+        objectName_ = null;
+    }
+}
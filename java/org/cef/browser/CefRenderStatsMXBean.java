@@ -0,0 +1,29 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.browser;
+
+/**
+ * JMX view of {@link CefRenderStats}. Timings are reported in microseconds.
+ */
+public interface CefRenderStatsMXBean {
+    long getFrameCount();
+    long getDroppedFrameCount();
+    double getFramesPerSecond();
+    double getMeanDirtyRatio();
+
+    double getUploadMicrosP50();
+    double getUploadMicrosP99();
+    double getUploadMicrosMax();
+
+    double getJniMicrosP50();
+    double getJniMicrosP99();
+    double getJniMicrosMax();
+
+    double getLatencyMicrosP50();
+    double getLatencyMicrosP99();
+    double getLatencyMicrosMax();
+
+    void reset();
+}
@@ -5,22 +5,45 @@
 package org.cef.browser;
 
 import com.jogamp.opengl.GL2;
+import org.cef.handler.CefDirtyRectPlanner;
+import org.cef.misc.CefLog;
 
 import java.awt.Rectangle;
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 
 class CefRenderer {
+    private static final boolean TRACE_UPLOAD = Boolean.getBoolean("trace.osr.upload");
+    // Set -Djcef.osr.pbo=false to always upload dirty rects from client memory.
+    private static final boolean PBO_ENABLED =
+            Boolean.parseBoolean(System.getProperty("jcef.osr.pbo", "true"));
+    private static final int PBO_COUNT = 3;
+    // Texture dimensions are rounded up to multiples of this while the view is resized.
+    private static final int TEXTURE_GRANULARITY = 64;
+
     private boolean transparent_;
     private GL2 initialized_context_ = null;
     private int[] texture_id_ = new int[1];
     private int view_width_ = 0;
     private int view_height_ = 0;
+    // Size of the texture storage. The view occupies its top left corner.
+    private int texture_width_ = 0;
+    private int texture_height_ = 0;
+    private int max_texture_size_ = Integer.MAX_VALUE;
+    private volatile boolean resizing_ = false;
     private float spin_x_ = 0f;
     private float spin_y_ = 0f;
     private Rectangle popup_rect_ = new Rectangle(0, 0, 0, 0);
     private Rectangle original_popup_rect_ = new Rectangle(0, 0, 0, 0);
     private boolean use_draw_pixels_ = false;
+    private final CefDirtyRectPlanner planner_ = new CefDirtyRectPlanner();
+
+    // Pixel buffer objects that dirty rects are uploaded from. glTexSubImage2D from a bound
+    // buffer returns without waiting for the driver to read client memory, and the ring lets a
+    // paint fill the next buffer while the GPU still reads the previous one.
+    private boolean use_pbo_ = false;
+    private int[] pbo_ids_ = new int[PBO_COUNT];
+    private int pbo_index_ = 0;
 
     protected CefRenderer(boolean transparent) {
         transparent_ = transparent;
@@ -63,11 +86,57 @@ class CefRenderer {
         gl2.glTexParameteri(gl2.GL_TEXTURE_2D, gl2.GL_TEXTURE_MIN_FILTER, gl2.GL_NEAREST);
         gl2.glTexParameteri(gl2.GL_TEXTURE_2D, gl2.GL_TEXTURE_MAG_FILTER, gl2.GL_NEAREST);
         gl2.glTexEnvf(gl2.GL_TEXTURE_ENV, gl2.GL_TEXTURE_ENV_MODE, gl2.GL_MODULATE);
+
+        int[] max_size = new int[1];
+        gl2.glGetIntegerv(gl2.GL_MAX_TEXTURE_SIZE, max_size, 0);
+        if (max_size[0] > 0) max_texture_size_ = max_size[0];
+
+        // Pixel buffer objects are core in OpenGL 2.1.
+        use_pbo_ = PBO_ENABLED
+                && (gl2.isExtensionAvailable("GL_VERSION_2_1")
+                        || gl2.isExtensionAvailable("GL_ARB_pixel_buffer_object"))
+                && gl2.isFunctionAvailable("glMapBuffer");
+        if (use_pbo_) {
+            gl2.glGenBuffers(PBO_COUNT, pbo_ids_, 0);
+            for (int id : pbo_ids_) {
+                if (id == 0) {
+                    use_pbo_ = false;
+                    gl2.glDeleteBuffers(PBO_COUNT, pbo_ids_, 0);
+                    break;
+                }
+            }
+        }
+        if (TRACE_UPLOAD) {
+            CefLog.Debug("CefRenderer: pixel buffer upload %s",
+                    use_pbo_ ? "enabled" : "unavailable");
+        }
     }
 
     protected void cleanup(GL2 gl2) {
         if (texture_id_[0] != 0) gl2.glDeleteTextures(1, texture_id_, 0);
+        if (use_pbo_) {
+            gl2.glDeleteBuffers(PBO_COUNT, pbo_ids_, 0);
+            use_pbo_ = false;
+        }
         view_width_ = view_height_ = 0;
+        texture_width_ = texture_height_ = 0;
+    }
+
+    /**
+     * While the view is being resized the texture grows geometrically and is reused for
+     * smaller sizes, so that not every step of the resize reallocates it. Afterwards it's
+     * trimmed to the view again.
+     */
+    protected void setResizing(boolean resizing) {
+        resizing_ = resizing;
+    }
+
+    protected int getTextureWidth() {
+        return texture_width_;
+    }
+
+    protected int getTextureHeight() {
+        return texture_height_;
     }
 
     @SuppressWarnings("static-access")
@@ -76,9 +145,12 @@ class CefRenderer {
 
         assert (initialized_context_ != null);
 
+        // Only the part of the texture covered by the view is drawn.
+        float max_u = (float) view_width_ / texture_width_;
+        float max_v = (float) view_height_ / texture_height_;
         final float[] vertex_data = {// tu,   tv,     x,     y,    z
-                0.0f, 1.0f, -1.0f, -1.0f, 0.0f, 1.0f, 1.0f, 1.0f, -1.0f, 0.0f, 1.0f, 0.0f, 1.0f,
-                1.0f, 0.0f, 0.0f, 0.0f, -1.0f, 1.0f, 0.0f};
+                0.0f, max_v, -1.0f, -1.0f, 0.0f, max_u, max_v, 1.0f, -1.0f, 0.0f, max_u, 0.0f,
+                1.0f, 1.0f, 0.0f, 0.0f, 0.0f, -1.0f, 1.0f, 0.0f};
         FloatBuffer vertices = FloatBuffer.wrap(vertex_data);
 
         gl2.glClear(gl2.GL_COLOR_BUFFER_BIT | gl2.GL_DEPTH_BUFFER_BIT);
@@ -163,11 +235,30 @@ class CefRenderer {
         original_popup_rect_.setBounds(0, 0, 0, 0);
     }
 
+    /**
+     * Update the texture from |buffer|. The dirty regions are packed as {x, y, width, height}
+     * quadruples in |dirtyRects|; only the first |dirtyRectCount| quadruples are used.
+     */
     @SuppressWarnings("static-access")
-    protected void onPaint(GL2 gl2, boolean popup, Rectangle[] dirtyRects, ByteBuffer buffer,
-            int width, int height) {
+    protected void onPaint(GL2 gl2, boolean popup, int[] dirtyRects, int dirtyRectCount,
+            ByteBuffer buffer, int width, int height) {
         initialize(gl2);
 
+        long start = System.nanoTime();
+        try {
+            updateTexture(gl2, popup, dirtyRects, dirtyRectCount, buffer, width, height);
+        } finally {
+            if (TRACE_UPLOAD) {
+                CefLog.Debug("CefRenderer: %s paint of %d rects uploaded in %d us",
+                        popup ? "popup" : "view", dirtyRectCount,
+                        (System.nanoTime() - start) / 1000);
+            }
+        }
+    }
+
+    @SuppressWarnings("static-access")
+    private void updateTexture(GL2 gl2, boolean popup, int[] dirtyRects, int dirtyRectCount,
+            ByteBuffer buffer, int width, int height) {
         if (use_draw_pixels_) {
             gl2.glRasterPos2f(-1, 1);
             gl2.glPixelZoom(1, -1);
@@ -195,20 +286,33 @@ class CefRenderer {
 
             gl2.glPixelStorei(gl2.GL_UNPACK_ROW_LENGTH, view_width_);
 
-            if (old_width != view_width_ || old_height != view_height_) {
-                // Update/resize the whole texture.
+            boolean reallocate = updateTextureSize();
+            if (reallocate || old_width != view_width_ || old_height != view_height_) {
+                // Update the whole view.
                 gl2.glPixelStorei(gl2.GL_UNPACK_SKIP_PIXELS, 0);
                 gl2.glPixelStorei(gl2.GL_UNPACK_SKIP_ROWS, 0);
-                gl2.glTexImage2D(gl2.GL_TEXTURE_2D, 0, gl2.GL_RGBA, view_width_, view_height_, 0,
+                if (reallocate) {
+                    gl2.glTexImage2D(gl2.GL_TEXTURE_2D, 0, gl2.GL_RGBA, texture_width_,
+                            texture_height_, 0, gl2.GL_BGRA, gl2.GL_UNSIGNED_INT_8_8_8_8_REV, null);
+                }
+                gl2.glTexSubImage2D(gl2.GL_TEXTURE_2D, 0, 0, 0, view_width_, view_height_,
                         gl2.GL_BGRA, gl2.GL_UNSIGNED_INT_8_8_8_8_REV, buffer);
+            } else if ((dirtyRectCount = planner_.plan(
+                                dirtyRects, dirtyRectCount, view_width_, view_height_))
+                    == 0) {
+                // Nothing inside the view changed.
+            } else if (use_pbo_ && uploadFromPixelBuffer(gl2, dirtyRects, dirtyRectCount, buffer)) {
+                // The dirty rectangles were uploaded from a pixel buffer.
             } else {
                 // Update just the dirty rectangles.
-                for (int i = 0; i < dirtyRects.length; ++i) {
-                    Rectangle rect = dirtyRects[i];
-                    gl2.glPixelStorei(gl2.GL_UNPACK_SKIP_PIXELS, rect.x);
-                    gl2.glPixelStorei(gl2.GL_UNPACK_SKIP_ROWS, rect.y);
-                    gl2.glTexSubImage2D(gl2.GL_TEXTURE_2D, 0, rect.x, rect.y, rect.width,
-                            rect.height, gl2.GL_BGRA, gl2.GL_UNSIGNED_INT_8_8_8_8_REV, buffer);
+                for (int i = 0; i < dirtyRectCount; ++i) {
+                    int x = dirtyRects[i * 4];
+                    int y = dirtyRects[i * 4 + 1];
+                    gl2.glPixelStorei(gl2.GL_UNPACK_SKIP_PIXELS, x);
+                    gl2.glPixelStorei(gl2.GL_UNPACK_SKIP_ROWS, y);
+                    gl2.glTexSubImage2D(gl2.GL_TEXTURE_2D, 0, x, y, dirtyRects[i * 4 + 2],
+                            dirtyRects[i * 4 + 3], gl2.GL_BGRA, gl2.GL_UNSIGNED_INT_8_8_8_8_REV,
+                            buffer);
                 }
             }
         } else if (popup && popup_rect_.width > 0 && popup_rect_.height > 0) {
@@ -246,6 +350,95 @@ class CefRenderer {
         }
     }
 
+    // Chooses the texture size for the current view size. Returns true if the texture has to
+    // be reallocated.
+    private boolean updateTextureSize() {
+        int width = view_width_;
+        int height = view_height_;
+        if (resizing_) {
+            if (width <= texture_width_ && height <= texture_height_) return false;
+            width = grow(texture_width_, width);
+            height = grow(texture_height_, height);
+        }
+        if (width == texture_width_ && height == texture_height_) return false;
+        texture_width_ = width;
+        texture_height_ = height;
+        return true;
+    }
+
+    // Returns a size of at least |required| that is 1.5 times |current| if possible.
+    private int grow(int current, int required) {
+        if (required <= current) return current;
+        int size = Math.max(required, current + current / 2);
+        size = (size + TEXTURE_GRANULARITY - 1) / TEXTURE_GRANULARITY * TEXTURE_GRANULARITY;
+        return Math.max(required, Math.min(size, max_texture_size_));
+    }
+
+    // Copies the dirty rows of |buffer| into the next pixel buffer of the ring and updates the
+    // texture from it. Returns false without changing the texture if the buffer couldn't be
+    // mapped, so that the caller uploads from |buffer| instead.
+    @SuppressWarnings("static-access")
+    private boolean uploadFromPixelBuffer(
+            GL2 gl2, int[] dirtyRects, int dirtyRectCount, ByteBuffer buffer) {
+        long size = 0;
+        for (int i = 0; i < dirtyRectCount; ++i)
+            size += (long) dirtyRects[i * 4 + 2] * dirtyRects[i * 4 + 3] * 4;
+        if (size > Integer.MAX_VALUE) return false;
+
+        int pbo = pbo_ids_[pbo_index_];
+        pbo_index_ = (pbo_index_ + 1) % PBO_COUNT;
+        gl2.glBindBuffer(gl2.GL_PIXEL_UNPACK_BUFFER, pbo);
+        // Orphan the previous storage so that mapping doesn't wait for the GPU to finish
+        // reading it.
+        gl2.glBufferData(gl2.GL_PIXEL_UNPACK_BUFFER, size, null, gl2.GL_STREAM_DRAW);
+        ByteBuffer mapped = gl2.glMapBuffer(gl2.GL_PIXEL_UNPACK_BUFFER, gl2.GL_WRITE_ONLY);
+        if (mapped == null) {
+            gl2.glBindBuffer(gl2.GL_PIXEL_UNPACK_BUFFER, 0);
+            return false;
+        }
+
+        ByteBuffer src = buffer.duplicate();
+        int stride = view_width_ * 4;
+        for (int i = 0; i < dirtyRectCount; ++i) {
+            int x = dirtyRects[i * 4];
+            int y = dirtyRects[i * 4 + 1];
+            int rowBytes = dirtyRects[i * 4 + 2] * 4;
+            int h = dirtyRects[i * 4 + 3];
+            if (rowBytes == stride) {
+                // Full-width rects are contiguous.
+                src.clear().position(y * stride).limit(y * stride + h * stride);
+                mapped.put(src);
+                continue;
+            }
+            for (int row = 0; row < h; ++row) {
+                int offset = (y + row) * stride + x * 4;
+                src.clear().position(offset).limit(offset + rowBytes);
+                mapped.put(src);
+            }
+        }
+        // The buffer contents are undefined if unmapping failed.
+        if (!gl2.glUnmapBuffer(gl2.GL_PIXEL_UNPACK_BUFFER)) {
+            gl2.glBindBuffer(gl2.GL_PIXEL_UNPACK_BUFFER, 0);
+            return false;
+        }
+
+        gl2.glPixelStorei(gl2.GL_UNPACK_SKIP_PIXELS, 0);
+        gl2.glPixelStorei(gl2.GL_UNPACK_SKIP_ROWS, 0);
+        long offset = 0;
+        for (int i = 0; i < dirtyRectCount; ++i) {
+            int w = dirtyRects[i * 4 + 2];
+            int h = dirtyRects[i * 4 + 3];
+            // Rows of each rect are packed tightly in the buffer.
+            gl2.glPixelStorei(gl2.GL_UNPACK_ROW_LENGTH, w);
+            gl2.glTexSubImage2D(gl2.GL_TEXTURE_2D, 0, dirtyRects[i * 4], dirtyRects[i * 4 + 1], w,
+                    h, gl2.GL_BGRA, gl2.GL_UNSIGNED_INT_8_8_8_8_REV, offset);
+            offset += (long) w * h * 4;
+        }
+        gl2.glBindBuffer(gl2.GL_PIXEL_UNPACK_BUFFER, 0);
+        gl2.glPixelStorei(gl2.GL_UNPACK_ROW_LENGTH, view_width_);
+        return true;
+    }
+
     protected void setSpin(float spinX, float spinY) {
         spin_x_ = spinX;
         spin_y_ = spinY;
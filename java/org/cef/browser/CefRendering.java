@@ -36,4 +36,25 @@ public abstract class CefRendering {
             return renderHandler_;
         }
     }
+
+    /**
+     * Render in offscreen mode without OpenGL. Frames are composited in Java into a
+     * BufferedImage that is painted by a lightweight component and optionally passed to
+     * a {@link CefPaintListener}.
+     */
+    public static final class CefRenderingSoftware extends CefRendering {
+        private final CefPaintListener paintListener_;
+
+        public CefRenderingSoftware() {
+            this(null);
+        }
+
+        public CefRenderingSoftware(CefPaintListener paintListener) {
+            this.paintListener_ = paintListener;
+        }
+
+        CefPaintListener getPaintListener() {
+            return paintListener_;
+        }
+    }
 }
@@ -0,0 +1,147 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.browser;
+
+import java.awt.Component;
+import java.awt.DisplayMode;
+import java.awt.GraphicsConfiguration;
+
+import javax.swing.Timer;
+
+/**
+ * Coalesces the size changes of a browser component so that an interactive resize, e.g. a
+ * window drag, causes at most one browser relayout per display refresh instead of one per
+ * mouse event. The first change is applied on the next tick, further changes at the
+ * refresh rate of the display that shows the component. Once no change was requested for
+ * the settle delay, the final size is applied once more with |last| set.
+ *
+ * The listener is always called on the EDT. The other methods may be called on any thread.
+ */
+public class CefResizeScheduler {
+    /**
+     * Quiet period after which a resize is considered finished, in milliseconds.
+     */
+    public static final int DEFAULT_SETTLE_MILLIS = 100;
+
+    private static final int DEFAULT_REFRESH_RATE = 60;
+
+    /**
+     * Receives the coalesced sizes.
+     */
+    public interface Listener {
+        /**
+         * Apply the size |width| x |height|.
+         * @param last True if the resize is finished. The size may equal the size of the
+         *         previous call.
+         */
+        void resize(int width, int height, boolean last);
+    }
+
+    private final Listener listener_;
+    private final Component component_;
+    private final int settleMillis_;
+    private final Timer timer_;
+    private int width_ = -1;
+    private int height_ = -1;
+    private int appliedWidth_ = -1;
+    private int appliedHeight_ = -1;
+    private long lastRequestNanos_ = 0;
+    private boolean resizing_ = false;
+
+    /**
+     * @param component Used to find the refresh rate of the display, may be null.
+     */
+    public CefResizeScheduler(Component component, Listener listener) {
+        this(component, listener, DEFAULT_SETTLE_MILLIS);
+    }
+
+    public CefResizeScheduler(Component component, Listener listener, int settleMillis) {
+        listener_ = listener;
+        component_ = component;
+        settleMillis_ = settleMillis;
+        timer_ = new Timer(1000 / DEFAULT_REFRESH_RATE, e -> tick());
+        timer_.setInitialDelay(0);
+    }
+
+    /**
+     * Requests the size |width| x |height|.
+     */
+    public synchronized void setSize(int width, int height) {
+        lastRequestNanos_ = System.nanoTime();
+        if (width == width_ && height == height_) return;
+        width_ = width;
+        height_ = height;
+        start();
+    }
+
+    /**
+     * Applies the current size again, e.g. because the device scale factor changed.
+     */
+    public synchronized void invalidate() {
+        if (width_ < 0) return;
+        lastRequestNanos_ = System.nanoTime();
+        appliedWidth_ = appliedHeight_ = -1;
+        start();
+    }
+
+    /**
+     * @return True while a resize is in progress.
+     */
+    public synchronized boolean isResizing() {
+        return resizing_;
+    }
+
+    /**
+     * Stops the scheduler. Pending sizes are not applied.
+     */
+    public synchronized void dispose() {
+        timer_.stop();
+        resizing_ = false;
+    }
+
+    private void start() {
+        if (resizing_) return;
+        resizing_ = true;
+        timer_.setDelay(getFrameIntervalMillis(component_));
+        timer_.restart();
+    }
+
+    private void tick() {
+        int width, height;
+        boolean last;
+        synchronized (this) {
+            if (!resizing_) return;
+            width = width_;
+            height = height_;
+            if (width != appliedWidth_ || height != appliedHeight_) {
+                last = false;
+            } else if (System.nanoTime() - lastRequestNanos_ >= settleMillis_ * 1000000L) {
+                last = true;
+                resizing_ = false;
+                timer_.stop();
+            } else {
+                return;
+            }
+            appliedWidth_ = width;
+            appliedHeight_ = height;
+        }
+        listener_.resize(width, height, last);
+    }
+
+    /**
+     * Returns the refresh interval of the display that shows |component|, or of a 60 Hz
+     * display if it's unknown.
+     */
+    public static int getFrameIntervalMillis(Component component) {
+        int rate = DEFAULT_REFRESH_RATE;
+        GraphicsConfiguration config = component != null ? component.getGraphicsConfiguration()
+                                                         : null;
+        if (config != null) {
+            int deviceRate = config.getDevice().getDisplayMode().getRefreshRate();
+            if (deviceRate != DisplayMode.REFRESH_RATE_UNKNOWN) rate = deviceRate;
+        }
+        return Math.max(1, 1000 / rate);
+    }
+}
@@ -0,0 +1,259 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.browser;
+
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Composites the BGRA buffers passed to CefRenderHandler.onPaint into a persistent
+ * TYPE_INT_ARGB_PRE BufferedImage without using OpenGL. Only the dirty regions are copied
+ * and the popup widget is drawn on top of the view. All methods are thread-safe.
+ *
+ * The view pixels under the popup are kept, so they are restored when the popup is hidden,
+ * moved or shrunk. Like onPaint(), onPopupShow() and onPopupSize() return the modified region
+ * of the frame, which the owner should repaint.
+ */
+public class CefSoftwareCompositor {
+    private BufferedImage frame_ = null;
+    private int[] pixels_ = null;
+    private int width_ = 0;
+    private int height_ = 0;
+    // True if |frame_| was handed out by snapshot() and must be copied before it's modified.
+    private boolean shared_ = false;
+
+    private final Rectangle popupRect_ = new Rectangle();
+    private boolean popupVisible_ = false;
+    private int[] popupPixels_ = null;
+    private int popupWidth_ = 0;
+    private int popupHeight_ = 0;
+    // The region covered by the drawn popup and the view pixels underneath it, with a stride
+    // of |underlayRect_.width|.
+    private final Rectangle underlayRect_ = new Rectangle();
+    private int[] underlay_ = null;
+
+    /**
+     * Applies a paint buffer. The dirty regions are packed as {x, y, width, height}
+     * quadruples in |dirtyRects|; only the first |dirtyRectCount| quadruples are used.
+     * @return The modified region of the frame or null if nothing changed.
+     */
+    public synchronized Rectangle onPaint(boolean popup, int[] dirtyRects, int dirtyRectCount,
+            ByteBuffer buffer, int width, int height) {
+        if (width <= 0 || height <= 0) return null;
+        IntBuffer src = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+
+        if (popup) {
+            if (popupPixels_ == null || popupPixels_.length < width * height)
+                popupPixels_ = new int[width * height];
+            src.position(0);
+            src.get(popupPixels_, 0, width * height);
+            popupWidth_ = width;
+            popupHeight_ = height;
+            if (!popupVisible_ || frame_ == null) return null;
+
+            prepareForWrite();
+            return union(removePopup(), drawPopup());
+        }
+
+        if (frame_ == null || width != width_ || height != height_) {
+            frame_ = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+            pixels_ = ((DataBufferInt) frame_.getRaster().getDataBuffer()).getData();
+            width_ = width;
+            height_ = height;
+            shared_ = false;
+            src.position(0);
+            src.get(pixels_, 0, width * height);
+            underlayRect_.setBounds(0, 0, 0, 0);
+            drawPopup();
+            return new Rectangle(0, 0, width, height);
+        }
+
+        prepareForWrite();
+        Rectangle bounds = new Rectangle(0, 0, width, height);
+        Rectangle dirty = null;
+        for (int i = 0; i < dirtyRectCount; ++i) {
+            Rectangle rect = new Rectangle(dirtyRects[i * 4], dirtyRects[i * 4 + 1],
+                    dirtyRects[i * 4 + 2], dirtyRects[i * 4 + 3]);
+            rect = rect.intersection(bounds);
+            if (rect.isEmpty()) continue;
+            copyRows(src, width, rect.x, rect.y, pixels_, width_, rect.x, rect.y, rect.width,
+                    rect.height);
+            Rectangle covered = rect.intersection(underlayRect_);
+            if (!covered.isEmpty()) {
+                // Keep the new view pixels under the popup and the popup on top.
+                copyRows(src, width, covered.x, covered.y, underlay_, underlayRect_.width,
+                        covered.x - underlayRect_.x, covered.y - underlayRect_.y, covered.width,
+                        covered.height);
+                copyRows(IntBuffer.wrap(popupPixels_), popupWidth_, covered.x - underlayRect_.x,
+                        covered.y - underlayRect_.y, pixels_, width_, covered.x, covered.y,
+                        covered.width, covered.height);
+            }
+            if (dirty == null)
+                dirty = rect;
+            else
+                dirty.add(rect);
+        }
+        return dirty;
+    }
+
+    /**
+     * Shows or hides the popup widget. The popup is drawn with its next paint.
+     * @return The region of the frame that was uncovered or null if nothing changed.
+     */
+    public synchronized Rectangle onPopupShow(boolean show) {
+        popupVisible_ = show;
+        if (show) return null;
+
+        popupRect_.setBounds(0, 0, 0, 0);
+        popupPixels_ = null;
+        popupWidth_ = 0;
+        popupHeight_ = 0;
+        if (underlayRect_.isEmpty()) return null;
+        prepareForWrite();
+        return removePopup();
+    }
+
+    /**
+     * Sets the popup position and size in frame pixels. A visible popup is moved immediately.
+     * @return The modified region of the frame or null if nothing changed.
+     */
+    public synchronized Rectangle onPopupSize(Rectangle rect) {
+        if (rect.width <= 0 || rect.height <= 0 || rect.equals(popupRect_)) return null;
+        popupRect_.setBounds(rect);
+        if (!popupVisible_ || frame_ == null || popupPixels_ == null) return null;
+        prepareForWrite();
+        return union(removePopup(), drawPopup());
+    }
+
+    /**
+     * @return The width of the current frame in pixels or 0 if nothing was painted yet.
+     */
+    public synchronized int getWidth() {
+        return width_;
+    }
+
+    /**
+     * @return The height of the current frame in pixels or 0 if nothing was painted yet.
+     */
+    public synchronized int getHeight() {
+        return height_;
+    }
+
+    /**
+     * Draws the current frame scaled to |width| x |height| at the origin of |g|. The frame is
+     * drawn under the lock instead of being shared like with snapshot(), so repaints don't
+     * make the next paint from CEF copy the whole frame.
+     */
+    public synchronized void paint(Graphics g, int width, int height) {
+        if (frame_ != null) g.drawImage(frame_, 0, 0, width, height, null);
+    }
+
+    /**
+     * Returns the current frame. It's modified by later paints, so callers must hold the
+     * lock of this compositor while using it.
+     * @return The current frame or null if nothing was painted yet.
+     */
+    public synchronized BufferedImage getFrame() {
+        return frame_;
+    }
+
+    /**
+     * Returns the current frame without copying it. The returned image is never modified
+     * afterwards; the next paint copies the frame first instead. Meant for screenshots, as
+     * every call makes the next paint copy the whole frame.
+     * @return The current frame or null if nothing was painted yet.
+     */
+    public synchronized BufferedImage snapshot() {
+        if (frame_ == null) return null;
+        shared_ = true;
+        return frame_;
+    }
+
+    /**
+     * Copies the current frame into |target| if it is a TYPE_INT_ARGB_PRE image of the
+     * same size, otherwise into a new image.
+     * @return The image holding the copy or null if nothing was painted yet.
+     */
+    public synchronized BufferedImage copyTo(BufferedImage target) {
+        if (frame_ == null) return null;
+        if (target == null || target.getType() != BufferedImage.TYPE_INT_ARGB_PRE
+                || target.getWidth() != width_ || target.getHeight() != height_
+                || target.getRaster().getParent() != null) {
+            target = new BufferedImage(width_, height_, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+        int[] dst = ((DataBufferInt) target.getRaster().getDataBuffer()).getData();
+        System.arraycopy(pixels_, 0, dst, 0, width_ * height_);
+        return target;
+    }
+
+    // Copies the frame if it's shared with a snapshot.
+    private void prepareForWrite() {
+        if (!shared_) return;
+        BufferedImage frame = new BufferedImage(width_, height_, BufferedImage.TYPE_INT_ARGB_PRE);
+        int[] pixels = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+        System.arraycopy(pixels_, 0, pixels, 0, width_ * height_);
+        frame_ = frame;
+        pixels_ = pixels;
+        shared_ = false;
+    }
+
+    // Restores the view pixels under the drawn popup. Returns the restored region or null.
+    private Rectangle removePopup() {
+        if (underlayRect_.isEmpty()) return null;
+        Rectangle rect = new Rectangle(underlayRect_);
+        copyRows(IntBuffer.wrap(underlay_), rect.width, 0, 0, pixels_, width_, rect.x, rect.y,
+                rect.width, rect.height);
+        underlayRect_.setBounds(0, 0, 0, 0);
+        return rect;
+    }
+
+    // Draws the popup if it's visible and saves the view pixels underneath it. The popup must
+    // have been removed first. Returns the modified region or null.
+    private Rectangle drawPopup() {
+        if (!popupVisible_ || popupPixels_ == null || popupRect_.isEmpty()) return null;
+
+        // Keep the popup inside the view, as CefRenderer does.
+        Rectangle rect = new Rectangle(popupRect_.x, popupRect_.y,
+                Math.min(popupRect_.width, popupWidth_), Math.min(popupRect_.height, popupHeight_));
+        if (rect.x + rect.width > width_) rect.x = width_ - rect.width;
+        if (rect.y + rect.height > height_) rect.y = height_ - rect.height;
+        if (rect.x < 0) rect.x = 0;
+        if (rect.y < 0) rect.y = 0;
+
+        // The popup is clipped only at the right and bottom, so |target| starts at the popup
+        // origin.
+        Rectangle target = rect.intersection(new Rectangle(0, 0, width_, height_));
+        if (target.isEmpty()) return null;
+        if (underlay_ == null || underlay_.length < target.width * target.height)
+            underlay_ = new int[target.width * target.height];
+        for (int row = 0; row < target.height; ++row) {
+            System.arraycopy(pixels_, (target.y + row) * width_ + target.x, underlay_,
+                    row * target.width, target.width);
+        }
+        copyRows(IntBuffer.wrap(popupPixels_), popupWidth_, 0, 0, pixels_, width_, target.x,
+                target.y, target.width, target.height);
+        underlayRect_.setBounds(target);
+        return target;
+    }
+
+    private static Rectangle union(Rectangle a, Rectangle b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.union(b);
+    }
+
+    private static void copyRows(IntBuffer src, int srcStride, int srcX, int srcY, int[] dst,
+            int dstStride, int dstX, int dstY, int width, int height) {
+        for (int row = 0; row < height; ++row) {
+            src.position((srcY + row) * srcStride + srcX);
+            src.get(dst, (dstY + row) * dstStride + dstX, width);
+        }
+    }
+}
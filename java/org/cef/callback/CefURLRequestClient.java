@@ -6,6 +6,8 @@ package org.cef.callback;
 
 import org.cef.network.CefURLRequest;
 
+import java.nio.ByteBuffer;
+
 /**
  * Interface that should be implemented by the CefURLRequest client. The
  * methods of this class will be called on the same thread that created the
@@ -41,6 +43,19 @@ public interface CefURLRequestClient extends CefNative {
      */
     void onDownloadData(CefURLRequest request, byte[] data, int data_length);
 
+    /**
+     * Called when some part of the response is read. |data| wraps the native memory of the
+     * bytes received since the last call and is only valid until this method returns. The
+     * default implementation copies it and calls the byte array variant; override this
+     * method to avoid allocating an array for every chunk. This method will not be called
+     * if the UR_FLAG_NO_DOWNLOAD_DATA flag is set on the request.
+     */
+    default void onDownloadData(CefURLRequest request, ByteBuffer data) {
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        onDownloadData(request, bytes, bytes.length);
+    }
+
     /**
      * Called on the IO thread when the browser needs credentials from the user.
      * |isProxy| indicates whether the host is a proxy server. |host| contains the
@@ -0,0 +1,278 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.handler;
+
+import org.cef.browser.CefBrowser;
+import org.cef.browser.CefFrame;
+import org.cef.callback.CefCallback;
+import org.cef.misc.BoolRef;
+import org.cef.misc.IntRef;
+import org.cef.misc.StringRef;
+import org.cef.network.CefRequest;
+import org.cef.network.CefResponse;
+import org.cef.network.CefURLRequest;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resource request handler that serves responses from a {@link CefResponseCache} and otherwise
+ * forwards to a wrapped handler. When the wrapped handler returns a {@link CefResourceHandler}
+ * the response it produces is recorded and stored in the cache if its headers allow it. Requests
+ * that are served from the cache never reach the wrapped handler.
+ *
+ * Responses that are loaded from the network because the wrapped handler returns no resource
+ * handler are not cached.
+ */
+public class CefCachingResourceRequestHandler implements CefResourceRequestHandler {
+    private final CefResourceRequestHandler handler_;
+    private final CefResponseCache cache_;
+
+    // Cache entries for requests that are being served from the cache, keyed by request
+    // identifier.
+    private final Map<Long, CefResponseCache.Entry> hits_ = new ConcurrentHashMap<>();
+
+    public CefCachingResourceRequestHandler(
+            CefResourceRequestHandler handler, CefResponseCache cache) {
+        handler_ = handler;
+        cache_ = cache;
+    }
+
+    @Override
+    public CefCookieAccessFilter getCookieAccessFilter(
+            CefBrowser browser, CefFrame frame, CefRequest request) {
+        return handler_.getCookieAccessFilter(browser, frame, request);
+    }
+
+    @Override
+    public boolean onBeforeResourceLoad(CefBrowser browser, CefFrame frame, CefRequest request) {
+        if (cache_.isCacheable(request)) {
+            CefResponseCache.Entry entry = cache_.get(request.getURL());
+            if (entry != null) {
+                hits_.put(request.getIdentifier(), entry);
+                return false;
+            }
+        }
+        return handler_.onBeforeResourceLoad(browser, frame, request);
+    }
+
+    @Override
+    public CefResourceHandler getResourceHandler(
+            CefBrowser browser, CefFrame frame, CefRequest request) {
+        CefResponseCache.Entry entry = hits_.get(request.getIdentifier());
+        if (entry != null) return new CachedResourceHandler(entry);
+
+        CefResourceHandler handler = handler_.getResourceHandler(browser, frame, request);
+        if (handler != null && cache_.isCacheable(request))
+            return new RecordingResourceHandler(handler, request.getURL());
+        return handler;
+    }
+
+    @Override
+    public void onResourceRedirect(CefBrowser browser, CefFrame frame, CefRequest request,
+            CefResponse response, StringRef new_url) {
+        if (hits_.containsKey(request.getIdentifier())) return;
+        handler_.onResourceRedirect(browser, frame, request, response, new_url);
+    }
+
+    @Override
+    public boolean onResourceResponse(
+            CefBrowser browser, CefFrame frame, CefRequest request, CefResponse response) {
+        if (hits_.containsKey(request.getIdentifier())) return false;
+        return handler_.onResourceResponse(browser, frame, request, response);
+    }
+
+    @Override
+    public void onResourceLoadComplete(CefBrowser browser, CefFrame frame, CefRequest request,
+            CefResponse response, CefURLRequest.Status status, long receivedContentLength) {
+        if (hits_.remove(request.getIdentifier()) != null) return;
+        handler_.onResourceLoadComplete(
+                browser, frame, request, response, status, receivedContentLength);
+    }
+
+    @Override
+    public void onProtocolExecution(
+            CefBrowser browser, CefFrame frame, CefRequest request, BoolRef allowOsExecution) {
+        handler_.onProtocolExecution(browser, frame, request, allowOsExecution);
+    }
+
+    /**
+     * Serves a cached response.
+     */
+    private static class CachedResourceHandler implements CefResourceHandler {
+        private final CefResponseCache.Entry entry_;
+        private int offset_ = 0;
+
+        CachedResourceHandler(CefResponseCache.Entry entry) {
+            entry_ = entry;
+        }
+
+        @Override
+        public boolean processRequest(CefRequest request, CefCallback callback) {
+            callback.Continue();
+            return true;
+        }
+
+        @Override
+        public void getResponseHeaders(
+                CefResponse response, IntRef responseLength, StringRef redirectUrl) {
+            response.setStatus(entry_.getStatus());
+            response.setStatusText(entry_.getStatusText());
+            response.setMimeType(entry_.getMimeType());
+            response.setHeaderMap(entry_.getHeaders());
+            responseLength.set(entry_.getData().length);
+        }
+
+        @Override
+        public boolean readResponse(
+                byte[] dataOut, int bytesToRead, IntRef bytesRead, CefCallback callback) {
+            byte[] data = entry_.getData();
+            int length = Math.min(bytesToRead, data.length - offset_);
+            if (length <= 0) return false;
+            System.arraycopy(data, offset_, dataOut, 0, length);
+            offset_ += length;
+            bytesRead.set(length);
+            return true;
+        }
+
+        @Override
+        public boolean readResponse(ByteBuffer dataOut, IntRef bytesRead, CefCallback callback) {
+            byte[] data = entry_.getData();
+            int length = Math.min(dataOut.remaining(), data.length - offset_);
+            if (length <= 0) return false;
+            dataOut.put(data, offset_, length);
+            offset_ += length;
+            bytesRead.set(length);
+            return true;
+        }
+
+        @Override
+        public void cancel() {}
+    }
+
+    /**
+     * Forwards to another resource handler and stores the response in the cache once it is
+     * complete.
+     */
+    private class RecordingResourceHandler implements CefResourceHandler {
+        private final CefResourceHandler handler_;
+        private final String url_;
+        private boolean recording_ = true;
+        private int status_;
+        private String statusText_;
+        private String mimeType_;
+        private Map<String, String> headers_;
+        private int expectedLength_;
+        private byte[] data_ = new byte[0];
+        private int length_ = 0;
+
+        RecordingResourceHandler(CefResourceHandler handler, String url) {
+            handler_ = handler;
+            url_ = url;
+        }
+
+        @Override
+        public boolean processRequest(CefRequest request, CefCallback callback) {
+            return handler_.processRequest(request, callback);
+        }
+
+        @Override
+        public void getResponseHeaders(
+                CefResponse response, IntRef responseLength, StringRef redirectUrl) {
+            handler_.getResponseHeaders(response, responseLength, redirectUrl);
+
+            String redirect = redirectUrl.get();
+            if (response.getStatus() != 200 || (redirect != null && !redirect.isEmpty())) {
+                recording_ = false;
+                return;
+            }
+            status_ = response.getStatus();
+            statusText_ = response.getStatusText();
+            mimeType_ = response.getMimeType();
+            headers_ = new HashMap<>();
+            response.getHeaderMap(headers_);
+            expectedLength_ = responseLength.get();
+            if (expectedLength_ > cache_.getMaxBytes()) {
+                recording_ = false;
+            } else if (expectedLength_ > 0) {
+                data_ = new byte[expectedLength_];
+            }
+            if (expectedLength_ == 0) complete();
+        }
+
+        @Override
+        public boolean readResponse(
+                byte[] dataOut, int bytesToRead, IntRef bytesRead, CefCallback callback) {
+            boolean result = handler_.readResponse(dataOut, bytesToRead, bytesRead, callback);
+            if (recording_ && bytesRead.get() > 0)
+                record(ByteBuffer.wrap(dataOut, 0, Math.min(bytesRead.get(), bytesToRead)));
+            if (!result) finish(bytesRead.get() >= 0);
+            return result;
+        }
+
+        @Override
+        public boolean readResponse(ByteBuffer dataOut, IntRef bytesRead, CefCallback callback) {
+            int start = dataOut.position();
+            int available = dataOut.remaining();
+            boolean result = handler_.readResponse(dataOut, bytesRead, callback);
+            if (recording_ && bytesRead.get() > 0) {
+                ByteBuffer written = dataOut.duplicate();
+                written.limit(start + Math.min(bytesRead.get(), available));
+                written.position(start);
+                record(written);
+            }
+            if (!result) finish(bytesRead.get() >= 0);
+            return result;
+        }
+
+        @Override
+        public void cancel() {
+            stopRecording();
+            handler_.cancel();
+        }
+
+        private void record(ByteBuffer data) {
+            int length = data.remaining();
+            if ((long) length_ + length > cache_.getMaxBytes()
+                    || (expectedLength_ >= 0 && length_ + length > expectedLength_)) {
+                stopRecording();
+                return;
+            }
+            if (length_ + length > data_.length)
+                data_ = Arrays.copyOf(data_, Math.max(length_ + length, data_.length * 2));
+            data.get(data_, length_, length);
+            length_ += length;
+
+            // The response is complete once the announced length has been read.
+            if (length_ == expectedLength_) complete();
+        }
+
+        // Called when the wrapped handler ends the response, with |normal| false if it reports
+        // an error. Only a body of the announced length, or of any length if none was
+        // announced, is stored; a truncated response must not be replayed.
+        private void finish(boolean normal) {
+            if (normal && expectedLength_ < 0)
+                complete();
+            else
+                stopRecording();
+        }
+
+        private void stopRecording() {
+            recording_ = false;
+            data_ = null;
+        }
+
+        private void complete() {
+            if (!recording_) return;
+            recording_ = false;
+            byte[] data = length_ == data_.length ? data_ : Arrays.copyOf(data_, length_);
+            data_ = null;
+            cache_.put(url_, status_, statusText_, mimeType_, headers_, data);
+        }
+    }
+}
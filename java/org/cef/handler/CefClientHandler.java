@@ -7,6 +7,7 @@ package org.cef.handler;
 import org.cef.browser.CefBrowser;
 import org.cef.browser.CefMessageRouter;
 import org.cef.callback.CefNative;
+import org.cef.network.CefRequest;
 
 import java.util.HashMap;
 import java.util.Vector;
@@ -18,6 +19,8 @@ public abstract class CefClientHandler implements CefNative {
     // Used internally to store a pointer to the CEF object.
     private HashMap<String, Long> N_CefHandle = new HashMap<String, Long>();
     private Vector<CefMessageRouter> msgRouters = new Vector<>();
+    // The installed request rules if some of them must be evaluated in Java.
+    private volatile CefRequestRules javaRequestRules_ = null;
 
     @Override
     public void setNativeRef(String identifer, long nativeRef) {
@@ -182,6 +185,32 @@ public abstract class CefClientHandler implements CefNative {
         }
     }
 
+    /**
+     * Installs |rules| for the resource requests of this client, replacing the current ones.
+     * Pass null to remove them.
+     */
+    protected void setRequestRules(CefRequestRules rules) {
+        // Native code passes requests that reach a REGEX rule to Java, see
+        // getRequestRuleHandler().
+        CefRequestRules copy = rules != null ? rules.copy() : null;
+        javaRequestRules_ = copy != null && copy.hasRegexRule() ? copy : null;
+        try {
+            N_setRequestRules(copy != null ? copy.getRules().toArray(new CefRequestRules.Rule[0])
+                                           : null);
+        } catch (UnsatisfiedLinkError err) {
+            err.printStackTrace();
+        }
+    }
+
+    /**
+     * Returns a handler that applies the request rule matching |request|, or null if no rule
+     * matches. Only REGEX rules can match here, the others are applied in native code.
+     */
+    protected CefResourceRequestHandler getRequestRuleHandler(CefRequest request) {
+        CefRequestRules rules = javaRequestRules_;
+        return rules != null ? rules.getResourceRequestHandler(request) : null;
+    }
+
     protected void removeContextMenuHandler(CefContextMenuHandler h) {
         try {
             N_removeContextMenuHandler(h);
@@ -305,6 +334,7 @@ public abstract class CefClientHandler implements CefNative {
 
     private final native void N_CefClientHandler_CTOR();
     private final native void N_addMessageRouter(CefMessageRouter h);
+    private final native void N_setRequestRules(CefRequestRules.Rule[] rules);
     private final native void N_removeContextMenuHandler(CefContextMenuHandler h);
     private final native void N_removeDialogHandler(CefDialogHandler h);
     private final native void N_removeDisplayHandler(CefDisplayHandler h);
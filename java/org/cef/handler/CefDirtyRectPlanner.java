@@ -0,0 +1,167 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.handler;
+
+import java.awt.Rectangle;
+
+/**
+ * Reduces the dirty rects passed to CefRenderHandler.onPaint to fewer, larger rects so
+ * that they can be uploaded with fewer calls. Two rects are merged into their bounding
+ * box when the area the box adds on top of the two rects is small enough, and everything
+ * is collapsed into one full-view rect when the rects cover most of the view.
+ *
+ * Planning works in place on rects packed as {x, y, width, height} quadruples and does
+ * not allocate. Instances have no state besides their configuration and may be shared.
+ */
+public class CefDirtyRectPlanner {
+    /** Default for the fraction of a merged bounding box that may be wasted. */
+    public static final double DEFAULT_MAX_WASTE_RATIO = 0.25;
+    /** Default for the fraction of the view above which the full view is uploaded. */
+    public static final double DEFAULT_FULL_UPLOAD_RATIO = 0.6;
+    /** Default for the maximum number of rects after planning. */
+    public static final int DEFAULT_MAX_RECTS = 8;
+
+    private final double maxWasteRatio_;
+    private final double fullUploadRatio_;
+    private final int maxRects_;
+
+    public CefDirtyRectPlanner() {
+        this(DEFAULT_MAX_WASTE_RATIO, DEFAULT_FULL_UPLOAD_RATIO, DEFAULT_MAX_RECTS);
+    }
+
+    /**
+     * @param maxWasteRatio Two rects are merged if at most this fraction of their bounding
+     *         box is not covered by them.
+     * @param fullUploadRatio If the planned rects cover at least this fraction of the view
+     *         they are replaced by a single full-view rect.
+     * @param maxRects If more rects remain after merging, the pairs with the least waste
+     *         are merged until only this many are left.
+     */
+    public CefDirtyRectPlanner(double maxWasteRatio, double fullUploadRatio, int maxRects) {
+        if (maxWasteRatio < 0 || maxWasteRatio > 1)
+            throw new IllegalArgumentException("maxWasteRatio: " + maxWasteRatio);
+        if (fullUploadRatio <= 0)
+            throw new IllegalArgumentException("fullUploadRatio: " + fullUploadRatio);
+        if (maxRects < 1) throw new IllegalArgumentException("maxRects: " + maxRects);
+        maxWasteRatio_ = maxWasteRatio;
+        fullUploadRatio_ = fullUploadRatio;
+        maxRects_ = maxRects;
+    }
+
+    /**
+     * Plans the first |count| rects of |rects| for a view of |width| x |height| pixels.
+     * The rects are clipped to the view and rewritten in place.
+     * @return The number of planned rects at the start of |rects|.
+     */
+    public int plan(int[] rects, int count, int width, int height) {
+        // Clip to the view and drop empty rects.
+        int n = 0;
+        for (int i = 0; i < count; ++i) {
+            int x1 = Math.max(rects[i * 4], 0);
+            int y1 = Math.max(rects[i * 4 + 1], 0);
+            int x2 = Math.min(rects[i * 4] + rects[i * 4 + 2], width);
+            int y2 = Math.min(rects[i * 4 + 1] + rects[i * 4 + 3], height);
+            if (x2 <= x1 || y2 <= y1) continue;
+            set(rects, n++, x1, y1, x2 - x1, y2 - y1);
+        }
+        if (n <= 1) return n;
+
+        // Merge pairs whose bounding box wastes little, until no such pair is left.
+        boolean merged = true;
+        while (merged && n > 1) {
+            merged = false;
+            for (int i = 0; i < n && !merged; ++i) {
+                for (int j = i + 1; j < n; ++j) {
+                    if (waste(rects, i, j) <= maxWasteRatio_ * boundsArea(rects, i, j)) {
+                        n = merge(rects, n, i, j);
+                        merged = true;
+                        break;
+                    }
+                }
+            }
+        }
+
+        // Enforce the rect limit by merging the cheapest pairs.
+        while (n > maxRects_) {
+            int bestI = 0, bestJ = 1;
+            long bestWaste = Long.MAX_VALUE;
+            for (int i = 0; i < n; ++i) {
+                for (int j = i + 1; j < n; ++j) {
+                    long waste = waste(rects, i, j);
+                    if (waste < bestWaste) {
+                        bestWaste = waste;
+                        bestI = i;
+                        bestJ = j;
+                    }
+                }
+            }
+            n = merge(rects, n, bestI, bestJ);
+        }
+
+        long area = 0;
+        for (int i = 0; i < n; ++i) area += (long) rects[i * 4 + 2] * rects[i * 4 + 3];
+        if (area >= fullUploadRatio_ * width * height) {
+            set(rects, 0, 0, 0, width, height);
+            return 1;
+        }
+        return n;
+    }
+
+    /**
+     * Convenience variant of {@link #plan(int[], int, int, int)} for Rectangle arrays.
+     * @return The planned rects.
+     */
+    public Rectangle[] plan(Rectangle[] rects, int width, int height) {
+        int[] packed = new int[rects.length * 4];
+        for (int i = 0; i < rects.length; ++i)
+            set(packed, i, rects[i].x, rects[i].y, rects[i].width, rects[i].height);
+        int count = plan(packed, rects.length, width, height);
+        Rectangle[] result = new Rectangle[count];
+        for (int i = 0; i < count; ++i) {
+            result[i] = new Rectangle(
+                    packed[i * 4], packed[i * 4 + 1], packed[i * 4 + 2], packed[i * 4 + 3]);
+        }
+        return result;
+    }
+
+    private static void set(int[] rects, int i, int x, int y, int width, int height) {
+        rects[i * 4] = x;
+        rects[i * 4 + 1] = y;
+        rects[i * 4 + 2] = width;
+        rects[i * 4 + 3] = height;
+    }
+
+    private static long boundsArea(int[] r, int i, int j) {
+        int x1 = Math.min(r[i * 4], r[j * 4]);
+        int y1 = Math.min(r[i * 4 + 1], r[j * 4 + 1]);
+        int x2 = Math.max(r[i * 4] + r[i * 4 + 2], r[j * 4] + r[j * 4 + 2]);
+        int y2 = Math.max(r[i * 4 + 1] + r[i * 4 + 3], r[j * 4 + 1] + r[j * 4 + 3]);
+        return (long) (x2 - x1) * (y2 - y1);
+    }
+
+    // Returns the area of the bounding box of rects |i| and |j| that neither covers.
+    private static long waste(int[] r, int i, int j) {
+        long areaI = (long) r[i * 4 + 2] * r[i * 4 + 3];
+        long areaJ = (long) r[j * 4 + 2] * r[j * 4 + 3];
+        int ix = Math.min(r[i * 4] + r[i * 4 + 2], r[j * 4] + r[j * 4 + 2])
+                - Math.max(r[i * 4], r[j * 4]);
+        int iy = Math.min(r[i * 4 + 1] + r[i * 4 + 3], r[j * 4 + 1] + r[j * 4 + 3])
+                - Math.max(r[i * 4 + 1], r[j * 4 + 1]);
+        long overlap = ix > 0 && iy > 0 ? (long) ix * iy : 0;
+        return boundsArea(r, i, j) - (areaI + areaJ - overlap);
+    }
+
+    // Replaces rect |i| with the bounding box of |i| and |j| and removes |j| by moving the
+    // last rect into its place. Returns the new count.
+    private static int merge(int[] r, int n, int i, int j) {
+        int x1 = Math.min(r[i * 4], r[j * 4]);
+        int y1 = Math.min(r[i * 4 + 1], r[j * 4 + 1]);
+        int x2 = Math.max(r[i * 4] + r[i * 4 + 2], r[j * 4] + r[j * 4 + 2]);
+        int y2 = Math.max(r[i * 4 + 1] + r[i * 4 + 3], r[j * 4 + 1] + r[j * 4 + 3]);
+        set(r, i, x1, y1, x2 - x1, y2 - y1);
+        System.arraycopy(r, (n - 1) * 4, r, j * 4, 4);
+        return n - 1;
+    }
+}
@@ -0,0 +1,395 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.handler;
+
+import org.cef.callback.CefCallback;
+import org.cef.misc.IntRef;
+import org.cef.misc.StringRef;
+import org.cef.network.CefRequest;
+import org.cef.network.CefResponse;
+
+import java.io.IOException;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Resource handler that serves a single file through a memory mapping. The file contents are
+ * copied straight from the mapping into the network buffer and never pass through the Java heap.
+ * Single byte ranges ("Range: bytes=...") and conditional requests based on the ETag and
+ * Last-Modified validators are supported. The file may also be produced asynchronously, e.g.
+ * extracted from an archive, in which case the response starts once it is available.
+ */
+public class CefFileResourceHandler implements CefResourceHandler {
+    // Size of the file region that is mapped at a time.
+    private static final long MAP_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private static final Map<String, String> MIME_TYPES = new HashMap<>();
+    static {
+        MIME_TYPES.put("html", "text/html");
+        MIME_TYPES.put("htm", "text/html");
+        MIME_TYPES.put("css", "text/css");
+        MIME_TYPES.put("js", "text/javascript");
+        MIME_TYPES.put("mjs", "text/javascript");
+        MIME_TYPES.put("json", "application/json");
+        MIME_TYPES.put("map", "application/json");
+        MIME_TYPES.put("txt", "text/plain");
+        MIME_TYPES.put("xml", "text/xml");
+        MIME_TYPES.put("svg", "image/svg+xml");
+        MIME_TYPES.put("png", "image/png");
+        MIME_TYPES.put("jpg", "image/jpeg");
+        MIME_TYPES.put("jpeg", "image/jpeg");
+        MIME_TYPES.put("gif", "image/gif");
+        MIME_TYPES.put("webp", "image/webp");
+        MIME_TYPES.put("ico", "image/x-icon");
+        MIME_TYPES.put("woff", "font/woff");
+        MIME_TYPES.put("woff2", "font/woff2");
+        MIME_TYPES.put("ttf", "font/ttf");
+        MIME_TYPES.put("otf", "font/otf");
+        MIME_TYPES.put("wasm", "application/wasm");
+        MIME_TYPES.put("pdf", "application/pdf");
+        MIME_TYPES.put("mp4", "video/mp4");
+        MIME_TYPES.put("webm", "video/webm");
+        MIME_TYPES.put("mp3", "audio/mpeg");
+        MIME_TYPES.put("ogg", "audio/ogg");
+        MIME_TYPES.put("wav", "audio/wav");
+    }
+
+    // The request headers used by prepareResponse().
+    private static final String[] REQUEST_HEADERS = {
+            "Range", "If-Range", "If-None-Match", "If-Modified-Since"};
+
+    private final CompletableFuture<Path> file_;
+    private final String mimeType_;
+
+    private FileChannel channel_;
+    private MappedByteBuffer window_;
+    private long position_;
+    private long end_;
+    private int status_;
+    private String statusText_;
+    private final Map<String, String> headers_ = new HashMap<>();
+
+    /**
+     * Serve |file| with a MIME type derived from its file name.
+     */
+    public CefFileResourceHandler(Path file) {
+        this(file, file != null ? getMimeType(file.getFileName().toString()) : "text/plain");
+    }
+
+    /**
+     * Serve |file| with the specified MIME type. A 404 response is sent if |file| is null or
+     * doesn't exist.
+     */
+    public CefFileResourceHandler(Path file, String mimeType) {
+        this(CompletableFuture.completedFuture(file), mimeType);
+    }
+
+    /**
+     * Serve the file that |file| completes with, using the specified MIME type. If |file|
+     * isn't complete yet processRequest() returns immediately and the response continues
+     * once it is. A 404 response is sent if |file| completes with null, exceptionally or
+     * with a file that doesn't exist.
+     */
+    public CefFileResourceHandler(CompletableFuture<Path> file, String mimeType) {
+        file_ = file;
+        mimeType_ = mimeType;
+    }
+
+    /**
+     * Returns the MIME type for |fileName| based on its extension, or
+     * "application/octet-stream" if unknown.
+     */
+    public static String getMimeType(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot >= 0) {
+            String type = MIME_TYPES.get(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+            if (type != null) return type;
+        }
+        String type = URLConnection.guessContentTypeFromName(fileName);
+        return type != null ? type : "application/octet-stream";
+    }
+
+    @Override
+    public boolean processRequest(CefRequest request, CefCallback callback) {
+        if (file_.isDone()) {
+            if (!prepareResponse(request::getHeaderByName)) return false;
+            callback.Continue();
+            return true;
+        }
+
+        // The request is only valid during this call.
+        Map<String, String> headers = new HashMap<>();
+        for (String name : REQUEST_HEADERS) headers.put(name, request.getHeaderByName(name));
+        file_.whenComplete((file, error) -> {
+            if (prepareResponse(headers::get))
+                callback.Continue();
+            else
+                callback.cancel();
+        });
+        return true;
+    }
+
+    /**
+     * Determines the status, headers and body range of the response from the request headers
+     * returned by |requestHeader|, and opens the file if there is a body. Called by
+     * processRequest() once the file is available.
+     * @return False if the file can't be read.
+     */
+    protected boolean prepareResponse(Function<String, String> requestHeader) {
+        Path file = getFile();
+        try {
+            BasicFileAttributes attrs = file != null && Files.isRegularFile(file)
+                    ? Files.readAttributes(file, BasicFileAttributes.class)
+                    : null;
+            if (attrs == null) {
+                setStatus(404, "Not Found");
+                return true;
+            }
+
+            long size = attrs.size();
+            long lastModified = attrs.lastModifiedTime().toMillis();
+            String etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified)
+                    + "\"";
+            headers_.put("ETag", etag);
+            headers_.put("Last-Modified", formatDate(lastModified));
+            headers_.put("Accept-Ranges", "bytes");
+
+            if (isNotModified(requestHeader, etag, lastModified)) {
+                setStatus(304, "Not Modified");
+                return true;
+            }
+
+            position_ = 0;
+            end_ = size;
+            setStatus(200, "OK");
+
+            String range = requestHeader.apply("Range");
+            String ifRange = requestHeader.apply("If-Range");
+            if (range != null && !range.isEmpty()
+                    && (ifRange == null || ifRange.isEmpty() || ifRange.equals(etag))) {
+                long[] bounds = parseRange(range, size);
+                if (bounds == null) {
+                    // Invalid or unsupported syntax, or multiple ranges. Ignore the header and
+                    // send the whole file as RFC 7233 requires.
+                } else if (bounds[0] >= size) {
+                    setStatus(416, "Range Not Satisfiable");
+                    headers_.put("Content-Range", "bytes */" + size);
+                    end_ = 0;
+                } else {
+                    position_ = bounds[0];
+                    end_ = Math.min(bounds[1], size - 1) + 1;
+                    setStatus(206, "Partial Content");
+                    headers_.put("Content-Range",
+                            "bytes " + position_ + "-" + (end_ - 1) + "/" + size);
+                }
+            }
+
+            if (end_ > position_) channel_ = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (IOException e) {
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return The status code determined by prepareResponse().
+     */
+    public int getStatus() {
+        return status_;
+    }
+
+    /**
+     * @return The value of response header |name| determined by prepareResponse(), or null.
+     */
+    public String getResponseHeader(String name) {
+        return headers_.get(name);
+    }
+
+    @Override
+    public void getResponseHeaders(
+            CefResponse response, IntRef responseLength, StringRef redirectUrl) {
+        response.setStatus(status_);
+        response.setStatusText(statusText_);
+        response.setMimeType(mimeType_);
+
+        Map<String, String> headerMap = new HashMap<>();
+        response.getHeaderMap(headerMap);
+        headerMap.putAll(headers_);
+        response.setHeaderMap(headerMap);
+
+        long length = end_ - position_;
+        responseLength.set(length <= Integer.MAX_VALUE ? (int) length : -1);
+    }
+
+    @Override
+    public boolean readResponse(
+            byte[] dataOut, int bytesToRead, IntRef bytesRead, CefCallback callback) {
+        MappedByteBuffer window = nextWindow();
+        if (window == null) {
+            bytesRead.set(0);
+            return false;
+        }
+        int length = Math.min(bytesToRead, window.remaining());
+        window.get(dataOut, 0, length);
+        position_ += length;
+        bytesRead.set(length);
+        return true;
+    }
+
+    @Override
+    public boolean readResponse(ByteBuffer dataOut, IntRef bytesRead, CefCallback callback) {
+        MappedByteBuffer window = nextWindow();
+        if (window == null) {
+            bytesRead.set(0);
+            return false;
+        }
+        int length = Math.min(dataOut.remaining(), window.remaining());
+        // Temporarily narrow the window instead of allocating a slice.
+        int limit = window.limit();
+        window.limit(window.position() + length);
+        dataOut.put(window);
+        window.limit(limit);
+        position_ += length;
+        bytesRead.set(length);
+        return true;
+    }
+
+    @Override
+    public void cancel() {
+        close();
+    }
+
+    /**
+     * Returns the mapping for the next part of the response, or null if the response is complete.
+     */
+    private MappedByteBuffer nextWindow() {
+        if (window_ != null && window_.hasRemaining()) return window_;
+        window_ = null;
+        if (channel_ == null || position_ >= end_) {
+            close();
+            return null;
+        }
+        try {
+            long size = Math.min(MAP_WINDOW_SIZE, end_ - position_);
+            window_ = channel_.map(FileChannel.MapMode.READ_ONLY, position_, size);
+        } catch (IOException e) {
+            close();
+            return null;
+        }
+        return window_;
+    }
+
+    private void close() {
+        window_ = null;
+        if (channel_ != null) {
+            try {
+                channel_.close();
+            } catch (IOException e) {
+                // Nothing to do.
+            }
+            channel_ = null;
+        }
+    }
+
+    // Returns the file to serve, or null if there is none or it isn't available yet.
+    private Path getFile() {
+        try {
+            return file_.getNow(null);
+        } catch (RuntimeException e) {
+            // Completed exceptionally.
+            return null;
+        }
+    }
+
+    private void setStatus(int status, String statusText) {
+        status_ = status;
+        statusText_ = statusText;
+    }
+
+    private static boolean isNotModified(
+            Function<String, String> requestHeader, String etag, long lastModified) {
+        String ifNoneMatch = requestHeader.apply("If-None-Match");
+        if (ifNoneMatch != null && !ifNoneMatch.isEmpty()) {
+            if (ifNoneMatch.trim().equals("*")) return true;
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.startsWith("W/")) tag = tag.substring(2);
+                if (tag.equals(etag)) return true;
+            }
+            return false;
+        }
+
+        String ifModifiedSince = requestHeader.apply("If-Modified-Since");
+        if (ifModifiedSince != null && !ifModifiedSince.isEmpty()) {
+            try {
+                long since = ZonedDateTime
+                                     .parse(ifModifiedSince,
+                                             DateTimeFormatter.RFC_1123_DATE_TIME)
+                                     .toInstant()
+                                     .toEpochMilli();
+                // HTTP dates have a resolution of one second.
+                return lastModified / 1000 <= since / 1000;
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parse a single "bytes=first-last", "bytes=first-" or "bytes=-suffix" range. Returns the
+     * inclusive {first, last} bounds, or null if the header is invalid or can't be used.
+     */
+    static long[] parseRange(String range, long size) {
+        range = range.trim();
+        if (!range.startsWith("bytes=")) return null;
+        String spec = range.substring(6).trim();
+        if (spec.indexOf(',') >= 0) return null;
+
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                if (last.isEmpty()) return null;
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) return new long[] {size, size};
+                return new long[] {Math.max(0, size - suffix), size - 1};
+            }
+            long start = Long.parseLong(first);
+            long stop = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            // A range that ends before it starts is invalid and ignored. A range starting at
+            // or after the end of the file, e.g. any range of an empty file, is not
+            // satisfiable, see prepareResponse().
+            if (start < 0 || stop < start) return null;
+            return new long[] {start, stop};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String formatDate(long millis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC));
+    }
+}
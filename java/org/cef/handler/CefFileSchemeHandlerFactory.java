@@ -0,0 +1,218 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.handler;
+
+import org.cef.browser.CefBrowser;
+import org.cef.browser.CefFrame;
+import org.cef.callback.CefSchemeHandlerFactory;
+import org.cef.network.CefRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Scheme handler factory that serves files below a root directory, or entries of a jar/zip
+ * archive, using {@link CefFileResourceHandler}. Register it with
+ * CefApp.registerSchemeHandlerFactory(). The path component of the request URL is resolved
+ * against the root; requests for a directory are served the "index.html" file it contains.
+ *
+ * Symbolic links below the root directory are followed only if their target is below the root
+ * as well.
+ *
+ * Archive entries are extracted to a temporary directory on first use so that they can be
+ * memory-mapped like regular files. The extraction runs on threads owned by this factory, not
+ * on the IO thread that creates the handler. Call close() when the factory is no longer used
+ * to close the archive and delete the extracted files; otherwise they are deleted on JVM exit.
+ */
+public class CefFileSchemeHandlerFactory implements CefSchemeHandlerFactory, Closeable {
+    private static final String INDEX_FILE = "index.html";
+    // Number of threads that extract archive entries concurrently.
+    private static final int EXTRACT_THREADS = 2;
+
+    private final Path root_;
+    private final ZipFile archive_;
+    private final ThreadPoolExecutor executor_;
+    private final ConcurrentHashMap<String, CompletableFuture<Path>> extracted_ =
+            new ConcurrentHashMap<>();
+    private Path extractDir_;
+    private volatile boolean closed_ = false;
+
+    /**
+     * Serve the contents of |root|, which may be a directory or a jar/zip archive.
+     */
+    public CefFileSchemeHandlerFactory(Path root) throws IOException {
+        if (Files.isDirectory(root)) {
+            root_ = root.toRealPath();
+            archive_ = null;
+            executor_ = null;
+        } else {
+            root_ = null;
+            archive_ = new ZipFile(root.toFile());
+            executor_ = new ThreadPoolExecutor(EXTRACT_THREADS, EXTRACT_THREADS, 10,
+                    TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                        Thread thread = new Thread(r, "CefFileSchemeHandlerFactory");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor_.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    @Override
+    public CefResourceHandler create(
+            CefBrowser browser, CefFrame frame, String schemeName, CefRequest request) {
+        String path = getRequestPath(request.getURL());
+        if (path == null) return new CefFileResourceHandler((Path) null, "text/plain");
+        if (archive_ != null) {
+            if (path.isEmpty() || path.endsWith("/")) path += INDEX_FILE;
+            ZipEntry entry = null;
+            try {
+                entry = archive_.getEntry(path);
+                if (entry != null && entry.isDirectory())
+                    entry = archive_.getEntry(path + "/" + INDEX_FILE);
+            } catch (IllegalStateException e) {
+                // The archive was closed.
+            }
+            if (entry == null) return new CefFileResourceHandler((Path) null, "text/plain");
+            return new CefFileResourceHandler(
+                    getExtractedFile(entry), CefFileResourceHandler.getMimeType(entry.getName()));
+        }
+        return new CefFileResourceHandler(resolveFile(path));
+    }
+
+    /**
+     * Closes the archive and deletes the files extracted from it. Requests for archive
+     * entries fail afterwards. Does nothing when serving a directory.
+     */
+    @Override
+    public void close() throws IOException {
+        if (archive_ == null) return;
+        synchronized (this) {
+            if (closed_) return;
+            closed_ = true;
+        }
+        executor_.shutdownNow();
+        try {
+            executor_.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        archive_.close();
+
+        // Requests waiting for an extraction that didn't run get a 404 response.
+        for (CompletableFuture<Path> task : extracted_.values()) {
+            task.complete(null);
+            Path file = task.getNow(null);
+            if (file != null) delete(file);
+        }
+        extracted_.clear();
+        synchronized (this) {
+            if (extractDir_ != null) delete(extractDir_);
+        }
+    }
+
+    /**
+     * Returns the decoded path of |url| without leading slash, or null if |url| is invalid.
+     */
+    private static String getRequestPath(String url) {
+        try {
+            String path = new URI(url).getPath();
+            if (path == null) return null;
+            while (path.startsWith("/")) path = path.substring(1);
+            return path;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the file for |path| below the root directory, or null if |path| is outside of it.
+     * Existing files are returned as real paths. Only valid when serving a directory.
+     */
+    protected Path resolveFile(String path) {
+        Path file = root_.resolve(path).normalize();
+        // Don't allow escaping from the root directory.
+        if (!file.startsWith(root_)) return null;
+        if (Files.isDirectory(file)) file = file.resolve(INDEX_FILE);
+        if (!Files.exists(file)) return file;
+        // Nor through symbolic links.
+        try {
+            file = file.toRealPath();
+        } catch (IOException e) {
+            return null;
+        }
+        return file.startsWith(root_) ? file : null;
+    }
+
+    // Extracts |entry| once on the executor. Concurrent requests for the same entry share the
+    // extraction.
+    private CompletableFuture<Path> getExtractedFile(ZipEntry entry) {
+        String name = entry.getName();
+        CompletableFuture<Path> task;
+        try {
+            task = extracted_.computeIfAbsent(
+                    name, key -> CompletableFuture.supplyAsync(() -> extract(entry), executor_));
+        } catch (RejectedExecutionException e) {
+            // Closed.
+            return CompletableFuture.completedFuture(null);
+        }
+        // Allow a later request to retry a failed extraction.
+        task.thenAccept(file -> {
+            if (file == null) extracted_.remove(name, task);
+        });
+        return task;
+    }
+
+    private Path extract(ZipEntry entry) {
+        try {
+            Path dir = getExtractDir();
+            Path file = Files.createTempFile(dir, "entry", "");
+            file.toFile().deleteOnExit();
+            try (InputStream in = archive_.getInputStream(entry)) {
+                Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            // Derive the Last-Modified validator from the archive entry.
+            if (entry.getTime() != -1)
+                Files.setLastModifiedTime(file, FileTime.fromMillis(entry.getTime()));
+            return file;
+        } catch (IOException | IllegalStateException e) {
+            // IllegalStateException if the archive was closed.
+            return null;
+        }
+    }
+
+    // Files that are still in use can't be deleted on all platforms. They are deleted on JVM
+    // exit instead.
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Nothing to do.
+        }
+    }
+
+    private synchronized Path getExtractDir() throws IOException {
+        if (extractDir_ == null) {
+            extractDir_ = Files.createTempDirectory("jcef-resources");
+            extractDir_.toFile().deleteOnExit();
+        }
+        return extractDir_;
+    }
+}
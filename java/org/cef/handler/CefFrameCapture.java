@@ -0,0 +1,188 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.handler;
+
+import org.cef.browser.CefBrowser;
+import org.cef.misc.CefLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Captures off-screen frames without blocking the thread that calls onPaint. Each captured
+ * frame is copied into a pooled direct buffer and written to a {@link CefFrameSink} by a
+ * bounded pool of worker threads. If all buffers are in use, i.e. the sink can't keep up,
+ * the frame is dropped instead of waiting.
+ *
+ * Call {@link #onPaint(CefBrowser, boolean, int[], int, ByteBuffer, int, int)} from
+ * CefRenderHandler.onPaint and {@link #close()} when done. This class is thread-safe.
+ */
+public class CefFrameCapture implements AutoCloseable {
+    private final CefFrameSink sink_;
+    private final int frameInterval_;
+    private final int maxBuffers_;
+    private final ArrayBlockingQueue<ByteBuffer> freeBuffers_;
+    private final AtomicInteger allocatedBuffers_ = new AtomicInteger();
+    private final ThreadPoolExecutor executor_;
+    private final AtomicLong frameIndex_ = new AtomicLong();
+    private final AtomicLong captured_ = new AtomicLong();
+    private final AtomicLong dropped_ = new AtomicLong();
+    private final AtomicLong failed_ = new AtomicLong();
+    private volatile boolean closed_ = false;
+
+    /**
+     * Captures every frame with one worker and up to three buffers.
+     */
+    public CefFrameCapture(CefFrameSink sink) {
+        this(sink, 1, 1, 3);
+    }
+
+    /**
+     * @param sink Receives the captured frames.
+     * @param frameInterval Capture every |frameInterval|th frame, at least 1.
+     * @param workers Number of worker threads, at least 1.
+     * @param maxBuffers Maximum number of frames queued or being written, at least
+     *         |workers|.
+     */
+    public CefFrameCapture(CefFrameSink sink, int frameInterval, int workers, int maxBuffers) {
+        if (frameInterval < 1)
+            throw new IllegalArgumentException("frameInterval: " + frameInterval);
+        if (workers < 1) throw new IllegalArgumentException("workers: " + workers);
+        if (maxBuffers < workers) throw new IllegalArgumentException("maxBuffers: " + maxBuffers);
+        sink_ = sink;
+        frameInterval_ = frameInterval;
+        maxBuffers_ = maxBuffers;
+        freeBuffers_ = new ArrayBlockingQueue<>(maxBuffers);
+        // The queue can hold every buffer, so submitting never blocks or rejects.
+        executor_ = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxBuffers), r -> {
+                    Thread thread = new Thread(r, "CefFrameCapture");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Captures the frame if it's due. Popup paints are ignored.
+     * @return True if the frame was queued for writing.
+     */
+    public boolean onPaint(CefBrowser browser, boolean popup, int[] dirtyRects,
+            int dirtyRectCount, ByteBuffer buffer, int width, int height) {
+        if (popup) return false;
+        return capture(buffer, width, height);
+    }
+
+    /**
+     * Captures a frame of BGRA pixels if it's due. Returns immediately; the frame is copied
+     * but not written on the calling thread.
+     * @param buffer |width| * |height| * 4 bytes of BGRA pixels starting at position 0.
+     * @return True if the frame was queued for writing.
+     */
+    public boolean capture(ByteBuffer buffer, int width, int height) {
+        long index = frameIndex_.getAndIncrement();
+        if (closed_ || index % frameInterval_ != 0) return false;
+
+        int size = width * height * 4;
+        ByteBuffer copy = acquireBuffer(size);
+        if (copy == null) {
+            dropped_.incrementAndGet();
+            return false;
+        }
+        ByteBuffer src = buffer.duplicate();
+        src.clear().limit(size);
+        copy.clear();
+        copy.put(src).flip();
+
+        long timestamp = System.nanoTime();
+        try {
+            executor_.execute(() -> write(copy, width, height, index, timestamp));
+        } catch (RejectedExecutionException e) {
+            // Closed concurrently.
+            freeBuffers_.offer(copy);
+            dropped_.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of frames written by the sink.
+     */
+    public long getCapturedFrameCount() {
+        return captured_.get();
+    }
+
+    /**
+     * @return The number of due frames that were dropped because no buffer was free.
+     */
+    public long getDroppedFrameCount() {
+        return dropped_.get();
+    }
+
+    /**
+     * @return The number of frames the sink failed to write.
+     */
+    public long getFailedFrameCount() {
+        return failed_.get();
+    }
+
+    /**
+     * Stops capturing, waits until the queued frames are written and closes the sink. An
+     * interrupt doesn't end the wait, because the sink must not be closed while it's written;
+     * the interrupt status is restored before returning.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed_) return;
+        closed_ = true;
+        executor_.shutdown();
+        boolean interrupted = false;
+        while (!executor_.isTerminated()) {
+            try {
+                executor_.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        try {
+            sink_.close();
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    // Returns a free buffer of at least |size| bytes or null if all buffers are in use.
+    private ByteBuffer acquireBuffer(int size) {
+        ByteBuffer buffer = freeBuffers_.poll();
+        if (buffer == null) {
+            if (allocatedBuffers_.incrementAndGet() > maxBuffers_) {
+                allocatedBuffers_.decrementAndGet();
+                return null;
+            }
+        } else if (buffer.capacity() >= size) {
+            return buffer;
+        }
+        // New buffer or the frame grew.
+        return ByteBuffer.allocateDirect(size);
+    }
+
+    private void write(ByteBuffer pixels, int width, int height, long index, long timestamp) {
+        try {
+            sink_.writeFrame(pixels, width, height, index, timestamp);
+            captured_.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            failed_.incrementAndGet();
+            CefLog.Error("CefFrameCapture: failed to write frame %d: %s", index, e);
+        } finally {
+            freeBuffers_.offer(pixels);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.handler;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Receives the frames captured by {@link CefFrameCapture}. writeFrame() is called on the
+ * worker threads of the capture, concurrently if the capture has more than one worker.
+ */
+public interface CefFrameSink {
+    /**
+     * Size in bytes of the per-frame header written by {@link #mappedVideo(File)}.
+     */
+    int VIDEO_HEADER_SIZE = 32;
+
+    /**
+     * Default size in bytes of the file regions mapped by {@link #mappedVideo(File)}.
+     */
+    long VIDEO_CHUNK_SIZE = 64L << 20;
+
+    /**
+     * Writes a frame.
+     * @param pixels BGRA pixels of the frame, |width| * |height| * 4 bytes starting at
+     *         position 0. Only valid during this call.
+     * @param width Width of the frame in pixels.
+     * @param height Height of the frame in pixels.
+     * @param frameIndex Index of the frame among all frames passed to the capture,
+     *         including skipped and dropped ones.
+     * @param timestampNanos Value of System.nanoTime() when the frame was captured.
+     */
+    void writeFrame(ByteBuffer pixels, int width, int height, long frameIndex,
+            long timestampNanos) throws IOException;
+
+    /**
+     * Called once after the last frame was written.
+     */
+    default void close() throws IOException {}
+
+    /**
+     * Returns a sink that writes each frame to "|directory|/frame-INDEX.png".
+     */
+    static CefFrameSink png(File directory) {
+        return new CefFrameSink() {
+            @Override
+            public void writeFrame(ByteBuffer pixels, int width, int height, long frameIndex,
+                    long timestampNanos) throws IOException {
+                BufferedImage image =
+                        new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+                int[] data = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+                // Little-endian BGRA bytes are ARGB ints.
+                pixels.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(data, 0, width * height);
+                File file = new File(directory, String.format("frame-%06d.png", frameIndex));
+                if (!ImageIO.write(image, "png", file))
+                    throw new IOException("No PNG writer available");
+            }
+        };
+    }
+
+    /**
+     * Returns a sink that writes the pixels of each frame unmodified to
+     * "|directory|/frame-INDEX-WIDTHxHEIGHT.bgra".
+     */
+    static CefFrameSink rawBgra(File directory) {
+        return new CefFrameSink() {
+            @Override
+            public void writeFrame(ByteBuffer pixels, int width, int height, long frameIndex,
+                    long timestampNanos) throws IOException {
+                File file = new File(directory,
+                        String.format("frame-%06d-%dx%d.bgra", frameIndex, width, height));
+                try (FileChannel channel = FileChannel.open(file.toPath(),
+                             StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                             StandardOpenOption.TRUNCATE_EXISTING)) {
+                    while (pixels.hasRemaining()) channel.write(pixels);
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns a sink that appends all frames to a single memory-mapped file. Each frame is
+     * stored as a little-endian header of {@link #VIDEO_HEADER_SIZE} bytes, holding the
+     * long frame index, the long timestamp, the int width and the int height, followed by
+     * the BGRA pixels. With more than one capture worker frames may be stored out of
+     * order; readers can sort them by index. The file is mapped in chunks of
+     * {@link #VIDEO_CHUNK_SIZE} bytes.
+     */
+    static CefFrameSink mappedVideo(File file) throws IOException {
+        return mappedVideo(file, VIDEO_CHUNK_SIZE);
+    }
+
+    /**
+     * Like {@link #mappedVideo(File)}, but maps the file in chunks of |chunkSize| bytes. At
+     * most one chunk per concurrent writer is mapped at a time; a chunk is unmapped once it
+     * is full and the rest when the sink is closed.
+     */
+    static CefFrameSink mappedVideo(File file, long chunkSize) throws IOException {
+        return new CefMappedVideoSink(file, chunkSize);
+    }
+}
@@ -0,0 +1,148 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.handler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sink returned by {@link CefFrameSink#mappedVideo(File, long)}. The file is written through
+ * mappings of fixed-size chunks. Records may span chunks, and a chunk is unmapped as soon as
+ * all of its bytes were written.
+ */
+class CefMappedVideoSink implements CefFrameSink {
+    private static final class Chunk {
+        final MappedByteBuffer buffer;
+        long written = 0;
+
+        Chunk(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    private final RandomAccessFile file_;
+    private final FileChannel channel_;
+    private final long chunkSize_;
+    // Guarded by |this|.
+    private final Map<Long, Chunk> chunks_ = new HashMap<>();
+    private long position_ = 0;
+    private boolean closed_ = false;
+
+    CefMappedVideoSink(File file, long chunkSize) throws IOException {
+        if (chunkSize <= 0 || chunkSize > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("chunkSize: " + chunkSize);
+        chunkSize_ = chunkSize;
+        file_ = new RandomAccessFile(file, "rw");
+        file_.setLength(0);
+        channel_ = file_.getChannel();
+    }
+
+    @Override
+    public void writeFrame(ByteBuffer pixels, int width, int height, long frameIndex,
+            long timestampNanos) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(VIDEO_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(frameIndex).putLong(timestampNanos).putInt(width).putInt(height);
+        header.clear();
+        ByteBuffer data = pixels.duplicate();
+        data.limit(width * height * 4).position(0);
+
+        long position;
+        synchronized (this) {
+            if (closed_) throw new IOException("Sink is closed");
+            position = position_;
+            position_ += VIDEO_HEADER_SIZE + data.remaining();
+        }
+        // Concurrent writers write disjoint regions.
+        position = write(position, header);
+        write(position, data);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed_) return;
+        closed_ = true;
+        for (Chunk chunk : chunks_.values()) unmap(chunk.buffer);
+        chunks_.clear();
+        try {
+            // Mapping the last chunk extended the file beyond the last record.
+            file_.setLength(position_);
+        } finally {
+            file_.close();
+        }
+    }
+
+    // Copies |data| to the file at |position|. Returns the position after it.
+    private long write(long position, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            long index = position / chunkSize_;
+            int offset = (int) (position % chunkSize_);
+            ByteBuffer target = getChunk(index).buffer.duplicate();
+            target.position(offset);
+            int length = Math.min(target.remaining(), data.remaining());
+            ByteBuffer part = data.duplicate();
+            part.limit(part.position() + length);
+            target.put(part);
+            data.position(data.position() + length);
+            position += length;
+            chunkWritten(index, length);
+        }
+        return position;
+    }
+
+    private synchronized Chunk getChunk(long index) throws IOException {
+        Chunk chunk = chunks_.get(index);
+        if (chunk == null) {
+            // Mapping extends the file as needed.
+            chunk = new Chunk(
+                    channel_.map(FileChannel.MapMode.READ_WRITE, index * chunkSize_, chunkSize_));
+            chunks_.put(index, chunk);
+        }
+        return chunk;
+    }
+
+    // Each byte is written once, so a chunk is complete when |chunkSize_| bytes were written.
+    private synchronized void chunkWritten(long index, int length) {
+        Chunk chunk = chunks_.get(index);
+        chunk.written += length;
+        if (chunk.written == chunkSize_) {
+            chunks_.remove(index);
+            unmap(chunk.buffer);
+        }
+    }
+
+    // Releases the mapping of |buffer| now instead of when it's garbage collected. The buffer
+    // must not be used afterwards.
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            // Java 9 and newer.
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            invokeCleaner.invoke(field.get(null), buffer);
+            return;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Not available.
+        }
+        try {
+            // Java 8.
+            Method cleaner = buffer.getClass().getMethod("cleaner");
+            cleaner.setAccessible(true);
+            Object instance = cleaner.invoke(buffer);
+            if (instance != null) instance.getClass().getMethod("clean").invoke(instance);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // The mapping is released when the buffer is garbage collected.
+        }
+    }
+}
@@ -70,6 +70,56 @@ public interface CefRenderHandler {
     public void onPaint(CefBrowser browser, boolean popup, Rectangle[] dirtyRects,
             ByteBuffer buffer, int width, int height);
 
+    /**
+     * Handle painting without allocating per-frame objects. This is the variant called by the
+     * native code. The default implementation converts the dirty regions to Rectangle objects
+     * and calls {@link #onPaint(CefBrowser, boolean, Rectangle[], ByteBuffer, int, int)}, so
+     * implementations only need to override this method to avoid those allocations.
+     *
+     * Both |dirtyRects| and |buffer| are reused between calls and must not be retained after
+     * this method returns. The buffer position is reset to zero before each call. The
+     * regions may be rewritten in place, e.g. with {@link CefDirtyRectPlanner}.
+     * @param browser The browser generating the event.
+     * @param popup True if painting a popup window.
+     * @param dirtyRects Dirty regions packed as {x, y, width, height} quadruples. The array may
+     *         be longer than needed; only the first |dirtyRectCount| quadruples are valid.
+     * @param dirtyRectCount Number of dirty regions in |dirtyRects|.
+     * @param buffer Pixel buffer for the whole window.
+     * @param width Width of the buffer.
+     * @param height Height of the buffer.
+     */
+    public default void onPaint(CefBrowser browser, boolean popup, int[] dirtyRects,
+            int dirtyRectCount, ByteBuffer buffer, int width, int height) {
+        Rectangle[] rects = new Rectangle[dirtyRectCount];
+        for (int i = 0; i < dirtyRectCount; ++i) {
+            rects[i] = new Rectangle(dirtyRects[i * 4], dirtyRects[i * 4 + 1],
+                    dirtyRects[i * 4 + 2], dirtyRects[i * 4 + 3]);
+        }
+        onPaint(browser, popup, rects, buffer, width, height);
+    }
+
+    /**
+     * Variant of {@link #onPaint(CefBrowser, boolean, int[], int, ByteBuffer, int, int)} that
+     * the native code calls for view paints instead while paint timing is enabled with
+     * CefBrowser_N.setPaintTimingEnabled(). The default implementation ignores |startNanos|.
+     * @param startNanos The System.nanoTime() value at the start of the native OnPaint.
+     */
+    public default void onPaint(CefBrowser browser, boolean popup, int[] dirtyRects,
+            int dirtyRectCount, ByteBuffer buffer, int width, int height, long startNanos) {
+        onPaint(browser, popup, dirtyRects, dirtyRectCount, buffer, width, height);
+    }
+
+    /**
+     * Called by the native code after each view paint with the time spent on the native
+     * side, if enabled with CefBrowser_N.setPaintTimingEnabled(). The default implementation
+     * does nothing.
+     * @param browser The browser generating the event.
+     * @param prepareNanos Time spent in the native OnPaint before calling onPaint.
+     * @param callNanos Duration of the onPaint call as measured by the native code,
+     *         including the JNI transitions.
+     */
+    public default void onPaintTiming(CefBrowser browser, long prepareNanos, long callNanos) {}
+
     /**
      * Handle cursor changes.
      * @param browser The browser generating the event.
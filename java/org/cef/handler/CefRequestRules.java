@@ -0,0 +1,349 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.handler;
+
+import org.cef.browser.CefBrowser;
+import org.cef.browser.CefFrame;
+import org.cef.network.CefRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Declarative rules for resource requests. PREFIX, HOST and GLOB rules are evaluated in native
+ * code without calling into Java; REGEX rules are evaluated in Java with java.util.regex. Install
+ * them with CefClient.setRequestRules(). The first rule that matches the URL
+ * of a request is applied and the CefRequestHandler of the client is not called for that
+ * request. Requests that match no rule are passed to the CefRequestHandler as before. Requests
+ * without a browser, e.g. from service workers, always go to the CefRequestHandler.
+ *
+ * A rule without actions lets matching requests load unchanged. Redirected requests are matched
+ * again, so a redirect target should not match the rule that produced it.
+ *
+ * The rules are copied when they are installed; changes afterwards take effect with the next
+ * call to CefClient.setRequestRules().
+ */
+public final class CefRequestRules {
+    public enum MatchType {
+        /**
+         * The URL starts with the pattern.
+         */
+        PREFIX,
+
+        /**
+         * The host of the URL equals the pattern or is a subdomain of it. Case insensitive.
+         */
+        HOST,
+
+        /**
+         * The whole URL matches the pattern, in which '*' matches any sequence of characters.
+         */
+        GLOB,
+
+        /**
+         * The whole URL matches the java.util.regex regular expression. Native code stops at the
+         * first REGEX rule and passes the request to Java, which evaluates the remaining rules
+         * before calling the CefRequestHandler. Put REGEX rules last so that requests matching
+         * the other rules don't need the upcall.
+         */
+        REGEX
+    }
+
+    public static final class Rule {
+        // The fields are read by native code.
+        private final MatchType type_;
+        private final String pattern_;
+        private final Pattern regex_;
+        private boolean cancel_ = false;
+        private String redirect_ = null;
+        private String[] setHeaders_ = new String[0];
+        private String[] removeHeaders_ = new String[0];
+
+        /**
+         * @throws IllegalArgumentException If |pattern| is not valid for |type|.
+         */
+        public Rule(MatchType type, String pattern) {
+            if (type == null || pattern == null || pattern.isEmpty())
+                throw new IllegalArgumentException("Missing type or pattern");
+            type_ = type;
+            if (type == MatchType.HOST) {
+                pattern_ = pattern.toLowerCase(Locale.ROOT);
+            } else {
+                pattern_ = pattern;
+            }
+            if (type == MatchType.REGEX) {
+                try {
+                    regex_ = Pattern.compile(pattern);
+                } catch (PatternSyntaxException e) {
+                    throw new IllegalArgumentException(e.getMessage(), e);
+                }
+            } else {
+                regex_ = null;
+            }
+        }
+
+        private Rule(Rule other) {
+            type_ = other.type_;
+            pattern_ = other.pattern_;
+            regex_ = other.regex_;
+            cancel_ = other.cancel_;
+            redirect_ = other.redirect_;
+            setHeaders_ = other.setHeaders_;
+            removeHeaders_ = other.removeHeaders_;
+        }
+
+        /**
+         * Cancels matching requests. Other actions of the rule are ignored.
+         */
+        public Rule cancel() {
+            cancel_ = true;
+            return this;
+        }
+
+        /**
+         * Redirects matching requests. For PREFIX rules |url| replaces the matched prefix. For
+         * REGEX rules $1 to $9 in |url| are replaced with the groups of the match and $$ with $.
+         * For other rules |url| is the new URL.
+         */
+        public Rule redirect(String url) {
+            redirect_ = url;
+            return this;
+        }
+
+        /**
+         * Sets header |name| of matching requests to |value|, replacing existing values.
+         */
+        public Rule setHeader(String name, String value) {
+            setHeaders_ = Arrays.copyOf(setHeaders_, setHeaders_.length + 2);
+            setHeaders_[setHeaders_.length - 2] = name;
+            setHeaders_[setHeaders_.length - 1] = value;
+            return this;
+        }
+
+        /**
+         * Removes header |name| from matching requests. Applied before setHeader().
+         */
+        public Rule removeHeader(String name) {
+            removeHeaders_ = Arrays.copyOf(removeHeaders_, removeHeaders_.length + 1);
+            removeHeaders_[removeHeaders_.length - 1] = name;
+            return this;
+        }
+
+        public MatchType getType() {
+            return type_;
+        }
+
+        public String getPattern() {
+            return pattern_;
+        }
+
+        public boolean matches(String url) {
+            switch (type_) {
+                case PREFIX:
+                    return url.startsWith(pattern_);
+                case HOST:
+                    return matchesHost(getHost(url), pattern_);
+                case GLOB:
+                    return matchesGlob(url, pattern_);
+                default:
+                    return regex_.matcher(url).matches();
+            }
+        }
+
+        /**
+         * @return The URL that a request for matching |url| is redirected to, or null.
+         */
+        public String getRedirectUrl(String url) {
+            if (cancel_ || redirect_ == null) return null;
+            switch (type_) {
+                case PREFIX:
+                    return redirect_ + url.substring(pattern_.length());
+                case REGEX:
+                    Matcher matcher = regex_.matcher(url);
+                    return matcher.matches() ? expand(redirect_, matcher) : null;
+                default:
+                    return redirect_;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return type_ + " " + pattern_;
+        }
+
+        // Applies the rule to |request| the same way RuleResourceRequestHandler in
+        // native/request_rules.cpp does. Returns true if the request is canceled.
+        private boolean apply(CefRequest request) {
+            if (cancel_) return true;
+
+            if (removeHeaders_.length > 0) {
+                String[] headers = request.getHeaderArray();
+                List<String> kept = new ArrayList<>(headers.length);
+                for (int i = 0; i + 1 < headers.length; i += 2) {
+                    if (!containsIgnoreCase(removeHeaders_, headers[i])) {
+                        kept.add(headers[i]);
+                        kept.add(headers[i + 1]);
+                    }
+                }
+                request.setHeaderArray(kept.toArray(new String[0]));
+            }
+            if (setHeaders_.length > 0) request.setHeadersByName(setHeaders_, true);
+
+            if (redirect_ != null) {
+                String url = request.getURL();
+                String newUrl = getRedirectUrl(url);
+                // Changing the URL is treated as a redirect.
+                if (newUrl != null && !newUrl.equals(url)) request.setURL(newUrl);
+            }
+            return false;
+        }
+    }
+
+    // Applies a rule matched in Java in onBeforeResourceLoad.
+    private static final class RuleResourceRequestHandler
+            extends CefResourceRequestHandlerAdapter {
+        private final Rule rule_;
+
+        RuleResourceRequestHandler(Rule rule) {
+            rule_ = rule;
+        }
+
+        @Override
+        public boolean onBeforeResourceLoad(
+                CefBrowser browser, CefFrame frame, CefRequest request) {
+            return rule_.apply(request);
+        }
+    }
+
+    private final List<Rule> rules_ = new ArrayList<>();
+
+    public CefRequestRules add(Rule rule) {
+        if (rule == null) throw new IllegalArgumentException("Missing rule");
+        rules_.add(rule);
+        return this;
+    }
+
+    public List<Rule> getRules() {
+        return Collections.unmodifiableList(rules_);
+    }
+
+    /**
+     * Evaluates the rules in Java the same way native code does.
+     * @return The first rule matching |url| or null.
+     */
+    public Rule findRule(String url) {
+        for (Rule rule : rules_) {
+            if (rule.matches(url)) return rule;
+        }
+        return null;
+    }
+
+    // Returns a copy of the rules that later changes to the Rule objects don't affect.
+    CefRequestRules copy() {
+        CefRequestRules copy = new CefRequestRules();
+        for (Rule rule : rules_) copy.rules_.add(new Rule(rule));
+        return copy;
+    }
+
+    boolean hasRegexRule() {
+        for (Rule rule : rules_) {
+            if (rule.type_ == MatchType.REGEX) return true;
+        }
+        return false;
+    }
+
+    // Returns a handler that applies the first rule matching the URL of |request|, or null.
+    // Called for requests that native code passed to Java because it reached a REGEX rule.
+    CefResourceRequestHandler getResourceRequestHandler(CefRequest request) {
+        Rule rule = findRule(request.getURL());
+        return rule != null ? new RuleResourceRequestHandler(rule) : null;
+    }
+
+    // Returns the lower case host of |url| or null if it has none. Mirrors GetHost() in
+    // native/request_rules.cpp.
+    static String getHost(String url) {
+        int start = url.indexOf("://");
+        if (start < 0) return null;
+        start += 3;
+        int end = start;
+        while (end < url.length() && "/?#".indexOf(url.charAt(end)) < 0) ++end;
+        String authority = url.substring(start, end);
+        authority = authority.substring(authority.lastIndexOf('@') + 1);
+        int hostEnd;
+        if (authority.startsWith("[")) {
+            hostEnd = authority.indexOf(']') + 1;
+            if (hostEnd == 0) hostEnd = authority.length();
+        } else {
+            hostEnd = authority.indexOf(':');
+            if (hostEnd < 0) hostEnd = authority.length();
+        }
+        return authority.substring(0, hostEnd).toLowerCase(Locale.ROOT);
+    }
+
+    static boolean matchesHost(String host, String pattern) {
+        if (host == null || !host.endsWith(pattern)) return false;
+        int dot = host.length() - pattern.length() - 1;
+        return dot < 0 || host.charAt(dot) == '.';
+    }
+
+    private static boolean containsIgnoreCase(String[] names, String name) {
+        for (String n : names) {
+            if (n.equalsIgnoreCase(name)) return true;
+        }
+        return false;
+    }
+
+    // Iterative wildcard match that backtracks only to the last '*'.
+    static boolean matchesGlob(String text, String pattern) {
+        int t = 0, p = 0, star = -1, mark = 0;
+        while (t < text.length()) {
+            if (p < pattern.length() && pattern.charAt(p) == '*') {
+                star = p++;
+                mark = t;
+            } else if (p < pattern.length() && pattern.charAt(p) == text.charAt(t)) {
+                ++p;
+                ++t;
+            } else if (star >= 0) {
+                p = star + 1;
+                t = ++mark;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') ++p;
+        return p == pattern.length();
+    }
+
+    // Replaces $1 to $9 and $$ in |replacement|.
+    static String expand(String replacement, Matcher matcher) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < replacement.length(); ++i) {
+            char c = replacement.charAt(i);
+            if (c == '$' && i + 1 < replacement.length()) {
+                char next = replacement.charAt(i + 1);
+                if (next == '$') {
+                    result.append('$');
+                    ++i;
+                    continue;
+                }
+                if (next >= '1' && next <= '9') {
+                    int group = next - '0';
+                    if (group <= matcher.groupCount() && matcher.group(group) != null)
+                        result.append(matcher.group(group));
+                    ++i;
+                    continue;
+                }
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+}
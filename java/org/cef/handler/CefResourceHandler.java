@@ -11,6 +11,8 @@ import org.cef.network.CefCookie;
 import org.cef.network.CefRequest;
 import org.cef.network.CefResponse;
 
+import java.nio.ByteBuffer;
+
 /**
  * Implement this interface to handle custom resource requests. The methods of
  * this class will always be called on the IO thread.
@@ -52,6 +54,28 @@ public interface CefResourceHandler {
      */
     boolean readResponse(byte[] dataOut, int bytesToRead, IntRef bytesRead, CefCallback callback);
 
+    /**
+     * Read response data directly into the network buffer. This is the variant called by the
+     * native code. The default implementation calls
+     * {@link #readResponse(byte[], int, IntRef, CefCallback)} and copies the result into
+     * |dataOut|, so implementations only need to override this method to avoid the intermediate
+     * array. The semantics of |bytesRead| and the return value are the same.
+     * @param dataOut Direct buffer that wraps the native output buffer. Write up to
+     *         dataOut.remaining() bytes starting at the current position. The buffer is only
+     *         valid within the scope of this method and must not be retained.
+     * @param bytesRead Number of bytes written to the buffer.
+     * @param callback Callback to execute if data will be available asynchronously.
+     * @return True if more data is or will be available.
+     */
+    default boolean readResponse(ByteBuffer dataOut, IntRef bytesRead, CefCallback callback) {
+        int bytesToRead = dataOut.remaining();
+        byte[] data = new byte[bytesToRead];
+        boolean result = readResponse(data, bytesToRead, bytesRead, callback);
+        int length = Math.min(Math.max(bytesRead.get(), 0), bytesToRead);
+        if (length > 0) dataOut.put(data, 0, length);
+        return result;
+    }
+
     /**
      * Request processing has been canceled.
      */
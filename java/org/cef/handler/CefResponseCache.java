@@ -0,0 +1,293 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.handler;
+
+import org.cef.network.CefRequest;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory response cache that is bounded by the total size of the cached responses and evicts
+ * the least recently used entries first. Only GET requests whose URL matches one of the
+ * configured patterns are cached, and the Cache-Control and Expires response headers are
+ * honoured. Entries are keyed by URL only, so requests with credentials and responses that
+ * are private, set cookies or vary by request headers other than Accept-Encoding are not
+ * cached. A single instance may be shared by any number of
+ * {@link CefCachingResourceRequestHandler} objects. This class is thread-safe.
+ */
+public class CefResponseCache {
+    // Larger max-age values are treated as this, as RFC 7234 recommends. It keeps the lifetime
+    // in milliseconds in range.
+    private static final long MAX_AGE_SECONDS = Integer.MAX_VALUE;
+
+    /**
+     * A cached response.
+     */
+    public static final class Entry {
+        private final int status_;
+        private final String statusText_;
+        private final String mimeType_;
+        private final Map<String, String> headers_;
+        private final byte[] data_;
+        private final long expires_;
+
+        Entry(int status, String statusText, String mimeType, Map<String, String> headers,
+                byte[] data, long expires) {
+            status_ = status;
+            statusText_ = statusText;
+            mimeType_ = mimeType;
+            headers_ = Collections.unmodifiableMap(headers);
+            data_ = data;
+            expires_ = expires;
+        }
+
+        public int getStatus() {
+            return status_;
+        }
+
+        public String getStatusText() {
+            return statusText_;
+        }
+
+        public String getMimeType() {
+            return mimeType_;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers_;
+        }
+
+        /**
+         * Returns the response body. The array must not be modified.
+         */
+        public byte[] getData() {
+            return data_;
+        }
+
+        /**
+         * Returns the time in milliseconds since the epoch after which the entry is stale.
+         */
+        public long getExpires() {
+            return expires_;
+        }
+
+        long getByteSize() {
+            long size = data_.length;
+            for (Map.Entry<String, String> header : headers_.entrySet())
+                size += 2 * (header.getKey().length() + header.getValue().length());
+            return size;
+        }
+    }
+
+    private final long maxBytes_;
+    private final long defaultMaxAge_;
+    private final Pattern[] urlPatterns_;
+    private final LinkedHashMap<String, Entry> entries_ = new LinkedHashMap<>(16, 0.75f, true);
+    private long byteSize_ = 0;
+    private long hitCount_ = 0;
+    private long missCount_ = 0;
+
+    /**
+     * Create a new cache.
+     * @param maxBytes Maximum total size of the cached responses in bytes.
+     * @param defaultMaxAge Lifetime in milliseconds of responses that don't specify one using
+     *         Cache-Control or Expires. Use 0 to only cache responses that do.
+     * @param urlPatterns Regular expressions matched against the complete request URL. If none
+     *         are specified all URLs may be cached.
+     */
+    public CefResponseCache(long maxBytes, long defaultMaxAge, String... urlPatterns) {
+        maxBytes_ = maxBytes;
+        defaultMaxAge_ = defaultMaxAge;
+        urlPatterns_ = new Pattern[urlPatterns.length];
+        for (int i = 0; i < urlPatterns.length; ++i)
+            urlPatterns_[i] = Pattern.compile(urlPatterns[i]);
+    }
+
+    /**
+     * Returns true if the response to |request| may be served from or stored in the cache.
+     */
+    public boolean isCacheable(CefRequest request) {
+        if (!"GET".equalsIgnoreCase(request.getMethod())) return false;
+        if (!matchesUrl(request.getURL())) return false;
+
+        String range = request.getHeaderByName("Range");
+        if (range != null && !range.isEmpty()) return false;
+        // Entries are shared by all requests for a URL.
+        String authorization = request.getHeaderByName("Authorization");
+        if (authorization != null && !authorization.isEmpty()) return false;
+        String cacheControl = request.getHeaderByName("Cache-Control");
+        if (cacheControl != null) {
+            cacheControl = cacheControl.toLowerCase(Locale.ROOT);
+            if (cacheControl.contains("no-store") || cacheControl.contains("no-cache"))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the fresh entry for |url| or null.
+     */
+    public synchronized Entry get(String url) {
+        Entry entry = entries_.get(url);
+        if (entry != null && entry.getExpires() <= System.currentTimeMillis()) {
+            remove(url);
+            entry = null;
+        }
+        if (entry != null)
+            hitCount_++;
+        else
+            missCount_++;
+        return entry;
+    }
+
+    /**
+     * Store a response for |url| if the response headers allow it. Least recently used entries
+     * are evicted as necessary to stay within the size limit.
+     * @return True if the response was stored.
+     */
+    public boolean put(String url, int status, String statusText, String mimeType,
+            Map<String, String> headers, byte[] data) {
+        if (status != 200) return false;
+        long maxAge = getMaxAge(headers);
+        if (maxAge <= 0) return false;
+
+        long now = System.currentTimeMillis();
+        long expires = maxAge < Long.MAX_VALUE - now ? now + maxAge : Long.MAX_VALUE;
+        Entry entry = new Entry(status, statusText, mimeType, headers, data, expires);
+        long size = entry.getByteSize();
+        if (size > maxBytes_) return false;
+
+        synchronized (this) {
+            remove(url);
+            entries_.put(url, entry);
+            byteSize_ += size;
+
+            Iterator<Map.Entry<String, Entry>> it = entries_.entrySet().iterator();
+            while (byteSize_ > maxBytes_ && it.hasNext()) {
+                byteSize_ -= it.next().getValue().getByteSize();
+                it.remove();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remove the entry for |url| if any.
+     */
+    public synchronized void invalidate(String url) {
+        remove(url);
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public synchronized void clear() {
+        entries_.clear();
+        byteSize_ = 0;
+    }
+
+    /**
+     * Returns the maximum total size in bytes of the cached responses.
+     */
+    public long getMaxBytes() {
+        return maxBytes_;
+    }
+
+    public synchronized long getByteSize() {
+        return byteSize_;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries_.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount_;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount_;
+    }
+
+    private void remove(String url) {
+        Entry entry = entries_.remove(url);
+        if (entry != null) byteSize_ -= entry.getByteSize();
+    }
+
+    private boolean matchesUrl(String url) {
+        if (urlPatterns_.length == 0) return true;
+        for (Pattern pattern : urlPatterns_) {
+            if (pattern.matcher(url).matches()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the lifetime in milliseconds allowed by the response |headers|, or 0 if the
+     * response must not be stored. Entries are keyed by URL only and shared by all users of
+     * the cache, so responses that vary by request headers other than Accept-Encoding, that
+     * are private or that set cookies are not stored.
+     */
+    private long getMaxAge(Map<String, String> headers) {
+        Map<String, String> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        map.putAll(headers);
+
+        String vary = map.get("Vary");
+        if (vary != null) {
+            for (String header : vary.split(",")) {
+                header = header.trim();
+                if (!header.isEmpty() && !header.equalsIgnoreCase("Accept-Encoding")) return 0;
+            }
+        }
+        if (map.containsKey("Set-Cookie")) return 0;
+
+        String cacheControl = map.get("Cache-Control");
+        if (cacheControl != null) {
+            long maxAge = -1;
+            for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+                directive = directive.trim();
+                if (directive.equals("no-store") || directive.equals("no-cache")
+                        || directive.equals("private")) {
+                    return 0;
+                }
+                if (directive.startsWith("max-age=") && maxAge < 0)
+                    maxAge = parseSeconds(directive.substring(8));
+            }
+            if (maxAge >= 0) return maxAge * 1000;
+        }
+
+        String expires = map.get("Expires");
+        if (expires != null) {
+            try {
+                long time = ZonedDateTime.parse(expires, DateTimeFormatter.RFC_1123_DATE_TIME)
+                                    .toInstant()
+                                    .toEpochMilli();
+                return Math.max(0, time - System.currentTimeMillis());
+            } catch (DateTimeParseException e) {
+                // An invalid date means that the response is already expired.
+                return 0;
+            }
+        }
+        return defaultMaxAge_;
+    }
+
+    private static long parseSeconds(String value) {
+        try {
+            long seconds = Long.parseLong(value.trim().replace("\"", ""));
+            return Math.max(0, Math.min(seconds, MAX_AGE_SECONDS));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -5,6 +5,7 @@
 package org.cef.handler;
 
 import java.awt.Rectangle;
+import java.util.Objects;
 
 /**
  *
@@ -33,4 +34,24 @@ public class CefScreenInfo {
         this.available_width = availableRect.width;
         this.available_height = availableRect.height;
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof CefScreenInfo)) return false;
+        CefScreenInfo other = (CefScreenInfo) obj;
+        return device_scale_factor == other.device_scale_factor && depth == other.depth
+                && depth_per_component == other.depth_per_component
+                && is_monochrome == other.is_monochrome && x == other.x && y == other.y
+                && width == other.width && height == other.height
+                && available_x == other.available_x && available_y == other.available_y
+                && available_width == other.available_width
+                && available_height == other.available_height;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(device_scale_factor, depth, depth_per_component, is_monochrome, x, y,
+                width, height, available_x, available_y, available_width, available_height);
+    }
 }
@@ -0,0 +1,110 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.handler;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Layout of the shared frame ring file written by {@link CefSharedFrameWriter} and read by
+ * {@link CefSharedFrameReader}. All values are little-endian so that native readers can
+ * use the file as well.
+ *
+ * The file starts with a header of HEADER_SIZE bytes, followed by |slotCount| slots of
+ * |slotSize| bytes. Frames are numbered from 1 and frame N is stored in slot
+ * N % slotCount. Each slot starts with a header of SLOT_HEADER_SIZE bytes, followed by
+ * the BGRA pixels of the frame.
+ *
+ * The first long of each slot is a sequence lock: the writer makes it odd before it
+ * modifies the slot and even again afterwards. A reader that sees the same even value
+ * before and after reading a slot has read a consistent frame.
+ */
+final class CefSharedFrameLayout {
+    static final int MAGIC = 0x4645434a; // "JCEF"
+    static final int VERSION = 1;
+
+    // File header.
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int SLOT_COUNT_OFFSET = 8;
+    static final int MAX_RECTS_OFFSET = 12;
+    static final int SLOT_SIZE_OFFSET = 16;
+    static final int PIXEL_CAPACITY_OFFSET = 24;
+    // Number of the newest complete frame or 0 if no frame was written yet.
+    static final int LATEST_FRAME_OFFSET = 32;
+    static final int HEADER_SIZE = 64;
+
+    // Slot header.
+    static final int SEQUENCE_OFFSET = 0;
+    static final int FRAME_OFFSET = 8;
+    static final int TIMESTAMP_OFFSET = 16;
+    static final int WIDTH_OFFSET = 24;
+    static final int HEIGHT_OFFSET = 28;
+    static final int RECT_COUNT_OFFSET = 32;
+    // {x, y, width, height} ints of up to MAX_RECTS dirty rects.
+    static final int RECTS_OFFSET = 64;
+    static final int MAX_RECTS = 32;
+    static final int SLOT_HEADER_SIZE = RECTS_OFFSET + MAX_RECTS * 16;
+
+    // The fences are looked up once so that the tree builds with Java 8 without referring to
+    // internal API: VarHandle on Java 9 and newer, sun.misc.Unsafe on Java 8.
+    private static final MethodHandle STORE_FENCE;
+    private static final MethodHandle LOAD_FENCE;
+
+    static {
+        MethodType type = MethodType.methodType(void.class);
+        MethodHandle storeFence;
+        MethodHandle loadFence;
+        try {
+            Class<?> varHandle = Class.forName("java.lang.invoke.VarHandle");
+            storeFence = MethodHandles.publicLookup().findStatic(varHandle, "releaseFence", type);
+            loadFence = MethodHandles.publicLookup().findStatic(varHandle, "acquireFence", type);
+        } catch (ReflectiveOperationException e) {
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field field = unsafeClass.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                Object unsafe = field.get(null);
+                storeFence = MethodHandles.publicLookup()
+                                     .findVirtual(unsafeClass, "storeFence", type)
+                                     .bindTo(unsafe);
+                loadFence = MethodHandles.publicLookup()
+                                    .findVirtual(unsafeClass, "loadFence", type)
+                                    .bindTo(unsafe);
+            } catch (ReflectiveOperationException e2) {
+                throw new ExceptionInInitializerError(e2);
+            }
+        }
+        STORE_FENCE = storeFence;
+        LOAD_FENCE = loadFence;
+    }
+
+    private CefSharedFrameLayout() {}
+
+    static long slotSize(long pixelCapacity) {
+        // Keep the slots aligned to pages.
+        return (SLOT_HEADER_SIZE + pixelCapacity + 4095) & ~4095L;
+    }
+
+    // Orders the stores before the fence before the stores after it.
+    static void storeFence() {
+        try {
+            STORE_FENCE.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Orders the loads before the fence before the loads after it.
+    static void loadFence() {
+        try {
+            LOAD_FENCE.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
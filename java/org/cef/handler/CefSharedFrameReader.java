@@ -0,0 +1,191 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.handler;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads the frames published by a {@link CefSharedFrameWriter}, usually in another
+ * process. Any number of readers may map the same file. Frames are read without copying:
+ * the pixels of a {@link Frame} are a view of the shared slot, and the writer may
+ * overwrite the slot at any time. Callers must therefore check {@link Frame#isValid()}
+ * after they are done with the pixels and discard their results if it returns false.
+ *
+ * A reader instance is not thread-safe.
+ */
+public class CefSharedFrameReader implements AutoCloseable {
+    // Number of attempts to find a slot that is not being written.
+    private static final int MAX_ATTEMPTS = 100;
+
+    private final RandomAccessFile file_;
+    private final MappedByteBuffer buffer_;
+    private final int slotCount_;
+    private final long slotSize_;
+
+    /**
+     * A frame in the ring.
+     */
+    public final class Frame {
+        private final int slot_;
+        private final long sequence_;
+        private final long number_;
+        private final long timestampNanos_;
+        private final int width_;
+        private final int height_;
+        private final Rectangle[] dirtyRects_;
+
+        private Frame(int slot, long sequence, long number, long timestampNanos, int width,
+                int height, Rectangle[] dirtyRects) {
+            slot_ = slot;
+            sequence_ = sequence;
+            number_ = number;
+            timestampNanos_ = timestampNanos;
+            width_ = width;
+            height_ = height;
+            dirtyRects_ = dirtyRects;
+        }
+
+        /**
+         * @return The frame number, starting at 1.
+         */
+        public long getNumber() {
+            return number_;
+        }
+
+        /**
+         * @return The System.nanoTime() of the writer process when the frame was written.
+         */
+        public long getTimestampNanos() {
+            return timestampNanos_;
+        }
+
+        public int getWidth() {
+            return width_;
+        }
+
+        public int getHeight() {
+            return height_;
+        }
+
+        /**
+         * @return The regions that changed since the previous frame.
+         */
+        public Rectangle[] getDirtyRects() {
+            return dirtyRects_.clone();
+        }
+
+        /**
+         * Returns a read-only little-endian view of the BGRA pixels in the shared slot.
+         */
+        public ByteBuffer getPixels() {
+            ByteBuffer pixels = buffer_.duplicate();
+            pixels.position(slot_ + CefSharedFrameLayout.SLOT_HEADER_SIZE);
+            pixels.limit(slot_ + CefSharedFrameLayout.SLOT_HEADER_SIZE + width_ * height_ * 4);
+            return pixels.slice().asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        /**
+         * @return True if the slot was not modified since this frame was read, i.e. all
+         *         data read from it so far is consistent.
+         */
+        public boolean isValid() {
+            CefSharedFrameLayout.loadFence();
+            return buffer_.getLong(slot_ + CefSharedFrameLayout.SEQUENCE_OFFSET) == sequence_;
+        }
+    }
+
+    /**
+     * Maps the ring file written by a CefSharedFrameWriter.
+     * @throws IOException If the file can't be read or is not a frame ring.
+     */
+    public CefSharedFrameReader(File file) throws IOException {
+        file_ = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = file_.getChannel();
+            ByteBuffer header = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, CefSharedFrameLayout.HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(CefSharedFrameLayout.MAGIC_OFFSET) != CefSharedFrameLayout.MAGIC)
+                throw new IOException("Not a frame ring: " + file);
+            CefSharedFrameLayout.loadFence();
+            int version = header.getInt(CefSharedFrameLayout.VERSION_OFFSET);
+            if (version != CefSharedFrameLayout.VERSION)
+                throw new IOException("Unsupported frame ring version: " + version);
+            slotCount_ = header.getInt(CefSharedFrameLayout.SLOT_COUNT_OFFSET);
+            slotSize_ = header.getLong(CefSharedFrameLayout.SLOT_SIZE_OFFSET);
+            buffer_ = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    CefSharedFrameLayout.HEADER_SIZE + slotCount_ * slotSize_);
+        } catch (IOException e) {
+            file_.close();
+            throw e;
+        }
+        buffer_.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @return The number of the newest published frame, 0 if none was published yet.
+     */
+    public long getLatestFrameNumber() {
+        long frame = buffer_.getLong(CefSharedFrameLayout.LATEST_FRAME_OFFSET);
+        CefSharedFrameLayout.loadFence();
+        return frame;
+    }
+
+    /**
+     * @return The newest frame or null if none was published yet or no consistent frame
+     *         could be read.
+     */
+    public Frame readLatest() {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; ++attempt) {
+            long number = getLatestFrameNumber();
+            if (number == 0) return null;
+            Frame frame = read(number);
+            if (frame != null) return frame;
+            Thread.yield();
+        }
+        return null;
+    }
+
+    /**
+     * @return Frame |number| or null if it's not in the ring, e.g. because it was already
+     *         overwritten or is being written.
+     */
+    public Frame read(long number) {
+        if (number <= 0) return null;
+        int slot = (int) (CefSharedFrameLayout.HEADER_SIZE + (number % slotCount_) * slotSize_);
+        long sequence = buffer_.getLong(slot + CefSharedFrameLayout.SEQUENCE_OFFSET);
+        if ((sequence & 1) != 0) return null;
+        CefSharedFrameLayout.loadFence();
+
+        long frameNumber = buffer_.getLong(slot + CefSharedFrameLayout.FRAME_OFFSET);
+        long timestamp = buffer_.getLong(slot + CefSharedFrameLayout.TIMESTAMP_OFFSET);
+        int width = buffer_.getInt(slot + CefSharedFrameLayout.WIDTH_OFFSET);
+        int height = buffer_.getInt(slot + CefSharedFrameLayout.HEIGHT_OFFSET);
+        int rectCount = buffer_.getInt(slot + CefSharedFrameLayout.RECT_COUNT_OFFSET);
+        rectCount = Math.max(0, Math.min(rectCount, CefSharedFrameLayout.MAX_RECTS));
+        Rectangle[] rects = new Rectangle[rectCount];
+        for (int i = 0; i < rectCount; ++i) {
+            int offset = slot + CefSharedFrameLayout.RECTS_OFFSET + i * 16;
+            rects[i] = new Rectangle(buffer_.getInt(offset), buffer_.getInt(offset + 4),
+                    buffer_.getInt(offset + 8), buffer_.getInt(offset + 12));
+        }
+
+        Frame frame = new Frame(slot, sequence, frameNumber, timestamp, width, height, rects);
+        if (frameNumber != number || !frame.isValid()) return null;
+        return frame;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file_.close();
+    }
+}
@@ -0,0 +1,182 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.handler;
+
+import org.cef.browser.CefBrowser;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Render handler that publishes the frames of a windowless browser into a ring of slots in
+ * a memory-mapped file, so that other processes can read them without copying or
+ * serialization. Use it with {@link org.cef.browser.CefRendering.CefRenderingWithHandler}
+ * and read the frames with {@link CefSharedFrameReader}. Only the view is published;
+ * popup widgets are ignored.
+ *
+ * The writer never waits for readers. A reader that is too slow sees its frame
+ * overwritten, which it detects through the sequence lock of the slot.
+ */
+public class CefSharedFrameWriter extends CefRenderHandlerAdapter implements AutoCloseable {
+    private final RandomAccessFile file_;
+    private final MappedByteBuffer buffer_;
+    private final int slotCount_;
+    private final long slotSize_;
+    private final long pixelCapacity_;
+    private volatile Rectangle viewRect_;
+    private long frame_ = 0;
+    private long skipped_ = 0;
+
+    /**
+     * Creates or truncates |file| and maps a ring for frames of up to |maxWidth| x
+     * |maxHeight| pixels. The view initially has the maximum size.
+     * @param slotCount Number of frames kept in the ring, at least 2.
+     */
+    public CefSharedFrameWriter(File file, int maxWidth, int maxHeight, int slotCount)
+            throws IOException {
+        if (maxWidth <= 0 || maxHeight <= 0)
+            throw new IllegalArgumentException("size: " + maxWidth + "x" + maxHeight);
+        if (slotCount < 2) throw new IllegalArgumentException("slotCount: " + slotCount);
+        pixelCapacity_ = (long) maxWidth * maxHeight * 4;
+        slotSize_ = CefSharedFrameLayout.slotSize(pixelCapacity_);
+        long size = CefSharedFrameLayout.HEADER_SIZE + slotCount * slotSize_;
+        if (size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("The ring exceeds 2 GB: " + size);
+        slotCount_ = slotCount;
+        viewRect_ = new Rectangle(0, 0, maxWidth, maxHeight);
+
+        file_ = new RandomAccessFile(file, "rw");
+        try {
+            file_.setLength(0);
+            buffer_ = file_.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            file_.close();
+            throw e;
+        }
+        buffer_.order(ByteOrder.LITTLE_ENDIAN);
+        buffer_.putInt(CefSharedFrameLayout.VERSION_OFFSET, CefSharedFrameLayout.VERSION);
+        buffer_.putInt(CefSharedFrameLayout.SLOT_COUNT_OFFSET, slotCount);
+        buffer_.putInt(CefSharedFrameLayout.MAX_RECTS_OFFSET, CefSharedFrameLayout.MAX_RECTS);
+        buffer_.putLong(CefSharedFrameLayout.SLOT_SIZE_OFFSET, slotSize_);
+        buffer_.putLong(CefSharedFrameLayout.PIXEL_CAPACITY_OFFSET, pixelCapacity_);
+        buffer_.putLong(CefSharedFrameLayout.LATEST_FRAME_OFFSET, 0);
+        // Readers check the magic last.
+        CefSharedFrameLayout.storeFence();
+        buffer_.putInt(CefSharedFrameLayout.MAGIC_OFFSET, CefSharedFrameLayout.MAGIC);
+    }
+
+    /**
+     * Sets the size of the view reported to CEF. Call CefBrowser.wasResized() afterwards.
+     */
+    public void setViewSize(int width, int height) {
+        if (width <= 0 || height <= 0 || (long) width * height * 4 > pixelCapacity_)
+            throw new IllegalArgumentException("size: " + width + "x" + height);
+        viewRect_ = new Rectangle(0, 0, width, height);
+    }
+
+    /**
+     * @return The number of the last published frame, 0 if none was published yet.
+     */
+    public synchronized long getFrameNumber() {
+        return frame_;
+    }
+
+    /**
+     * @return The number of frames that were not published because they didn't fit.
+     */
+    public synchronized long getSkippedFrameCount() {
+        return skipped_;
+    }
+
+    @Override
+    public Rectangle getViewRect(CefBrowser browser) {
+        return new Rectangle(viewRect_);
+    }
+
+    @Override
+    public void onPaint(CefBrowser browser, boolean popup, Rectangle[] dirtyRects,
+            ByteBuffer buffer, int width, int height) {
+        int[] rects = new int[dirtyRects.length * 4];
+        for (int i = 0; i < dirtyRects.length; ++i) {
+            rects[i * 4] = dirtyRects[i].x;
+            rects[i * 4 + 1] = dirtyRects[i].y;
+            rects[i * 4 + 2] = dirtyRects[i].width;
+            rects[i * 4 + 3] = dirtyRects[i].height;
+        }
+        onPaint(browser, popup, rects, dirtyRects.length, buffer, width, height);
+    }
+
+    @Override
+    public synchronized void onPaint(CefBrowser browser, boolean popup, int[] dirtyRects,
+            int dirtyRectCount, ByteBuffer buffer, int width, int height) {
+        if (popup || width <= 0 || height <= 0) return;
+        long pixelSize = (long) width * height * 4;
+        if (pixelSize > pixelCapacity_) {
+            ++skipped_;
+            return;
+        }
+
+        long frame = frame_ + 1;
+        int slot = (int) (CefSharedFrameLayout.HEADER_SIZE + (frame % slotCount_) * slotSize_);
+
+        // Mark the slot as being written.
+        long sequence = buffer_.getLong(slot + CefSharedFrameLayout.SEQUENCE_OFFSET);
+        buffer_.putLong(slot + CefSharedFrameLayout.SEQUENCE_OFFSET, sequence + 1);
+        CefSharedFrameLayout.storeFence();
+
+        buffer_.putLong(slot + CefSharedFrameLayout.FRAME_OFFSET, frame);
+        buffer_.putLong(slot + CefSharedFrameLayout.TIMESTAMP_OFFSET, System.nanoTime());
+        buffer_.putInt(slot + CefSharedFrameLayout.WIDTH_OFFSET, width);
+        buffer_.putInt(slot + CefSharedFrameLayout.HEIGHT_OFFSET, height);
+        writeRects(slot, dirtyRects, dirtyRectCount);
+
+        ByteBuffer src = buffer.duplicate();
+        src.clear().limit((int) pixelSize);
+        ByteBuffer dst = buffer_.duplicate();
+        dst.position(slot + CefSharedFrameLayout.SLOT_HEADER_SIZE);
+        dst.put(src);
+
+        // Publish the slot, then the frame number.
+        CefSharedFrameLayout.storeFence();
+        buffer_.putLong(slot + CefSharedFrameLayout.SEQUENCE_OFFSET, sequence + 2);
+        CefSharedFrameLayout.storeFence();
+        buffer_.putLong(CefSharedFrameLayout.LATEST_FRAME_OFFSET, frame);
+        frame_ = frame;
+    }
+
+    /**
+     * Closes the file. Readers keep their mappings and see no further frames.
+     */
+    @Override
+    public void close() throws IOException {
+        file_.close();
+    }
+
+    // Stores the dirty rects. If there are too many they are replaced by their bounds.
+    private void writeRects(int slot, int[] rects, int count) {
+        if (count > CefSharedFrameLayout.MAX_RECTS) {
+            Rectangle bounds = null;
+            for (int i = 0; i < count; ++i) {
+                Rectangle rect = new Rectangle(
+                        rects[i * 4], rects[i * 4 + 1], rects[i * 4 + 2], rects[i * 4 + 3]);
+                if (bounds == null)
+                    bounds = rect;
+                else
+                    bounds.add(rect);
+            }
+            rects = new int[] {bounds.x, bounds.y, bounds.width, bounds.height};
+            count = 1;
+        }
+        buffer_.putInt(slot + CefSharedFrameLayout.RECT_COUNT_OFFSET, count);
+        for (int i = 0; i < count * 4; ++i)
+            buffer_.putInt(slot + CefSharedFrameLayout.RECTS_OFFSET + i * 4, rects[i]);
+    }
+}
@@ -0,0 +1,127 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.misc;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Histogram of non-negative long values with log-linear buckets in the style of
+ * HdrHistogram. Values below 128 are counted exactly and larger values are counted with a
+ * relative error below 2%, so nanosecond timings from microseconds to minutes fit in a
+ * fixed amount of memory. Recording is lock-free and does not allocate; queries may run
+ * concurrently with recording and see a consistent enough view for monitoring.
+ */
+public class CefHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    private static final int BUCKET_COUNT =
+            SUB_BUCKETS + (64 - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS;
+
+    private final AtomicLongArray counts_ = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count_ = new AtomicLong();
+    private final AtomicLong sum_ = new AtomicLong();
+    private final LongAccumulator min_ = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator max_ = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts_.incrementAndGet(indexOf(value));
+        count_.incrementAndGet();
+        sum_.addAndGet(value);
+        min_.accumulate(value);
+        max_.accumulate(value);
+    }
+
+    /**
+     * @return The number of recorded values.
+     */
+    public long getCount() {
+        return count_.get();
+    }
+
+    /**
+     * @return The smallest recorded value or 0 if nothing was recorded.
+     */
+    public long getMin() {
+        return count_.get() == 0 ? 0 : min_.get();
+    }
+
+    /**
+     * @return The largest recorded value or 0 if nothing was recorded.
+     */
+    public long getMax() {
+        return max_.get();
+    }
+
+    /**
+     * @return The exact mean of the recorded values or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        long count = count_.get();
+        return count == 0 ? 0 : (double) sum_.get() / count;
+    }
+
+    /**
+     * Returns the value below or at which |percentile| percent of the recorded values lie.
+     * As in HdrHistogram the result is the highest value of the matching bucket, capped at
+     * the recorded maximum.
+     * @param percentile The percentile in the range [0, 100].
+     * @return The value or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; ++i) total += counts_.get(i);
+        if (total == 0) return 0;
+
+        double clamped = Math.min(Math.max(percentile, 0.0), 100.0);
+        long target = Math.max(1, (long) Math.ceil(clamped / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            seen += counts_.get(i);
+            if (seen >= target) return Math.min(highestValueOf(i), getMax());
+        }
+        return getMax();
+    }
+
+    /**
+     * Clears all recorded values. Values recorded concurrently may be partially lost.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; ++i) counts_.set(i, 0);
+        count_.set(0);
+        sum_.set(0);
+        min_.reset();
+        max_.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d min=%d p50=%d p90=%d p99=%d max=%d mean=%.1f", getCount(),
+                getMin(), getValueAtPercentile(50), getValueAtPercentile(90),
+                getValueAtPercentile(99), getMax(), getMean());
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        // Keep the SUB_BUCKET_BITS most significant bits of the value.
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int top = (int) (value >>> shift);
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (top - HALF_SUB_BUCKETS);
+    }
+
+    private static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long top = (index - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        long high = ((top + 1) << shift) - 1;
+        return high < 0 ? Long.MAX_VALUE : high;
+    }
+}
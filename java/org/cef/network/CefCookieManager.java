@@ -7,7 +7,11 @@ package org.cef.network;
 import org.cef.callback.CefCompletionCallback;
 import org.cef.callback.CefCookieVisitor;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 /**
  * Class used for managing cookies. The methods of this class may be called on any thread unless
@@ -56,6 +60,59 @@ public abstract class CefCookieManager {
     public abstract boolean visitUrlCookies(
             String url, boolean includeHttpOnly, CefCookieVisitor visitor);
 
+    /**
+     * Returns all cookies in a single batch. The cookies are ordered by longest path, then by
+     * earliest creation date. Unlike visitAllCookies() there is one call into Java for the whole
+     * batch instead of one per cookie.
+     * @return Future completed on a CEF thread once the visit is complete, or exceptionally if
+     *         cookies cannot be accessed. Don't block in dependent actions that run on that
+     *         thread; use the async variants of CompletableFuture for longer work.
+     */
+    public abstract CompletableFuture<List<CefCookie>> getAllCookies();
+
+    /**
+     * Returns a subset of cookies in a single batch. The cookies are ordered by longest path, then
+     * by earliest creation date.
+     * @param url Results are filtered by the given url scheme, host, domain and path.
+     * @param includeHttpOnly If true HTTP-only cookies will also be included in the results.
+     * @return Future completed on a CEF thread, or exceptionally if cookies cannot be accessed.
+     *         See getAllCookies().
+     */
+    public abstract CompletableFuture<List<CefCookie>> getUrlCookies(
+            String url, boolean includeHttpOnly);
+
+    /**
+     * Sets multiple cookies, e.g. a snapshot returned by getAllCookies(). Each cookie is set for
+     * the URL returned by getCookieUrl(). A domain with leading "." sets a domain cookie, other
+     * domains set a host cookie. Cookies without domain are not set.
+     * @param cookies The cookies to set.
+     * @return Future completed on a CEF thread with the number of cookies that were set once
+     *         all are processed, or exceptionally if cookies cannot be accessed. See
+     *         getAllCookies().
+     */
+    public abstract CompletableFuture<Integer> setCookies(Collection<CefCookie> cookies);
+
+    /**
+     * Deletes all cookies accepted by |filter|. The filter is called for all cookies from a
+     * single call into Java on a CEF thread once all cookies were visited.
+     * @param filter Returns true for cookies to delete.
+     * @return Future completed on a CEF thread with the number of deleted cookies, or
+     *         exceptionally if cookies cannot be accessed or |filter| threw. See getAllCookies().
+     */
+    public abstract CompletableFuture<Integer> deleteCookies(Predicate<CefCookie> filter);
+
+    /**
+     * Returns the URL that setCookies() sets |cookie| for: https if it is secure, http
+     * otherwise, the domain without leading "." as host and the path, or "/" if it has none.
+     * @return The URL or null if the cookie has no domain.
+     */
+    public static String getCookieUrl(CefCookie cookie) {
+        if (cookie.domain == null || cookie.domain.isEmpty()) return null;
+        String host = cookie.domain.startsWith(".") ? cookie.domain.substring(1) : cookie.domain;
+        String path = cookie.path == null || cookie.path.isEmpty() ? "/" : cookie.path;
+        return (cookie.secure ? "https://" : "http://") + host + path;
+    }
+
     /**
      * Sets a cookie given a valid URL and explicit user-provided cookie attributes. This function
      * expects each attribute to be well-formed. It will check for disallowed characters (e.g. the
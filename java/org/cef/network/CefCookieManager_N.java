@@ -8,9 +8,68 @@ import org.cef.callback.CefCompletionCallback;
 import org.cef.callback.CefCookieVisitor;
 import org.cef.callback.CefNative;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 class CefCookieManager_N extends CefCookieManager implements CefNative {
+    // Receives the results of batch operations from native code.
+    private static final class Batch<T> {
+        private final CompletableFuture<T> future_ = new CompletableFuture<>();
+        private final Predicate<CefCookie> filter_;
+
+        Batch(Predicate<CefCookie> filter) {
+            filter_ = filter;
+        }
+
+        // Called from native code with all cookies of a get operation.
+        @SuppressWarnings("unchecked")
+        void onCookies(CefCookie[] cookies) {
+            ((CompletableFuture<List<CefCookie>>) future_)
+                    .complete(cookies != null ? Arrays.asList(cookies)
+                                              : Collections.<CefCookie>emptyList());
+        }
+
+        // Called from native code with all cookies of a delete operation.
+        boolean[] filter(CefCookie[] cookies) {
+            if (cookies == null) return new boolean[0];
+            boolean[] result = new boolean[cookies.length];
+            try {
+                for (int i = 0; i < cookies.length; ++i) result[i] = filter_.test(cookies[i]);
+            } catch (RuntimeException e) {
+                future_.completeExceptionally(e);
+                return new boolean[cookies.length];
+            }
+            return result;
+        }
+
+        // Called from native code when a set or delete operation is complete.
+        @SuppressWarnings("unchecked")
+        void onComplete(int count) {
+            ((CompletableFuture<Integer>) future_).complete(count);
+        }
+
+        // Called from native code if a later step of an operation could not be started.
+        void onFailed() {
+            future_.completeExceptionally(new IllegalStateException("Cookies cannot be accessed"));
+        }
+
+        CompletableFuture<T> start(boolean started) {
+            if (!started) onFailed();
+            return future_;
+        }
+
+        CompletableFuture<T> fail(Throwable error) {
+            future_.completeExceptionally(error);
+            return future_;
+        }
+    }
+
     // Used internally to store a pointer to the CEF object.
     private long N_CefHandle = 0;
     private static CefCookieManager_N globalInstance = null;
@@ -75,6 +134,69 @@ class CefCookieManager_N extends CefCookieManager implements CefNative {
         return false;
     }
 
+    @Override
+    public CompletableFuture<List<CefCookie>> getAllCookies() {
+        return getCookies(null, true);
+    }
+
+    @Override
+    public CompletableFuture<List<CefCookie>> getUrlCookies(String url, boolean includeHttpOnly) {
+        if (url == null) throw new IllegalArgumentException("Missing url");
+        return getCookies(url, includeHttpOnly);
+    }
+
+    private CompletableFuture<List<CefCookie>> getCookies(String url, boolean includeHttpOnly) {
+        Batch<List<CefCookie>> batch = new Batch<>(null);
+        try {
+            return batch.start(N_GetCookies(N_CefHandle, url, includeHttpOnly, batch));
+        } catch (UnsatisfiedLinkError ule) {
+            ule.printStackTrace();
+            return batch.fail(ule);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> setCookies(Collection<CefCookie> cookies) {
+        List<String> urls = new ArrayList<>(cookies.size());
+        List<CefCookie> hostCookies = new ArrayList<>(cookies.size());
+        for (CefCookie cookie : cookies) {
+            String url = getCookieUrl(cookie);
+            if (url == null) continue;
+            urls.add(url);
+            // A host cookie is set with an empty domain.
+            hostCookies.add(cookie.domain.startsWith(".")
+                            ? cookie
+                            : new CefCookie(cookie.name, cookie.value, "", cookie.path,
+                                    cookie.secure, cookie.httponly, cookie.creation,
+                                    cookie.lastAccess, cookie.hasExpires, cookie.expires));
+        }
+
+        Batch<Integer> batch = new Batch<>(null);
+        if (urls.isEmpty()) {
+            batch.onComplete(0);
+            return batch.start(true);
+        }
+        try {
+            return batch.start(N_SetCookies(N_CefHandle, urls.toArray(new String[0]),
+                    hostCookies.toArray(new CefCookie[0]), batch));
+        } catch (UnsatisfiedLinkError ule) {
+            ule.printStackTrace();
+            return batch.fail(ule);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> deleteCookies(Predicate<CefCookie> filter) {
+        if (filter == null) throw new IllegalArgumentException("Missing filter");
+        Batch<Integer> batch = new Batch<>(filter);
+        try {
+            return batch.start(N_DeleteCookiesFiltered(N_CefHandle, batch));
+        } catch (UnsatisfiedLinkError ule) {
+            ule.printStackTrace();
+            return batch.fail(ule);
+        }
+    }
+
     @Override
     public boolean setCookie(String url, CefCookie cookie) {
         try {
@@ -110,7 +232,12 @@ class CefCookieManager_N extends CefCookieManager implements CefNative {
     private final native boolean N_VisitAllCookies(long self, CefCookieVisitor visitor);
     private final native boolean N_VisitUrlCookies(
             long self, String url, boolean includeHttpOnly, CefCookieVisitor visitor);
+    private final native boolean N_GetCookies(
+            long self, String url, boolean includeHttpOnly, Batch<?> batch);
     private final native boolean N_SetCookie(long self, String url, CefCookie cookie);
+    private final native boolean N_SetCookies(
+            long self, String[] urls, CefCookie[] cookies, Batch<?> batch);
     private final native boolean N_DeleteCookies(long self, String url, String cookieName);
+    private final native boolean N_DeleteCookiesFiltered(long self, Batch<?> batch);
     private final native boolean N_FlushStore(long self, CefCompletionCallback handler);
 }
@@ -0,0 +1,125 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.network;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Read-only view of the headers of a request or response, backed by an array of
+ * alternating names and values as returned by {@link CefRequest#getHeaderArray()}. Names
+ * are compared case-insensitively. As a Map the view contains the first value of each
+ * header; use {@link #getAll(String)} for repeated headers.
+ *
+ * Views returned by CefRequest.getHeaderView() and CefResponse.getHeaderView() read the
+ * headers on first use with a single native call. Use them while the request or response
+ * is valid, e.g. during the handler callback that received it. Lookups scan the headers
+ * and don't allocate; the map entries are only built if they are iterated.
+ */
+public final class CefHeaderView extends AbstractMap<String, String> {
+    private static final String[] EMPTY = new String[0];
+
+    private Supplier<String[]> source_;
+    private String[] headers_;
+    private Set<Entry<String, String>> entrySet_ = null;
+
+    /**
+     * Creates a view of |headers|, an array of alternating names and values.
+     */
+    public CefHeaderView(String[] headers) {
+        headers_ = headers != null ? headers : EMPTY;
+    }
+
+    // Creates a view that calls |source| on first use.
+    CefHeaderView(Supplier<String[]> source) {
+        source_ = source;
+    }
+
+    private synchronized String[] headers() {
+        if (headers_ == null) {
+            String[] headers = source_.get();
+            headers_ = headers != null ? headers : EMPTY;
+            source_ = null;
+        }
+        return headers_;
+    }
+
+    /**
+     * @return The number of header fields, counting repeated headers.
+     */
+    public int getCount() {
+        return headers().length / 2;
+    }
+
+    public String getName(int index) {
+        return headers()[index * 2];
+    }
+
+    public String getValue(int index) {
+        return headers()[index * 2 + 1];
+    }
+
+    /**
+     * @return All values of header |name| in order.
+     */
+    public List<String> getAll(String name) {
+        String[] headers = headers();
+        List<String> values = new ArrayList<>(1);
+        for (int i = 0; i + 1 < headers.length; i += 2) {
+            if (headers[i].equalsIgnoreCase(name)) values.add(headers[i + 1]);
+        }
+        return values;
+    }
+
+    /**
+     * @return A copy of the headers as an array of alternating names and values.
+     */
+    public String[] toArray() {
+        return headers().clone();
+    }
+
+    @Override
+    public String get(Object name) {
+        int index = indexOf(name);
+        return index >= 0 ? headers()[index + 1] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object name) {
+        return indexOf(name) >= 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return headers().length < 2;
+    }
+
+    @Override
+    public synchronized Set<Entry<String, String>> entrySet() {
+        if (entrySet_ == null) {
+            String[] headers = headers();
+            Map<String, String> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (int i = 0; i + 1 < headers.length; i += 2)
+                map.putIfAbsent(headers[i], headers[i + 1]);
+            entrySet_ = Collections.unmodifiableMap(map).entrySet();
+        }
+        return entrySet_;
+    }
+
+    private int indexOf(Object name) {
+        if (!(name instanceof String)) return -1;
+        String[] headers = headers();
+        for (int i = 0; i + 1 < headers.length; i += 2) {
+            if (headers[i].equalsIgnoreCase((String) name)) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,506 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Asynchronous HTTP client on top of {@link CefURLRequest}. Requests go through the network
+ * stack of Chromium and therefore share its proxy, authentication and cookie settings.
+ *
+ * Each request returns a CompletableFuture of its {@link Response}. The body is either
+ * collected into the response or streamed to a {@link BodyConsumer}. Received data is
+ * collected in pooled direct buffers, so downloads allocate only the final body array. At
+ * most |maxConcurrentRequests| requests run at a time; further requests wait in a queue.
+ * A request with a timeout fails with a TimeoutException and is canceled if it isn't
+ * complete in time, including the time it spent in the queue. Canceling the future cancels
+ * the request.
+ *
+ * Futures are completed and consumers are called on the thread of the transport, which
+ * is the CEF UI thread for CefURLRequest. Use the async methods of CompletableFuture for
+ * work that takes longer.
+ */
+public class CefHttpClient implements AutoCloseable {
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 16;
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * A request. The setters return the request so that calls can be chained.
+     */
+    public static class Request {
+        private final String url_;
+        private String method_ = "GET";
+        private final Map<String, String> headers_ = new LinkedHashMap<>();
+        private byte[] body_ = null;
+        private int flags_ = CefRequest.CefUrlRequestFlags.UR_FLAG_NONE;
+        private long timeoutMillis_ = 0;
+
+        public Request(String url) {
+            url_ = url;
+        }
+
+        public Request setMethod(String method) {
+            method_ = method;
+            return this;
+        }
+
+        public Request setHeader(String name, String value) {
+            headers_.put(name, value);
+            return this;
+        }
+
+        /**
+         * Sets the body that is uploaded with the request, e.g. for POST.
+         */
+        public Request setBody(byte[] body) {
+            body_ = body;
+            return this;
+        }
+
+        /**
+         * Sets the CefRequest.CefUrlRequestFlags of the request.
+         */
+        public Request setFlags(int flags) {
+            flags_ = flags;
+            return this;
+        }
+
+        /**
+         * Sets the time after which the request fails, 0 for no timeout.
+         */
+        public Request setTimeout(long timeoutMillis) {
+            timeoutMillis_ = timeoutMillis;
+            return this;
+        }
+
+        public String getURL() {
+            return url_;
+        }
+
+        public String getMethod() {
+            return method_;
+        }
+
+        public Map<String, String> getHeaders() {
+            return Collections.unmodifiableMap(headers_);
+        }
+
+        public byte[] getBody() {
+            return body_;
+        }
+
+        public int getFlags() {
+            return flags_;
+        }
+
+        public long getTimeout() {
+            return timeoutMillis_;
+        }
+
+        @Override
+        public String toString() {
+            return method_ + " " + url_;
+        }
+    }
+
+    /**
+     * A completed response.
+     */
+    public static class Response {
+        private final int status_;
+        private final String statusText_;
+        private final String mimeType_;
+        private final Map<String, String> headers_;
+        private final byte[] body_;
+
+        public Response(int status, String statusText, String mimeType,
+                Map<String, String> headers, byte[] body) {
+            status_ = status;
+            statusText_ = statusText;
+            mimeType_ = mimeType;
+            headers_ = Collections.unmodifiableMap(new LinkedHashMap<>(headers));
+            body_ = body;
+        }
+
+        public int getStatus() {
+            return status_;
+        }
+
+        public String getStatusText() {
+            return statusText_;
+        }
+
+        public String getMimeType() {
+            return mimeType_;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers_;
+        }
+
+        /**
+         * Returns the body. It's empty if the body was passed to a BodyConsumer. The array
+         * is not copied.
+         */
+        public byte[] getBody() {
+            return body_;
+        }
+
+        @Override
+        public String toString() {
+            return status_ + " " + statusText_ + " (" + mimeType_ + ", " + body_.length
+                    + " bytes)";
+        }
+    }
+
+    /**
+     * Receives the body of a response while it's downloaded.
+     */
+    public interface BodyConsumer {
+        /**
+         * Called for each part of the body in order. |data| is read-only and only valid
+         * until this method returns.
+         */
+        void onData(ByteBuffer data);
+    }
+
+    /**
+     * Executes requests. The default transport uses CefURLRequest.
+     */
+    public interface Transport {
+        /**
+         * Starts |request| and reports its progress to |exchange|.
+         * @return The call that cancels the request.
+         * @throws IOException If the request couldn't be started.
+         */
+        Call start(Request request, Exchange exchange) throws IOException;
+    }
+
+    /**
+     * A request started by a Transport.
+     */
+    public interface Call {
+        /**
+         * Cancels the request. The transport doesn't have to report its completion.
+         */
+        void cancel();
+    }
+
+    /**
+     * Receives the progress of a request from a Transport. The methods must be called in
+     * order from one thread at a time.
+     */
+    public interface Exchange {
+        /**
+         * Called once before the first call to onData() or onComplete(null).
+         */
+        void onResponse(
+                int status, String statusText, String mimeType, Map<String, String> headers);
+
+        /**
+         * Called for each part of the body. |data| may only be valid until this method
+         * returns.
+         */
+        void onData(ByteBuffer data);
+
+        /**
+         * Called when the request is complete.
+         * @param error Null if the request succeeded.
+         */
+        void onComplete(IOException error);
+    }
+
+    private final Transport transport_;
+    private final int maxConcurrentRequests_;
+    private final int bufferSize_;
+    private final int maxPooledBuffers_;
+    private final ArrayDeque<ByteBuffer> pool_ = new ArrayDeque<>();
+    private final ArrayDeque<PendingRequest> queue_ = new ArrayDeque<>();
+    private final List<PendingRequest> active_ = new ArrayList<>();
+    private final ScheduledThreadPoolExecutor timer_;
+    private boolean closed_ = false;
+
+    /**
+     * Creates a client that uses CefURLRequest with the default limits.
+     */
+    public CefHttpClient() {
+        this(DEFAULT_MAX_CONCURRENT_REQUESTS);
+    }
+
+    /**
+     * Creates a client that uses CefURLRequest.
+     */
+    public CefHttpClient(int maxConcurrentRequests) {
+        this(new CefURLRequestTransport(), maxConcurrentRequests, DEFAULT_BUFFER_SIZE,
+                maxConcurrentRequests * 4);
+    }
+
+    /**
+     * @param bufferSize Size of the pooled buffers that collect response bodies.
+     * @param maxPooledBuffers Number of buffers kept for reuse.
+     */
+    public CefHttpClient(Transport transport, int maxConcurrentRequests, int bufferSize,
+            int maxPooledBuffers) {
+        if (maxConcurrentRequests <= 0)
+            throw new IllegalArgumentException("maxConcurrentRequests: " + maxConcurrentRequests);
+        if (bufferSize <= 0) throw new IllegalArgumentException("bufferSize: " + bufferSize);
+        transport_ = transport;
+        maxConcurrentRequests_ = maxConcurrentRequests;
+        bufferSize_ = bufferSize;
+        maxPooledBuffers_ = maxPooledBuffers;
+        timer_ = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "CefHttpClient");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer_.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Sends |request| and collects the body into the response.
+     */
+    public CompletableFuture<Response> send(Request request) {
+        return send(request, null);
+    }
+
+    /**
+     * Sends |request| and passes the body to |consumer|. The body of the response is
+     * empty.
+     */
+    public CompletableFuture<Response> send(Request request, BodyConsumer consumer) {
+        PendingRequest pending = new PendingRequest(request, consumer);
+        boolean start;
+        synchronized (this) {
+            if (closed_) {
+                pending.future_.completeExceptionally(
+                        new IllegalStateException("The client is closed"));
+                return pending.future_;
+            }
+            start = active_.size() < maxConcurrentRequests_;
+            if (start)
+                active_.add(pending);
+            else
+                queue_.add(pending);
+        }
+        if (request.getTimeout() > 0) {
+            pending.timeout_ = timer_.schedule(() -> {
+                pending.abort(new TimeoutException(
+                        request + " timed out after " + request.getTimeout() + " ms"));
+            }, request.getTimeout(), TimeUnit.MILLISECONDS);
+        }
+        pending.future_.whenComplete((response, error) -> {
+            if (pending.future_.isCancelled()) pending.abort(null);
+        });
+        if (start) pending.start();
+        return pending.future_;
+    }
+
+    /**
+     * @return The number of requests that were started and are not complete yet.
+     */
+    public synchronized int getActiveRequestCount() {
+        return active_.size();
+    }
+
+    /**
+     * @return The number of requests that wait for a free slot.
+     */
+    public synchronized int getQueuedRequestCount() {
+        return queue_.size();
+    }
+
+    /**
+     * @return The number of buffers available for reuse.
+     */
+    public synchronized int getPooledBufferCount() {
+        return pool_.size();
+    }
+
+    /**
+     * Cancels all requests. Requests sent afterwards fail.
+     */
+    @Override
+    public void close() {
+        List<PendingRequest> requests;
+        synchronized (this) {
+            closed_ = true;
+            requests = new ArrayList<>(active_);
+            requests.addAll(queue_);
+        }
+        for (PendingRequest pending : requests)
+            pending.abort(new IOException(pending.request_ + " canceled: the client is closed"));
+        timer_.shutdownNow();
+    }
+
+    private synchronized ByteBuffer takeBuffer() {
+        ByteBuffer buffer = pool_.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(bufferSize_);
+    }
+
+    private synchronized void releaseBuffers(List<ByteBuffer> buffers) {
+        for (ByteBuffer buffer : buffers) {
+            if (pool_.size() >= maxPooledBuffers_) break;
+            buffer.clear();
+            pool_.add(buffer);
+        }
+        buffers.clear();
+    }
+
+    // Removes |pending| and starts the next queued request, if any.
+    private void finished(PendingRequest pending) {
+        PendingRequest next = null;
+        synchronized (this) {
+            if (!active_.remove(pending)) {
+                queue_.remove(pending);
+                return;
+            }
+            if (!closed_ && active_.size() < maxConcurrentRequests_) {
+                next = queue_.poll();
+                if (next != null) active_.add(next);
+            }
+        }
+        if (next != null) next.start();
+    }
+
+    private final class PendingRequest implements Exchange {
+        private final Request request_;
+        private final BodyConsumer consumer_;
+        private final CompletableFuture<Response> future_ = new CompletableFuture<>();
+        private final List<ByteBuffer> chunks_ = new ArrayList<>();
+        private volatile ScheduledFuture<?> timeout_ = null;
+        private Call call_ = null;
+        private boolean done_ = false;
+        private int status_ = 0;
+        private String statusText_ = "";
+        private String mimeType_ = "";
+        private Map<String, String> headers_ = Collections.emptyMap();
+        private int bodySize_ = 0;
+
+        PendingRequest(Request request, BodyConsumer consumer) {
+            request_ = request;
+            consumer_ = consumer;
+        }
+
+        void start() {
+            Call call;
+            try {
+                call = transport_.start(request_, this);
+            } catch (IOException | RuntimeException e) {
+                complete(null, e);
+                return;
+            }
+            boolean cancel;
+            synchronized (this) {
+                call_ = call;
+                // The request may have been aborted while it was started.
+                cancel = done_;
+            }
+            if (cancel && call != null) call.cancel();
+        }
+
+        // Cancels the request and fails the future with |error|, unless it's complete.
+        void abort(Throwable error) {
+            Call call;
+            synchronized (this) {
+                if (!setDone()) return;
+                call = call_;
+            }
+            // Completion reported by the transport after this point is ignored.
+            if (call != null) call.cancel();
+            finish(null, error);
+        }
+
+        @Override
+        public synchronized void onResponse(
+                int status, String statusText, String mimeType, Map<String, String> headers) {
+            status_ = status;
+            statusText_ = statusText != null ? statusText : "";
+            mimeType_ = mimeType != null ? mimeType : "";
+            headers_ = headers;
+        }
+
+        @Override
+        public synchronized void onData(ByteBuffer data) {
+            if (done_) return;
+            if (consumer_ != null) {
+                consumer_.onData(data.asReadOnlyBuffer());
+                return;
+            }
+            ByteBuffer src = data.duplicate();
+            while (src.hasRemaining()) {
+                ByteBuffer chunk = chunks_.isEmpty() ? null : chunks_.get(chunks_.size() - 1);
+                if (chunk == null || !chunk.hasRemaining()) {
+                    chunk = takeBuffer();
+                    chunks_.add(chunk);
+                }
+                int count = Math.min(src.remaining(), chunk.remaining());
+                int limit = src.limit();
+                src.limit(src.position() + count);
+                chunk.put(src);
+                src.limit(limit);
+                bodySize_ += count;
+            }
+        }
+
+        @Override
+        public void onComplete(IOException error) {
+            if (error != null) {
+                complete(null, error);
+                return;
+            }
+            Response response;
+            synchronized (this) {
+                if (done_) return;
+                byte[] body = new byte[bodySize_];
+                int offset = 0;
+                for (ByteBuffer chunk : chunks_) {
+                    chunk.flip();
+                    int count = chunk.remaining();
+                    chunk.get(body, offset, count);
+                    offset += count;
+                }
+                response = new Response(status_, statusText_, mimeType_, headers_, body);
+            }
+            complete(response, null);
+        }
+
+        private void complete(Response response, Throwable error) {
+            synchronized (this) {
+                if (!setDone()) return;
+            }
+            finish(response, error);
+        }
+
+        // Returns false if the request was already done.
+        private boolean setDone() {
+            if (done_) return false;
+            done_ = true;
+            releaseBuffers(chunks_);
+            return true;
+        }
+
+        private void finish(Response response, Throwable error) {
+            ScheduledFuture<?> timeout = timeout_;
+            if (timeout != null) timeout.cancel(false);
+            finished(this);
+            if (error != null)
+                future_.completeExceptionally(error);
+            else if (response != null)
+                future_.complete(response);
+        }
+    }
+}
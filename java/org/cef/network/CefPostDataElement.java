@@ -4,11 +4,23 @@
 
 package org.cef.network;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+
 /**
  * Class used to represent a single element in the request post data. The
  * methods of this class may be called on any thread.
  */
 public abstract class CefPostDataElement {
+    // Size of the chunks in which setToStream() copies the data.
+    private static final int STREAM_CHUNK_SIZE = 64 * 1024;
+
     /**
      * Post data elements may represent either bytes or files.
      */
@@ -60,6 +72,52 @@ public abstract class CefPostDataElement {
      */
     public abstract void setToBytes(int size, byte[] bytes);
 
+    /**
+     * The post data element will represent the remaining bytes of |buffer|, which are
+     * consumed and copied. Direct buffers are copied without an intermediate array.
+     */
+    public void setToBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        setToBytes(bytes.length, bytes);
+    }
+
+    /**
+     * The post data element will represent the data read from |channel| until its end.
+     * The data is copied in chunks to a temporary file and the element represents that
+     * file, so uploads of any size need only constant memory. Like other file elements
+     * this is only supported for requests that originate from the browser process.
+     * The caller owns the temporary file. CEF reads it while the request is loading, after
+     * the element may have been released, so delete it once the request is complete, e.g.
+     * in CefResourceRequestHandler.onResourceLoadComplete().
+     * @return The temporary file.
+     * @throws IOException If reading |channel| or writing the file failed.
+     */
+    public File setToStream(ReadableByteChannel channel) throws IOException {
+        File file = File.createTempFile("jcef-upload", ".tmp");
+        ByteBuffer chunk = ByteBuffer.allocateDirect(STREAM_CHUNK_SIZE);
+        try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            while (channel.read(chunk) >= 0 || chunk.position() > 0) {
+                chunk.flip();
+                out.write(chunk);
+                chunk.compact();
+            }
+        } catch (IOException e) {
+            file.delete();
+            throw e;
+        }
+        setToFile(file.getAbsolutePath());
+        return file;
+    }
+
+    /**
+     * The post data element will represent the data read from |in| until its end. See
+     * {@link #setToStream(ReadableByteChannel)}.
+     */
+    public File setToStream(InputStream in) throws IOException {
+        return setToStream(Channels.newChannel(in));
+    }
+
     /**
      * Return the type of this post data element.
      */
@@ -81,6 +139,18 @@ public abstract class CefPostDataElement {
      */
     public abstract int getBytes(int size, byte[] bytes);
 
+    /**
+     * Read up to buffer.remaining() bytes into |buffer|, advance its position and return
+     * the number of bytes actually read. Direct buffers are filled without an intermediate
+     * array.
+     */
+    public int getBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        int count = getBytes(bytes.length, bytes);
+        buffer.put(bytes, 0, count);
+        return count;
+    }
+
     @Override
     public String toString() {
         return toString(null);
@@ -6,6 +6,8 @@ package org.cef.network;
 
 import org.cef.callback.CefNative;
 
+import java.nio.ByteBuffer;
+
 class CefPostDataElement_N extends CefPostDataElement implements CefNative {
     // Used internally to store a pointer to the CEF object.
     private long N_CefHandle = 0;
@@ -79,6 +81,20 @@ class CefPostDataElement_N extends CefPostDataElement implements CefNative {
         }
     }
 
+    @Override
+    public void setToBytes(ByteBuffer buffer) {
+        try {
+            if (!buffer.isDirect()) {
+                super.setToBytes(buffer);
+                return;
+            }
+            N_SetToBuffer(N_CefHandle, buffer, buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+        } catch (UnsatisfiedLinkError ule) {
+            ule.printStackTrace();
+        }
+    }
+
     @Override
     public Type getType() {
         try {
@@ -119,14 +135,31 @@ class CefPostDataElement_N extends CefPostDataElement implements CefNative {
         return 0;
     }
 
+    @Override
+    public int getBytes(ByteBuffer buffer) {
+        if (!buffer.isDirect()) return super.getBytes(buffer);
+        try {
+            int count =
+                    N_GetBytesToBuffer(N_CefHandle, buffer, buffer.position(), buffer.remaining());
+            buffer.position(buffer.position() + count);
+            return count;
+        } catch (UnsatisfiedLinkError ule) {
+            ule.printStackTrace();
+        }
+        return 0;
+    }
+
     private final native static CefPostDataElement_N N_Create();
     private final native void N_Dispose(long self);
     private final native boolean N_IsReadOnly(long self);
     private final native void N_SetToEmpty(long self);
     private final native void N_SetToFile(long self, String fileName);
     private final native void N_SetToBytes(long self, int size, byte[] bytes);
+    private final native void N_SetToBuffer(long self, ByteBuffer buffer, int offset, int size);
     private final native Type N_GetType(long self);
     private final native String N_GetFile(long self);
     private final native int N_GetBytesCount(long self);
     private final native int N_GetBytes(long self, int size, byte[] bytes);
+    private final native int N_GetBytesToBuffer(
+            long self, ByteBuffer buffer, int offset, int size);
 }
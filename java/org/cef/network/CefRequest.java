@@ -5,6 +5,7 @@
 package org.cef.network;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -429,6 +430,51 @@ public abstract class CefRequest {
      */
     public abstract void setHeaderMap(Map<String, String> headerMap);
 
+    /**
+     * Get all header values with a single native call, as an array of alternating names
+     * and values. Unlike getHeaderMap this keeps repeated headers. The default implementation
+     * is built on getHeaderMap and keeps only one value per name.
+     */
+    public String[] getHeaderArray() {
+        Map<String, String> headerMap = new LinkedHashMap<>();
+        getHeaderMap(headerMap);
+        String[] headers = new String[headerMap.size() * 2];
+        int i = 0;
+        for (Entry<String, String> entry : headerMap.entrySet()) {
+            headers[i++] = entry.getKey();
+            headers[i++] = entry.getValue();
+        }
+        return headers;
+    }
+
+    /**
+     * Replace all header values with |headers|, an array of alternating names and values.
+     * The default implementation is built on setHeaderMap and keeps only the last value of
+     * repeated names.
+     */
+    public void setHeaderArray(String[] headers) {
+        Map<String, String> headerMap = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < headers.length; i += 2) headerMap.put(headers[i], headers[i + 1]);
+        setHeaderMap(headerMap);
+    }
+
+    /**
+     * Set a batch of header values with a single native call. |headers| is an array of
+     * alternating names and values; each pair is applied like setHeaderByName. The default
+     * implementation calls setHeaderByName for each pair.
+     */
+    public void setHeadersByName(String[] headers, boolean overwrite) {
+        for (int i = 0; i + 1 < headers.length; i += 2)
+            setHeaderByName(headers[i], headers[i + 1], overwrite);
+    }
+
+    /**
+     * Returns a read-only view of the headers that reads them when it's first used.
+     */
+    public CefHeaderView getHeaderView() {
+        return new CefHeaderView(this::getHeaderArray);
+    }
+
     /**
      * Set all values at one time.
      */
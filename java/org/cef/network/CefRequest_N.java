@@ -187,6 +187,34 @@ class CefRequest_N extends CefRequest implements CefNative {
         }
     }
 
+    @Override
+    public String[] getHeaderArray() {
+        try {
+            return N_GetHeaderArray(N_CefHandle);
+        } catch (UnsatisfiedLinkError ule) {
+            ule.printStackTrace();
+        }
+        return null;
+    }
+
+    @Override
+    public void setHeaderArray(String[] headers) {
+        try {
+            N_SetHeaderArray(N_CefHandle, headers);
+        } catch (UnsatisfiedLinkError ule) {
+            ule.printStackTrace();
+        }
+    }
+
+    @Override
+    public void setHeadersByName(String[] headers, boolean overwrite) {
+        try {
+            N_SetHeadersByName(N_CefHandle, headers, overwrite);
+        } catch (UnsatisfiedLinkError ule) {
+            ule.printStackTrace();
+        }
+    }
+
     @Override
     public void set(
             String url, String method, CefPostData postData, Map<String, String> headerMap) {
@@ -273,6 +301,9 @@ class CefRequest_N extends CefRequest implements CefNative {
             long self, String name, String value, boolean overwrite);
     private final native void N_GetHeaderMap(long self, Map<String, String> headerMap);
     private final native void N_SetHeaderMap(long self, Map<String, String> headerMap);
+    private final native String[] N_GetHeaderArray(long self);
+    private final native void N_SetHeaderArray(long self, String[] headers);
+    private final native void N_SetHeadersByName(long self, String[] headers, boolean overwrite);
     private final native void N_Set(long self, String url, String method, CefPostData postData,
             Map<String, String> headerMap);
     private final native int N_GetFlags(long self);
@@ -168,6 +168,34 @@ class CefResponse_N extends CefResponse implements CefNative {
         }
     }
 
+    @Override
+    public String[] getHeaderArray() {
+        try {
+            return N_GetHeaderArray(N_CefHandle);
+        } catch (UnsatisfiedLinkError ule) {
+            ule.printStackTrace();
+        }
+        return null;
+    }
+
+    @Override
+    public void setHeaderArray(String[] headers) {
+        try {
+            N_SetHeaderArray(N_CefHandle, headers);
+        } catch (UnsatisfiedLinkError ule) {
+            ule.printStackTrace();
+        }
+    }
+
+    @Override
+    public void setHeadersByName(String[] headers, boolean overwrite) {
+        try {
+            N_SetHeadersByName(N_CefHandle, headers, overwrite);
+        } catch (UnsatisfiedLinkError ule) {
+            ule.printStackTrace();
+        }
+    }
+
     private final native static CefResponse_N N_Create();
     private final native void N_Dispose(long self);
     private final native boolean N_IsReadOnly(long self);
@@ -184,4 +212,7 @@ class CefResponse_N extends CefResponse implements CefNative {
             long self, String name, String value, boolean overwrite);
     private final native void N_GetHeaderMap(long self, Map<String, String> headerMap);
     private final native void N_SetHeaderMap(long self, Map<String, String> headerMap);
+    private final native String[] N_GetHeaderArray(long self);
+    private final native void N_SetHeaderArray(long self, String[] headers);
+    private final native void N_SetHeadersByName(long self, String[] headers, boolean overwrite);
 }
@@ -0,0 +1,114 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package org.cef.network;
+
+import org.cef.callback.CefAuthCallback;
+import org.cef.callback.CefURLRequestClient;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+
+/**
+ * Transport of CefHttpClient that executes requests with CefURLRequest.
+ */
+class CefURLRequestTransport implements CefHttpClient.Transport {
+    @Override
+    public CefHttpClient.Call start(CefHttpClient.Request request,
+            CefHttpClient.Exchange exchange) throws IOException {
+        CefRequest cefRequest = CefRequest.create();
+        if (cefRequest == null) throw new IOException("Can't create the request " + request);
+        CefPostData postData = null;
+        byte[] body = request.getBody();
+        if (body != null) {
+            postData = CefPostData.create();
+            CefPostDataElement element = CefPostDataElement.create();
+            element.setToBytes(body.length, body);
+            postData.addElement(element);
+        }
+        cefRequest.set(request.getURL(), request.getMethod(), postData,
+                new HashMap<>(request.getHeaders()));
+        cefRequest.setFlags(request.getFlags());
+
+        Client client = new Client(exchange);
+        CefURLRequest urlRequest = CefURLRequest.create(cefRequest, client);
+        if (urlRequest == null) throw new IOException("Can't start " + request);
+        return urlRequest::cancel;
+    }
+
+    // Called on the CEF UI thread.
+    private static class Client implements CefURLRequestClient {
+        // Used internally to store a pointer to the CEF object.
+        private long N_CefHandle = 0;
+        private final CefHttpClient.Exchange exchange_;
+        private boolean hasResponse_ = false;
+
+        Client(CefHttpClient.Exchange exchange) {
+            exchange_ = exchange;
+        }
+
+        @Override
+        public void setNativeRef(String identifer, long nativeRef) {
+            N_CefHandle = nativeRef;
+        }
+
+        @Override
+        public long getNativeRef(String identifer) {
+            return N_CefHandle;
+        }
+
+        // The response is available once the upload is complete, i.e. at the latest with
+        // the first part of the body.
+        private void reportResponse(CefURLRequest request) {
+            if (hasResponse_) return;
+            hasResponse_ = true;
+            CefResponse response = request.getResponse();
+            if (response == null) {
+                exchange_.onResponse(0, "", "", new HashMap<>());
+                return;
+            }
+            // Read eagerly, the response is released below.
+            exchange_.onResponse(response.getStatus(), response.getStatusText(),
+                    response.getMimeType(), new CefHeaderView(response.getHeaderArray()));
+            response.dispose();
+        }
+
+        @Override
+        public void onRequestComplete(CefURLRequest request) {
+            CefURLRequest.Status status = request.getRequestStatus();
+            if (status == CefURLRequest.Status.UR_SUCCESS) {
+                reportResponse(request);
+                exchange_.onComplete(null);
+            } else {
+                exchange_.onComplete(new IOException(request.getRequest().getURL() + " failed: "
+                        + status + " " + request.getRequestError()));
+            }
+        }
+
+        @Override
+        public void onUploadProgress(CefURLRequest request, int current, int total) {}
+
+        @Override
+        public void onDownloadProgress(CefURLRequest request, int current, int total) {}
+
+        @Override
+        public void onDownloadData(CefURLRequest request, byte[] data, int data_length) {
+            onDownloadData(request, ByteBuffer.wrap(data, 0, data_length));
+        }
+
+        @Override
+        public void onDownloadData(CefURLRequest request, ByteBuffer data) {
+            reportResponse(request);
+            exchange_.onData(data);
+        }
+
+        @Override
+        public boolean getAuthCredentials(boolean isProxy, String host, int port, String realm,
+                String scheme, CefAuthCallback callback) {
+            // Only credentials known to the network stack are used.
+            return false;
+        }
+    }
+}
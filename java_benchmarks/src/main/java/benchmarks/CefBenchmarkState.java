@@ -0,0 +1,143 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package benchmarks;
+
+import com.jetbrains.cef.JCefAppConfig;
+import org.cef.CefApp;
+import org.cef.CefApp.CefAppState;
+import org.cef.CefClient;
+import org.cef.CefSettings;
+import org.cef.browser.CefBrowser;
+import org.cef.browser.CefFrame;
+import org.cef.browser.CefRendering;
+import org.cef.handler.CefAppHandlerAdapter;
+import org.cef.handler.CefLoadHandlerAdapter;
+import org.cef.handler.CefRenderHandlerAdapter;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.awt.Rectangle;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Initializes CEF once per benchmark fork and creates a windowless browser that
+// renders into a CefRenderHandler, so no display surface is required.
+@State(Scope.Benchmark)
+public class CefBenchmarkState {
+    static final int TIMEOUT = 10;
+    static final int VIEW_WIDTH = 800;
+    static final int VIEW_HEIGHT = 600;
+
+    private CountDownLatch shutdown_;
+    private volatile CountDownLatch loaded_ = new CountDownLatch(1);
+    CefApp app_;
+    CefClient client_;
+    CefBrowser browser_;
+    final BenchmarkRenderHandler renderHandler_ = new BenchmarkRenderHandler();
+
+    // Counts paints and remembers the size of the last one.
+    static class BenchmarkRenderHandler extends CefRenderHandlerAdapter {
+        private final Object lock_ = new Object();
+        private volatile int width_ = VIEW_WIDTH;
+        private volatile int height_ = VIEW_HEIGHT;
+        private long paintCount_ = 0;
+        private int paintedWidth_ = 0;
+
+        @Override
+        public Rectangle getViewRect(CefBrowser browser) {
+            return new Rectangle(0, 0, width_, height_);
+        }
+
+        @Override
+        public void onPaint(CefBrowser browser, boolean popup, int[] dirtyRects,
+                int dirtyRectCount, ByteBuffer buffer, int width, int height) {
+            synchronized (lock_) {
+                paintCount_++;
+                paintedWidth_ = width;
+                lock_.notifyAll();
+            }
+        }
+
+        void setViewSize(int width, int height) {
+            width_ = width;
+            height_ = height;
+        }
+
+        long getPaintCount() {
+            synchronized (lock_) {
+                return paintCount_;
+            }
+        }
+
+        // Wait for a paint with |width| after paint number |after|.
+        void awaitPaint(long after, int width) throws InterruptedException, TimeoutException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT);
+            synchronized (lock_) {
+                while (paintCount_ <= after || paintedWidth_ != width) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) throw new TimeoutException("No paint received");
+                    TimeUnit.NANOSECONDS.timedWait(lock_, remaining);
+                }
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        if (!CefApp.startup(new String[] {}))
+            throw new IllegalStateException("Startup initialization failed");
+
+        JCefAppConfig config = JCefAppConfig.getInstance();
+        CefSettings settings = config.getCefSettings();
+        settings.windowless_rendering_enabled = true;
+        settings.log_severity = CefSettings.LogSeverity.LOGSEVERITY_ERROR;
+
+        shutdown_ = new CountDownLatch(1);
+        CefApp.addAppHandler(new CefAppHandlerAdapter(config.getAppArgs()) {
+            @Override
+            public void stateHasChanged(CefAppState state) {
+                if (state == CefAppState.TERMINATED) shutdown_.countDown();
+            }
+        });
+        app_ = CefApp.getInstance(settings);
+        client_ = app_.createClient();
+
+        client_.addLoadHandler(new CefLoadHandlerAdapter() {
+            @Override
+            public void onLoadEnd(CefBrowser browser, CefFrame frame, int httpStatusCode) {
+                if (frame.isMain()) loaded_.countDown();
+            }
+        });
+
+        browser_ = client_.createBrowser("data:text/html,<html><body>JCEF benchmarks</body></html>",
+                new CefRendering.CefRenderingWithHandler(renderHandler_), false);
+        browser_.createImmediately();
+        awaitLoad();
+    }
+
+    // Load |url| in the main frame and wait for it to finish.
+    void loadAndWait(String url) throws InterruptedException, TimeoutException {
+        loaded_ = new CountDownLatch(1);
+        browser_.loadURL(url);
+        awaitLoad();
+    }
+
+    private void awaitLoad() throws InterruptedException, TimeoutException {
+        if (!loaded_.await(TIMEOUT, TimeUnit.SECONDS))
+            throw new TimeoutException("Browser did not load");
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        browser_.close(true);
+        client_.dispose();
+        app_.dispose();
+        shutdown_.await(TIMEOUT, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,107 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package benchmarks;
+
+import org.cef.network.CefPostData;
+import org.cef.network.CefPostDataElement;
+import org.cef.network.CefRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.Canvas;
+import java.awt.event.MouseEvent;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+
+// Measures calls from Java into the native library.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DowncallBenchmark {
+    private static final int HEADER_COUNT = 10;
+    private static final int POST_DATA_ELEMENT_COUNT = 4;
+
+    private MouseEvent mouseEvent_;
+    private CefRequest request_;
+    private Map<String, String> headerMap_;
+    private CefPostData postData_;
+    private final Vector<CefPostDataElement> elements_ = new Vector<>();
+
+    // Depending on CefBenchmarkState makes sure that CEF is initialized first.
+    @Setup
+    public void setUp(CefBenchmarkState cef) {
+        mouseEvent_ = new MouseEvent(
+                new Canvas(), MouseEvent.MOUSE_MOVED, 0, 0, 100, 100, 0, false);
+
+        headerMap_ = new HashMap<>();
+        for (int i = 0; i < HEADER_COUNT; ++i) headerMap_.put("X-Header-" + i, "value " + i);
+        request_ = CefRequest.create();
+        request_.setURL("http://bench.test/");
+        request_.setHeaderMap(headerMap_);
+
+        postData_ = CefPostData.create();
+        for (int i = 0; i < POST_DATA_ELEMENT_COUNT; ++i) {
+            CefPostDataElement element = CefPostDataElement.create();
+            byte[] bytes = new byte[1024];
+            element.setToBytes(bytes.length, bytes);
+            postData_.addElement(element);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        postData_.dispose();
+        request_.dispose();
+    }
+
+    @Benchmark
+    public void sendMouseEvent(CefBenchmarkState cef) {
+        cef.browser_.sendMouseEvent(mouseEvent_);
+    }
+
+    @Benchmark
+    public void sendMouseEventPrimitive(CefBenchmarkState cef) {
+        cef.browser_.sendMouseEvent(MouseEvent.MOUSE_MOVED, 100, 100, 0, MouseEvent.NOBUTTON, 0);
+    }
+
+    @Benchmark
+    public void executeJavaScript(CefBenchmarkState cef) {
+        cef.browser_.executeJavaScript("void 0;", "", 0);
+    }
+
+    @Benchmark
+    public void requestGetHeaderMap(Blackhole bh) {
+        Map<String, String> headers = new HashMap<>();
+        request_.getHeaderMap(headers);
+        bh.consume(headers);
+    }
+
+    @Benchmark
+    public void requestSetHeaderMap() {
+        request_.setHeaderMap(headerMap_);
+    }
+
+    @Benchmark
+    public void postDataGetElements(Blackhole bh) {
+        elements_.clear();
+        postData_.getElements(elements_);
+        bh.consume(elements_);
+    }
+}
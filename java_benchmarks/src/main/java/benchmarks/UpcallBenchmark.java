@@ -0,0 +1,185 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package benchmarks;
+
+import org.cef.browser.CefBrowser;
+import org.cef.browser.CefFrame;
+import org.cef.callback.CefCallback;
+import org.cef.callback.CefCookieVisitor;
+import org.cef.callback.CefSchemeHandlerFactory;
+import org.cef.handler.CefResourceHandler;
+import org.cef.handler.CefResourceHandlerAdapter;
+import org.cef.misc.BoolRef;
+import org.cef.misc.IntRef;
+import org.cef.misc.StringRef;
+import org.cef.network.CefCookie;
+import org.cef.network.CefCookieManager;
+import org.cef.network.CefRequest;
+import org.cef.network.CefResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Measures calls from the native library into Java. Each operation includes the
+// downcall that triggers it and waits for the upcalls to arrive.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UpcallBenchmark {
+    private static final String DOMAIN = "bench.test";
+    private static final String COOKIE_URL = "http://" + DOMAIN + "/";
+    private static final int COOKIE_COUNT = 100;
+
+    private int width_ = CefBenchmarkState.VIEW_WIDTH;
+
+    // Serves the resource loaded by the readResponse benchmark.
+    @State(Scope.Benchmark)
+    public static class ResourceState {
+        // "array" serves data through readResponse(byte[], ...) and "direct" through
+        // readResponse(ByteBuffer, ...).
+        @Param({"array", "direct"})
+        public String readMode;
+
+        @Param({"1048576"})
+        public int responseSize;
+
+        @Setup
+        public void setUp(CefBenchmarkState cef) {
+            final boolean direct = readMode.equals("direct");
+            final int size = responseSize;
+            cef.app_.registerSchemeHandlerFactory("http", DOMAIN, new CefSchemeHandlerFactory() {
+                @Override
+                public CefResourceHandler create(CefBrowser browser, CefFrame frame,
+                        String schemeName, CefRequest request) {
+                    return direct ? new DirectResourceHandler(size)
+                                  : new ArrayResourceHandler(size);
+                }
+            });
+        }
+    }
+
+    @Setup
+    public void setUp(CefBenchmarkState cef)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        List<CefCookie> cookies = new ArrayList<>(COOKIE_COUNT);
+        for (int i = 0; i < COOKIE_COUNT; ++i) {
+            cookies.add(new CefCookie("cookie" + i, "value" + i, DOMAIN, "/", false, false,
+                    new Date(), new Date(), false, null));
+        }
+        // Setting cookies is asynchronous and visitUrlCookies() doesn't call the visitor at all
+        // while none are visible, so wait until all are set.
+        int count = CefCookieManager.getGlobalManager().setCookies(cookies).get(
+                CefBenchmarkState.TIMEOUT, TimeUnit.SECONDS);
+        if (count != COOKIE_COUNT)
+            throw new IllegalStateException("Only " + count + " cookies were set");
+    }
+
+    // Resize the view and wait for the resulting onPaint call.
+    @Benchmark
+    public void onPaint(CefBenchmarkState cef) throws InterruptedException, TimeoutException {
+        width_ = width_ == CefBenchmarkState.VIEW_WIDTH ? CefBenchmarkState.VIEW_WIDTH + 1
+                                                        : CefBenchmarkState.VIEW_WIDTH;
+        long paintCount = cef.renderHandler_.getPaintCount();
+        cef.renderHandler_.setViewSize(width_, CefBenchmarkState.VIEW_HEIGHT);
+        cef.browser_.wasResized(width_, CefBenchmarkState.VIEW_HEIGHT);
+        cef.renderHandler_.awaitPaint(paintCount, width_);
+    }
+
+    // Load a |responseSize| resource from a Java resource handler.
+    @Benchmark
+    public void readResponse(CefBenchmarkState cef, ResourceState resource)
+            throws InterruptedException, TimeoutException {
+        cef.loadAndWait("http://" + DOMAIN + "/data.html");
+    }
+
+    // Visit all cookies. Reported per visited cookie.
+    @Benchmark
+    @OperationsPerInvocation(COOKIE_COUNT)
+    public void cookieVisit() throws InterruptedException, TimeoutException {
+        final CountDownLatch done = new CountDownLatch(1);
+        CefCookieManager.getGlobalManager().visitUrlCookies(
+                COOKIE_URL, false, new CefCookieVisitor() {
+                    @Override
+                    public boolean visit(CefCookie cookie, int count, int total, BoolRef delete) {
+                        if (count + 1 >= total) done.countDown();
+                        return true;
+                    }
+                });
+        if (!done.await(CefBenchmarkState.TIMEOUT, TimeUnit.SECONDS))
+            throw new TimeoutException("Cookies were not visited");
+    }
+
+    private static class ArrayResourceHandler extends CefResourceHandlerAdapter {
+        protected final int size_;
+        protected int offset_ = 0;
+
+        ArrayResourceHandler(int size) {
+            size_ = size;
+        }
+
+        @Override
+        public boolean processRequest(CefRequest request, CefCallback callback) {
+            callback.Continue();
+            return true;
+        }
+
+        @Override
+        public void getResponseHeaders(
+                CefResponse response, IntRef responseLength, StringRef redirectUrl) {
+            response.setStatus(200);
+            // A main frame navigation to a binary type would become a download and never finish
+            // loading.
+            response.setMimeType("text/html");
+            responseLength.set(size_);
+        }
+
+        @Override
+        public boolean readResponse(
+                byte[] dataOut, int bytesToRead, IntRef bytesRead, CefCallback callback) {
+            int length = Math.min(bytesToRead, size_ - offset_);
+            if (length <= 0) return false;
+            offset_ += length;
+            bytesRead.set(length);
+            return true;
+        }
+    }
+
+    private static class DirectResourceHandler extends ArrayResourceHandler {
+        DirectResourceHandler(int size) {
+            super(size);
+        }
+
+        @Override
+        public boolean readResponse(ByteBuffer dataOut, IntRef bytesRead, CefCallback callback) {
+            int length = Math.min(dataOut.remaining(), size_ - offset_);
+            if (length <= 0) return false;
+            dataOut.position(dataOut.position() + length);
+            offset_ += length;
+            bytesRead.set(length);
+            return true;
+        }
+    }
+}
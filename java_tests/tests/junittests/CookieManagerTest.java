@@ -0,0 +1,126 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package tests.junittests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.cef.browser.CefBrowser;
+import org.cef.network.CefCookie;
+import org.cef.network.CefCookieManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+// Test the batch operations of CefCookieManager.
+@ExtendWith(TestSetupExtension.class)
+class CookieManagerTest {
+    private static final String PREFIX = "jcef_batch_";
+    private static final Predicate<CefCookie> IS_TEST_COOKIE = c -> c.name.startsWith(PREFIX);
+
+    private Throwable error_ = null;
+    private final Set<String> set_ = new TreeSet<>();
+    private final Set<String> afterRestore_ = new TreeSet<>();
+    private int setCount_ = -1;
+    private int deleteCount_ = -1;
+    private int restoreCount_ = -1;
+    private int remaining_ = -1;
+
+    private static String describe(CefCookie cookie) {
+        return cookie.name + "=" + cookie.value + ";" + cookie.domain + ";" + cookie.path;
+    }
+
+    private static Set<String> describe(List<CefCookie> cookies) {
+        return cookies.stream()
+                .filter(IS_TEST_COOKIE)
+                .map(CookieManagerTest::describe)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    // Sets test cookies, deletes them, restores them from the snapshot taken before and
+    // deletes them again. Completes on CEF threads.
+    private CompletableFuture<Void> roundTrip(CefCookieManager manager) {
+        Date now = new Date();
+        List<CefCookie> cookies = Arrays.asList(
+                new CefCookie(PREFIX + "host", "1", "cookies.example.com", "/", false, false,
+                        now, now, false, null),
+                new CefCookie(PREFIX + "domain", "2", ".example.com", "/path", false, false, now,
+                        now, false, null));
+        return manager.setCookies(cookies)
+                .thenCompose(count -> {
+                    setCount_ = count;
+                    return manager.getAllCookies();
+                })
+                .thenCompose(snapshot -> {
+                    set_.addAll(describe(snapshot));
+                    List<CefCookie> saved =
+                            snapshot.stream().filter(IS_TEST_COOKIE).collect(Collectors.toList());
+                    return manager.deleteCookies(IS_TEST_COOKIE).thenCompose(count -> {
+                        deleteCount_ = count;
+                        return manager.setCookies(saved);
+                    });
+                })
+                .thenCompose(count -> {
+                    restoreCount_ = count;
+                    return manager.getAllCookies();
+                })
+                .thenCompose(restored -> {
+                    afterRestore_.addAll(describe(restored));
+                    return manager.deleteCookies(IS_TEST_COOKIE);
+                })
+                .thenCompose(count -> manager.getAllCookies())
+                .thenAccept(cookiesLeft -> remaining_ = describe(cookiesLeft).size());
+    }
+
+    @Test
+    void roundTrip() {
+        final String testUrl = "http://cookies.example.com/test.html";
+        TestFrame frame = new TestFrame() {
+            private boolean started_ = false;
+
+            @Override
+            protected void setupTest() {
+                addResource(testUrl, "<html><body>Cookies</body></html>", "text/html");
+                createBrowser(testUrl);
+                super.setupTest();
+            }
+
+            @Override
+            public void onLoadingStateChange(CefBrowser browser, boolean isLoading,
+                    boolean canGoBack, boolean canGoForward) {
+                if (isLoading || started_) return;
+                started_ = true;
+                CefCookieManager manager = CefCookieManager.getGlobalManager();
+                assertNotNull(manager);
+                roundTrip(manager).whenComplete((result, error) -> {
+                    error_ = error;
+                    terminateTest();
+                });
+            }
+        };
+
+        frame.awaitCompletion();
+
+        assertNull(error_);
+        assertEquals(2, setCount_);
+        assertEquals(
+                new TreeSet<>(Arrays.asList(PREFIX + "domain=2;.example.com;/path",
+                        PREFIX + "host=1;cookies.example.com;/")),
+                set_);
+        assertEquals(2, deleteCount_);
+        assertEquals(2, restoreCount_);
+        assertEquals(set_, afterRestore_);
+        assertEquals(0, remaining_);
+    }
+}
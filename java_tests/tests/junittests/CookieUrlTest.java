@@ -0,0 +1,47 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package tests.junittests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.cef.network.CefCookie;
+import org.cef.network.CefCookieManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+// Test the URLs that CefCookieManager.setCookies() derives from cookies. Doesn't require CEF.
+class CookieUrlTest {
+    private static CefCookie cookie(String domain, String path, boolean secure) {
+        Date now = new Date();
+        return new CefCookie("name", "value", domain, path, secure, false, now, now, false, null);
+    }
+
+    @Test
+    void hostCookie() {
+        assertEquals("http://www.example.com/a/b",
+                CefCookieManager.getCookieUrl(cookie("www.example.com", "/a/b", false)));
+        assertEquals("https://www.example.com/",
+                CefCookieManager.getCookieUrl(cookie("www.example.com", "/", true)));
+    }
+
+    @Test
+    void domainCookie() {
+        // The leading "." is not part of the host.
+        assertEquals("https://example.com/x",
+                CefCookieManager.getCookieUrl(cookie(".example.com", "/x", true)));
+    }
+
+    @Test
+    void missingPathOrDomain() {
+        assertEquals("http://example.com/",
+                CefCookieManager.getCookieUrl(cookie("example.com", null, false)));
+        assertEquals("http://example.com/",
+                CefCookieManager.getCookieUrl(cookie("example.com", "", false)));
+        assertNull(CefCookieManager.getCookieUrl(cookie(null, "/", false)));
+        assertNull(CefCookieManager.getCookieUrl(cookie("", "/", false)));
+    }
+}
@@ -0,0 +1,65 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package tests.junittests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.cef.handler.CefDirtyRectPlanner;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+
+// Test the CefDirtyRectPlanner implementation. Doesn't require CEF.
+class DirtyRectPlannerTest {
+    private final CefDirtyRectPlanner planner_ = new CefDirtyRectPlanner();
+
+    @Test
+    void mergeAdjacent() {
+        Rectangle[] planned = planner_.plan(
+                new Rectangle[] {new Rectangle(10, 10, 20, 10), new Rectangle(10, 20, 20, 10)},
+                1000, 1000);
+        assertArrayEquals(new Rectangle[] {new Rectangle(10, 10, 20, 20)}, planned);
+    }
+
+    @Test
+    void keepDistant() {
+        Rectangle[] planned = planner_.plan(
+                new Rectangle[] {new Rectangle(0, 0, 10, 10), new Rectangle(500, 500, 10, 10)},
+                1000, 1000);
+        assertEquals(2, planned.length);
+    }
+
+    @Test
+    void clipAndDrop() {
+        int[] rects = {-5, -5, 10, 10, 2000, 0, 10, 10};
+        assertEquals(1, planner_.plan(rects, 2, 1000, 1000));
+        assertEquals(0, rects[0]);
+        assertEquals(0, rects[1]);
+        assertEquals(5, rects[2]);
+        assertEquals(5, rects[3]);
+    }
+
+    @Test
+    void collapseToFullView() {
+        Rectangle[] planned = planner_.plan(
+                new Rectangle[] {new Rectangle(0, 0, 100, 40), new Rectangle(0, 60, 100, 40)},
+                100, 100);
+        assertArrayEquals(new Rectangle[] {new Rectangle(0, 0, 100, 100)}, planned);
+    }
+
+    @Test
+    void maxRects() {
+        CefDirtyRectPlanner planner = new CefDirtyRectPlanner(0, 1, 3);
+        int[] rects = new int[10 * 4];
+        for (int i = 0; i < 10; ++i) {
+            rects[i * 4] = i * 100;
+            rects[i * 4 + 1] = i * 100;
+            rects[i * 4 + 2] = 10;
+            rects[i * 4 + 3] = 10;
+        }
+        assertEquals(3, planner.plan(rects, 10, 1000, 1000));
+    }
+}
@@ -0,0 +1,259 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package tests.junittests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import org.cef.handler.CefFileResourceHandler;
+import org.cef.handler.CefFileSchemeHandlerFactory;
+import org.cef.misc.IntRef;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Test the CefFileResourceHandler and CefFileSchemeHandlerFactory implementations. Doesn't
+// require CEF.
+class FileResourceHandlerTest {
+    private static final String CONTENT = "0123456789";
+
+    @TempDir
+    Path tempDir_;
+
+    // Exposes the request processing to the test.
+    private static class Handler extends CefFileResourceHandler {
+        Handler(Path file) {
+            super(file);
+        }
+
+        Handler(CompletableFuture<Path> file) {
+            super(file, "text/plain");
+        }
+
+        boolean prepare(Map<String, String> requestHeaders) {
+            return prepareResponse(requestHeaders::get);
+        }
+
+        String readBody() {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4];
+            IntRef bytesRead = new IntRef();
+            while (readResponse(buffer, buffer.length, bytesRead, null))
+                body.write(buffer, 0, bytesRead.get());
+            return new String(body.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static class Factory extends CefFileSchemeHandlerFactory {
+        Factory(Path root) throws IOException {
+            super(root);
+        }
+
+        Path resolve(String path) {
+            return resolveFile(path);
+        }
+    }
+
+    private static Map<String, String> header(String name, String value) {
+        Map<String, String> map = new HashMap<>();
+        map.put(name, value);
+        return map;
+    }
+
+    private static Path writeFile(Path dir) throws IOException {
+        Path file = dir.resolve("file.txt");
+        Files.write(file, CONTENT.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    void wholeFile() throws IOException {
+        Handler handler = new Handler(writeFile(tempDir_));
+        assertTrue(handler.prepare(new HashMap<>()));
+        assertEquals(200, handler.getStatus());
+        assertEquals("bytes", handler.getResponseHeader("Accept-Ranges"));
+        assertEquals(CONTENT, handler.readBody());
+
+        handler = new Handler(tempDir_.resolve("missing.txt"));
+        assertTrue(handler.prepare(new HashMap<>()));
+        assertEquals(404, handler.getStatus());
+        assertEquals("", handler.readBody());
+    }
+
+    @Test
+    void range() throws IOException {
+        Path file = writeFile(tempDir_);
+
+        Handler handler = new Handler(file);
+        assertTrue(handler.prepare(header("Range", "bytes=2-5")));
+        assertEquals(206, handler.getStatus());
+        assertEquals("bytes 2-5/10", handler.getResponseHeader("Content-Range"));
+        assertEquals("2345", handler.readBody());
+
+        handler = new Handler(file);
+        assertTrue(handler.prepare(header("Range", "bytes=7-")));
+        assertEquals(206, handler.getStatus());
+        assertEquals("789", handler.readBody());
+
+        handler = new Handler(file);
+        assertTrue(handler.prepare(header("Range", "bytes=-3")));
+        assertEquals(206, handler.getStatus());
+        assertEquals("789", handler.readBody());
+
+        // The end is clamped to the file size.
+        handler = new Handler(file);
+        assertTrue(handler.prepare(header("Range", "bytes=8-100")));
+        assertEquals(206, handler.getStatus());
+        assertEquals("bytes 8-9/10", handler.getResponseHeader("Content-Range"));
+        assertEquals("89", handler.readBody());
+    }
+
+    @Test
+    void invalidRangeIsIgnored() throws IOException {
+        Path file = writeFile(tempDir_);
+        for (String range : new String[] {"bytes=5-2", "bytes=0-1,4-5", "lines=1-2", "bytes=x-"}) {
+            Handler handler = new Handler(file);
+            assertTrue(handler.prepare(header("Range", range)), range);
+            assertEquals(200, handler.getStatus(), range);
+            assertNull(handler.getResponseHeader("Content-Range"), range);
+            assertEquals(CONTENT, handler.readBody(), range);
+        }
+    }
+
+    @Test
+    void unsatisfiableRange() throws IOException {
+        Handler handler = new Handler(writeFile(tempDir_));
+        assertTrue(handler.prepare(header("Range", "bytes=10-12")));
+        assertEquals(416, handler.getStatus());
+        assertEquals("bytes */10", handler.getResponseHeader("Content-Range"));
+        assertEquals("", handler.readBody());
+
+        // No range of an empty file is satisfiable.
+        Path empty = tempDir_.resolve("empty.txt");
+        Files.createFile(empty);
+        for (String range : new String[] {"bytes=0-", "bytes=0-0", "bytes=-1"}) {
+            handler = new Handler(empty);
+            assertTrue(handler.prepare(header("Range", range)));
+            assertEquals(416, handler.getStatus(), range);
+            assertEquals("bytes */0", handler.getResponseHeader("Content-Range"));
+            assertEquals("", handler.readBody());
+        }
+    }
+
+    @Test
+    void deferredFile() throws IOException {
+        Path file = writeFile(tempDir_);
+        CompletableFuture<Path> future = new CompletableFuture<>();
+        Handler handler = new Handler(future);
+        future.complete(file);
+        assertTrue(handler.prepare(new HashMap<>()));
+        assertEquals(200, handler.getStatus());
+        assertEquals(CONTENT, handler.readBody());
+
+        // A failed extraction is not found.
+        future = new CompletableFuture<>();
+        handler = new Handler(future);
+        future.completeExceptionally(new IOException());
+        assertTrue(handler.prepare(new HashMap<>()));
+        assertEquals(404, handler.getStatus());
+    }
+
+    @Test
+    void ifRange() throws IOException {
+        Path file = writeFile(tempDir_);
+        Handler handler = new Handler(file);
+        assertTrue(handler.prepare(new HashMap<>()));
+        String etag = handler.getResponseHeader("ETag");
+
+        Map<String, String> headers = header("Range", "bytes=0-1");
+        headers.put("If-Range", etag);
+        handler = new Handler(file);
+        assertTrue(handler.prepare(headers));
+        assertEquals(206, handler.getStatus());
+
+        // A changed validator sends the whole file.
+        headers.put("If-Range", "\"other\"");
+        handler = new Handler(file);
+        assertTrue(handler.prepare(headers));
+        assertEquals(200, handler.getStatus());
+        assertEquals(CONTENT, handler.readBody());
+    }
+
+    @Test
+    void notModified() throws IOException {
+        Path file = writeFile(tempDir_);
+        Handler handler = new Handler(file);
+        assertTrue(handler.prepare(new HashMap<>()));
+        String etag = handler.getResponseHeader("ETag");
+        String lastModified = handler.getResponseHeader("Last-Modified");
+
+        handler = new Handler(file);
+        assertTrue(handler.prepare(header("If-None-Match", "\"other\", " + etag)));
+        assertEquals(304, handler.getStatus());
+        assertEquals("", handler.readBody());
+
+        handler = new Handler(file);
+        assertTrue(handler.prepare(header("If-None-Match", "\"other\"")));
+        assertEquals(200, handler.getStatus());
+
+        handler = new Handler(file);
+        assertTrue(handler.prepare(header("If-Modified-Since", lastModified)));
+        assertEquals(304, handler.getStatus());
+
+        handler = new Handler(file);
+        assertTrue(handler.prepare(
+                header("If-Modified-Since", "Thu, 01 Jan 1970 00:00:00 GMT")));
+        assertEquals(200, handler.getStatus());
+        assertEquals(CONTENT, handler.readBody());
+    }
+
+    @Test
+    void resolveFile() throws IOException {
+        Path root = tempDir_.resolve("root");
+        Files.createDirectories(root.resolve("sub"));
+        Path file = writeFile(root);
+        Factory factory = new Factory(root);
+
+        assertEquals(file.toRealPath(), factory.resolve("file.txt"));
+        assertEquals(file.toRealPath(), factory.resolve("sub/../file.txt"));
+        assertEquals(root.toRealPath().resolve("index.html"), factory.resolve(""));
+        assertEquals(root.toRealPath().resolve("sub/index.html"), factory.resolve("sub"));
+
+        // Paths outside of the root are rejected.
+        assertNull(factory.resolve("../file.txt"));
+        assertNull(factory.resolve("sub/../../root2/file.txt"));
+        assertNull(factory.resolve(tempDir_.toAbsolutePath().toString()));
+    }
+
+    @Test
+    void symbolicLinksStayInRoot() throws IOException {
+        Path root = tempDir_.resolve("root");
+        Files.createDirectories(root);
+        Path inside = writeFile(root);
+        Path outside = writeFile(Files.createDirectories(tempDir_.resolve("outside")));
+        try {
+            Files.createSymbolicLink(root.resolve("in.txt"), inside);
+            Files.createSymbolicLink(root.resolve("out.txt"), outside);
+            Files.createSymbolicLink(root.resolve("dir"), outside.getParent());
+        } catch (IOException | UnsupportedOperationException e) {
+            assumeTrue(false, "Symbolic links are not supported");
+        }
+        Factory factory = new Factory(root);
+
+        assertEquals(inside.toRealPath(), factory.resolve("in.txt"));
+        assertNull(factory.resolve("out.txt"));
+        assertNull(factory.resolve("dir/file.txt"));
+    }
+}
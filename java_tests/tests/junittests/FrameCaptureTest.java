@@ -0,0 +1,153 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package tests.junittests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.cef.handler.CefFrameCapture;
+import org.cef.handler.CefFrameSink;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Test the CefFrameCapture implementation. Doesn't require CEF.
+class FrameCaptureTest {
+    private static ByteBuffer frame(int width, int height, int argb) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(width * height * 4);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < width * height; ++i) buffer.putInt(argb);
+        buffer.clear();
+        return buffer;
+    }
+
+    @Test
+    void dropsWhenSinkIsSlow() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CefFrameSink sink = (pixels, width, height, index, timestamp) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        CefFrameCapture capture = new CefFrameCapture(sink, 1, 1, 2);
+        ByteBuffer buffer = frame(4, 4, 0);
+        assertTrue(capture.capture(buffer, 4, 4));
+        assertTrue(capture.capture(buffer, 4, 4));
+        // Both buffers are in use, so the third frame is dropped without blocking.
+        assertFalse(capture.capture(buffer, 4, 4));
+        assertEquals(1, capture.getDroppedFrameCount());
+
+        release.countDown();
+        capture.close();
+        assertEquals(2, capture.getCapturedFrameCount());
+    }
+
+    @Test
+    void interruptedCloseWaitsForWriters() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean written = new AtomicBoolean(false);
+        AtomicBoolean closedEarly = new AtomicBoolean(false);
+        CefFrameSink sink = new CefFrameSink() {
+            @Override
+            public void writeFrame(ByteBuffer pixels, int width, int height, long index,
+                    long timestamp) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.set(true);
+            }
+
+            @Override
+            public void close() {
+                if (!written.get()) closedEarly.set(true);
+            }
+        };
+        CefFrameCapture capture = new CefFrameCapture(sink, 1, 1, 1);
+        assertTrue(capture.capture(frame(4, 4, 0), 4, 4));
+        writing.await();
+
+        // The sink is only closed once the frame was written, despite the interrupt.
+        Thread.currentThread().interrupt();
+        new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                // Release anyway.
+            }
+            release.countDown();
+        }).start();
+        capture.close();
+        assertTrue(Thread.interrupted());
+        assertFalse(closedEarly.get());
+        assertEquals(1, capture.getCapturedFrameCount());
+    }
+
+    @Test
+    void mappedVideo() throws Exception {
+        File file = File.createTempFile("capture", ".raw");
+        try {
+            CefFrameCapture capture = new CefFrameCapture(CefFrameSink.mappedVideo(file), 2, 1, 4);
+            for (int i = 0; i < 4; ++i) capture.capture(frame(2, 3, 0xff000000 | i), 2, 3);
+            capture.close();
+
+            // Frames 0 and 2 are captured.
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            data.order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(2 * (CefFrameSink.VIDEO_HEADER_SIZE + 2 * 3 * 4), data.limit());
+            for (int i = 0; i < 2; ++i) {
+                int record = i * (CefFrameSink.VIDEO_HEADER_SIZE + 2 * 3 * 4);
+                assertEquals(i * 2, data.getLong(record));
+                assertEquals(2, data.getInt(record + 16));
+                assertEquals(3, data.getInt(record + 20));
+                assertEquals(0xff000000 | (i * 2),
+                        data.getInt(record + CefFrameSink.VIDEO_HEADER_SIZE));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    void mappedVideoSpansChunks() throws Exception {
+        File file = File.createTempFile("capture", ".raw");
+        try {
+            // Records of 56 bytes span several 10-byte chunks.
+            CefFrameSink sink = CefFrameSink.mappedVideo(file, 10);
+            for (int i = 0; i < 3; ++i) sink.writeFrame(frame(2, 3, 0xff000000 | i), 2, 3, i, 0);
+            sink.close();
+            assertThrows(IOException.class, () -> sink.writeFrame(frame(2, 3, 0), 2, 3, 3, 0));
+
+            // The file is truncated to the records.
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            data.order(ByteOrder.LITTLE_ENDIAN);
+            int size = CefFrameSink.VIDEO_HEADER_SIZE + 2 * 3 * 4;
+            assertEquals(3 * size, data.limit());
+            for (int i = 0; i < 3; ++i) {
+                assertEquals(i, data.getLong(i * size));
+                assertEquals(3, data.getInt(i * size + 20));
+                for (int p = 0; p < 6; ++p) {
+                    assertEquals(0xff000000 | i,
+                            data.getInt(i * size + CefFrameSink.VIDEO_HEADER_SIZE + p * 4));
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
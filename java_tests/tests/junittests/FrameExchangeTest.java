@@ -0,0 +1,196 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package tests.junittests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.cef.browser.CefFrameExchange;
+import org.cef.browser.CefPixelExchange;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Test the CefFrameExchange and CefPixelExchange implementations. Doesn't require CEF.
+class FrameExchangeTest {
+    @Test
+    void latestFrameWins() {
+        CefFrameExchange<AtomicLong> exchange = new CefFrameExchange<>(AtomicLong::new);
+        assertNull(exchange.acquire());
+
+        exchange.getBackBuffer().set(1);
+        assertTrue(exchange.publish());
+        exchange.getBackBuffer().set(2);
+        assertFalse(exchange.publish());
+        exchange.getBackBuffer().set(3);
+        assertFalse(exchange.publish());
+
+        assertEquals(3, exchange.acquire().get());
+        assertEquals(3, exchange.getPublishedFrameCount());
+        assertEquals(2, exchange.getDroppedFrameCount());
+
+        // Without a new frame the previous one is returned again.
+        assertFalse(exchange.hasNewFrame());
+        assertEquals(3, exchange.acquire().get());
+
+        // The signal is cleared by acquire().
+        exchange.getBackBuffer().set(4);
+        assertTrue(exchange.publish());
+        assertEquals(4, exchange.acquire().get());
+        assertEquals(2, exchange.getDroppedFrameCount());
+    }
+
+    @Test
+    void concurrent() throws InterruptedException {
+        final int frames = 100000;
+        CefFrameExchange<AtomicLong> exchange = new CefFrameExchange<>(AtomicLong::new);
+        Thread producer = new Thread(() -> {
+            for (int i = 1; i <= frames; ++i) {
+                exchange.getBackBuffer().set(i);
+                exchange.publish();
+            }
+        });
+        producer.start();
+
+        // Frames are never seen out of order.
+        long last = 0;
+        while (last < frames) {
+            AtomicLong frame = exchange.acquire();
+            if (frame == null) continue;
+            assertTrue(frame.get() >= last);
+            last = frame.get();
+        }
+        producer.join();
+        assertEquals(frames, exchange.getPublishedFrameCount());
+    }
+
+    // Fills |rect| of the |width| pixels wide BGRA |buffer| with |value| bytes.
+    private static void fill(ByteBuffer buffer, int width, int[] rect, int value) {
+        for (int y = rect[1]; y < rect[1] + rect[3]; ++y) {
+            for (int x = rect[0]; x < rect[0] + rect[2]; ++x) {
+                for (int i = 0; i < 4; ++i) buffer.put((y * width + x) * 4 + i, (byte) value);
+            }
+        }
+    }
+
+    // Applies the dirty regions of |frame| to |texture| like an upload would.
+    private static void upload(CefPixelExchange.Frame frame, byte[] texture) {
+        ByteBuffer pixels = frame.getBuffer();
+        int[] rects = frame.getDirtyRects();
+        for (int i = 0; i < frame.getDirtyRectCount(); ++i) {
+            for (int y = rects[i * 4 + 1]; y < rects[i * 4 + 1] + rects[i * 4 + 3]; ++y) {
+                for (int x = rects[i * 4]; x < rects[i * 4] + rects[i * 4 + 2]; ++x) {
+                    for (int b = 0; b < 4; ++b) {
+                        int offset = (y * frame.getWidth() + x) * 4 + b;
+                        texture[offset] = pixels.get(offset);
+                    }
+                }
+            }
+        }
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.capacity()];
+        ByteBuffer copy = buffer.duplicate();
+        copy.clear();
+        copy.get(bytes);
+        return bytes;
+    }
+
+    @Test
+    void pixelFramesCarryDroppedRegions() {
+        final int size = 4;
+        CefPixelExchange exchange = new CefPixelExchange();
+        ByteBuffer view = ByteBuffer.allocateDirect(size * size * 4);
+        assertNull(exchange.acquire());
+
+        fill(view, size, new int[] {0, 0, size, size}, 1);
+        assertTrue(exchange.publish(view, size, size, new int[] {0, 0, size, size}, 1, 1));
+        CefPixelExchange.Frame frame = exchange.acquire();
+        assertEquals(1, frame.getDirtyRectCount());
+        assertArrayEquals(toArray(view), toArray(frame.getBuffer()));
+
+        // The second paint is dropped, its region is part of the third frame.
+        int[] first = {0, 0, 1, 1};
+        int[] second = {3, 3, 1, 1};
+        fill(view, size, first, 2);
+        assertTrue(exchange.publish(view, size, size, first, 1, 2));
+        fill(view, size, second, 3);
+        assertFalse(exchange.publish(view, size, size, second, 1, 3));
+
+        frame = exchange.acquire();
+        assertEquals(3, frame.getPaintNanos());
+        assertEquals(2, frame.getDirtyRectCount());
+        assertArrayEquals(toArray(view), toArray(frame.getBuffer()));
+        assertEquals(1, exchange.getDroppedFrameCount());
+
+        // Nothing new.
+        assertNull(exchange.acquire());
+    }
+
+    @Test
+    void pixelFramesStayComplete() {
+        final int width = 16;
+        final int height = 8;
+        Random random = new Random(1);
+        CefPixelExchange exchange = new CefPixelExchange();
+        ByteBuffer view = ByteBuffer.allocateDirect(width * height * 4);
+        byte[] texture = new byte[width * height * 4];
+
+        int[] all = {0, 0, width, height};
+        fill(view, width, all, 1);
+        exchange.publish(view, width, height, all, 1, 0);
+        for (int paint = 2; paint < 1000; ++paint) {
+            int count = 1 + random.nextInt(3);
+            int[] rects = new int[count * 4];
+            for (int i = 0; i < count; ++i) {
+                int[] rect = {random.nextInt(width), random.nextInt(height), 0, 0};
+                rect[2] = 1 + random.nextInt(width - rect[0]);
+                rect[3] = 1 + random.nextInt(height - rect[1]);
+                fill(view, width, rect, paint);
+                System.arraycopy(rect, 0, rects, i * 4, 4);
+            }
+            exchange.publish(view, width, height, rects, count, paint);
+
+            // The consumer takes some frames only.
+            if (random.nextInt(3) == 0) {
+                CefPixelExchange.Frame frame = exchange.acquire();
+                assertArrayEquals(toArray(view), toArray(frame.getBuffer()));
+                upload(frame, texture);
+                assertArrayEquals(toArray(view), texture);
+            }
+        }
+        assertTrue(exchange.getDroppedFrameCount() > 0);
+    }
+
+    @Test
+    void pixelFramesMergeManyRegions() {
+        final int size = 8;
+        CefPixelExchange exchange = new CefPixelExchange();
+        ByteBuffer view = ByteBuffer.allocateDirect(size * size * 4);
+        byte[] texture = new byte[size * size * 4];
+
+        int[] all = {0, 0, size, size};
+        fill(view, size, all, 1);
+        exchange.publish(view, size, size, all, 1, 0);
+        upload(exchange.acquire(), texture);
+
+        // Dropped paints of more rects than a frame carries are merged into their bounds.
+        for (int i = 0; i < 40; ++i) {
+            int[] rect = {i % size, i / size, 1, 1};
+            fill(view, size, rect, i + 2);
+            exchange.publish(view, size, size, rect, 1, i + 1);
+        }
+        CefPixelExchange.Frame frame = exchange.acquire();
+        assertTrue(frame.getDirtyRectCount() <= 32);
+        upload(frame, texture);
+        assertArrayEquals(toArray(view), texture);
+    }
+}
@@ -0,0 +1,57 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package tests.junittests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.cef.network.CefHeaderView;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Test the CefHeaderView implementation. Doesn't require CEF.
+class HeaderViewTest {
+    private final String[] headers_ = {"Content-Type", "text/html", "Set-Cookie", "a=1",
+            "set-cookie", "b=2", "Cache-Control", "no-cache"};
+
+    @Test
+    void lookupIgnoresCase() {
+        CefHeaderView view = new CefHeaderView(headers_);
+        assertEquals(4, view.getCount());
+        assertEquals("text/html", view.get("content-type"));
+        assertEquals("a=1", view.get("SET-COOKIE"));
+        assertTrue(view.containsKey("cache-control"));
+        assertNull(view.get("Location"));
+        assertEquals(Arrays.asList("a=1", "b=2"), view.getAll("Set-Cookie"));
+        assertEquals("set-cookie", view.getName(2));
+        assertEquals("b=2", view.getValue(2));
+    }
+
+    @Test
+    void mapContainsFirstValues() {
+        Map<String, String> map = new CefHeaderView(headers_);
+        assertEquals(3, map.size());
+        // The copy is built from the entry set and keeps the first spelling of each name.
+        Map<String, String> copy = new HashMap<>(map);
+        assertEquals("a=1", copy.get("Set-Cookie"));
+        assertEquals("no-cache", copy.get("Cache-Control"));
+        assertArrayEquals(headers_, new CefHeaderView(headers_).toArray());
+    }
+
+    @Test
+    void emptyHeaders() {
+        CefHeaderView view = new CefHeaderView((String[]) null);
+        assertTrue(view.isEmpty());
+        assertEquals(0, view.getCount());
+        assertFalse(view.containsKey("Content-Type"));
+        assertEquals(0, view.toArray().length);
+    }
+}
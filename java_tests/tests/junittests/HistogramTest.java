@@ -0,0 +1,52 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package tests.junittests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.cef.misc.CefHistogram;
+import org.junit.jupiter.api.Test;
+
+// Test the CefHistogram implementation. Doesn't require CEF.
+class HistogramTest {
+    @Test
+    void smallValuesAreExact() {
+        CefHistogram histogram = new CefHistogram();
+        for (int i = 1; i <= 100; ++i) histogram.record(i);
+        assertEquals(100, histogram.getCount());
+        assertEquals(1, histogram.getMin());
+        assertEquals(100, histogram.getMax());
+        assertEquals(50.5, histogram.getMean(), 1e-9);
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(99, histogram.getValueAtPercentile(99));
+        assertEquals(100, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void largeValuesWithinTwoPercent() {
+        CefHistogram histogram = new CefHistogram();
+        for (long value = 1000; value <= 1000000000L; value *= 10) {
+            histogram.reset();
+            histogram.record(value);
+            histogram.record(Long.MAX_VALUE);
+            long p50 = histogram.getValueAtPercentile(50);
+            assertTrue(p50 >= value && p50 <= value * 1.02, value + " -> " + p50);
+        }
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void reset() {
+        CefHistogram histogram = new CefHistogram();
+        histogram.record(-5);
+        histogram.record(7);
+        assertEquals(0, histogram.getMin());
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+}
@@ -0,0 +1,191 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package tests.junittests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.cef.network.CefHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Test CefHttpClient against a local HTTP server. Doesn't require CEF: requests are
+// executed by HttpURLConnection instead of CefURLRequest.
+class HttpClientTest {
+    private static final byte[] BODY = new byte[1 << 20];
+
+    static {
+        new Random(1).nextBytes(BODY);
+    }
+
+    private HttpServer server_;
+    private String baseUrl_;
+    private final AtomicInteger running_ = new AtomicInteger();
+    private final AtomicInteger maxRunning_ = new AtomicInteger();
+    private final AtomicInteger canceled_ = new AtomicInteger();
+    private final ExecutorService executor_ = Executors.newCachedThreadPool();
+
+    // Transport that reports the response in chunks of 8 KB, like CEF does.
+    private final CefHttpClient.Transport transport_ = (request, exchange) -> {
+        HttpURLConnection connection =
+                (HttpURLConnection) new URL(request.getURL()).openConnection();
+        connection.setRequestMethod(request.getMethod());
+        executor_.execute(() -> {
+            try {
+                int status = connection.getResponseCode();
+                Map<String, String> headers = new HashMap<>();
+                connection.getHeaderFields().forEach((name, values) -> {
+                    if (name != null) headers.put(name, values.get(0));
+                });
+                exchange.onResponse(status, connection.getResponseMessage(),
+                        connection.getContentType(), headers);
+                byte[] buffer = new byte[8192];
+                try (InputStream in = connection.getInputStream()) {
+                    int count;
+                    while ((count = in.read(buffer)) > 0)
+                        exchange.onData(ByteBuffer.wrap(buffer, 0, count));
+                }
+                exchange.onComplete(null);
+            } catch (IOException e) {
+                exchange.onComplete(e);
+            }
+        });
+        return () -> {
+            canceled_.incrementAndGet();
+            connection.disconnect();
+        };
+    };
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server_ = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server_.setExecutor(executor_);
+        server_.createContext("/body", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+            exchange.sendResponseHeaders(200, BODY.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(BODY);
+            }
+        });
+        server_.createContext("/slow", exchange -> {
+            int running = running_.incrementAndGet();
+            maxRunning_.accumulateAndGet(running, Math::max);
+            try {
+                Thread.sleep(Long.parseLong(exchange.getRequestURI().getQuery()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running_.decrementAndGet();
+            byte[] body = "done".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            } catch (IOException e) {
+                // The client went away.
+            }
+        });
+        server_.start();
+        baseUrl_ = "http://127.0.0.1:" + server_.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server_.stop(0);
+        executor_.shutdownNow();
+    }
+
+    @Test
+    void collectsBody() throws Exception {
+        try (CefHttpClient client = new CefHttpClient(transport_, 4, 64 * 1024, 16)) {
+            for (int i = 0; i < 3; ++i) {
+                CefHttpClient.Response response =
+                        client.send(new CefHttpClient.Request(baseUrl_ + "/body"))
+                                .get(10, TimeUnit.SECONDS);
+                assertEquals(200, response.getStatus());
+                assertEquals("application/octet-stream", response.getMimeType());
+                assertArrayEquals(BODY, response.getBody());
+            }
+            // The 16 buffers of the first response are reused by the others.
+            assertEquals(16, client.getPooledBufferCount());
+        }
+    }
+
+    @Test
+    void streamsBody() throws Exception {
+        try (CefHttpClient client = new CefHttpClient(transport_, 4, 64 * 1024, 16)) {
+            ByteArrayOutputStream received = new ByteArrayOutputStream();
+            CefHttpClient.Response response =
+                    client.send(new CefHttpClient.Request(baseUrl_ + "/body"), data -> {
+                              byte[] bytes = new byte[data.remaining()];
+                              data.get(bytes);
+                              received.write(bytes, 0, bytes.length);
+                          }).get(10, TimeUnit.SECONDS);
+            assertEquals(0, response.getBody().length);
+            assertArrayEquals(BODY, received.toByteArray());
+        }
+    }
+
+    @Test
+    void limitsConcurrentRequests() throws Exception {
+        try (CefHttpClient client = new CefHttpClient(transport_, 2, 1024, 4)) {
+            List<CompletableFuture<CefHttpClient.Response>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; ++i)
+                futures.add(client.send(new CefHttpClient.Request(baseUrl_ + "/slow?50")));
+            assertTrue(client.getQueuedRequestCount() > 0);
+            for (CompletableFuture<CefHttpClient.Response> future : futures)
+                assertEquals("done", new String(future.get(10, TimeUnit.SECONDS).getBody(),
+                                             StandardCharsets.UTF_8));
+            assertEquals(2, maxRunning_.get());
+            assertEquals(0, client.getActiveRequestCount());
+        }
+    }
+
+    @Test
+    void timeoutCancelsRequest() throws Exception {
+        try (CefHttpClient client = new CefHttpClient(transport_, 1, 1024, 4)) {
+            CompletableFuture<CefHttpClient.Response> slow = client.send(
+                    new CefHttpClient.Request(baseUrl_ + "/slow?2000").setTimeout(200));
+            // Waits in the queue and times out there, so it's never started.
+            CompletableFuture<CefHttpClient.Response> queued = client.send(
+                    new CefHttpClient.Request(baseUrl_ + "/slow?0").setTimeout(50));
+
+            ExecutionException e = assertThrows(
+                    ExecutionException.class, () -> slow.get(10, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof TimeoutException);
+            e = assertThrows(ExecutionException.class, () -> queued.get(10, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof TimeoutException);
+            assertEquals(1, canceled_.get());
+            assertEquals(0, client.getActiveRequestCount());
+            assertEquals(0, client.getQueuedRequestCount());
+        }
+    }
+}
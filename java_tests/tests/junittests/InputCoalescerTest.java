@@ -0,0 +1,145 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package tests.junittests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.cef.browser.CefInputCoalescer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Component;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JPanel;
+
+// Test the CefInputCoalescer implementation. Doesn't require CEF.
+class InputCoalescerTest {
+    // Long enough that the timer doesn't fire during a test unless waited for.
+    private static final int LONG_INTERVAL_MS = 60000;
+
+    private final Component component_ = new JPanel();
+    private final List<MouseEvent> sent_ = new CopyOnWriteArrayList<>();
+    private CountDownLatch sentLatch_ = new CountDownLatch(0);
+    private CefInputCoalescer coalescer_;
+
+    private final CefInputCoalescer.Listener listener_ = new CefInputCoalescer.Listener() {
+        @Override
+        public void sendMouseEvent(MouseEvent e) {
+            sent_.add(e);
+            sentLatch_.countDown();
+        }
+
+        @Override
+        public void sendMouseWheelEvent(MouseWheelEvent e) {
+            sent_.add(e);
+            sentLatch_.countDown();
+        }
+    };
+
+    @AfterEach
+    void dispose() {
+        if (coalescer_ != null) coalescer_.dispose();
+    }
+
+    private MouseEvent mouse(int id, int x, int y, int modifiers) {
+        return new MouseEvent(component_, id, 0, modifiers, x, y, 0, false,
+                id == MouseEvent.MOUSE_PRESSED ? MouseEvent.BUTTON1 : MouseEvent.NOBUTTON);
+    }
+
+    private MouseWheelEvent wheel(int rotation) {
+        return new MouseWheelEvent(component_, MouseEvent.MOUSE_WHEEL, 0, 0, 5, 5, 0, false,
+                MouseWheelEvent.WHEEL_UNIT_SCROLL, 3, rotation);
+    }
+
+    @Test
+    void movesAreMerged() {
+        coalescer_ = new CefInputCoalescer(listener_, LONG_INTERVAL_MS);
+        // The first move is sent immediately.
+        coalescer_.sendMouseEvent(mouse(MouseEvent.MOUSE_MOVED, 1, 1, 0));
+        assertEquals(1, sent_.size());
+
+        for (int i = 2; i <= 10; ++i)
+            coalescer_.sendMouseEvent(mouse(MouseEvent.MOUSE_MOVED, i, i, 0));
+        assertEquals(1, sent_.size());
+
+        // Only the latest position is sent.
+        coalescer_.flush();
+        assertEquals(2, sent_.size());
+        assertEquals(10, sent_.get(1).getX());
+        assertEquals(10, sent_.get(1).getY());
+    }
+
+    @Test
+    void pendingMoveIsSentByTimer() throws InterruptedException {
+        coalescer_ = new CefInputCoalescer(listener_, 20);
+        coalescer_.sendMouseEvent(mouse(MouseEvent.MOUSE_MOVED, 1, 1, 0));
+        sentLatch_ = new CountDownLatch(1);
+        coalescer_.sendMouseEvent(mouse(MouseEvent.MOUSE_MOVED, 2, 2, 0));
+        coalescer_.sendMouseEvent(mouse(MouseEvent.MOUSE_MOVED, 3, 3, 0));
+
+        assertTrue(sentLatch_.await(5, TimeUnit.SECONDS));
+        assertEquals(2, sent_.size());
+        assertEquals(3, sent_.get(1).getX());
+    }
+
+    @Test
+    void wheelRotationAccumulates() {
+        coalescer_ = new CefInputCoalescer(listener_, LONG_INTERVAL_MS);
+        coalescer_.sendMouseWheelEvent(wheel(1));
+        coalescer_.sendMouseWheelEvent(wheel(2));
+        coalescer_.sendMouseWheelEvent(wheel(-1));
+        coalescer_.sendMouseWheelEvent(wheel(3));
+        coalescer_.flush();
+
+        assertEquals(2, sent_.size());
+        assertEquals(1, ((MouseWheelEvent) sent_.get(0)).getWheelRotation());
+        assertEquals(4, ((MouseWheelEvent) sent_.get(1)).getWheelRotation());
+    }
+
+    @Test
+    void differentModifiersAreNotMerged() {
+        coalescer_ = new CefInputCoalescer(listener_, LONG_INTERVAL_MS);
+        coalescer_.sendMouseEvent(mouse(MouseEvent.MOUSE_MOVED, 1, 1, 0));
+        coalescer_.sendMouseEvent(mouse(MouseEvent.MOUSE_MOVED, 2, 2, 0));
+        coalescer_.sendMouseEvent(
+                mouse(MouseEvent.MOUSE_MOVED, 3, 3, InputEvent.SHIFT_DOWN_MASK));
+        coalescer_.flush();
+
+        assertEquals(3, sent_.size());
+        assertEquals(2, sent_.get(1).getX());
+        assertEquals(3, sent_.get(2).getX());
+    }
+
+    @Test
+    void otherEventsFlushFirst() {
+        coalescer_ = new CefInputCoalescer(listener_, LONG_INTERVAL_MS);
+        coalescer_.sendMouseEvent(mouse(MouseEvent.MOUSE_MOVED, 1, 1, 0));
+        coalescer_.sendMouseEvent(mouse(MouseEvent.MOUSE_MOVED, 2, 2, 0));
+        coalescer_.sendMouseWheelEvent(wheel(1));
+        coalescer_.sendMouseWheelEvent(wheel(1));
+        coalescer_.sendMouseEvent(mouse(MouseEvent.MOUSE_PRESSED, 4, 4, 0));
+
+        int[] ids = sent_.stream().mapToInt(MouseEvent::getID).toArray();
+        assertEquals(4, ids.length);
+        assertEquals(MouseEvent.MOUSE_MOVED, ids[0]);
+        assertEquals(MouseEvent.MOUSE_MOVED, ids[1]);
+        assertEquals(2, sent_.get(1).getX());
+        assertEquals(MouseEvent.MOUSE_WHEEL, ids[2]);
+        assertEquals(2, ((MouseWheelEvent) sent_.get(2)).getWheelRotation());
+        assertEquals(MouseEvent.MOUSE_PRESSED, ids[3]);
+
+        // Nothing is pending after a flush.
+        coalescer_.flush();
+        assertEquals(4, sent_.size());
+    }
+}
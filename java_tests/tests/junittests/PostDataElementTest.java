@@ -0,0 +1,99 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package tests.junittests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.cef.network.CefPostDataElement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+// Test the streaming and ByteBuffer variants of CefPostDataElement.
+@ExtendWith(TestSetupExtension.class)
+class PostDataElementTest {
+    private static byte[] data(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; ++i) data[i] = (byte) (i * 31);
+        return data;
+    }
+
+    @Test
+    void setToStream() throws Exception {
+        CefPostDataElement element = CefPostDataElement.create();
+        assertNotNull(element);
+
+        // More than one chunk.
+        byte[] data = data(200 * 1024 + 7);
+        File file = element.setToStream(new ByteArrayInputStream(data));
+        assertEquals(CefPostDataElement.Type.PDE_TYPE_FILE, element.getType());
+        assertEquals(file.getAbsolutePath(), element.getFile());
+        assertArrayEquals(data, Files.readAllBytes(file.toPath()));
+
+        // The caller owns the file, so it outlives the element, which CEF may still read
+        // from after the element was released.
+        File next = element.setToStream(new ByteArrayInputStream(data(10)));
+        assertTrue(file.exists());
+        element.setToBytes(3, new byte[] {1, 2, 3});
+        element.dispose();
+        assertTrue(next.exists());
+        assertTrue(file.delete());
+        assertTrue(next.delete());
+    }
+
+    @Test
+    void directBuffer() {
+        CefPostDataElement element = CefPostDataElement.create();
+        assertNotNull(element);
+
+        byte[] data = data(1000);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1010);
+        buffer.position(10);
+        buffer.duplicate().put(data);
+        element.setToBytes(buffer);
+        assertEquals(buffer.limit(), buffer.position());
+        assertEquals(CefPostDataElement.Type.PDE_TYPE_BYTES, element.getType());
+        assertEquals(1000, element.getBytesCount());
+
+        ByteBuffer out = ByteBuffer.allocateDirect(1005);
+        out.position(5);
+        assertEquals(1000, element.getBytes(out));
+        assertEquals(1005, out.position());
+        byte[] result = new byte[1000];
+        out.position(5);
+        out.get(result);
+        assertArrayEquals(data, result);
+
+        element.dispose();
+    }
+
+    @Test
+    void heapBuffer() {
+        CefPostDataElement element = CefPostDataElement.create();
+        assertNotNull(element);
+
+        byte[] data = data(100);
+        element.setToBytes(ByteBuffer.wrap(data));
+        assertEquals(100, element.getBytesCount());
+
+        // Larger than the data.
+        ByteBuffer out = ByteBuffer.allocate(150);
+        assertEquals(100, element.getBytes(out));
+        assertEquals(100, out.position());
+        byte[] result = new byte[100];
+        out.flip();
+        out.get(result);
+        assertArrayEquals(data, result);
+
+        element.dispose();
+    }
+}
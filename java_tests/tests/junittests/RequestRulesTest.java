@@ -0,0 +1,65 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package tests.junittests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.cef.handler.CefRequestRules;
+import org.cef.handler.CefRequestRules.MatchType;
+import org.cef.handler.CefRequestRules.Rule;
+import org.junit.jupiter.api.Test;
+
+// Test the Java evaluation of CefRequestRules, which mirrors the native one. Doesn't require CEF.
+class RequestRulesTest {
+    @Test
+    void firstMatchingRuleWins() {
+        Rule block = new Rule(MatchType.HOST, "Ads.Example.com").cancel();
+        Rule auth = new Rule(MatchType.PREFIX, "https://api.example.com/")
+                            .setHeader("Authorization", "Bearer token");
+        Rule images = new Rule(MatchType.GLOB, "*://*.example.com/*.png");
+        CefRequestRules rules = new CefRequestRules().add(block).add(auth).add(images);
+
+        assertSame(block, rules.findRule("https://ads.example.com/banner.png"));
+        assertSame(block, rules.findRule("http://user@cdn.ads.example.com:8080/x"));
+        assertNull(rules.findRule("https://badads.example.com/"));
+        assertSame(auth, rules.findRule("https://api.example.com/v1/items"));
+        assertSame(images, rules.findRule("https://static.example.com/a/b.png"));
+        assertNull(rules.findRule("https://static.example.com/a/b.png?v=1"));
+        assertNull(rules.findRule("data:text/plain,ads.example.com"));
+    }
+
+    @Test
+    void redirects() {
+        Rule prefix = new Rule(MatchType.PREFIX, "http://cdn.example.com/")
+                              .redirect("https://cdn2.example.com/static/");
+        assertEquals("https://cdn2.example.com/static/lib.js?v=2",
+                prefix.getRedirectUrl("http://cdn.example.com/lib.js?v=2"));
+
+        Rule regex = new Rule(MatchType.REGEX, "https://([a-z]+)\\.example\\.com/(.*)")
+                             .redirect("https://example.com/$1/$2$$");
+        assertEquals("https://example.com/docs/index.html$",
+                regex.getRedirectUrl("https://docs.example.com/index.html"));
+        assertNull(regex.getRedirectUrl("https://example.org/"));
+
+        Rule glob = new Rule(MatchType.GLOB, "*/tracker.js").redirect("data:text/javascript,");
+        assertEquals("data:text/javascript,", glob.getRedirectUrl("https://x.test/tracker.js"));
+        assertNull(glob.cancel().getRedirectUrl("https://x.test/tracker.js"));
+    }
+
+    @Test
+    void regexUsesJavaSyntax() {
+        Rule rule =
+                new Rule(MatchType.REGEX, "(?i)https://(?<host>[a-z]+)\\.example\\.com/(a|b)*");
+        assertTrue(rule.matches("HTTPS://Docs.Example.com/abba"));
+        assertFalse(rule.matches("https://docs.example.com/abc"));
+        assertTrue(new Rule(MatchType.REGEX, "(a)\\1").matches("aa"));
+        assertThrows(IllegalArgumentException.class, () -> new Rule(MatchType.REGEX, "(unclosed"));
+    }
+}
@@ -0,0 +1,71 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package tests.junittests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.cef.browser.CefResizeScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+// Test the CefResizeScheduler implementation. Doesn't require CEF.
+class ResizeSchedulerTest {
+    private static final int SETTLE_MILLIS = 50;
+
+    private final List<int[]> calls_ = new CopyOnWriteArrayList<>();
+    private CountDownLatch finished_ = new CountDownLatch(1);
+
+    private final CefResizeScheduler scheduler_ =
+            new CefResizeScheduler(null, (width, height, last) -> {
+                assertTrue(SwingUtilities.isEventDispatchThread());
+                calls_.add(new int[] {width, height, last ? 1 : 0});
+                if (last) finished_.countDown();
+            }, SETTLE_MILLIS);
+
+    @Test
+    void dragIsCoalesced() throws InterruptedException {
+        int steps = 200;
+        for (int i = 1; i <= steps; ++i) {
+            scheduler_.setSize(100 + i, 100 + i / 2);
+            Thread.sleep(1);
+        }
+        assertTrue(finished_.await(5, TimeUnit.SECONDS));
+        assertFalse(scheduler_.isResizing());
+
+        assertTrue(calls_.size() < steps, "calls: " + calls_.size());
+        for (int i = 0; i < calls_.size() - 1; ++i) assertEquals(0, calls_.get(i)[2]);
+        int[] last = calls_.get(calls_.size() - 1);
+        assertEquals(100 + steps, last[0]);
+        assertEquals(100 + steps / 2, last[1]);
+        assertEquals(1, last[2]);
+    }
+
+    @Test
+    void invalidateAppliesSizeAgain() throws InterruptedException {
+        scheduler_.setSize(300, 200);
+        assertTrue(finished_.await(5, TimeUnit.SECONDS));
+        int count = calls_.size();
+
+        // The same size again is not a resize.
+        scheduler_.setSize(300, 200);
+        Thread.sleep(SETTLE_MILLIS * 3);
+        assertEquals(count, calls_.size());
+
+        finished_ = new CountDownLatch(1);
+        scheduler_.invalidate();
+        assertTrue(finished_.await(5, TimeUnit.SECONDS));
+        int[] last = calls_.get(calls_.size() - 1);
+        assertEquals(300, last[0]);
+        assertEquals(200, last[1]);
+    }
+}
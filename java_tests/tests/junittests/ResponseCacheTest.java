@@ -0,0 +1,94 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package tests.junittests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.cef.handler.CefResponseCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Test the CefResponseCache implementation. Doesn't require CEF.
+class ResponseCacheTest {
+    private static Map<String, String> headers(String cacheControl) {
+        Map<String, String> map = new HashMap<>();
+        if (cacheControl != null) map.put("Cache-Control", cacheControl);
+        return map;
+    }
+
+    @Test
+    void storeAndEvict() {
+        // Room for two entries including headers.
+        CefResponseCache cache = new CefResponseCache(350, 0);
+        assertFalse(cache.put("a", 200, "OK", "text/plain", headers(null), new byte[100]));
+
+        assertTrue(cache.put("a", 200, "OK", "text/plain", headers("max-age=60"), new byte[100]));
+        assertTrue(cache.put("b", 200, "OK", "text/plain", headers("max-age=60"), new byte[100]));
+
+        // Touch "a" so that "b" is the least recently used entry.
+        assertNotNull(cache.get("a"));
+        assertTrue(cache.put("c", 200, "OK", "text/plain", headers("max-age=60"), new byte[100]));
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(2, cache.getEntryCount());
+        assertTrue(cache.getByteSize() <= cache.getMaxBytes());
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void cacheControl() {
+        CefResponseCache cache = new CefResponseCache(1000, 60000);
+        assertFalse(cache.put("a", 200, "OK", "text/plain", headers("no-store"), new byte[1]));
+        assertFalse(cache.put("a", 200, "OK", "text/plain", headers("no-cache"), new byte[1]));
+        assertFalse(cache.put("a", 200, "OK", "text/plain", headers("max-age=0"), new byte[1]));
+        assertFalse(cache.put("a", 404, "Not Found", "text/plain", headers(null), new byte[1]));
+        assertFalse(cache.put("a", 200, "OK", "text/plain", headers(null), new byte[1001]));
+        assertNull(cache.get("a"));
+
+        // Uses the default lifetime.
+        assertTrue(cache.put("a", 200, "OK", "text/plain", headers(null), new byte[1]));
+        assertNotNull(cache.get("a"));
+
+        cache.invalidate("a");
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.getByteSize());
+    }
+
+    @Test
+    void sharedOnlyIfNotPersonalized() {
+        CefResponseCache cache = new CefResponseCache(1000, 60000);
+        Map<String, String> vary = headers("max-age=60");
+        vary.put("Vary", "Accept-Encoding, Cookie");
+        assertFalse(cache.put("a", 200, "OK", "text/plain", vary, new byte[1]));
+        Map<String, String> cookie = headers(null);
+        cookie.put("set-cookie", "id=1");
+        assertFalse(cache.put("a", 200, "OK", "text/plain", cookie, new byte[1]));
+        assertFalse(cache.put("a", 200, "OK", "text/plain", headers("private, max-age=60"),
+                new byte[1]));
+        assertNull(cache.get("a"));
+
+        Map<String, String> encoding = headers(null);
+        encoding.put("Vary", "Accept-Encoding");
+        assertTrue(cache.put("a", 200, "OK", "text/plain", encoding, new byte[1]));
+    }
+
+    @Test
+    void hugeMaxAge() {
+        CefResponseCache cache = new CefResponseCache(1000, 0);
+        assertTrue(cache.put("a", 200, "OK", "text/plain",
+                headers("max-age=9223372036854775807"), new byte[1]));
+        assertNotNull(cache.get("a"));
+        assertTrue(cache.get("a").getExpires() > System.currentTimeMillis());
+    }
+}
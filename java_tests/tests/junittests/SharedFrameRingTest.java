@@ -0,0 +1,154 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package tests.junittests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.cef.handler.CefSharedFrameReader;
+import org.cef.handler.CefSharedFrameWriter;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+// Test the shared frame ring. Doesn't require CEF.
+class SharedFrameRingTest {
+    private static final int SIZE = 256;
+    private static final int READER_FRAMES = 200;
+    // Seconds that the writer and the reader process wait for each other.
+    private static final int READER_TIMEOUT = 60;
+
+    // Fills |buffer| with pixels that all have the value |value|.
+    private static void fill(ByteBuffer buffer, int value) {
+        buffer.clear();
+        while (buffer.hasRemaining()) buffer.putInt(value);
+        buffer.clear();
+    }
+
+    private static ByteBuffer newBuffer() {
+        return ByteBuffer.allocateDirect(SIZE * SIZE * 4).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Test
+    void writeAndRead() throws Exception {
+        File file = File.createTempFile("frames", ".ring");
+        try (CefSharedFrameWriter writer = new CefSharedFrameWriter(file, SIZE, SIZE, 2);
+                CefSharedFrameReader reader = new CefSharedFrameReader(file)) {
+            assertNull(reader.readLatest());
+
+            ByteBuffer buffer = newBuffer();
+            for (int i = 1; i <= 3; ++i) {
+                fill(buffer, i);
+                writer.onPaint(null, false, new int[] {i, 0, 10, 10}, 1, buffer, SIZE, SIZE);
+            }
+
+            CefSharedFrameReader.Frame frame = reader.readLatest();
+            assertNotNull(frame);
+            assertEquals(3, frame.getNumber());
+            assertEquals(SIZE, frame.getWidth());
+            assertArrayEquals(
+                    new Rectangle[] {new Rectangle(3, 0, 10, 10)}, frame.getDirtyRects());
+            assertEquals(3, frame.getPixels().getInt(0));
+            assertTrue(frame.isValid());
+
+            // Frame 1 was overwritten by frame 3 in a ring of two slots.
+            assertNull(reader.read(1));
+            assertNotNull(reader.read(2));
+
+            // A frame that is overwritten while it's being used is detected.
+            fill(buffer, 4);
+            writer.onPaint(null, false, new int[0], 0, buffer, SIZE, SIZE);
+            CefSharedFrameReader.Frame fourth = reader.read(4);
+            assertTrue(fourth.isValid());
+            for (int i = 5; i <= 6; ++i) {
+                fill(buffer, i);
+                writer.onPaint(null, false, new int[0], 0, buffer, SIZE, SIZE);
+            }
+            assertFalse(fourth.isValid());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    void readFromOtherProcess() throws Exception {
+        File file = File.createTempFile("frames", ".ring");
+        Process process = null;
+        try (CefSharedFrameWriter writer = new CefSharedFrameWriter(file, SIZE, SIZE, 3)) {
+            String classPath = location(CefSharedFrameReader.class) + File.pathSeparator
+                    + location(SharedFrameRingTest.class);
+            String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+            ProcessBuilder builder = new ProcessBuilder(java, "-cp", classPath,
+                    SharedFrameRingTest.class.getName(), file.getPath());
+            process = builder.inheritIO().start();
+
+            // Write frames until the reader has checked enough of them.
+            ByteBuffer buffer = newBuffer();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(READER_TIMEOUT);
+            for (int i = 1; process.isAlive() && System.nanoTime() < deadline; ++i) {
+                fill(buffer, i);
+                writer.onPaint(null, false, new int[0], 0, buffer, SIZE, SIZE);
+            }
+            assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+            assertEquals(0, process.exitValue());
+        } finally {
+            // Don't leave a spinning reader behind if the test failed.
+            if (process != null) process.destroyForcibly();
+            file.delete();
+        }
+    }
+
+    private static String location(Class<?> cls) throws Exception {
+        return Paths.get(cls.getProtectionDomain().getCodeSource().getLocation().toURI())
+                .toString();
+    }
+
+    // Reader process: checks that every valid frame consists of pixels with the value of
+    // the frame number. Exits with 0 after READER_FRAMES different frames were checked, or
+    // with 2 if that took longer than READER_TIMEOUT seconds.
+    public static void main(String[] args) throws Exception {
+        try (CefSharedFrameReader reader = new CefSharedFrameReader(new File(args[0]))) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(READER_TIMEOUT);
+            long last = 0;
+            int checked = 0;
+            while (checked < READER_FRAMES) {
+                if (System.nanoTime() > deadline) {
+                    System.err.println("Checked only " + checked + " frames");
+                    System.exit(2);
+                }
+                CefSharedFrameReader.Frame frame = reader.readLatest();
+                if (frame == null || frame.getNumber() == last) continue;
+
+                IntBuffer pixels = frame.getPixels().asIntBuffer();
+                boolean uniform = true;
+                while (pixels.hasRemaining()) {
+                    if (pixels.get() != (int) frame.getNumber()) {
+                        uniform = false;
+                        break;
+                    }
+                }
+                // Torn frames are fine as long as they are detected.
+                if (!frame.isValid()) continue;
+                if (!uniform) {
+                    System.err.println("Inconsistent frame " + frame.getNumber());
+                    System.exit(1);
+                }
+                last = frame.getNumber();
+                ++checked;
+            }
+        }
+        System.exit(0);
+    }
+}
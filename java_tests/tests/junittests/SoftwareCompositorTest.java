@@ -0,0 +1,136 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+package tests.junittests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.cef.browser.CefSoftwareCompositor;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Test the CefSoftwareCompositor implementation. Doesn't require CEF.
+class SoftwareCompositorTest {
+    // Returns a BGRA buffer of |width| x |height| pixels filled with |argb|.
+    private static ByteBuffer fill(int width, int height, int argb) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(width * height * 4);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < width * height; ++i) buffer.putInt(argb);
+        buffer.clear();
+        return buffer;
+    }
+
+    @Test
+    void dirtyRects() {
+        CefSoftwareCompositor compositor = new CefSoftwareCompositor();
+        assertNull(compositor.snapshot());
+
+        Rectangle dirty =
+                compositor.onPaint(false, new int[0], 0, fill(8, 8, 0xff000000), 8, 8);
+        assertEquals(new Rectangle(0, 0, 8, 8), dirty);
+
+        BufferedImage first = compositor.snapshot();
+        dirty = compositor.onPaint(
+                false, new int[] {2, 3, 2, 2}, 1, fill(8, 8, 0xffff0000), 8, 8);
+        assertEquals(new Rectangle(2, 3, 2, 2), dirty);
+
+        // The snapshot is not modified by later paints.
+        assertEquals(0xff000000, first.getRGB(2, 3));
+
+        BufferedImage second = compositor.snapshot();
+        assertNotSame(first, second);
+        assertEquals(0xffff0000, second.getRGB(2, 3));
+        assertEquals(0xffff0000, second.getRGB(3, 4));
+        assertEquals(0xff000000, second.getRGB(4, 4));
+        assertEquals(0xff000000, second.getRGB(1, 3));
+    }
+
+    @Test
+    void paintDoesNotCopy() {
+        CefSoftwareCompositor compositor = new CefSoftwareCompositor();
+        compositor.onPaint(false, new int[0], 0, fill(8, 8, 0xff000000), 8, 8);
+        BufferedImage frame = compositor.getFrame();
+
+        // Repainting the component doesn't share the frame, so the next paint updates it in
+        // place.
+        BufferedImage target = new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = target.createGraphics();
+        compositor.paint(g, 4, 4);
+        g.dispose();
+        assertEquals(0xff000000, target.getRGB(1, 1));
+
+        compositor.onPaint(false, new int[] {0, 0, 8, 8}, 1, fill(8, 8, 0xffff0000), 8, 8);
+        assertSame(frame, compositor.getFrame());
+        assertEquals(0xffff0000, frame.getRGB(2, 3));
+    }
+
+    @Test
+    void popup() {
+        CefSoftwareCompositor compositor = new CefSoftwareCompositor();
+        compositor.onPaint(false, new int[0], 0, fill(8, 8, 0xff000000), 8, 8);
+
+        compositor.onPopupShow(true);
+        compositor.onPopupSize(new Rectangle(6, 6, 4, 4));
+        Rectangle dirty = compositor.onPaint(true, new int[0], 0, fill(4, 4, 0xff00ff00), 4, 4);
+
+        // The popup is moved inside the view.
+        assertEquals(new Rectangle(4, 4, 4, 4), dirty);
+
+        // A view paint under the popup keeps the popup on top.
+        compositor.onPaint(false, new int[] {0, 0, 8, 8}, 1, fill(8, 8, 0xff0000ff), 8, 8);
+        BufferedImage frame = compositor.copyTo(null);
+        assertEquals(0xff00ff00, frame.getRGB(5, 5));
+        assertEquals(0xff0000ff, frame.getRGB(3, 3));
+
+        // The target is reused if it matches.
+        assertEquals(frame, compositor.copyTo(frame));
+    }
+
+    @Test
+    void popupUncoversView() {
+        CefSoftwareCompositor compositor = new CefSoftwareCompositor();
+        compositor.onPaint(false, new int[0], 0, fill(8, 8, 0xff000000), 8, 8);
+        compositor.onPopupShow(true);
+        compositor.onPopupSize(new Rectangle(0, 0, 4, 4));
+        compositor.onPaint(true, new int[0], 0, fill(4, 4, 0xff00ff00), 4, 4);
+
+        // A view paint under the popup is shown once the popup moves away.
+        compositor.onPaint(false, new int[] {0, 0, 2, 2}, 1, fill(8, 8, 0xff0000ff), 8, 8);
+        assertEquals(0xff00ff00, compositor.snapshot().getRGB(1, 1));
+
+        // Moving restores the old position.
+        Rectangle dirty = compositor.onPopupSize(new Rectangle(4, 0, 4, 4));
+        assertEquals(new Rectangle(0, 0, 8, 4), dirty);
+        BufferedImage frame = compositor.snapshot();
+        assertEquals(0xff0000ff, frame.getRGB(1, 1));
+        assertEquals(0xff000000, frame.getRGB(3, 3));
+        assertEquals(0xff00ff00, frame.getRGB(5, 1));
+
+        // Shrinking restores the uncovered part.
+        compositor.onPopupSize(new Rectangle(4, 0, 2, 2));
+        compositor.onPaint(true, new int[0], 0, fill(2, 2, 0xff00ff00), 2, 2);
+        frame = compositor.snapshot();
+        assertEquals(0xff00ff00, frame.getRGB(5, 1));
+        assertEquals(0xff000000, frame.getRGB(7, 3));
+
+        // Hiding restores the rest.
+        dirty = compositor.onPopupShow(false);
+        assertEquals(new Rectangle(4, 0, 2, 2), dirty);
+        frame = compositor.snapshot();
+        for (int y = 0; y < 8; ++y) {
+            for (int x = 0; x < 8; ++x) {
+                assertEquals(x < 2 && y < 2 ? 0xff0000ff : 0xff000000, frame.getRGB(x, y));
+            }
+        }
+        assertNull(compositor.onPopupShow(false));
+    }
+}
@@ -1,5 +1,6 @@
 module jcef {
     requires java.desktop;
+    requires java.management;
     //requires jogl.all;
 
     exports org.cef;
@@ -11,6 +11,7 @@
 
 #include "context.h"
 #include "jcef_version.h"
+#include "jni_scoped_helpers.h"
 #include "jni_util.h"
 #include "scheme_handler_factory.h"
 #include "util.h"
@@ -63,6 +64,18 @@ JNIEXPORT jobject JNICALL Java_org_cef_CefApp_N_1GetVersion(JNIEnv* env,
                       cef_version_info(7));  // CHROME_VERSION_PATCH
 }
 
+JNIEXPORT jobject JNICALL Java_org_cef_CefApp_N_1GetJniStatistics(JNIEnv* env,
+                                                                  jobject) {
+  jlong methodIdCacheHits = 0, methodIdCacheMisses = 0;
+  GetJNIMethodCacheStats(&methodIdCacheHits, &methodIdCacheMisses);
+  jlong threadAttaches = 0, threadDetaches = 0;
+  GetJNIThreadAttachStats(&threadAttaches, &threadDetaches);
+  return NewJNIObject(env, "org/cef/CefApp$JniStatistics",
+                      "(JJJJZ)V", methodIdCacheHits, methodIdCacheMisses,
+                      threadAttaches, threadDetaches,
+                      IsJVMPersistentThreadAttach() ? JNI_TRUE : JNI_FALSE);
+}
+
 JNIEXPORT jboolean JNICALL
 Java_org_cef_CefApp_N_1RegisterSchemeHandlerFactory(JNIEnv* env,
                                                     jobject,
@@ -57,6 +57,14 @@ JNIEXPORT void JNICALL Java_org_cef_CefApp_N_1DoMessageLoopWork(JNIEnv*,
  */
 JNIEXPORT jobject JNICALL Java_org_cef_CefApp_N_1GetVersion(JNIEnv*, jobject);
 
+/*
+ * Class:     org_cef_CefApp
+ * Method:    N_GetJniStatistics
+ * Signature: ()Lorg/cef/CefApp/JniStatistics;
+ */
+JNIEXPORT jobject JNICALL Java_org_cef_CefApp_N_1GetJniStatistics(JNIEnv*,
+                                                                  jobject);
+
 /*
  * Class:     org_cef_CefApp
  * Method:    N_RegisterSchemeHandlerFactory
@@ -4,6 +4,9 @@
 
 #include "CefBrowser_N.h"
 
+#include <initializer_list>
+#include <utility>
+
 #include "include/base/cef_callback.h"
 #include "include/cef_browser.h"
 #include "include/cef_task.h"
@@ -41,34 +44,231 @@
 
 namespace {
 
-int GetCefModifiers(JNIEnv* env, jclass cls, int modifiers) {
-  JNI_STATIC_DEFINE_INT_RV(env, cls, ALT_DOWN_MASK, 0);
-  JNI_STATIC_DEFINE_INT_RV(env, cls, BUTTON1_DOWN_MASK, 0);
-  JNI_STATIC_DEFINE_INT_RV(env, cls, BUTTON2_DOWN_MASK, 0);
-  JNI_STATIC_DEFINE_INT_RV(env, cls, BUTTON3_DOWN_MASK, 0);
-  JNI_STATIC_DEFINE_INT_RV(env, cls, CTRL_DOWN_MASK, 0);
-  JNI_STATIC_DEFINE_INT_RV(env, cls, META_DOWN_MASK, 0);
-  JNI_STATIC_DEFINE_INT_RV(env, cls, SHIFT_DOWN_MASK, 0);
+// Members of the java.awt.event classes that are used to translate AWT input
+// events. The classes belong to the bootstrap class loader and are never
+// unloaded, so the IDs and constants are resolved once and then reused for
+// every event.
+struct AwtInputEvent {
+  // InputEvent.
+  int ALT_DOWN_MASK;
+  int BUTTON1_DOWN_MASK;
+  int BUTTON2_DOWN_MASK;
+  int BUTTON3_DOWN_MASK;
+  int CTRL_DOWN_MASK;
+  int META_DOWN_MASK;
+  int SHIFT_DOWN_MASK;
+  jmethodID getID;
+  jmethodID getModifiersEx;
+
+  // MouseEvent.
+  int BUTTON1;
+  int BUTTON2;
+  int BUTTON3;
+  int MOUSE_DRAGGED;
+  int MOUSE_ENTERED;
+  int MOUSE_EXITED;
+  int MOUSE_MOVED;
+  int MOUSE_PRESSED;
+  int MOUSE_RELEASED;
+  jmethodID getX;
+  jmethodID getY;
+  jmethodID getClickCount;
+  jmethodID getButton;
+
+  // MouseWheelEvent.
+  int WHEEL_UNIT_SCROLL;
+  jmethodID getScrollType;
+  jmethodID getWheelRotation;
+  jmethodID getUnitsToScroll;
+
+  // KeyEvent.
+  int KEY_PRESSED;
+  int KEY_RELEASED;
+  int KEY_TYPED;
+  jmethodID getKeyChar;
+  jmethodID getKeyCode;
+#if defined(OS_WIN)
+  jfieldID scancode;
+#endif
+};
+
+// Call an accessor of |obj| through a cached method ID. Returns false if the
+// accessor threw, leaving the exception pending for the Java caller.
+bool CallIntAccessor(JNIEnv* env, jobject obj, jmethodID method, int* value) {
+  *value = env->CallIntMethod(obj, method);
+  return !env->ExceptionCheck();
+}
+
+bool CallCharAccessor(JNIEnv* env,
+                      jobject obj,
+                      jmethodID method,
+                      char16* value) {
+  *value = env->CallCharMethod(obj, method);
+  return !env->ExceptionCheck();
+}
+
+bool GetMethodIDs(JNIEnv* env,
+                  jclass cls,
+                  std::initializer_list<std::pair<jmethodID*, const char*>>
+                      methods,
+                  const char* sig) {
+  for (const auto& method : methods) {
+    *method.first = env->GetMethodID(cls, method.second, sig);
+    if (!*method.first) {
+      env->ExceptionClear();
+      return false;
+    }
+  }
+  return true;
+}
+
+bool GetStaticInts(JNIEnv* env,
+                   jclass cls,
+                   std::initializer_list<std::pair<int*, const char*>> fields) {
+  for (const auto& field : fields) {
+    if (!GetJNIFieldStaticInt(env, cls, field.second, field.first))
+      return false;
+  }
+  return true;
+}
+
+bool InitAwtInputEvent(JNIEnv* env, AwtInputEvent* e) {
+  ScopedJNIClass input_cls(env, "java/awt/event/InputEvent");
+  ScopedJNIClass mouse_cls(env, "java/awt/event/MouseEvent");
+  ScopedJNIClass wheel_cls(env, "java/awt/event/MouseWheelEvent");
+  ScopedJNIClass key_cls(env, "java/awt/event/KeyEvent");
+  if (!input_cls || !mouse_cls || !wheel_cls || !key_cls)
+    return false;
+
+  if (!GetStaticInts(env, input_cls,
+                     {{&e->ALT_DOWN_MASK, "ALT_DOWN_MASK"},
+                      {&e->BUTTON1_DOWN_MASK, "BUTTON1_DOWN_MASK"},
+                      {&e->BUTTON2_DOWN_MASK, "BUTTON2_DOWN_MASK"},
+                      {&e->BUTTON3_DOWN_MASK, "BUTTON3_DOWN_MASK"},
+                      {&e->CTRL_DOWN_MASK, "CTRL_DOWN_MASK"},
+                      {&e->META_DOWN_MASK, "META_DOWN_MASK"},
+                      {&e->SHIFT_DOWN_MASK, "SHIFT_DOWN_MASK"}}) ||
+      !GetMethodIDs(env, input_cls,
+                    {{&e->getID, "getID"},
+                     {&e->getModifiersEx, "getModifiersEx"}},
+                    "()I")) {
+    return false;
+  }
 
+  if (!GetStaticInts(env, mouse_cls,
+                     {{&e->BUTTON1, "BUTTON1"},
+                      {&e->BUTTON2, "BUTTON2"},
+                      {&e->BUTTON3, "BUTTON3"},
+                      {&e->MOUSE_DRAGGED, "MOUSE_DRAGGED"},
+                      {&e->MOUSE_ENTERED, "MOUSE_ENTERED"},
+                      {&e->MOUSE_EXITED, "MOUSE_EXITED"},
+                      {&e->MOUSE_MOVED, "MOUSE_MOVED"},
+                      {&e->MOUSE_PRESSED, "MOUSE_PRESSED"},
+                      {&e->MOUSE_RELEASED, "MOUSE_RELEASED"}}) ||
+      !GetMethodIDs(env, mouse_cls,
+                    {{&e->getX, "getX"},
+                     {&e->getY, "getY"},
+                     {&e->getClickCount, "getClickCount"},
+                     {&e->getButton, "getButton"}},
+                    "()I")) {
+    return false;
+  }
+
+  if (!GetStaticInts(env, wheel_cls,
+                     {{&e->WHEEL_UNIT_SCROLL, "WHEEL_UNIT_SCROLL"}}) ||
+      !GetMethodIDs(env, wheel_cls,
+                    {{&e->getScrollType, "getScrollType"},
+                     {&e->getWheelRotation, "getWheelRotation"},
+                     {&e->getUnitsToScroll, "getUnitsToScroll"}},
+                    "()I")) {
+    return false;
+  }
+
+  if (!GetStaticInts(env, key_cls,
+                     {{&e->KEY_PRESSED, "KEY_PRESSED"},
+                      {&e->KEY_RELEASED, "KEY_RELEASED"},
+                      {&e->KEY_TYPED, "KEY_TYPED"}}) ||
+      !GetMethodIDs(env, key_cls, {{&e->getKeyCode, "getKeyCode"}}, "()I") ||
+      !GetMethodIDs(env, key_cls, {{&e->getKeyChar, "getKeyChar"}}, "()C")) {
+    return false;
+  }
+
+#if defined(OS_WIN)
+  e->scancode = env->GetFieldID(key_cls, "scancode", "J");
+  if (!e->scancode) {
+    env->ExceptionClear();
+    return false;
+  }
+#endif
+
+  return true;
+}
+
+// Returns the cached AWT input event members or nullptr if they could not be
+// resolved. The members are resolved once by the first caller; initialization
+// of the function-local static is thread-safe.
+const AwtInputEvent* GetAwtInputEvent(JNIEnv* env) {
+  static const AwtInputEvent* awt_input_event = [env]() -> AwtInputEvent* {
+    static AwtInputEvent event;
+    return InitAwtInputEvent(env, &event) ? &event : nullptr;
+  }();
+  return awt_input_event;
+}
+
+int GetCefModifiers(const AwtInputEvent* e, int modifiers) {
   int cef_modifiers = 0;
-  if (modifiers & JNI_STATIC(ALT_DOWN_MASK))
+  if (modifiers & e->ALT_DOWN_MASK)
     cef_modifiers |= EVENTFLAG_ALT_DOWN;
-  if (modifiers & JNI_STATIC(BUTTON1_DOWN_MASK))
+  if (modifiers & e->BUTTON1_DOWN_MASK)
     cef_modifiers |= EVENTFLAG_LEFT_MOUSE_BUTTON;
-  if (modifiers & JNI_STATIC(BUTTON2_DOWN_MASK))
+  if (modifiers & e->BUTTON2_DOWN_MASK)
     cef_modifiers |= EVENTFLAG_MIDDLE_MOUSE_BUTTON;
-  if (modifiers & JNI_STATIC(BUTTON3_DOWN_MASK))
+  if (modifiers & e->BUTTON3_DOWN_MASK)
     cef_modifiers |= EVENTFLAG_RIGHT_MOUSE_BUTTON;
-  if (modifiers & JNI_STATIC(CTRL_DOWN_MASK))
+  if (modifiers & e->CTRL_DOWN_MASK)
     cef_modifiers |= EVENTFLAG_CONTROL_DOWN;
-  if (modifiers & JNI_STATIC(META_DOWN_MASK))
+  if (modifiers & e->META_DOWN_MASK)
     cef_modifiers |= EVENTFLAG_COMMAND_DOWN;
-  if (modifiers & JNI_STATIC(SHIFT_DOWN_MASK))
+  if (modifiers & e->SHIFT_DOWN_MASK)
     cef_modifiers |= EVENTFLAG_SHIFT_DOWN;
 
   return cef_modifiers;
 }
 
+// Sends a mouse event described by MouseEvent constants to |browser|.
+void SendMouseEvent(CefRefPtr<CefBrowser> browser,
+                    const AwtInputEvent* e,
+                    int event_type,
+                    int x,
+                    int y,
+                    int modifiers,
+                    int button,
+                    int click_count) {
+  CefMouseEvent cef_event;
+  cef_event.x = x;
+  cef_event.y = y;
+  cef_event.modifiers = GetCefModifiers(e, modifiers);
+
+  if (event_type == e->MOUSE_PRESSED || event_type == e->MOUSE_RELEASED) {
+    CefBrowserHost::MouseButtonType cef_mbt;
+    if (button == e->BUTTON1)
+      cef_mbt = MBT_LEFT;
+    else if (button == e->BUTTON2)
+      cef_mbt = MBT_MIDDLE;
+    else if (button == e->BUTTON3)
+      cef_mbt = MBT_RIGHT;
+    else
+      return;
+
+    browser->GetHost()->SendMouseClickEvent(
+        cef_event, cef_mbt, (event_type == e->MOUSE_RELEASED), click_count);
+  } else if (event_type == e->MOUSE_MOVED || event_type == e->MOUSE_DRAGGED ||
+             event_type == e->MOUSE_ENTERED || event_type == e->MOUSE_EXITED) {
+    browser->GetHost()->SendMouseMoveEvent(cef_event,
+                                           (event_type == e->MOUSE_EXITED));
+  }
+}
+
 #if defined(OS_LINUX)
 
 // From ui/events/keycodes/keyboard_codes_posix.h.
@@ -975,6 +1175,15 @@ void create(std::shared_ptr<JNIObjectsForCreate> objs,
 
   CefBrowserSettings settings;
 
+  if (osr == JNI_TRUE) {
+    // A rate set with CefBrowser.setWindowlessFrameRate before creation.
+    int frame_rate = 0;
+    JNI_CALL_METHOD(env, objs->jbrowser, "getWindowlessFrameRate", "()I", Int,
+                    frame_rate);
+    if (frame_rate > 0)
+      settings.windowless_frame_rate = frame_rate;
+  }
+
   /* [tav] do not override CefSettings.background_color
   if (transparent == JNI_FALSE) {
     // Specify an opaque background color (white) to disable transparency.
@@ -1643,6 +1852,72 @@ Java_org_cef_browser_CefBrowser_1N_N_1Invalidate(JNIEnv* env, jobject obj) {
   browser->GetHost()->Invalidate(PET_VIEW);
 }
 
+JNIEXPORT void JNICALL
+Java_org_cef_browser_CefBrowser_1N_N_1WasHidden(JNIEnv* env,
+                                                jobject obj,
+                                                jboolean hidden) {
+  CefRefPtr<CefBrowser> browser = JNI_GET_BROWSER_OR_RETURN(env, obj);
+  if (browser->GetHost()->IsWindowRenderingDisabled()) {
+    browser->GetHost()->WasHidden(hidden != JNI_FALSE);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_org_cef_browser_CefBrowser_1N_N_1SetWindowlessFrameRate(JNIEnv* env,
+                                                             jobject obj,
+                                                             jint frame_rate) {
+  CefRefPtr<CefBrowser> browser = JNI_GET_BROWSER_OR_RETURN(env, obj);
+  browser->GetHost()->SetWindowlessFrameRate(frame_rate);
+}
+
+JNIEXPORT jboolean JNICALL
+Java_org_cef_browser_CefBrowser_1N_N_1SetScreenInfoSnapshot(
+    JNIEnv* env,
+    jobject obj,
+    jobject jview_rect,
+    jint screen_x,
+    jint screen_y,
+    jobject jscreen_info) {
+  CefRefPtr<CefBrowser> browser =
+      JNI_GET_BROWSER_OR_RETURN(env, obj, JNI_FALSE);
+  if (!browser->GetHost()->IsWindowRenderingDisabled())
+    return JNI_FALSE;
+
+  CefRefPtr<CefClient> client = browser->GetHost()->GetClient();
+  if (!client)
+    return JNI_FALSE;
+  CefRefPtr<CefRenderHandler> render_handler = client->GetRenderHandler();
+  if (!render_handler)
+    return JNI_FALSE;
+
+  return static_cast<RenderHandler*>(render_handler.get())
+                 ->SetScreenSnapshot(env, browser, GetJNIRect(env, jview_rect),
+                                     screen_x, screen_y, jscreen_info)
+             ? JNI_TRUE
+             : JNI_FALSE;
+}
+
+JNIEXPORT jboolean JNICALL
+Java_org_cef_browser_CefBrowser_1N_N_1SetPaintTimingEnabled(JNIEnv* env,
+                                                            jobject obj,
+                                                            jboolean enabled) {
+  CefRefPtr<CefBrowser> browser =
+      JNI_GET_BROWSER_OR_RETURN(env, obj, JNI_FALSE);
+  if (!browser->GetHost()->IsWindowRenderingDisabled())
+    return JNI_FALSE;
+
+  CefRefPtr<CefClient> client = browser->GetHost()->GetClient();
+  if (!client)
+    return JNI_FALSE;
+  CefRefPtr<CefRenderHandler> render_handler = client->GetRenderHandler();
+  if (!render_handler)
+    return JNI_FALSE;
+
+  static_cast<RenderHandler*>(render_handler.get())
+      ->SetPaintTimingEnabled(browser, enabled != JNI_FALSE);
+  return JNI_TRUE;
+}
+
 #if defined(OS_LINUX)
 extern int JavaKeyCode2X11(JNIEnv* env, ScopedJNIClass * cls/*KeyEvent*/, int keycode);
 #endif //OS_LINUX
@@ -1652,37 +1927,36 @@ Java_org_cef_browser_CefBrowser_1N_N_1SendKeyEvent(JNIEnv* env,
                                                    jobject obj,
                                                    jobject key_event) {
   CefRefPtr<CefBrowser> browser = JNI_GET_BROWSER_OR_RETURN(env, obj);
-  ScopedJNIClass cls(env, env->GetObjectClass(key_event));
-  if (!cls)
+  const AwtInputEvent* e = GetAwtInputEvent(env);
+  if (!e)
     return;
 
-  JNI_STATIC_DEFINE_INT(env, cls, KEY_PRESSED);
-  JNI_STATIC_DEFINE_INT(env, cls, KEY_RELEASED);
-  JNI_STATIC_DEFINE_INT(env, cls, KEY_TYPED);
-
   int event_type, modifiers;
   char16 key_char;
-  if (!CallJNIMethodI_V(env, cls, key_event, "getID", &event_type) ||
-      !CallJNIMethodC_V(env, cls, key_event, "getKeyChar", &key_char) ||
-      !CallJNIMethodI_V(env, cls, key_event, "getModifiersEx", &modifiers)) {
+  if (!CallIntAccessor(env, key_event, e->getID, &event_type) ||
+      !CallCharAccessor(env, key_event, e->getKeyChar, &key_char) ||
+      !CallIntAccessor(env, key_event, e->getModifiersEx, &modifiers)) {
     return;
   }
 
   CefKeyEvent cef_event;
-  cef_event.modifiers = GetCefModifiers(env, cls, modifiers);
+  cef_event.modifiers = GetCefModifiers(e, modifiers);
 
 #if defined(OS_WIN)
 
-  jlong scanCode = 0;
-  GetJNIFieldLong(env, cls, key_event, "scancode", &scanCode);
+  jlong scanCode = env->GetLongField(key_event, e->scancode);
   BYTE VkCode = LOBYTE(MapVirtualKey(scanCode, MAPVK_VSC_TO_VK));
   cef_event.native_key_code = (scanCode << 16) |  // key scan code
                               1;                  // key repeat count
 #elif defined(OS_LINUX) || defined(OS_MAC)
   int key_code;
-  if (!CallJNIMethodI_V(env, cls, key_event, "getKeyCode", &key_code)) {
+  if (!CallIntAccessor(env, key_event, e->getKeyCode, &key_code))
+    return;
+
+  // Only used to resolve the VK_* constants on first use.
+  ScopedJNIClass cls(env, env->GetObjectClass(key_event));
+  if (!cls)
     return;
-  }
 
   JNI_STATIC_DEFINE_INT(env, cls, VK_BACK_SPACE);
   JNI_STATIC_DEFINE_INT(env, cls, VK_DELETE);
@@ -1819,19 +2093,19 @@ Java_org_cef_browser_CefBrowser_1N_N_1SendKeyEvent(JNIEnv* env,
 #endif  // defined(OS_MAC)
 #endif  // defined(OS_LINUX) || defined(OS_MAC)
 
-  if (event_type == JNI_STATIC(KEY_PRESSED)) {
+  if (event_type == e->KEY_PRESSED) {
 #if defined(OS_WIN)
     cef_event.windows_key_code = VkCode;
 #endif
     cef_event.type = KEYEVENT_RAWKEYDOWN;
-  } else if (event_type == JNI_STATIC(KEY_RELEASED)) {
+  } else if (event_type == e->KEY_RELEASED) {
 #if defined(OS_WIN)
     cef_event.windows_key_code = VkCode;
     // bits 30 and 31 should always be 1 for WM_KEYUP
     cef_event.native_key_code |= 0xC0000000;
 #endif
     cef_event.type = KEYEVENT_KEYUP;
-  } else if (event_type == JNI_STATIC(KEY_TYPED)) {
+  } else if (event_type == e->KEY_TYPED) {
 #if defined(OS_WIN)
     cef_event.windows_key_code = key_char;
 #endif
@@ -1848,63 +2122,45 @@ Java_org_cef_browser_CefBrowser_1N_N_1SendMouseEvent(JNIEnv* env,
                                                      jobject obj,
                                                      jobject mouse_event) {
   CefRefPtr<CefBrowser> browser = JNI_GET_BROWSER_OR_RETURN(env, obj);
-  ScopedJNIClass cls(env, env->GetObjectClass(mouse_event));
-  if (!cls)
+  const AwtInputEvent* e = GetAwtInputEvent(env);
+  if (!e)
     return;
 
-  JNI_STATIC_DEFINE_INT(env, cls, BUTTON1);
-  JNI_STATIC_DEFINE_INT(env, cls, BUTTON2);
-  JNI_STATIC_DEFINE_INT(env, cls, BUTTON3);
-  JNI_STATIC_DEFINE_INT(env, cls, MOUSE_DRAGGED);
-  JNI_STATIC_DEFINE_INT(env, cls, MOUSE_ENTERED);
-  JNI_STATIC_DEFINE_INT(env, cls, MOUSE_EXITED);
-  JNI_STATIC_DEFINE_INT(env, cls, MOUSE_MOVED);
-  JNI_STATIC_DEFINE_INT(env, cls, MOUSE_PRESSED);
-  JNI_STATIC_DEFINE_INT(env, cls, MOUSE_RELEASED);
-
   int event_type, x, y, modifiers;
-  if (!CallJNIMethodI_V(env, cls, mouse_event, "getID", &event_type) ||
-      !CallJNIMethodI_V(env, cls, mouse_event, "getX", &x) ||
-      !CallJNIMethodI_V(env, cls, mouse_event, "getY", &y) ||
-      !CallJNIMethodI_V(env, cls, mouse_event, "getModifiersEx", &modifiers)) {
+  if (!CallIntAccessor(env, mouse_event, e->getID, &event_type) ||
+      !CallIntAccessor(env, mouse_event, e->getX, &x) ||
+      !CallIntAccessor(env, mouse_event, e->getY, &y) ||
+      !CallIntAccessor(env, mouse_event, e->getModifiersEx, &modifiers)) {
     return;
   }
 
-  CefMouseEvent cef_event;
-  cef_event.x = x;
-  cef_event.y = y;
-
-  cef_event.modifiers = GetCefModifiers(env, cls, modifiers);
-
-  if (event_type == JNI_STATIC(MOUSE_PRESSED) ||
-      event_type == JNI_STATIC(MOUSE_RELEASED)) {
-    int click_count, button;
-    if (!CallJNIMethodI_V(env, cls, mouse_event, "getClickCount",
-                          &click_count) ||
-        !CallJNIMethodI_V(env, cls, mouse_event, "getButton", &button)) {
+  int button = 0, click_count = 0;
+  if (event_type == e->MOUSE_PRESSED || event_type == e->MOUSE_RELEASED) {
+    if (!CallIntAccessor(env, mouse_event, e->getButton, &button) ||
+        !CallIntAccessor(env, mouse_event, e->getClickCount, &click_count)) {
       return;
     }
+  }
 
-    CefBrowserHost::MouseButtonType cef_mbt;
-    if (button == JNI_STATIC(BUTTON1))
-      cef_mbt = MBT_LEFT;
-    else if (button == JNI_STATIC(BUTTON2))
-      cef_mbt = MBT_MIDDLE;
-    else if (button == JNI_STATIC(BUTTON3))
-      cef_mbt = MBT_RIGHT;
-    else
-      return;
+  SendMouseEvent(browser, e, event_type, x, y, modifiers, button, click_count);
+}
 
-    browser->GetHost()->SendMouseClickEvent(
-        cef_event, cef_mbt, (event_type == JNI_STATIC(MOUSE_RELEASED)),
-        click_count);
-  } else if (event_type == JNI_STATIC(MOUSE_MOVED) ||
-             event_type == JNI_STATIC(MOUSE_DRAGGED) ||
-             event_type == JNI_STATIC(MOUSE_ENTERED) ||
-             event_type == JNI_STATIC(MOUSE_EXITED)) {
-    browser->GetHost()->SendMouseMoveEvent(
-        cef_event, (event_type == JNI_STATIC(MOUSE_EXITED)));
-  }
+JNIEXPORT void JNICALL
+Java_org_cef_browser_CefBrowser_1N_N_1SendMouseEventPrimitive(
+    JNIEnv* env,
+    jobject obj,
+    jint event_type,
+    jint x,
+    jint y,
+    jint modifiers,
+    jint button,
+    jint click_count) {
+  CefRefPtr<CefBrowser> browser = JNI_GET_BROWSER_OR_RETURN(env, obj);
+  const AwtInputEvent* e = GetAwtInputEvent(env);
+  if (!e)
+    return;
+
+  SendMouseEvent(browser, e, event_type, x, y, modifiers, button, click_count);
 }
 
 JNIEXPORT void JNICALL
@@ -1913,21 +2169,18 @@ Java_org_cef_browser_CefBrowser_1N_N_1SendMouseWheelEvent(
     jobject obj,
     jobject mouse_wheel_event) {
   CefRefPtr<CefBrowser> browser = JNI_GET_BROWSER_OR_RETURN(env, obj);
-  ScopedJNIClass cls(env, env->GetObjectClass(mouse_wheel_event));
-  if (!cls)
+  const AwtInputEvent* e = GetAwtInputEvent(env);
+  if (!e)
     return;
 
-  JNI_STATIC_DEFINE_INT(env, cls, WHEEL_UNIT_SCROLL);
-
   int scroll_type, delta, x, y, modifiers;
-  if (!CallJNIMethodI_V(env, cls, mouse_wheel_event, "getScrollType",
-                        &scroll_type) ||
-      !CallJNIMethodI_V(env, cls, mouse_wheel_event, "getWheelRotation",
-                        &delta) ||
-      !CallJNIMethodI_V(env, cls, mouse_wheel_event, "getX", &x) ||
-      !CallJNIMethodI_V(env, cls, mouse_wheel_event, "getY", &y) ||
-      !CallJNIMethodI_V(env, cls, mouse_wheel_event, "getModifiersEx",
-                        &modifiers)) {
+  if (!CallIntAccessor(env, mouse_wheel_event, e->getScrollType,
+                       &scroll_type) ||
+      !CallIntAccessor(env, mouse_wheel_event, e->getWheelRotation, &delta) ||
+      !CallIntAccessor(env, mouse_wheel_event, e->getX, &x) ||
+      !CallIntAccessor(env, mouse_wheel_event, e->getY, &y) ||
+      !CallIntAccessor(env, mouse_wheel_event, e->getModifiersEx,
+                       &modifiers)) {
     return;
   }
 
@@ -1935,11 +2188,12 @@ Java_org_cef_browser_CefBrowser_1N_N_1SendMouseWheelEvent(
   cef_event.x = x;
   cef_event.y = y;
 
-  cef_event.modifiers = GetCefModifiers(env, cls, modifiers);
+  cef_event.modifiers = GetCefModifiers(e, modifiers);
 
-  if (scroll_type == JNI_STATIC(WHEEL_UNIT_SCROLL)) {
+  if (scroll_type == e->WHEEL_UNIT_SCROLL) {
     // Use the smarter version that considers platform settings.
-    CallJNIMethodI_V(env, cls, mouse_wheel_event, "getUnitsToScroll", &delta);
+    if (!CallIntAccessor(env, mouse_wheel_event, e->getUnitsToScroll, &delta))
+      return;
   }
 
   double deltaX = 0, deltaY = 0;
@@ -1966,13 +2220,13 @@ Java_org_cef_browser_CefBrowser_1N_N_1DragTargetDragEnter(JNIEnv* env,
       GetCefFromJNIObject_sync<CefDragData>(env, jdragData, "CefDragData");
   if (!drag_data.get())
     return;
-  ScopedJNIClass cls(env, "java/awt/event/MouseEvent");
-  if (!cls)
+  const AwtInputEvent* e = GetAwtInputEvent(env);
+  if (!e)
     return;
 
   CefMouseEvent cef_event;
   GetJNIPoint(env, pos, &cef_event.x, &cef_event.y);
-  cef_event.modifiers = GetCefModifiers(env, cls, jmodifiers);
+  cef_event.modifiers = GetCefModifiers(e, jmodifiers);
 
   CefRefPtr<CefBrowser> browser = JNI_GET_BROWSER_OR_RETURN(env, obj);
   browser->GetHost()->DragTargetDragEnter(
@@ -1985,13 +2239,13 @@ Java_org_cef_browser_CefBrowser_1N_N_1DragTargetDragOver(JNIEnv* env,
                                                          jobject pos,
                                                          jint jmodifiers,
                                                          jint allowedOps) {
-  ScopedJNIClass cls(env, "java/awt/event/MouseEvent");
-  if (!cls)
+  const AwtInputEvent* e = GetAwtInputEvent(env);
+  if (!e)
     return;
 
   CefMouseEvent cef_event;
   GetJNIPoint(env, pos, &cef_event.x, &cef_event.y);
-  cef_event.modifiers = GetCefModifiers(env, cls, jmodifiers);
+  cef_event.modifiers = GetCefModifiers(e, jmodifiers);
 
   CefRefPtr<CefBrowser> browser = JNI_GET_BROWSER_OR_RETURN(env, obj);
   browser->GetHost()->DragTargetDragOver(
@@ -2010,13 +2264,13 @@ Java_org_cef_browser_CefBrowser_1N_N_1DragTargetDrop(JNIEnv* env,
                                                      jobject obj,
                                                      jobject pos,
                                                      jint jmodifiers) {
-  ScopedJNIClass cls(env, "java/awt/event/MouseEvent");
-  if (!cls)
+  const AwtInputEvent* e = GetAwtInputEvent(env);
+  if (!e)
     return;
 
   CefMouseEvent cef_event;
   GetJNIPoint(env, pos, &cef_event.x, &cef_event.y);
-  cef_event.modifiers = GetCefModifiers(env, cls, jmodifiers);
+  cef_event.modifiers = GetCefModifiers(e, jmodifiers);
 
   CefRefPtr<CefBrowser> browser = JNI_GET_BROWSER_OR_RETURN(env, obj);
   browser->GetHost()->DragTargetDrop(cef_event);
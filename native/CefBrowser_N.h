@@ -402,6 +402,47 @@ JNIEXPORT void JNICALL Java_org_cef_browser_CefBrowser_1N_N_1WasResized(JNIEnv*,
 JNIEXPORT void JNICALL
 Java_org_cef_browser_CefBrowser_1N_N_1Invalidate(JNIEnv*, jobject);
 
+/*
+ * Class:     org_cef_browser_CefBrowser_N
+ * Method:    N_WasHidden
+ * Signature: (Z)V
+ */
+JNIEXPORT void JNICALL
+Java_org_cef_browser_CefBrowser_1N_N_1WasHidden(JNIEnv*, jobject, jboolean);
+
+/*
+ * Class:     org_cef_browser_CefBrowser_N
+ * Method:    N_SetWindowlessFrameRate
+ * Signature: (I)V
+ */
+JNIEXPORT void JNICALL
+Java_org_cef_browser_CefBrowser_1N_N_1SetWindowlessFrameRate(JNIEnv*,
+                                                             jobject,
+                                                             jint);
+
+/*
+ * Class:     org_cef_browser_CefBrowser_N
+ * Method:    N_SetScreenInfoSnapshot
+ * Signature: (Ljava/awt/Rectangle;IILorg/cef/handler/CefScreenInfo;)Z
+ */
+JNIEXPORT jboolean JNICALL
+Java_org_cef_browser_CefBrowser_1N_N_1SetScreenInfoSnapshot(JNIEnv*,
+                                                            jobject,
+                                                            jobject,
+                                                            jint,
+                                                            jint,
+                                                            jobject);
+
+/*
+ * Class:     org_cef_browser_CefBrowser_N
+ * Method:    N_SetPaintTimingEnabled
+ * Signature: (Z)Z
+ */
+JNIEXPORT jboolean JNICALL
+Java_org_cef_browser_CefBrowser_1N_N_1SetPaintTimingEnabled(JNIEnv*,
+                                                            jobject,
+                                                            jboolean);
+
 /*
  * Class:     org_cef_browser_CefBrowser_N
  * Method:    N_SendKeyEvent
@@ -418,6 +459,21 @@ Java_org_cef_browser_CefBrowser_1N_N_1SendKeyEvent(JNIEnv*, jobject, jobject);
 JNIEXPORT void JNICALL
 Java_org_cef_browser_CefBrowser_1N_N_1SendMouseEvent(JNIEnv*, jobject, jobject);
 
+/*
+ * Class:     org_cef_browser_CefBrowser_N
+ * Method:    N_SendMouseEventPrimitive
+ * Signature: (IIIIII)V
+ */
+JNIEXPORT void JNICALL
+Java_org_cef_browser_CefBrowser_1N_N_1SendMouseEventPrimitive(JNIEnv*,
+                                                              jobject,
+                                                              jint,
+                                                              jint,
+                                                              jint,
+                                                              jint,
+                                                              jint,
+                                                              jint);
+
 /*
  * Class:     org_cef_browser_CefBrowser_N
  * Method:    N_SendMouseWheelEvent
@@ -6,6 +6,7 @@
 #include "client_handler.h"
 #include "jni_util.h"
 #include "message_router_handler.h"
+#include "request_rules.h"
 
 JNIEXPORT void JNICALL
 Java_org_cef_handler_CefClientHandler_N_1CefClientHandler_1CTOR(
@@ -27,6 +28,19 @@ Java_org_cef_handler_CefClientHandler_N_1addMessageRouter(
   client->AddMessageRouter(env, jmessageRouter);
 }
 
+JNIEXPORT void JNICALL
+Java_org_cef_handler_CefClientHandler_N_1setRequestRules(
+    JNIEnv* env,
+    jobject clientHandler,
+    jobjectArray jrules) {
+  CefRefPtr<ClientHandler> client = GetCefFromJNIObject_sync<ClientHandler>(
+      env, clientHandler, "CefClientHandler");
+  if (!client.get())
+    return;
+  // Compile once here instead of for every request.
+  client->SetRequestRules(RequestRules::Create(env, jrules));
+}
+
 JNIEXPORT void JNICALL
 Java_org_cef_handler_CefClientHandler_N_1removeContextMenuHandler(
     JNIEnv* env,
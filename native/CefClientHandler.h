@@ -26,6 +26,16 @@ Java_org_cef_handler_CefClientHandler_N_1addMessageRouter(JNIEnv*,
                                                           jobject,
                                                           jobject);
 
+/*
+ * Class:     org_cef_handler_CefClientHandler
+ * Method:    N_setRequestRules
+ * Signature: ([Lorg/cef/handler/CefRequestRules$Rule;)V
+ */
+JNIEXPORT void JNICALL
+Java_org_cef_handler_CefClientHandler_N_1setRequestRules(JNIEnv*,
+                                                         jobject,
+                                                         jobjectArray);
+
 /*
  * Class:     org_cef_handler_CefClientHandler
  * Method:    N_removeContextMenuHandler
@@ -4,6 +4,11 @@
 
 #include "CefCookieManager_N.h"
 
+#include <atomic>
+#include <set>
+#include <string>
+#include <vector>
+
 #include "include/base/cef_callback.h"
 #include "include/cef_cookie.h"
 #include "include/cef_task.h"
@@ -54,6 +59,237 @@ CefCookie GetJNICookie(JNIEnv* env, jobject jcookie) {
   return cookie;
 }
 
+// Create a new CefCookie[] from |cookies|.
+jobjectArray NewJNICookieArray(JNIEnv* env,
+                               const std::vector<CefCookie>& cookies) {
+  ScopedJNIClass cls(env, "org/cef/network/CefCookie");
+  if (!cls)
+    return nullptr;
+
+  jobjectArray arr =
+      env->NewObjectArray(static_cast<jsize>(cookies.size()), cls, nullptr);
+  if (!arr)
+    return nullptr;
+
+  for (size_t i = 0; i < cookies.size(); ++i) {
+    ScopedJNICookie jcookie(env, cookies[i]);
+    env->SetObjectArrayElement(arr, static_cast<jsize>(i), jcookie);
+  }
+  return arr;
+}
+
+// Identifies a cookie in the cookie store.
+std::string GetCookieKey(const CefCookie& cookie) {
+  return CefString(&cookie.name).ToString() + '\n' +
+         CefString(&cookie.domain).ToString() + '\n' +
+         CefString(&cookie.path).ToString();
+}
+
+// Collects the visited cookies and passes them to
+// CefCookieManager_N.Batch.onCookies() in a single call. The visit is complete
+// when CEF releases the visitor, also if there are no cookies.
+class CookieBatchVisitor : public CefCookieVisitor {
+ public:
+  CookieBatchVisitor(JNIEnv* env, jobject jbatch) : handle_(env, jbatch) {}
+
+  ~CookieBatchVisitor() override {
+    if (failed_)
+      return;
+    ScopedJNIEnv env;
+    if (!env)
+      return;
+
+    ScopedJNIObjectLocal jcookies(env, NewJNICookieArray(env, cookies_));
+    JNI_CALL_VOID_METHOD(env, handle_, "onCookies",
+                         "([Lorg/cef/network/CefCookie;)V", jcookies.get());
+  }
+
+  // Called if the visit could not be started.
+  void SetFailed() { failed_ = true; }
+
+  bool Visit(const CefCookie& cookie,
+             int count,
+             int total,
+             bool& deleteCookie) override {
+    if (cookies_.empty() && total > 0)
+      cookies_.reserve(total);
+    cookies_.push_back(cookie);
+    return true;
+  }
+
+ private:
+  ScopedJNIObjectGlobal handle_;
+  std::vector<CefCookie> cookies_;
+  bool failed_ = false;
+
+  IMPLEMENT_REFCOUNTING(CookieBatchVisitor);
+};
+
+// Deletes the visited cookies with a key in |keys| and passes their number to
+// CefCookieManager_N.Batch.onComplete() when the visit is complete, or calls
+// CefCookieManager_N.Batch.onFailed() if the visit could not be started.
+class CookieDeleteVisitor : public CefCookieVisitor {
+ public:
+  CookieDeleteVisitor(JNIEnv* env,
+                      jobject jbatch,
+                      const std::set<std::string>& keys)
+      : handle_(env, jbatch), keys_(keys) {}
+
+  ~CookieDeleteVisitor() override {
+    ScopedJNIEnv env;
+    if (!env)
+      return;
+
+    if (failed_) {
+      JNI_CALL_VOID_METHOD(env, handle_, "onFailed", "()V");
+      return;
+    }
+    JNI_CALL_VOID_METHOD(env, handle_, "onComplete", "(I)V", (jint)deleted_);
+  }
+
+  // Called if the visit could not be started.
+  void SetFailed() { failed_ = true; }
+
+  bool Visit(const CefCookie& cookie,
+             int count,
+             int total,
+             bool& deleteCookie) override {
+    if (keys_.count(GetCookieKey(cookie)) > 0) {
+      deleteCookie = true;
+      ++deleted_;
+    }
+    return true;
+  }
+
+ private:
+  ScopedJNIObjectGlobal handle_;
+  const std::set<std::string> keys_;
+  int deleted_ = 0;
+  bool failed_ = false;
+
+  IMPLEMENT_REFCOUNTING(CookieDeleteVisitor);
+};
+
+// Must be called on the UI thread. |visitor| reports the result when it's
+// released after this call.
+void DeleteVisitedCookies(CefRefPtr<CefCookieManager> manager,
+                          CefRefPtr<CookieDeleteVisitor> visitor) {
+  if (!manager->VisitAllCookies(visitor.get()))
+    visitor->SetFailed();
+}
+
+// Collects all cookies and passes them to CefCookieManager_N.Batch.filter() in
+// a single call. The accepted cookies are then deleted by a second visit with
+// CookieDeleteVisitor.
+class CookieFilterVisitor : public CefCookieVisitor {
+ public:
+  CookieFilterVisitor(JNIEnv* env,
+                      CefRefPtr<CefCookieManager> manager,
+                      jobject jbatch)
+      : manager_(manager), handle_(env, jbatch) {}
+
+  ~CookieFilterVisitor() override {
+    if (failed_)
+      return;
+    ScopedJNIEnv env;
+    if (!env)
+      return;
+
+    ScopedJNIObjectLocal jcookies(env, NewJNICookieArray(env, cookies_));
+    ScopedJNIObjectResult jresult(env);
+    JNI_CALL_METHOD(env, handle_, "filter", "([Lorg/cef/network/CefCookie;)[Z",
+                    Object, jresult, jcookies.get());
+
+    std::set<std::string> keys;
+    jbooleanArray jaccepted = (jbooleanArray)jresult.get();
+    if (jaccepted &&
+        env->GetArrayLength(jaccepted) == static_cast<jsize>(cookies_.size())) {
+      std::vector<jboolean> accepted(cookies_.size());
+      if (!accepted.empty()) {
+        env->GetBooleanArrayRegion(jaccepted, 0,
+                                   static_cast<jsize>(accepted.size()),
+                                   accepted.data());
+      }
+      for (size_t i = 0; i < cookies_.size(); ++i) {
+        if (accepted[i] != JNI_FALSE)
+          keys.insert(GetCookieKey(cookies_[i]));
+      }
+    }
+
+    // The second visit reports the result, also if there is nothing to delete
+    // or the visit can't be started.
+    CefRefPtr<CookieDeleteVisitor> visitor =
+        new CookieDeleteVisitor(env, handle_, keys);
+    if (keys.empty())
+      return;
+    if (!CefPostTask(TID_UI, base::BindOnce(&DeleteVisitedCookies, manager_,
+                                            visitor))) {
+      visitor->SetFailed();
+    }
+  }
+
+  // Called if the visit could not be started.
+  void SetFailed() { failed_ = true; }
+
+  bool Visit(const CefCookie& cookie,
+             int count,
+             int total,
+             bool& deleteCookie) override {
+    if (cookies_.empty() && total > 0)
+      cookies_.reserve(total);
+    cookies_.push_back(cookie);
+    return true;
+  }
+
+ private:
+  CefRefPtr<CefCookieManager> manager_;
+  ScopedJNIObjectGlobal handle_;
+  std::vector<CefCookie> cookies_;
+  bool failed_ = false;
+
+  IMPLEMENT_REFCOUNTING(CookieFilterVisitor);
+};
+
+// Counts the results of multiple SetCookie calls and passes the number of set
+// cookies to CefCookieManager_N.Batch.onComplete() after the last one.
+class SetCookiesCallback : public CefSetCookieCallback {
+ public:
+  SetCookiesCallback(JNIEnv* env, jobject jbatch, int count)
+      : handle_(env, jbatch), pending_(count) {}
+
+  // Called on the UI thread, or on the IO thread if SetCookie fails.
+  void OnComplete(bool success) override {
+    if (success)
+      ++succeeded_;
+    if (--pending_ > 0)
+      return;
+
+    ScopedJNIEnv env;
+    if (!env)
+      return;
+    JNI_CALL_VOID_METHOD(env, handle_, "onComplete", "(I)V",
+                         (jint)succeeded_.load());
+  }
+
+ private:
+  ScopedJNIObjectGlobal handle_;
+  std::atomic<int> pending_;
+  std::atomic<int> succeeded_{0};
+
+  IMPLEMENT_REFCOUNTING(SetCookiesCallback);
+};
+
+// Must be called on the IO thread.
+void SetCookies(CefRefPtr<CefCookieManager> manager,
+                const std::vector<CefString>& urls,
+                const std::vector<CefCookie>& cookies,
+                CefRefPtr<SetCookiesCallback> callback) {
+  for (size_t i = 0; i < cookies.size(); ++i) {
+    if (!manager->SetCookie(urls[i], cookies[i], callback.get()))
+      callback->OnComplete(false);
+  }
+}
+
 }  // namespace
 
 JNIEXPORT jobject JNICALL
@@ -111,6 +347,32 @@ Java_org_cef_network_CefCookieManager_1N_N_1VisitUrlCookies(
   return result ? JNI_TRUE : JNI_FALSE;
 }
 
+JNIEXPORT jboolean JNICALL
+Java_org_cef_network_CefCookieManager_1N_N_1GetCookies(
+    JNIEnv* env,
+    jobject obj,
+    jlong self,
+    jstring jurl,
+    jboolean jincludeHttpOnly,
+    jobject jbatch) {
+  CefRefPtr<CefCookieManager> manager = GetSelf(self);
+  if (!manager || !jbatch)
+    return JNI_FALSE;
+
+  CefRefPtr<CookieBatchVisitor> visitor = new CookieBatchVisitor(env, jbatch);
+  bool result;
+  if (jurl) {
+    result = manager->VisitUrlCookies(GetJNIString(env, jurl),
+                                      (jincludeHttpOnly != JNI_FALSE),
+                                      visitor.get());
+  } else {
+    result = manager->VisitAllCookies(visitor.get());
+  }
+  if (!result)
+    visitor->SetFailed();
+  return result ? JNI_TRUE : JNI_FALSE;
+}
+
 JNIEXPORT jboolean JNICALL
 Java_org_cef_network_CefCookieManager_1N_N_1SetCookie(JNIEnv* env,
                                                       jobject obj,
@@ -133,6 +395,38 @@ Java_org_cef_network_CefCookieManager_1N_N_1SetCookie(JNIEnv* env,
   return result ? JNI_TRUE : JNI_FALSE;
 }
 
+JNIEXPORT jboolean JNICALL
+Java_org_cef_network_CefCookieManager_1N_N_1SetCookies(JNIEnv* env,
+                                                       jobject obj,
+                                                       jlong self,
+                                                       jobjectArray jurls,
+                                                       jobjectArray jcookies,
+                                                       jobject jbatch) {
+  CefRefPtr<CefCookieManager> manager = GetSelf(self);
+  if (!manager || !jurls || !jcookies || !jbatch)
+    return JNI_FALSE;
+
+  std::vector<CefString> urls;
+  GetJNIStringArray(env, jurls, urls);
+  std::vector<CefCookie> cookies;
+  jsize count = env->GetArrayLength(jcookies);
+  if (count != static_cast<jsize>(urls.size()) || count == 0)
+    return JNI_FALSE;
+  cookies.reserve(count);
+  for (jsize i = 0; i < count; ++i) {
+    ScopedJNIObjectLocal jcookie(env, env->GetObjectArrayElement(jcookies, i));
+    cookies.push_back(GetJNICookie(env, jcookie));
+  }
+
+  // As in N_SetCookie the cookies are set on the IO thread, with one task for
+  // the whole batch.
+  CefRefPtr<SetCookiesCallback> callback =
+      new SetCookiesCallback(env, jbatch, count);
+  bool result = CefPostTask(
+      TID_IO, base::BindOnce(&SetCookies, manager, urls, cookies, callback));
+  return result ? JNI_TRUE : JNI_FALSE;
+}
+
 JNIEXPORT jboolean JNICALL
 Java_org_cef_network_CefCookieManager_1N_N_1DeleteCookies(JNIEnv* env,
                                                           jobject obj,
@@ -156,6 +450,24 @@ Java_org_cef_network_CefCookieManager_1N_N_1DeleteCookies(JNIEnv* env,
   return result ? JNI_TRUE : JNI_FALSE;
 }
 
+JNIEXPORT jboolean JNICALL
+Java_org_cef_network_CefCookieManager_1N_N_1DeleteCookiesFiltered(
+    JNIEnv* env,
+    jobject obj,
+    jlong self,
+    jobject jbatch) {
+  CefRefPtr<CefCookieManager> manager = GetSelf(self);
+  if (!manager || !jbatch)
+    return JNI_FALSE;
+
+  CefRefPtr<CookieFilterVisitor> visitor =
+      new CookieFilterVisitor(env, manager, jbatch);
+  bool result = manager->VisitAllCookies(visitor.get());
+  if (!result)
+    visitor->SetFailed();
+  return result ? JNI_TRUE : JNI_FALSE;
+}
+
 JNIEXPORT jboolean JNICALL
 Java_org_cef_network_CefCookieManager_1N_N_1FlushStore(JNIEnv* env,
                                                        jobject obj,
@@ -47,6 +47,19 @@ Java_org_cef_network_CefCookieManager_1N_N_1VisitUrlCookies(JNIEnv*,
                                                             jboolean,
                                                             jobject);
 
+/*
+ * Class:     org_cef_network_CefCookieManager_N
+ * Method:    N_GetCookies
+ * Signature: (JLjava/lang/String;ZLorg/cef/network/CefCookieManager_N$Batch;)Z
+ */
+JNIEXPORT jboolean JNICALL
+Java_org_cef_network_CefCookieManager_1N_N_1GetCookies(JNIEnv*,
+                                                       jobject,
+                                                       jlong,
+                                                       jstring,
+                                                       jboolean,
+                                                       jobject);
+
 /*
  * Class:     org_cef_network_CefCookieManager_N
  * Method:    N_SetCookie
@@ -59,6 +72,20 @@ Java_org_cef_network_CefCookieManager_1N_N_1SetCookie(JNIEnv*,
                                                       jstring,
                                                       jobject);
 
+/*
+ * Class:     org_cef_network_CefCookieManager_N
+ * Method:    N_SetCookies
+ * Signature:
+ * (J[Ljava/lang/String;[Lorg/cef/network/CefCookie;Lorg/cef/network/CefCookieManager_N$Batch;)Z
+ */
+JNIEXPORT jboolean JNICALL
+Java_org_cef_network_CefCookieManager_1N_N_1SetCookies(JNIEnv*,
+                                                       jobject,
+                                                       jlong,
+                                                       jobjectArray,
+                                                       jobjectArray,
+                                                       jobject);
+
 /*
  * Class:     org_cef_network_CefCookieManager_N
  * Method:    N_DeleteCookies
@@ -71,6 +98,17 @@ Java_org_cef_network_CefCookieManager_1N_N_1DeleteCookies(JNIEnv*,
                                                           jstring,
                                                           jstring);
 
+/*
+ * Class:     org_cef_network_CefCookieManager_N
+ * Method:    N_DeleteCookiesFiltered
+ * Signature: (JLorg/cef/network/CefCookieManager_N$Batch;)Z
+ */
+JNIEXPORT jboolean JNICALL
+Java_org_cef_network_CefCookieManager_1N_N_1DeleteCookiesFiltered(JNIEnv*,
+                                                                  jobject,
+                                                                  jlong,
+                                                                  jobject);
+
 /*
  * Class:     org_cef_network_CefCookieManager_N
  * Method:    N_FlushStore
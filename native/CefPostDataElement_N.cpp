@@ -81,6 +81,24 @@ Java_org_cef_network_CefPostDataElement_1N_N_1SetToBytes(JNIEnv* env,
   env->ReleaseByteArrayElements(jbytes, jbyte, 0);
 }
 
+JNIEXPORT void JNICALL
+Java_org_cef_network_CefPostDataElement_1N_N_1SetToBuffer(JNIEnv* env,
+                                                          jobject obj,
+                                                          jlong self,
+                                                          jobject jbuffer,
+                                                          jint joffset,
+                                                          jint jsize) {
+  CefRefPtr<CefPostDataElement> dataElement = GetSelf(self);
+  if (!dataElement)
+    return;
+
+  // Copy directly from the memory of the direct buffer.
+  char* data = static_cast<char*>(env->GetDirectBufferAddress(jbuffer));
+  if (!data)
+    return;
+  dataElement->SetToBytes(jsize, data + joffset);
+}
+
 JNIEXPORT jobject JNICALL
 Java_org_cef_network_CefPostDataElement_1N_N_1GetType(JNIEnv* env,
                                                       jobject obj,
@@ -141,3 +159,20 @@ Java_org_cef_network_CefPostDataElement_1N_N_1GetBytes(JNIEnv* env,
   env->ReleaseByteArrayElements(jbytes, jbyte, 0);
   return (jint)readLen;
 }
+
+JNIEXPORT jint JNICALL
+Java_org_cef_network_CefPostDataElement_1N_N_1GetBytesToBuffer(JNIEnv* env,
+                                                               jobject obj,
+                                                               jlong self,
+                                                               jobject jbuffer,
+                                                               jint joffset,
+                                                               jint jsize) {
+  CefRefPtr<CefPostDataElement> dataElement = GetSelf(self);
+  if (!dataElement)
+    return 0;
+
+  char* data = static_cast<char*>(env->GetDirectBufferAddress(jbuffer));
+  if (!data)
+    return 0;
+  return (jint)dataElement->GetBytes(jsize, data + joffset);
+}
@@ -288,6 +288,60 @@ Java_org_cef_network_CefRequest_1N_N_1SetHeaderMap(JNIEnv* env,
   request->SetHeaderMap(headerMap);
 }
 
+JNIEXPORT jobjectArray JNICALL
+Java_org_cef_network_CefRequest_1N_N_1GetHeaderArray(JNIEnv* env,
+                                                     jobject obj,
+                                                     jlong self) {
+  CefRefPtr<CefRequest> request = GetSelf(self);
+  if (!request)
+    return nullptr;
+
+  CefRequest::HeaderMap headerMap;
+  request->GetHeaderMap(headerMap);
+  return NewJNIStringPairArray(env, headerMap);
+}
+
+JNIEXPORT void JNICALL
+Java_org_cef_network_CefRequest_1N_N_1SetHeaderArray(JNIEnv* env,
+                                                     jobject obj,
+                                                     jlong self,
+                                                     jobjectArray jheaders) {
+  CefRefPtr<CefRequest> request = GetSelf(self);
+  if (!request)
+    return;
+
+  CefRequest::HeaderMap headerMap;
+  GetJNIStringPairArray(env, jheaders, headerMap);
+  request->SetHeaderMap(headerMap);
+}
+
+JNIEXPORT void JNICALL
+Java_org_cef_network_CefRequest_1N_N_1SetHeadersByName(JNIEnv* env,
+                                                       jobject obj,
+                                                       jlong self,
+                                                       jobjectArray jheaders,
+                                                       jboolean joverwrite) {
+  CefRefPtr<CefRequest> request = GetSelf(self);
+  if (!request)
+    return;
+
+  if (!jheaders)
+    return;
+
+  // Apply the pairs in array order like the default Java implementation. A
+  // HeaderMap would sort them case-sensitively, while SetHeaderByName() matches
+  // names case-insensitively.
+  const jsize length = env->GetArrayLength(jheaders);
+  for (jsize i = 0; i + 1 < length; i += 2) {
+    ScopedJNIStringResult jname(
+        env, (jstring)env->GetObjectArrayElement(jheaders, i));
+    ScopedJNIStringResult jvalue(
+        env, (jstring)env->GetObjectArrayElement(jheaders, i + 1));
+    request->SetHeaderByName(jname.GetCefString(), jvalue.GetCefString(),
+                             joverwrite != JNI_FALSE);
+  }
+}
+
 JNIEXPORT void JNICALL
 Java_org_cef_network_CefRequest_1N_N_1Set(JNIEnv* env,
                                           jobject obj,
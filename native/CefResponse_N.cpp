@@ -183,3 +183,57 @@ Java_org_cef_network_CefResponse_1N_N_1SetHeaderMap(JNIEnv* env,
   GetJNIStringMultiMap(env, jheaderMap, headerMap);
   response->SetHeaderMap(headerMap);
 }
+
+JNIEXPORT jobjectArray JNICALL
+Java_org_cef_network_CefResponse_1N_N_1GetHeaderArray(JNIEnv* env,
+                                                      jobject obj,
+                                                      jlong self) {
+  CefRefPtr<CefResponse> response = GetSelf(self);
+  if (!response)
+    return nullptr;
+
+  CefResponse::HeaderMap headerMap;
+  response->GetHeaderMap(headerMap);
+  return NewJNIStringPairArray(env, headerMap);
+}
+
+JNIEXPORT void JNICALL
+Java_org_cef_network_CefResponse_1N_N_1SetHeaderArray(JNIEnv* env,
+                                                      jobject obj,
+                                                      jlong self,
+                                                      jobjectArray jheaders) {
+  CefRefPtr<CefResponse> response = GetSelf(self);
+  if (!response)
+    return;
+
+  CefResponse::HeaderMap headerMap;
+  GetJNIStringPairArray(env, jheaders, headerMap);
+  response->SetHeaderMap(headerMap);
+}
+
+JNIEXPORT void JNICALL
+Java_org_cef_network_CefResponse_1N_N_1SetHeadersByName(JNIEnv* env,
+                                                        jobject obj,
+                                                        jlong self,
+                                                        jobjectArray jheaders,
+                                                        jboolean joverwrite) {
+  CefRefPtr<CefResponse> response = GetSelf(self);
+  if (!response)
+    return;
+
+  if (!jheaders)
+    return;
+
+  // Apply the pairs in array order like the default Java implementation. A
+  // HeaderMap would sort them case-sensitively, while SetHeaderByName() matches
+  // names case-insensitively.
+  const jsize length = env->GetArrayLength(jheaders);
+  for (jsize i = 0; i + 1 < length; i += 2) {
+    ScopedJNIStringResult jname(
+        env, (jstring)env->GetObjectArrayElement(jheaders, i));
+    ScopedJNIStringResult jvalue(
+        env, (jstring)env->GetObjectArrayElement(jheaders, i + 1));
+    response->SetHeaderByName(jname.GetCefString(), jvalue.GetCefString(),
+                              joverwrite != JNI_FALSE);
+  }
+}
@@ -153,6 +153,37 @@ Java_org_cef_network_CefResponse_1N_N_1SetHeaderMap(JNIEnv*,
                                                     jlong,
                                                     jobject);
 
+/*
+ * Class:     org_cef_network_CefResponse_N
+ * Method:    N_GetHeaderArray
+ * Signature: (J)[Ljava/lang/String;
+ */
+JNIEXPORT jobjectArray JNICALL
+Java_org_cef_network_CefResponse_1N_N_1GetHeaderArray(JNIEnv*, jobject, jlong);
+
+/*
+ * Class:     org_cef_network_CefResponse_N
+ * Method:    N_SetHeaderArray
+ * Signature: (J[Ljava/lang/String;)V
+ */
+JNIEXPORT void JNICALL
+Java_org_cef_network_CefResponse_1N_N_1SetHeaderArray(JNIEnv*,
+                                                      jobject,
+                                                      jlong,
+                                                      jobjectArray);
+
+/*
+ * Class:     org_cef_network_CefResponse_N
+ * Method:    N_SetHeadersByName
+ * Signature: (J[Ljava/lang/String;Z)V
+ */
+JNIEXPORT void JNICALL
+Java_org_cef_network_CefResponse_1N_N_1SetHeadersByName(JNIEnv*,
+                                                        jobject,
+                                                        jlong,
+                                                        jobjectArray,
+                                                        jboolean);
+
 #ifdef __cplusplus
 }
 #endif
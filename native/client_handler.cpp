@@ -179,6 +179,16 @@ CefRefPtr<WindowHandler> ClientHandler::GetWindowHandler() {
   return GetHandler<WindowHandler>("WindowHandler");
 }
 
+void ClientHandler::SetRequestRules(CefRefPtr<RequestRules> rules) {
+  base::AutoLock lock_scope(request_rules_lock_);
+  request_rules_ = rules;
+}
+
+CefRefPtr<RequestRules> ClientHandler::GetRequestRules() {
+  base::AutoLock lock_scope(request_rules_lock_);
+  return request_rules_;
+}
+
 void ClientHandler::AddMessageRouter(JNIEnv* env, jobject jmessageRouter) {
   CefRefPtr<CefMessageRouter> router = GetMessageRouter(env, jmessageRouter);
   if (!router)
@@ -250,6 +260,12 @@ void ClientHandler::OnAfterCreated() {}
 void ClientHandler::OnBeforeClose(CefRefPtr<CefBrowser> browser) {
   REQUIRE_UI_THREAD();
 
+  if (browser->GetHost()->IsWindowRenderingDisabled()) {
+    CefRefPtr<CefRenderHandler> renderHandler = GetRenderHandler();
+    if (renderHandler)
+      static_cast<RenderHandler*>(renderHandler.get())->OnBeforeClose(browser);
+  }
+
   base::AutoLock lock_scope(message_router_lock_);
   for (auto& router : message_routers_) {
     router->OnBeforeClose(browser);
@@ -17,6 +17,7 @@
 #include "jni_scoped_helpers.h"
 #include "message_router_handler.h"
 #include "media_access_handler.h"
+#include "request_rules.h"
 #include "window_handler.h"
 
 // ClientHandler implementation.
@@ -52,6 +53,11 @@ class ClientHandler : public CefClient {
   void AddMessageRouter(JNIEnv* env, jobject jmessageRouter);
   void RemoveMessageRouter(JNIEnv* env, jobject jmessageRouter);
 
+  // Methods to deal with request rules. GetRequestRules() may be called on any
+  // thread.
+  void SetRequestRules(CefRefPtr<RequestRules> rules);
+  CefRefPtr<RequestRules> GetRequestRules();
+
   // Methods to set and remove a browser ref.
   void OnAfterCreated();
   void OnBeforeClose(CefRefPtr<CefBrowser> browser);
@@ -78,6 +84,11 @@ class ClientHandler : public CefClient {
   // Protects access to |message_routers_|.
   base::Lock message_router_lock_;
 
+  CefRefPtr<RequestRules> request_rules_;
+
+  // Protects access to |request_rules_|.
+  base::Lock request_rules_lock_;
+
   // Include the default reference counting implementation.
   IMPLEMENT_REFCOUNTING(ClientHandler);
 };
@@ -154,6 +154,8 @@ bool Context::PreInitialize(JNIEnv* env, jobject c) {
   if (rs != JNI_OK)
     return JNI_FALSE;
   SetJVM(jvm);
+  SetJVMPersistentThreadAttach(
+      GetJavaSystemProperty("jcef.persistentThreadAttach", env) == "true");
 
   ScopedJNIClass javaClass(env, env->GetObjectClass(c));
   ScopedJNIObjectResult javaClassLoader(env);
@@ -3,6 +3,7 @@
 // can be found in the LICENSE file.
 
 #include <algorithm>
+#include <atomic>
 #include <mutex>
 
 #include "jni_scoped_helpers.h"
@@ -12,9 +13,58 @@
 
 namespace {
 
+std::atomic<jlong> threadAttachCount_(0);
+std::atomic<jlong> threadDetachCount_(0);
+
+// Detaches the current thread from the VM when the thread exits. Only used if
+// persistent thread attachment is enabled.
+class ThreadAttachment {
+ public:
+  ~ThreadAttachment() {
+    if (!attached_)
+      return;
+    JavaVM* jvm = GetJVM();
+    if (!jvm)
+      return;
+    // The thread may exit after the VM was destroyed, e.g. after
+    // CefApp.dispose() at the end of the application. GetEnv() reports the
+    // thread as detached in that case and DetachCurrentThread() must not be
+    // called.
+    JNIEnv* env = nullptr;
+    if (jvm->GetEnv((void**)&env, JNI_VERSION_1_6) != JNI_OK)
+      return;
+    jvm->DetachCurrentThread();
+    ++threadDetachCount_;
+  }
+
+  void set_attached() { attached_ = true; }
+
+ private:
+  bool attached_ = false;
+};
+
+thread_local ThreadAttachment threadAttachment_;
+
+// Returns the name given to the java.lang.Thread that represents the current
+// native thread.
+const char* GetAttachedThreadName() {
+  if (CefCurrentlyOn(TID_UI))
+    return "CEF-UI";
+  if (CefCurrentlyOn(TID_IO))
+    return "CEF-IO";
+  if (CefCurrentlyOn(TID_FILE_USER_BLOCKING) ||
+      CefCurrentlyOn(TID_FILE_USER_VISIBLE) ||
+      CefCurrentlyOn(TID_FILE_BACKGROUND))
+    return "CEF-FILE";
+  if (CefCurrentlyOn(TID_PROCESS_LAUNCHER))
+    return "CEF-LAUNCHER";
+  return "CEF-native";
+}
+
 // Retrieves the JNIEnv for the current thread. Attaches the VM to the current
 // thread if necessary. Sets |mustDetach| to true if DetachJNIEnv must be
-// called.
+// called. If persistent thread attachment is enabled the thread instead stays
+// attached until it exits.
 jint GetJNIEnv(JNIEnv** env, bool* mustDetach) {
   *env = nullptr;
   *mustDetach = false;
@@ -25,9 +75,18 @@ jint GetJNIEnv(JNIEnv** env, bool* mustDetach) {
 
   jint result = jvm->GetEnv((void**)env, JNI_VERSION_1_6);
   if (result == JNI_EDETACHED) {
-    result = jvm->AttachCurrentThreadAsDaemon((void**)env, nullptr);
+    JavaVMAttachArgs args;
+    args.version = JNI_VERSION_1_6;
+    args.name = const_cast<char*>(GetAttachedThreadName());
+    args.group = nullptr;
+    result = jvm->AttachCurrentThreadAsDaemon((void**)env, &args);
     if (result == JNI_OK) {
-      *mustDetach = true;
+      ++threadAttachCount_;
+      if (IsJVMPersistentThreadAttach()) {
+        threadAttachment_.set_attached();
+      } else {
+        *mustDetach = true;
+      }
     }
   }
 
@@ -40,6 +99,7 @@ void DetachJNIEnv() {
   JavaVM* jvm = GetJVM();
   if (jvm) {
     jvm->DetachCurrentThread();
+    ++threadDetachCount_;
   }
 }
 
@@ -52,6 +112,18 @@ std::mutex classCacheMutex_;
 // case the cache can be invalidated
 jobject classCacheClassLoader_;
 
+// Incremented whenever the class cache is invalidated. JNIMethodCache
+// instances compare against this value and drop their entries on mismatch.
+std::atomic<int> classCacheGeneration_(0);
+
+// Maximum number of classes remembered by a single JNIMethodCache. Call sites
+// that see more classes than this (e.g. getNativeRef in SetCefForJNIObject)
+// evict the oldest entry.
+const size_t kMethodCacheMaxEntries = 16;
+
+std::atomic<jlong> methodCacheHits_(0);
+std::atomic<jlong> methodCacheMisses_(0);
+
 // Returns a class with the given fully qualified |class_name| (with '/' as
 // separator).
 jclass FindClass(JNIEnv* env, const char* class_name) {
@@ -71,6 +143,7 @@ jclass FindClass(JNIEnv* env, const char* class_name) {
     }
     classCache_.clear();
     classCacheClassLoader_ = classLoader;
+    ++classCacheGeneration_;
   }
 
   std::map<std::string, jobject>::iterator it =
@@ -206,6 +279,74 @@ jobject GetJNIBrowser(JNIEnv* env, CefRefPtr<CefBrowser> browser) {
 
 }  // namespace
 
+jmethodID JNIMethodCache::Get(JNIEnv* env,
+                               jclass cls,
+                               const char* method,
+                               const char* sig) {
+  if (!cls)
+    return nullptr;
+
+  {
+    std::lock_guard<std::mutex> guard(mutex_);
+
+    const int generation = classCacheGeneration_.load();
+    if (generation != generation_) {
+      for (Entry& entry : entries_) {
+        env->DeleteWeakGlobalRef(entry.cls);
+      }
+      entries_.clear();
+      generation_ = generation;
+    }
+
+    for (const Entry& entry : entries_) {
+      if (entry.method == method && entry.sig == sig &&
+          env->IsSameObject(entry.cls, cls)) {
+        ++methodCacheHits_;
+        return entry.id;
+      }
+    }
+  }
+
+  // Look up without holding the lock, since GetMethodID may initialize the
+  // class and thereby run Java code that re-enters this call site.
+  ++methodCacheMisses_;
+  jmethodID id = env->GetMethodID(cls, method, sig);
+  if (!id)
+    return nullptr;
+
+  jweak weak_cls = env->NewWeakGlobalRef(cls);
+  if (!weak_cls)
+    return id;
+
+  std::lock_guard<std::mutex> guard(mutex_);
+
+  // Forget classes that have been unloaded in the meantime.
+  entries_.erase(std::remove_if(entries_.begin(), entries_.end(),
+                                [env](const Entry& entry) {
+                                  if (!env->IsSameObject(entry.cls, nullptr))
+                                    return false;
+                                  env->DeleteWeakGlobalRef(entry.cls);
+                                  return true;
+                                }),
+                 entries_.end());
+  if (entries_.size() >= kMethodCacheMaxEntries) {
+    env->DeleteWeakGlobalRef(entries_.front().cls);
+    entries_.erase(entries_.begin());
+  }
+  entries_.push_back({weak_cls, method, sig, id});
+  return id;
+}
+
+void GetJNIMethodCacheStats(jlong* hits, jlong* misses) {
+  *hits = methodCacheHits_.load();
+  *misses = methodCacheMisses_.load();
+}
+
+void GetJNIThreadAttachStats(jlong* attaches, jlong* detaches) {
+  *attaches = threadAttachCount_.load();
+  *detaches = threadDetachCount_.load();
+}
+
 // static
 const int ScopedJNIEnv::kDefaultLocalCapacity = 1024;
 
@@ -7,7 +7,9 @@
 
 #include <jni.h>
 
+#include <mutex>
 #include <string>
+#include <vector>
 
 #include "include/cef_auth_callback.h"
 #include "include/cef_browser.h"
@@ -455,7 +457,8 @@ class ScopedJNIEnv {
   static const int kDefaultLocalCapacity;
 
   // Retrieve the JNIEnv for the current thread or attach the VM to the current
-  // thread if necessary.
+  // thread if necessary. The thread is detached again on destruction unless
+  // persistent thread attachment is enabled (see SetJVMPersistentThreadAttach).
   // If |local_capacity| > 0 a local frame will be created with the specified
   // maximum number of local references. Otherwise, no local frame will be
   // created.
@@ -851,12 +854,49 @@ class ScopedJNIStringRef : public ScopedJNIBase<jobject> {
   operator CefString() const;
 };
 
+// Caches method IDs for a single JNI_CALL_* call site. Every expansion of the
+// macros below owns one static instance, so a cache usually holds one or two
+// (class, method, signature) entries and a lookup is a short linear scan
+// instead of a GetMethodID name lookup. Classes are held via weak global refs
+// so that caching never prevents class unloading. All entries are dropped when
+// the class loader used by JCEF changes (see FindClass).
+class JNIMethodCache {
+ public:
+  JNIMethodCache() = default;
+
+  // Returns the method ID of |method|/|sig| on |cls|. Returns nullptr and
+  // leaves the NoSuchMethodError pending if the method doesn't exist.
+  jmethodID Get(JNIEnv* env, jclass cls, const char* method, const char* sig);
+
+ private:
+  struct Entry {
+    jweak cls;
+    std::string method;
+    std::string sig;
+    jmethodID id;
+  };
+
+  std::mutex mutex_;
+  std::vector<Entry> entries_;
+  int generation_ = 0;
+
+  DISALLOW_COPY_AND_ASSIGN(JNIMethodCache);
+};
+
+// Retrieve the number of JNIMethodCache hits and misses since startup.
+void GetJNIMethodCacheStats(jlong* hits, jlong* misses);
+
+// Retrieve the number of times native threads were attached to and detached
+// from the JVM since startup.
+void GetJNIThreadAttachStats(jlong* attaches, jlong* detaches);
+
 // Helper macros to call a method on the java side.
 #define JNI_CALL_METHOD(env, obj, method, sig, type, storeIn, ...)        \
   {                                                                       \
     if (env && obj) {                                                     \
+      static JNIMethodCache _methodCache;                                 \
       ScopedJNIClass _cls(env, env->GetObjectClass(obj));                 \
-      jmethodID _methodId = env->GetMethodID(_cls, method, sig);          \
+      jmethodID _methodId = _methodCache.Get(env, _cls, method, sig);     \
       if (_methodId != nullptr) {                                         \
         storeIn = env->Call##type##Method(obj, _methodId, ##__VA_ARGS__); \
       }                                                                   \
@@ -867,45 +907,48 @@ class ScopedJNIStringRef : public ScopedJNIBase<jobject> {
     }                                                                     \
   }
 
-#define JNI_CALL_VOID_METHOD_EX(env, obj, method, sig, ...)      \
-  {                                                              \
-    if (env && obj) {                                            \
-      ScopedJNIClass _cls(env, env->GetObjectClass(obj));        \
-      jmethodID _methodId = env->GetMethodID(_cls, method, sig); \
-      if (_methodId != nullptr) {                                \
-        env->CallVoidMethod(obj, _methodId, ##__VA_ARGS__);      \
-      }                                                          \
-    }                                                            \
+#define JNI_CALL_VOID_METHOD_EX(env, obj, method, sig, ...)           \
+  {                                                                   \
+    if (env && obj) {                                                 \
+      static JNIMethodCache _methodCache;                             \
+      ScopedJNIClass _cls(env, env->GetObjectClass(obj));             \
+      jmethodID _methodId = _methodCache.Get(env, _cls, method, sig); \
+      if (_methodId != nullptr) {                                     \
+        env->CallVoidMethod(obj, _methodId, ##__VA_ARGS__);           \
+      }                                                               \
+    }                                                                 \
   }
 
-#define JNI_CALL_VOID_METHOD(env, obj, method, sig, ...)         \
-  {                                                              \
-    if (env && obj) {                                            \
-      ScopedJNIClass _cls(env, env->GetObjectClass(obj));        \
-      jmethodID _methodId = env->GetMethodID(_cls, method, sig); \
-      if (_methodId != nullptr) {                                \
-        env->CallVoidMethod(obj, _methodId, ##__VA_ARGS__);      \
-      }                                                          \
-      if (env->ExceptionOccurred()) {                            \
-        env->ExceptionDescribe();                                \
-        env->ExceptionClear();                                   \
-      }                                                          \
-    }                                                            \
+#define JNI_CALL_VOID_METHOD(env, obj, method, sig, ...)              \
+  {                                                                   \
+    if (env && obj) {                                                 \
+      static JNIMethodCache _methodCache;                             \
+      ScopedJNIClass _cls(env, env->GetObjectClass(obj));             \
+      jmethodID _methodId = _methodCache.Get(env, _cls, method, sig); \
+      if (_methodId != nullptr) {                                     \
+        env->CallVoidMethod(obj, _methodId, ##__VA_ARGS__);           \
+      }                                                               \
+      if (env->ExceptionOccurred()) {                                 \
+        env->ExceptionDescribe();                                     \
+        env->ExceptionClear();                                        \
+      }                                                               \
+    }                                                                 \
   }
 
-#define JNI_CALL_BOOLEAN_METHOD(out, env, obj, method, sig, ...)     \
-  {                                                                  \
-    if (env && obj) {                                                \
-      ScopedJNIClass _cls(env, env->GetObjectClass(obj));            \
-      jmethodID _methodId = env->GetMethodID(_cls, method, sig);     \
-      if (_methodId != nullptr) {                                    \
-        out = env->CallBooleanMethod(obj, _methodId, ##__VA_ARGS__); \
-      }                                                              \
-      if (env->ExceptionOccurred()) {                                \
-        env->ExceptionDescribe();                                    \
-        env->ExceptionClear();                                       \
-      }                                                              \
-    }                                                                \
+#define JNI_CALL_BOOLEAN_METHOD(out, env, obj, method, sig, ...)      \
+  {                                                                   \
+    if (env && obj) {                                                 \
+      static JNIMethodCache _methodCache;                             \
+      ScopedJNIClass _cls(env, env->GetObjectClass(obj));             \
+      jmethodID _methodId = _methodCache.Get(env, _cls, method, sig); \
+      if (_methodId != nullptr) {                                     \
+        out = env->CallBooleanMethod(obj, _methodId, ##__VA_ARGS__);  \
+      }                                                               \
+      if (env->ExceptionOccurred()) {                                 \
+        env->ExceptionDescribe();                                     \
+        env->ExceptionClear();                                        \
+      }                                                               \
+    }                                                                 \
   }
 
 // Set the CEF base object for an existing JNI object. A reference will be
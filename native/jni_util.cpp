@@ -13,6 +13,8 @@ namespace {
 
 JavaVM* g_jvm = nullptr;
 
+bool g_jvmPersistentThreadAttach = false;
+
 jobject g_javaClassLoader = nullptr;
 
 }  // namespace
@@ -26,6 +28,14 @@ JavaVM* GetJVM() {
   return g_jvm;
 }
 
+void SetJVMPersistentThreadAttach(bool enabled) {
+  g_jvmPersistentThreadAttach = enabled;
+}
+
+bool IsJVMPersistentThreadAttach() {
+  return g_jvmPersistentThreadAttach;
+}
+
 void SetJavaClassLoader(JNIEnv* env, jobject javaClassLoader) {
   ASSERT(!g_javaClassLoader);
   g_javaClassLoader = env->NewGlobalRef(javaClassLoader);
@@ -268,6 +278,44 @@ void SetJNIStringMultiMap(JNIEnv* env,
   }
 }
 
+jobjectArray NewJNIStringPairArray(
+    JNIEnv* env,
+    const std::multimap<CefString, CefString>& vals) {
+  ScopedJNIClass cls(env, "java/lang/String");
+  if (!cls)
+    return nullptr;
+
+  jobjectArray arr =
+      env->NewObjectArray(static_cast<jsize>(vals.size() * 2), cls, nullptr);
+  if (!arr)
+    return nullptr;
+
+  jsize index = 0;
+  for (auto it = vals.begin(); it != vals.end(); ++it) {
+    ScopedJNIString jkey(env, it->first);
+    ScopedJNIString jvalue(env, it->second);
+    env->SetObjectArrayElement(arr, index++, jkey);
+    env->SetObjectArrayElement(arr, index++, jvalue);
+  }
+  return arr;
+}
+
+void GetJNIStringPairArray(JNIEnv* env,
+                           jobjectArray jarray,
+                           std::multimap<CefString, CefString>& vals) {
+  if (!jarray)
+    return;
+
+  jsize length = env->GetArrayLength(jarray);
+  for (jsize i = 0; i + 1 < length; i += 2) {
+    ScopedJNIStringResult jkey(
+        env, (jstring)env->GetObjectArrayElement(jarray, i));
+    ScopedJNIStringResult jvalue(
+        env, (jstring)env->GetObjectArrayElement(jarray, i + 1));
+    vals.insert(std::make_pair(jkey.GetCefString(), jvalue.GetCefString()));
+  }
+}
+
 CefMessageRouterConfig GetJNIMessageRouterConfig(JNIEnv* env, jobject jConfig) {
   CefMessageRouterConfig config;
 
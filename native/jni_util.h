@@ -17,6 +17,13 @@
 void SetJVM(JavaVM* jvm);
 JavaVM* GetJVM();
 
+// If enabled, native threads that call into Java stay attached to the JVM
+// after the callback returns and are detached when the thread exits, instead
+// of being attached and detached for every callback. Controlled by the
+// "jcef.persistentThreadAttach" system property.
+void SetJVMPersistentThreadAttach(bool enabled);
+bool IsJVMPersistentThreadAttach();
+
 // Sets the java class loader to use for creating java objects in native code.
 // We have to use a class loader instead of the JNIEnv::FindClass method
 // because JNIEnv::FindClass always uses the system class loader if called
@@ -87,6 +94,18 @@ void SetJNIStringMultiMap(JNIEnv* env,
                           jobject jheaderMap,
                           const std::multimap<CefString, CefString>& vals);
 
+// Create a new String array of alternating keys and values. Unlike
+// NewJNIStringArray the result is an empty array if |vals| is empty.
+jobjectArray NewJNIStringPairArray(
+    JNIEnv* env,
+    const std::multimap<CefString, CefString>& vals);
+
+// Retrieve the values from a String array of alternating keys and values. A
+// trailing key without value is ignored.
+void GetJNIStringPairArray(JNIEnv* env,
+                           jobjectArray jarray,
+                           std::multimap<CefString, CefString>& vals);
+
 CefMessageRouterConfig GetJNIMessageRouterConfig(JNIEnv* env, jobject jConfig);
 
 // Create a new JNI error code.
@@ -4,11 +4,48 @@
 
 #include "render_handler.h"
 
+#include <algorithm>
+#include <chrono>
+#include <initializer_list>
+#include <utility>
+
 #include "client_handler.h"
 #include "jni_util.h"
 
 namespace {
 
+// Minimum number of ints allocated for the dirty rectangle array.
+const jsize kMinPaintRectsCapacity = 16;
+
+// Maximum number of pixel buffers per browser that keep a cached direct
+// ByteBuffer. CEF may alternate between a small number of buffers.
+const size_t kMaxPaintBufferViews = 4;
+
+// Returns |time| on the clock of System.nanoTime(), so that Java can compare it
+// with its own timestamps. The offset between the clocks is measured once.
+jlong ToJavaNanoTime(JNIEnv* env, std::chrono::steady_clock::time_point time) {
+  static const std::chrono::nanoseconds offset = [env]() {
+    jlong java_now = 0;
+    ScopedJNIClass cls(env, "java/lang/System");
+    if (cls) {
+      jmethodID method = env->GetStaticMethodID(cls, "nanoTime", "()J");
+      if (method)
+        java_now = env->CallStaticLongMethod(cls, method);
+    }
+    if (env->ExceptionOccurred()) {
+      env->ExceptionDescribe();
+      env->ExceptionClear();
+    }
+    return std::chrono::nanoseconds(java_now) -
+           std::chrono::duration_cast<std::chrono::nanoseconds>(
+               std::chrono::steady_clock::now().time_since_epoch());
+  }();
+  return (std::chrono::duration_cast<std::chrono::nanoseconds>(
+              time.time_since_epoch()) +
+          offset)
+      .count();
+}
+
 // Create a new java.awt.Rectangle.
 jobject NewJNIRect(JNIEnv* env, const CefRect& rect) {
   ScopedJNIClass cls(env, "java/awt/Rectangle");
@@ -29,117 +66,152 @@ jobject NewJNIRect(JNIEnv* env, const CefRect& rect) {
   return nullptr;
 }
 
-jobject NewJNIScreenInfo(JNIEnv* env, CefScreenInfo& screenInfo) {
-  ScopedJNIClass cls(env, "org/cef/handler/CefScreenInfo");
-  if (!cls) {
-    return nullptr;
-  }
-
-  ScopedJNIObjectLocal obj(env, NewJNIObject(env, cls));
-  if (!obj) {
-    return nullptr;
-  }
-
-  if (SetJNIFieldDouble(env, cls, obj, "device_scale_factor",
-                        (double)screenInfo.device_scale_factor) &&
-      SetJNIFieldInt(env, cls, obj, "depth", screenInfo.depth) &&
-      SetJNIFieldInt(env, cls, obj, "depth_per_component",
-                     screenInfo.depth_per_component) &&
-      SetJNIFieldBoolean(env, cls, obj, "is_monochrome",
-                         screenInfo.is_monochrome) &&
-      SetJNIFieldInt(env, cls, obj, "x", screenInfo.rect.x) &&
-      SetJNIFieldInt(env, cls, obj, "y", screenInfo.rect.y) &&
-      SetJNIFieldInt(env, cls, obj, "width", screenInfo.rect.width) &&
-      SetJNIFieldInt(env, cls, obj, "height", screenInfo.rect.height) &&
-      SetJNIFieldInt(env, cls, obj, "available_x",
-                     screenInfo.available_rect.x) &&
-      SetJNIFieldInt(env, cls, obj, "available_y",
-                     screenInfo.available_rect.y) &&
-      SetJNIFieldInt(env, cls, obj, "available_width",
-                     screenInfo.available_rect.width) &&
-      SetJNIFieldInt(env, cls, obj, "available_height",
-                     screenInfo.available_rect.height)) {
-    return obj.Release();
+// Members of java.awt.Point, java.awt.Rectangle and CefScreenInfo that are
+// exchanged with the Java render handler. They are resolved once; the classes
+// are kept as global references so that the IDs stay valid.
+struct RenderJNIFields {
+  jclass point_cls;
+  jmethodID point_ctor;
+  jfieldID point_x;
+  jfieldID point_y;
+
+  jfieldID rect_x;
+  jfieldID rect_y;
+  jfieldID rect_width;
+  jfieldID rect_height;
+
+  jclass screen_info_cls;
+  jmethodID screen_info_ctor;
+  jfieldID device_scale_factor;
+  jfieldID depth;
+  jfieldID depth_per_component;
+  jfieldID is_monochrome;
+  jfieldID x;
+  jfieldID y;
+  jfieldID width;
+  jfieldID height;
+  jfieldID available_x;
+  jfieldID available_y;
+  jfieldID available_width;
+  jfieldID available_height;
+};
+
+bool GetFieldIDs(JNIEnv* env,
+                 jclass cls,
+                 std::initializer_list<std::pair<jfieldID*, const char*>> fields,
+                 const char* sig) {
+  for (const auto& field : fields) {
+    *field.first = env->GetFieldID(cls, field.second, sig);
+    if (!*field.first) {
+      env->ExceptionClear();
+      return false;
+    }
   }
-
-  return nullptr;
+  return true;
 }
 
-bool GetJNIScreenInfo(JNIEnv* env, jobject jScreenInfo, CefScreenInfo& dest) {
-  ScopedJNIClass cls(env, "org/cef/handler/CefScreenInfo");
-  if (!cls) {
+bool InitRenderJNIFields(JNIEnv* env, RenderJNIFields* f) {
+  ScopedJNIClass point_cls(env, "java/awt/Point");
+  ScopedJNIClass rect_cls(env, "java/awt/Rectangle");
+  ScopedJNIClass screen_info_cls(env, "org/cef/handler/CefScreenInfo");
+  if (!point_cls || !rect_cls || !screen_info_cls)
     return false;
-  }
 
-  ScopedJNIObjectLocal obj(env, jScreenInfo);
-  if (!obj) {
-    return false;
-  }
-  double tmp;
-  if (!GetJNIFieldDouble(env, cls, obj, "device_scale_factor", &tmp)) {
+  f->point_ctor = env->GetMethodID(point_cls, "<init>", "(II)V");
+  f->screen_info_ctor = env->GetMethodID(screen_info_cls, "<init>", "()V");
+  if (!f->point_ctor || !f->screen_info_ctor) {
+    env->ExceptionClear();
     return false;
   }
-  dest.device_scale_factor = (float)tmp;
-
-  if (GetJNIFieldInt(env, cls, obj, "depth", &(dest.depth)) &&
-      GetJNIFieldInt(env, cls, obj, "depth_per_component",
-                     &(dest.depth_per_component)) &&
-      GetJNIFieldBoolean(env, cls, obj, "is_monochrome",
-                         &(dest.is_monochrome)) &&
-      GetJNIFieldInt(env, cls, obj, "x", &(dest.rect.x)) &&
-      GetJNIFieldInt(env, cls, obj, "y", &(dest.rect.y)) &&
-      GetJNIFieldInt(env, cls, obj, "width", &(dest.rect.width)) &&
-      GetJNIFieldInt(env, cls, obj, "height", &(dest.rect.height)) &&
-      GetJNIFieldInt(env, cls, obj, "available_x", &(dest.available_rect.x)) &&
-      GetJNIFieldInt(env, cls, obj, "available_y", &(dest.available_rect.y)) &&
-      GetJNIFieldInt(env, cls, obj, "available_width",
-                     &(dest.available_rect.width)) &&
-      GetJNIFieldInt(env, cls, obj, "available_height",
-                     &(dest.available_rect.height))
-
-  ) {
-    return true;
-  } else {
+
+  if (!GetFieldIDs(env, point_cls, {{&f->point_x, "x"}, {&f->point_y, "y"}},
+                   "I") ||
+      !GetFieldIDs(env, rect_cls,
+                   {{&f->rect_x, "x"},
+                    {&f->rect_y, "y"},
+                    {&f->rect_width, "width"},
+                    {&f->rect_height, "height"}},
+                   "I") ||
+      !GetFieldIDs(env, screen_info_cls,
+                   {{&f->device_scale_factor, "device_scale_factor"}}, "D") ||
+      !GetFieldIDs(env, screen_info_cls, {{&f->is_monochrome, "is_monochrome"}},
+                   "Z") ||
+      !GetFieldIDs(env, screen_info_cls,
+                   {{&f->depth, "depth"},
+                    {&f->depth_per_component, "depth_per_component"},
+                    {&f->x, "x"},
+                    {&f->y, "y"},
+                    {&f->width, "width"},
+                    {&f->height, "height"},
+                    {&f->available_x, "available_x"},
+                    {&f->available_y, "available_y"},
+                    {&f->available_width, "available_width"},
+                    {&f->available_height, "available_height"}},
+                   "I")) {
     return false;
   }
+
+  f->point_cls = static_cast<jclass>(env->NewGlobalRef(point_cls));
+  f->screen_info_cls = static_cast<jclass>(env->NewGlobalRef(screen_info_cls));
+  return true;
 }
 
-// create a new array of java.awt.Rectangle.
-jobjectArray NewJNIRectArray(JNIEnv* env, const std::vector<CefRect>& vals) {
-  if (vals.empty())
-    return nullptr;
+// Returns the cached members or nullptr if they could not be resolved. The
+// members are resolved once by the first caller; initialization of the
+// function-local static is thread-safe, so the global class references are
+// created only once.
+const RenderJNIFields* GetRenderJNIFields(JNIEnv* env) {
+  static const RenderJNIFields* render_jni_fields =
+      [env]() -> RenderJNIFields* {
+    static RenderJNIFields fields;
+    return InitRenderJNIFields(env, &fields) ? &fields : nullptr;
+  }();
+  return render_jni_fields;
+}
 
-  ScopedJNIClass cls(env, "java/awt/Rectangle");
-  if (!cls)
+jobject NewJNIScreenInfo(JNIEnv* env,
+                         const RenderJNIFields* f,
+                         const CefScreenInfo& screenInfo) {
+  jobject obj = env->NewObject(f->screen_info_cls, f->screen_info_ctor);
+  if (!obj) {
+    env->ExceptionClear();
     return nullptr;
-
-  const jsize size = static_cast<jsize>(vals.size());
-  jobjectArray arr = env->NewObjectArray(size, cls, nullptr);
-
-  for (jsize i = 0; i < size; i++) {
-    ScopedJNIObjectLocal rect_obj(env, NewJNIRect(env, vals[i]));
-    env->SetObjectArrayElement(arr, i, rect_obj);
   }
 
-  return arr;
+  env->SetDoubleField(obj, f->device_scale_factor,
+                      (double)screenInfo.device_scale_factor);
+  env->SetIntField(obj, f->depth, screenInfo.depth);
+  env->SetIntField(obj, f->depth_per_component, screenInfo.depth_per_component);
+  env->SetBooleanField(obj, f->is_monochrome,
+                       screenInfo.is_monochrome ? JNI_TRUE : JNI_FALSE);
+  env->SetIntField(obj, f->x, screenInfo.rect.x);
+  env->SetIntField(obj, f->y, screenInfo.rect.y);
+  env->SetIntField(obj, f->width, screenInfo.rect.width);
+  env->SetIntField(obj, f->height, screenInfo.rect.height);
+  env->SetIntField(obj, f->available_x, screenInfo.available_rect.x);
+  env->SetIntField(obj, f->available_y, screenInfo.available_rect.y);
+  env->SetIntField(obj, f->available_width, screenInfo.available_rect.width);
+  env->SetIntField(obj, f->available_height, screenInfo.available_rect.height);
+  return obj;
 }
 
-// Create a new java.awt.Point.
-jobject NewJNIPoint(JNIEnv* env, int x, int y) {
-  ScopedJNIClass cls(env, "java/awt/Point");
-  if (!cls)
-    return nullptr;
-
-  ScopedJNIObjectLocal obj(env, NewJNIObject(env, cls));
-  if (!obj)
-    return nullptr;
-
-  if (SetJNIFieldInt(env, cls, obj, "x", x) &&
-      SetJNIFieldInt(env, cls, obj, "y", y)) {
-    return obj.Release();
-  }
-
-  return nullptr;
+void GetJNIScreenInfo(JNIEnv* env,
+                      const RenderJNIFields* f,
+                      jobject obj,
+                      CefScreenInfo& dest) {
+  dest.device_scale_factor =
+      (float)env->GetDoubleField(obj, f->device_scale_factor);
+  dest.depth = env->GetIntField(obj, f->depth);
+  dest.depth_per_component = env->GetIntField(obj, f->depth_per_component);
+  dest.is_monochrome = env->GetBooleanField(obj, f->is_monochrome) != JNI_FALSE;
+  dest.rect.x = env->GetIntField(obj, f->x);
+  dest.rect.y = env->GetIntField(obj, f->y);
+  dest.rect.width = env->GetIntField(obj, f->width);
+  dest.rect.height = env->GetIntField(obj, f->height);
+  dest.available_rect.x = env->GetIntField(obj, f->available_x);
+  dest.available_rect.y = env->GetIntField(obj, f->available_y);
+  dest.available_rect.width = env->GetIntField(obj, f->available_width);
+  dest.available_rect.height = env->GetIntField(obj, f->available_height);
 }
 
 }  // namespace
@@ -147,8 +219,25 @@ jobject NewJNIPoint(JNIEnv* env, int x, int y) {
 RenderHandler::RenderHandler(JNIEnv* env, jobject handler)
     : handle_(env, handler) {}
 
+RenderHandler::~RenderHandler() {
+  ScopedJNIEnv env;
+  if (!env)
+    return;
+
+  base::AutoLock lock_scope(paint_cache_lock_);
+  for (auto& entry : paint_caches_)
+    ReleasePaintCache(env, entry.second);
+  paint_caches_.clear();
+}
+
 bool RenderHandler::GetRootScreenRect(CefRefPtr<CefBrowser> browser,
                                       CefRect& rect) {
+  ScreenSnapshot snapshot;
+  if (GetScreenSnapshot(browser, &snapshot)) {
+    rect = snapshot.view_rect;
+    return true;
+  }
+
   ScopedJNIEnv env;
   if (!env)
     return false;
@@ -159,6 +248,12 @@ bool RenderHandler::GetRootScreenRect(CefRefPtr<CefBrowser> browser,
 }
 
 void RenderHandler::GetViewRect(CefRefPtr<CefBrowser> browser, CefRect& rect) {
+  ScreenSnapshot snapshot;
+  if (GetScreenSnapshot(browser, &snapshot)) {
+    rect = snapshot.view_rect;
+    return;
+  }
+
   ScopedJNIEnv env;
   if (!env)
     return;
@@ -181,12 +276,22 @@ void RenderHandler::GetViewRect(CefRefPtr<CefBrowser> browser, CefRect& rect) {
 /*--cef()--*/
 bool RenderHandler::GetScreenInfo(CefRefPtr<CefBrowser> browser,
                                   CefScreenInfo& screen_info) {
+  ScreenSnapshot snapshot;
+  if (GetScreenSnapshot(browser, &snapshot)) {
+    screen_info = snapshot.screen_info;
+    return true;
+  }
+
   ScopedJNIEnv env;
   if (!env) {
     return false;
   }
+  const RenderJNIFields* f = GetRenderJNIFields(env);
+  if (!f) {
+    return false;
+  }
 
-  ScopedJNIObjectLocal jScreenInfo(env, NewJNIScreenInfo(env, screen_info));
+  ScopedJNIObjectLocal jScreenInfo(env, NewJNIScreenInfo(env, f, screen_info));
   if (!jScreenInfo) {
     return false;
   }
@@ -199,9 +304,8 @@ bool RenderHandler::GetScreenInfo(CefRefPtr<CefBrowser> browser,
       jbrowser.get(), jScreenInfo.get());
 
   if (jresult) {
-    if (GetJNIScreenInfo(env, jScreenInfo.get(), screen_info)) {
-      return true;
-    }
+    GetJNIScreenInfo(env, f, jScreenInfo.get(), screen_info);
+    return true;
   }
 
   return false;
@@ -212,6 +316,13 @@ bool RenderHandler::GetScreenPoint(CefRefPtr<CefBrowser> browser,
                                    int viewY,
                                    int& screenX,
                                    int& screenY) {
+  ScreenSnapshot snapshot;
+  if (GetScreenSnapshot(browser, &snapshot)) {
+    screenX = snapshot.screen_x + viewX;
+    screenY = snapshot.screen_y + viewY;
+    return true;
+  }
+
   ScopedJNIEnv env;
   if (!env)
     return false;
@@ -253,21 +364,67 @@ void RenderHandler::OnPaint(CefRefPtr<CefBrowser> browser,
                             const void* buffer,
                             int width,
                             int height) {
+  const auto start = std::chrono::steady_clock::now();
   ScopedJNIEnv env;
   if (!env)
     return;
 
+  // The int[] and ByteBuffer objects are reused between frames so that
+  // painting doesn't allocate on the Java heap. Local references are passed to
+  // Java so that OnBeforeClose can't release the objects during the call.
+  jobject rects = nullptr;
+  jobject pixels = nullptr;
+  bool report_timing = false;
+  {
+    base::AutoLock lock_scope(paint_cache_lock_);
+    PaintCache& cache = paint_caches_[browser->GetIdentifier()];
+    // Popup paints aren't frames of the view.
+    report_timing = cache.report_timing && type == PET_VIEW;
+    rects = GetPaintRects(env, cache, dirtyRects);
+    pixels = GetPaintBuffer(env, cache, buffer,
+                            static_cast<jlong>(width) * height * 4);
+    if (!rects || !pixels)
+      return;
+    rects = env->NewLocalRef(rects);
+    pixels = env->NewLocalRef(pixels);
+  }
+  ScopedJNIObjectLocal jrectArray(env, rects);
+  ScopedJNIObjectLocal jdirectBuffer(env, pixels);
+
   ScopedJNIBrowser jbrowser(env, browser);
   jboolean jtype = type == PET_VIEW ? JNI_FALSE : JNI_TRUE;
-  ScopedJNIObjectLocal jrectArray(env, NewJNIRectArray(env, dirtyRects));
-  ScopedJNIObjectLocal jdirectBuffer(
-      env,
-      env->NewDirectByteBuffer(const_cast<void*>(buffer), width * height * 4));
+  if (!report_timing) {
+    JNI_CALL_VOID_METHOD(env, handle_, "onPaint",
+                         "(Lorg/cef/browser/CefBrowser;Z[IILjava/nio/"
+                         "ByteBuffer;II)V",
+                         jbrowser.get(), jtype, jrectArray.get(),
+                         (jint)dirtyRects.size(), jdirectBuffer.get(), width,
+                         height);
+    return;
+  }
+
+  // Pass the start of this method so that the paint-to-display latency
+  // includes the preparation above and the JNI crossing.
+  const jlong start_nanos = ToJavaNanoTime(env, start);
+  const auto call_start = std::chrono::steady_clock::now();
   JNI_CALL_VOID_METHOD(env, handle_, "onPaint",
-                       "(Lorg/cef/browser/CefBrowser;Z[Ljava/awt/"
-                       "Rectangle;Ljava/nio/ByteBuffer;II)V",
+                       "(Lorg/cef/browser/CefBrowser;Z[IILjava/nio/"
+                       "ByteBuffer;IIJ)V",
                        jbrowser.get(), jtype, jrectArray.get(),
-                       jdirectBuffer.get(), width, height);
+                       (jint)dirtyRects.size(), jdirectBuffer.get(), width,
+                       height, start_nanos);
+  const auto call_end = std::chrono::steady_clock::now();
+
+  // Report the native side of the paint for the rendering metrics.
+  const jlong prepare_nanos =
+      std::chrono::duration_cast<std::chrono::nanoseconds>(call_start - start)
+          .count();
+  const jlong call_nanos = std::chrono::duration_cast<std::chrono::nanoseconds>(
+                               call_end - call_start)
+                               .count();
+  JNI_CALL_VOID_METHOD(env, handle_, "onPaintTiming",
+                       "(Lorg/cef/browser/CefBrowser;JJ)V", jbrowser.get(),
+                       prepare_nanos, call_nanos);
 }
 
 bool RenderHandler::StartDragging(CefRefPtr<CefBrowser> browser,
@@ -314,7 +471,13 @@ bool RenderHandler::GetViewRect(jobject browser, CefRect& rect) {
                   "(Lorg/cef/browser/CefBrowser;)Ljava/awt/Rectangle;", Object,
                   jreturn, browser);
   if (jreturn) {
-    rect = GetJNIRect(env, jreturn);
+    const RenderJNIFields* f = GetRenderJNIFields(env);
+    if (!f)
+      return false;
+    rect.Set(env->GetIntField(jreturn, f->rect_x),
+             env->GetIntField(jreturn, f->rect_y),
+             env->GetIntField(jreturn, f->rect_width),
+             env->GetIntField(jreturn, f->rect_height));
     return true;
   }
   return false;
@@ -329,10 +492,17 @@ bool RenderHandler::GetScreenPoint(jobject browser,
   if (!env)
     return false;
 
-  ScopedJNIObjectLocal jpoint(env, NewJNIPoint(env, viewX, viewY));
-  if (!jpoint)
+  const RenderJNIFields* f = GetRenderJNIFields(env);
+  if (!f)
     return false;
 
+  ScopedJNIObjectLocal jpoint(
+      env, env->NewObject(f->point_cls, f->point_ctor, viewX, viewY));
+  if (!jpoint) {
+    env->ExceptionClear();
+    return false;
+  }
+
   ScopedJNIObjectResult jreturn(env);
   JNI_CALL_METHOD(
       env, handle_, "getScreenPoint",
@@ -340,8 +510,136 @@ bool RenderHandler::GetScreenPoint(jobject browser,
       jreturn, browser, jpoint.get());
 
   if (jreturn) {
-    GetJNIPoint(env, jreturn, &screenX, &screenY);
+    screenX = env->GetIntField(jreturn, f->point_x);
+    screenY = env->GetIntField(jreturn, f->point_y);
     return true;
   }
   return false;
 }
+
+void RenderHandler::OnBeforeClose(CefRefPtr<CefBrowser> browser) {
+  {
+    base::AutoLock lock_scope(snapshot_lock_);
+    snapshots_.erase(browser->GetIdentifier());
+  }
+
+  ScopedJNIEnv env;
+  if (!env)
+    return;
+
+  base::AutoLock lock_scope(paint_cache_lock_);
+  auto it = paint_caches_.find(browser->GetIdentifier());
+  if (it == paint_caches_.end())
+    return;
+  ReleasePaintCache(env, it->second);
+  paint_caches_.erase(it);
+}
+
+bool RenderHandler::SetScreenSnapshot(JNIEnv* env,
+                                      CefRefPtr<CefBrowser> browser,
+                                      const CefRect& view_rect,
+                                      int screen_x,
+                                      int screen_y,
+                                      jobject jscreen_info) {
+  const RenderJNIFields* f = GetRenderJNIFields(env);
+  if (!f || !jscreen_info)
+    return false;
+
+  ScreenSnapshot snapshot;
+  snapshot.view_rect = view_rect;
+  snapshot.screen_x = screen_x;
+  snapshot.screen_y = screen_y;
+  GetJNIScreenInfo(env, f, jscreen_info, snapshot.screen_info);
+
+  base::AutoLock lock_scope(snapshot_lock_);
+  snapshots_[browser->GetIdentifier()] = snapshot;
+  return true;
+}
+
+void RenderHandler::SetPaintTimingEnabled(CefRefPtr<CefBrowser> browser,
+                                          bool enabled) {
+  base::AutoLock lock_scope(paint_cache_lock_);
+  paint_caches_[browser->GetIdentifier()].report_timing = enabled;
+}
+
+bool RenderHandler::GetScreenSnapshot(CefRefPtr<CefBrowser> browser,
+                                      ScreenSnapshot* snapshot) {
+  base::AutoLock lock_scope(snapshot_lock_);
+  auto it = snapshots_.find(browser->GetIdentifier());
+  if (it == snapshots_.end())
+    return false;
+  *snapshot = it->second;
+  return true;
+}
+
+jintArray RenderHandler::GetPaintRects(JNIEnv* env,
+                                       PaintCache& cache,
+                                       const RectList& dirtyRects) {
+  const jsize length = static_cast<jsize>(dirtyRects.size() * 4);
+  if (!cache.rects || cache.rects_capacity < length) {
+    // Grow geometrically to avoid reallocating for every new maximum.
+    const jsize capacity = std::max(
+        std::max(kMinPaintRectsCapacity, cache.rects_capacity * 2), length);
+    if (cache.rects) {
+      env->DeleteGlobalRef(cache.rects);
+      cache.rects = nullptr;
+      cache.rects_capacity = 0;
+    }
+
+    ScopedJNIObjectLocal jarray(env, env->NewIntArray(capacity));
+    if (!jarray)
+      return nullptr;
+    cache.rects = static_cast<jintArray>(env->NewGlobalRef(jarray));
+    cache.rects_capacity = capacity;
+  }
+
+  auto& scratch = cache.rects_scratch;
+  scratch.clear();
+  for (const auto& rect : dirtyRects) {
+    scratch.push_back(rect.x);
+    scratch.push_back(rect.y);
+    scratch.push_back(rect.width);
+    scratch.push_back(rect.height);
+  }
+  if (length > 0)
+    env->SetIntArrayRegion(cache.rects, 0, length, scratch.data());
+  return cache.rects;
+}
+
+jobject RenderHandler::GetPaintBuffer(JNIEnv* env,
+                                      PaintCache& cache,
+                                      const void* buffer,
+                                      jlong capacity) {
+  auto& views = cache.views;
+  for (size_t i = 0; i < views.size(); ++i) {
+    if (views[i].address == buffer && views[i].capacity == capacity) {
+      // Move the match to the front.
+      std::rotate(views.begin(), views.begin() + i, views.begin() + i + 1);
+      return views.front().buffer;
+    }
+  }
+
+  ScopedJNIObjectLocal jbuffer(
+      env, env->NewDirectByteBuffer(const_cast<void*>(buffer), capacity));
+  if (!jbuffer)
+    return nullptr;
+
+  if (views.size() >= kMaxPaintBufferViews) {
+    env->DeleteGlobalRef(views.back().buffer);
+    views.pop_back();
+  }
+  views.insert(views.begin(), {buffer, capacity, env->NewGlobalRef(jbuffer)});
+  return views.front().buffer;
+}
+
+// static
+void RenderHandler::ReleasePaintCache(JNIEnv* env, PaintCache& cache) {
+  if (cache.rects) {
+    env->DeleteGlobalRef(cache.rects);
+    cache.rects = nullptr;
+    cache.rects_capacity = 0;
+  }
+  for (auto& view : cache.views)
+    env->DeleteGlobalRef(view.buffer);
+  cache.views.clear();
+}
@@ -8,6 +8,10 @@
 
 #include <jni.h>
 
+#include <map>
+#include <vector>
+
+#include "include/base/cef_lock.h"
 #include "include/cef_render_handler.h"
 #include "include/cef_display_handler.h"
 
@@ -17,6 +21,7 @@
 class RenderHandler : public CefRenderHandler {
  public:
   RenderHandler(JNIEnv* env, jobject handler);
+  virtual ~RenderHandler();
 
   // CefRenderHandler methods
   virtual bool GetRootScreenRect(CefRefPtr<CefBrowser> browser,
@@ -56,9 +61,81 @@ class RenderHandler : public CefRenderHandler {
                       int& screenX,
                       int& screenY);
 
+  // Release the cached paint objects and the screen snapshot for |browser|.
+  void OnBeforeClose(CefRefPtr<CefBrowser> browser);
+
+  // Store the view rect, the screen position of the view origin and the
+  // org.cef.handler.CefScreenInfo |jscreen_info| pushed from Java for
+  // |browser|. GetViewRect, GetScreenPoint and GetScreenInfo are then answered
+  // from the snapshot without calling into Java.
+  bool SetScreenSnapshot(JNIEnv* env,
+                         CefRefPtr<CefBrowser> browser,
+                         const CefRect& view_rect,
+                         int screen_x,
+                         int screen_y,
+                         jobject jscreen_info);
+
+  // Enable the onPaintTiming call after each view paint of |browser|. It's
+  // disabled by default because it's an additional upcall per paint.
+  void SetPaintTimingEnabled(CefRefPtr<CefBrowser> browser, bool enabled);
+
  protected:
+  struct ScreenSnapshot {
+    CefRect view_rect;
+    int screen_x = 0;
+    int screen_y = 0;
+    CefScreenInfo screen_info;
+  };
+
+  // Returns true and copies the snapshot of |browser| to |snapshot| if one was
+  // pushed.
+  bool GetScreenSnapshot(CefRefPtr<CefBrowser> browser,
+                         ScreenSnapshot* snapshot);
+
+  // Java objects that are reused by OnPaint for a single browser. Access is
+  // protected by |paint_cache_lock_|.
+  struct PaintCache {
+    // Global reference to an int[] holding the packed dirty rectangles.
+    jintArray rects = nullptr;
+    jsize rects_capacity = 0;
+    // Native copy of the packed rectangles, reused across paints, so that
+    // |rects| is filled with a single JNI call.
+    std::vector<jint> rects_scratch;
+
+    // Global references to direct ByteBuffers wrapping the most recently
+    // painted pixel buffers, most recently used first.
+    struct BufferView {
+      const void* address;
+      jlong capacity;
+      jobject buffer;
+    };
+    std::vector<BufferView> views;
+
+    // True if OnPaint reports its timing for the rendering metrics.
+    bool report_timing = false;
+  };
+
+  // Returns a global reference to an int[] containing |dirtyRects|.
+  jintArray GetPaintRects(JNIEnv* env,
+                          PaintCache& cache,
+                          const RectList& dirtyRects);
+
+  // Returns a global reference to a direct ByteBuffer wrapping |buffer|.
+  jobject GetPaintBuffer(JNIEnv* env,
+                         PaintCache& cache,
+                         const void* buffer,
+                         jlong capacity);
+
+  static void ReleasePaintCache(JNIEnv* env, PaintCache& cache);
+
   ScopedJNIObjectGlobal handle_;
 
+  base::Lock paint_cache_lock_;
+  std::map<int, PaintCache> paint_caches_;
+
+  base::Lock snapshot_lock_;
+  std::map<int, ScreenSnapshot> snapshots_;
+
   // Include the default reference counting implementation.
   IMPLEMENT_REFCOUNTING(RenderHandler);
 };
@@ -6,6 +6,7 @@
 
 #include "client_handler.h"
 #include "jni_util.h"
+#include "request_rules.h"
 #include "resource_handler.h"
 #include "resource_request_handler.h"
 #include "util.h"
@@ -76,6 +77,19 @@ CefRefPtr<CefResourceRequestHandler> RequestHandler::GetResourceRequestHandler(
     bool is_download,
     const CefString& request_initiator,
     bool& disable_default_handling) {
+  // Apply matching request rules without calling into Java.
+  if (browser) {
+    CefRefPtr<ClientHandler> client =
+        (ClientHandler*)browser->GetHost()->GetClient().get();
+    CefRefPtr<RequestRules> rules = client->GetRequestRules();
+    if (rules) {
+      const RequestRules::Rule* rule =
+          rules->Match(request->GetURL().ToString());
+      if (rule)
+        return new RuleResourceRequestHandler(rules, rule);
+    }
+  }
+
   ScopedJNIEnv env;
   if (!env)
     return nullptr;
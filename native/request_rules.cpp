@@ -0,0 +1,254 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+#include "request_rules.h"
+
+#include <algorithm>
+
+#include "jni_scoped_helpers.h"
+#include "jni_util.h"
+
+namespace {
+
+const char kRuleClass[] = "org/cef/handler/CefRequestRules$Rule";
+const char kMatchTypeClass[] = "org/cef/handler/CefRequestRules$MatchType";
+
+char ToLowerASCII(char c) {
+  return (c >= 'A' && c <= 'Z') ? c + ('a' - 'A') : c;
+}
+
+bool EqualsIgnoreCaseASCII(const std::string& a, const std::string& b) {
+  if (a.size() != b.size())
+    return false;
+  for (size_t i = 0; i < a.size(); ++i) {
+    if (ToLowerASCII(a[i]) != ToLowerASCII(b[i]))
+      return false;
+  }
+  return true;
+}
+
+// Returns the lower case host of |url| or an empty string if it has none.
+// Mirrors CefRequestRules.getHost().
+std::string GetHost(const std::string& url) {
+  size_t start = url.find("://");
+  if (start == std::string::npos)
+    return std::string();
+  start += 3;
+  size_t end = url.find_first_of("/?#", start);
+  if (end == std::string::npos)
+    end = url.size();
+  std::string authority = url.substr(start, end - start);
+  size_t at = authority.rfind('@');
+  if (at != std::string::npos)
+    authority = authority.substr(at + 1);
+  size_t host_end;
+  if (!authority.empty() && authority[0] == '[') {
+    host_end = authority.find(']');
+    host_end = host_end == std::string::npos ? authority.size() : host_end + 1;
+  } else {
+    host_end = std::min(authority.find(':'), authority.size());
+  }
+  std::string host = authority.substr(0, host_end);
+  std::transform(host.begin(), host.end(), host.begin(), ToLowerASCII);
+  return host;
+}
+
+bool MatchesHost(const std::string& host, const std::string& pattern) {
+  if (host.size() < pattern.size())
+    return false;
+  const size_t start = host.size() - pattern.size();
+  if (host.compare(start, pattern.size(), pattern) != 0)
+    return false;
+  return start == 0 || host[start - 1] == '.';
+}
+
+// Iterative wildcard match that backtracks only to the last '*'.
+bool MatchesGlob(const std::string& text, const std::string& pattern) {
+  size_t t = 0, p = 0, mark = 0;
+  size_t star = std::string::npos;
+  while (t < text.size()) {
+    if (p < pattern.size() && pattern[p] == '*') {
+      star = p++;
+      mark = t;
+    } else if (p < pattern.size() && pattern[p] == text[t]) {
+      ++p;
+      ++t;
+    } else if (star != std::string::npos) {
+      p = star + 1;
+      t = ++mark;
+    } else {
+      return false;
+    }
+  }
+  while (p < pattern.size() && pattern[p] == '*')
+    ++p;
+  return p == pattern.size();
+}
+
+bool MatchesRule(const RequestRules::Rule& rule,
+                 const std::string& url,
+                 const std::string& host) {
+  switch (rule.type) {
+    case RequestRules::PREFIX:
+      return url.compare(0, rule.pattern.size(), rule.pattern) == 0;
+    case RequestRules::HOST:
+      return !host.empty() && MatchesHost(host, rule.pattern);
+    case RequestRules::GLOB:
+      return MatchesGlob(url, rule.pattern);
+    case RequestRules::REGEX:
+      // Evaluated in Java, see RequestRules::Match().
+      return false;
+  }
+  return false;
+}
+
+bool GetRule(JNIEnv* env,
+             jclass cls,
+             jobject jrule,
+             RequestRules::Rule* rule) {
+  jobject jtype = nullptr;
+  if (!GetJNIFieldObject(env, cls, jrule, "type_", &jtype,
+                         "Lorg/cef/handler/CefRequestRules$MatchType;")) {
+    return false;
+  }
+  ScopedJNIObjectLocal jtypeRef(env, jtype);
+  if (IsJNIEnumValue(env, jtype, kMatchTypeClass, "PREFIX")) {
+    rule->type = RequestRules::PREFIX;
+  } else if (IsJNIEnumValue(env, jtype, kMatchTypeClass, "HOST")) {
+    rule->type = RequestRules::HOST;
+  } else if (IsJNIEnumValue(env, jtype, kMatchTypeClass, "GLOB")) {
+    rule->type = RequestRules::GLOB;
+  } else if (IsJNIEnumValue(env, jtype, kMatchTypeClass, "REGEX")) {
+    rule->type = RequestRules::REGEX;
+  } else {
+    return false;
+  }
+
+  CefString pattern;
+  if (!GetJNIFieldString(env, cls, jrule, "pattern_", &pattern))
+    return false;
+  rule->pattern = pattern.ToString();
+
+  int cancel = 0;
+  GetJNIFieldBoolean(env, cls, jrule, "cancel_", &cancel);
+  rule->cancel = cancel != 0;
+
+  CefString redirect;
+  if (GetJNIFieldString(env, cls, jrule, "redirect_", &redirect)) {
+    rule->has_redirect = true;
+    rule->redirect = redirect.ToString();
+  }
+
+  jobject jheaders = nullptr;
+  if (GetJNIFieldObject(env, cls, jrule, "setHeaders_", &jheaders,
+                        "[Ljava/lang/String;")) {
+    ScopedJNIObjectLocal jheadersRef(env, jheaders);
+    GetJNIStringPairArray(env, (jobjectArray)jheaders, rule->set_headers);
+  }
+  if (GetJNIFieldObject(env, cls, jrule, "removeHeaders_", &jheaders,
+                        "[Ljava/lang/String;")) {
+    ScopedJNIObjectLocal jheadersRef(env, jheaders);
+    GetJNIStringArray(env, (jobjectArray)jheaders, rule->remove_headers);
+  }
+  return true;
+}
+
+}  // namespace
+
+// static
+CefRefPtr<RequestRules> RequestRules::Create(JNIEnv* env,
+                                             jobjectArray jrules) {
+  if (!jrules)
+    return nullptr;
+  ScopedJNIClass cls(env, kRuleClass);
+  if (!cls)
+    return nullptr;
+
+  CefRefPtr<RequestRules> rules = new RequestRules();
+  jsize count = env->GetArrayLength(jrules);
+  rules->rules_.reserve(count);
+  for (jsize i = 0; i < count; ++i) {
+    ScopedJNIObjectLocal jrule(env, env->GetObjectArrayElement(jrules, i));
+    Rule rule;
+    if (jrule && GetRule(env, cls, jrule, &rule))
+      rules->rules_.push_back(std::move(rule));
+  }
+  if (rules->rules_.empty())
+    return nullptr;
+  return rules;
+}
+
+const RequestRules::Rule* RequestRules::Match(const std::string& url) const {
+  std::string host;
+  bool has_host = false;
+  for (const Rule& rule : rules_) {
+    // REGEX rules use java.util.regex. Stop here so that Java evaluates this
+    // and the following rules in order.
+    if (rule.type == REGEX)
+      return nullptr;
+    if (rule.type == HOST && !has_host) {
+      host = GetHost(url);
+      has_host = true;
+    }
+    if (MatchesRule(rule, url, host))
+      return &rule;
+  }
+  return nullptr;
+}
+
+std::string RequestRules::GetRedirectUrl(const Rule& rule,
+                                         const std::string& url) const {
+  if (rule.cancel || !rule.has_redirect)
+    return std::string();
+  switch (rule.type) {
+    case PREFIX:
+      return rule.redirect + url.substr(rule.pattern.size());
+    default:
+      return rule.redirect;
+  }
+}
+
+RuleResourceRequestHandler::RuleResourceRequestHandler(
+    CefRefPtr<RequestRules> rules,
+    const RequestRules::Rule* rule)
+    : rules_(rules), rule_(rule) {}
+
+CefResourceRequestHandler::ReturnValue
+RuleResourceRequestHandler::OnBeforeResourceLoad(
+    CefRefPtr<CefBrowser> browser,
+    CefRefPtr<CefFrame> frame,
+    CefRefPtr<CefRequest> request,
+    CefRefPtr<CefCallback> callback) {
+  if (rule_->cancel)
+    return RV_CANCEL;
+
+  if (!rule_->remove_headers.empty()) {
+    CefRequest::HeaderMap headerMap;
+    request->GetHeaderMap(headerMap);
+    for (auto it = headerMap.begin(); it != headerMap.end();) {
+      const std::string name = it->first.ToString();
+      bool remove = std::any_of(
+          rule_->remove_headers.begin(), rule_->remove_headers.end(),
+          [&name](const CefString& removed) {
+            return EqualsIgnoreCaseASCII(name, removed.ToString());
+          });
+      it = remove ? headerMap.erase(it) : std::next(it);
+    }
+    request->SetHeaderMap(headerMap);
+  }
+
+  for (auto it = rule_->set_headers.begin(); it != rule_->set_headers.end();
+       ++it) {
+    request->SetHeaderByName(it->first, it->second, true);
+  }
+
+  if (rule_->has_redirect) {
+    const std::string url = request->GetURL().ToString();
+    const std::string new_url = rules_->GetRedirectUrl(*rule_, url);
+    // Changing the URL is treated as a redirect.
+    if (!new_url.empty() && new_url != url)
+      request->SetURL(new_url);
+  }
+  return RV_CONTINUE;
+}
@@ -0,0 +1,71 @@
+// Copyright (c) 2022 The Chromium Embedded Framework Authors. All rights
+// reserved. Use of this source code is governed by a BSD-style license that
+// can be found in the LICENSE file.
+
+#ifndef JCEF_NATIVE_REQUEST_RULES_H_
+#define JCEF_NATIVE_REQUEST_RULES_H_
+#pragma once
+
+#include <jni.h>
+
+#include <string>
+#include <vector>
+
+#include "include/cef_request.h"
+#include "include/cef_resource_request_handler.h"
+
+// Rules compiled from CefRequestRules.Rule objects and evaluated without
+// calling into Java, except for REGEX rules that Java evaluates. Immutable
+// after creation, so it can be used on any thread.
+class RequestRules : public CefBaseRefCounted {
+ public:
+  enum MatchType { PREFIX, HOST, GLOB, REGEX };
+
+  struct Rule {
+    MatchType type = PREFIX;
+    std::string pattern;
+    bool cancel = false;
+    bool has_redirect = false;
+    std::string redirect;
+    CefRequest::HeaderMap set_headers;
+    std::vector<CefString> remove_headers;
+  };
+
+  // Returns nullptr if |jrules| is null or empty.
+  static CefRefPtr<RequestRules> Create(JNIEnv* env, jobjectArray jrules);
+
+  // Returns the first rule matching |url| or nullptr. Also returns nullptr when
+  // a REGEX rule is reached before a match, so that the request goes to Java.
+  const Rule* Match(const std::string& url) const;
+
+  // Returns the URL that a request for |url| is redirected to by |rule|, or an
+  // empty string.
+  std::string GetRedirectUrl(const Rule& rule, const std::string& url) const;
+
+ private:
+  std::vector<Rule> rules_;
+
+  IMPLEMENT_REFCOUNTING(RequestRules);
+};
+
+// Applies a matched rule in OnBeforeResourceLoad.
+class RuleResourceRequestHandler : public CefResourceRequestHandler {
+ public:
+  RuleResourceRequestHandler(CefRefPtr<RequestRules> rules,
+                             const RequestRules::Rule* rule);
+
+  // CefResourceRequestHandler methods:
+  ReturnValue OnBeforeResourceLoad(CefRefPtr<CefBrowser> browser,
+                                   CefRefPtr<CefFrame> frame,
+                                   CefRefPtr<CefRequest> request,
+                                   CefRefPtr<CefCallback> callback) override;
+
+ private:
+  // Keeps |rule_| alive.
+  CefRefPtr<RequestRules> rules_;
+  const RequestRules::Rule* rule_;
+
+  IMPLEMENT_REFCOUNTING(RuleResourceRequestHandler);
+};
+
+#endif  // JCEF_NATIVE_REQUEST_RULES_H_
@@ -65,17 +65,25 @@ bool ResourceHandler::ReadResponse(void* data_out,
   if (!env)
     return false;
 
+  // Java writes straight into |data_out| through a direct buffer. The buffer
+  // is only valid for the duration of this call.
   ScopedJNIIntRef jbytesRead(env, bytes_read);
-  jbyteArray jbytes = env->NewByteArray(bytes_to_read);
+  ScopedJNIObjectLocal jdataOut(
+      env, env->NewDirectByteBuffer(data_out, bytes_to_read));
+  if (!jdataOut)
+    return false;
   ScopedJNICallback jcallback(env, callback);
   jboolean jresult = JNI_FALSE;
 
   JNI_CALL_METHOD(env, handle_, "readResponse",
-                  "([BILorg/cef/misc/IntRef;Lorg/cef/callback/CefCallback;)Z",
-                  Boolean, jresult, jbytes, bytes_to_read, jbytesRead.get(),
+                  "(Ljava/nio/ByteBuffer;Lorg/cef/misc/IntRef;Lorg/cef/callback/"
+                  "CefCallback;)Z",
+                  Boolean, jresult, jdataOut.get(), jbytesRead.get(),
                   jcallback.get());
 
   bytes_read = jbytesRead;
+  if (bytes_read > bytes_to_read)
+    bytes_read = bytes_to_read;
 
   bool result = (jresult != JNI_FALSE);
   if (!result || bytes_read > 0) {
@@ -83,14 +91,6 @@ bool ResourceHandler::ReadResponse(void* data_out,
     jcallback.SetTemporary();
   }
 
-  jbyte* jbyte = env->GetByteArrayElements(jbytes, nullptr);
-  if (jbyte) {
-    memmove(data_out, jbyte,
-            (bytes_read < bytes_to_read ? bytes_read : bytes_to_read));
-    env->ReleaseByteArrayElements(jbytes, jbyte, JNI_ABORT);
-  }
-  env->DeleteLocalRef(jbytes);
-
   return result;
 }
 
@@ -82,15 +82,20 @@ void URLRequestClient::OnDownloadData(CefRefPtr<CefURLRequest> request,
   if (!env)
     return;
 
-  jbyteArray jbyteArray = env->NewByteArray((jsize)data_length);
-  env->SetByteArrayRegion(jbyteArray, 0, (jsize)data_length,
-                          (const jbyte*)data);
+  // Wrap the data instead of copying it into a new byte array. The buffer is
+  // only valid during the call; the default Java implementation copies it and
+  // calls the byte array variant.
+  jobject jbuffer =
+      env->NewDirectByteBuffer(const_cast<void*>(data), (jlong)data_length);
+  if (!jbuffer)
+    return;
 
-  JNI_CALL_VOID_METHOD(env, client_handle_, "onDownloadData",
-                       "(Lorg/cef/network/CefURLRequest;[BI)V",
-                       request_handle_.get(), jbyteArray, (jint)data_length);
+  JNI_CALL_VOID_METHOD(
+      env, client_handle_, "onDownloadData",
+      "(Lorg/cef/network/CefURLRequest;Ljava/nio/ByteBuffer;)V",
+      request_handle_.get(), jbuffer);
 
-  env->DeleteLocalRef(jbyteArray);
+  env->DeleteLocalRef(jbuffer);
 }
 
 bool URLRequestClient::GetAuthCredentials(bool isProxy,